@@ -0,0 +1,74 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads binary payloads from JDBC streams. {@code Blob} payloads are read from their
+ * streams into arrays of exactly their length rather than through intermediate buffers,
+ * and are freed once read, so that a payload of many megabytes is held once. Payloads are
+ * written as the {@code byte[]} of their state, which the symbio API has already
+ * materialized, so writes are bound with {@code setBytes()}.
+ */
+public final class BinaryStreams {
+  /**
+   * Answer the bytes of the {@code Blob} at {@code columnIndex} of {@code resultSet}.
+   * @param resultSet the ResultSet positioned at the row to read
+   * @param columnIndex the int index of the column
+   * @return byte[] or null if the column is null
+   * @throws SQLException if the column cannot be read
+   */
+  public static byte[] blobFrom(final ResultSet resultSet, final int columnIndex) throws SQLException {
+    final Blob blob = resultSet.getBlob(columnIndex);
+    if (blob == null) return null;
+    try {
+      return readFully(blob.getBinaryStream(), blob.length());
+    } finally {
+      blob.free();
+    }
+  }
+
+  /**
+   * Answer the {@code length} bytes of {@code stream}, read directly into an array of
+   * that length, and close the stream.
+   * @param stream the InputStream to read
+   * @param length the long number of bytes of the stream
+   * @return byte[]
+   * @throws SQLException if the stream cannot be read or is shorter than length
+   */
+  public static byte[] readFully(final InputStream stream, final long length) throws SQLException {
+    if (length < 0 || length > Integer.MAX_VALUE - 8) {
+      throw new SQLException("Cannot read a payload of " + length + " bytes into an array.");
+    }
+    try (final InputStream input = stream) {
+      return readExactly(input, (int) length);
+    } catch (IOException e) {
+      throw new SQLException("Cannot read payload because: " + e.getMessage(), e);
+    }
+  }
+
+  private static byte[] readExactly(final InputStream input, final int length) throws IOException, SQLException {
+    final byte[] data = new byte[length];
+    int offset = 0;
+    while (offset < length) {
+      final int count = input.read(data, offset, length - offset);
+      if (count < 0) {
+        throw new SQLException("Cannot read payload of " + length + " bytes that ended after " + offset + " bytes.");
+      }
+      offset += count;
+    }
+    return data;
+  }
+
+  private BinaryStreams() { }
+}
@@ -0,0 +1,91 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+/**
+ * The policy by which the entry readers of a JDBC state store, and those of the Jdbi object
+ * store, persist their offsets. Under {@code onSeek()}, the default, offsets are persisted
+ * only by {@code seekTo()}, and each reader starts where its family always has: a state
+ * store reader at the beginning, and a Jdbi object store reader at the latest entry id.
+ * Under any other policy, a reader also persists its offset after a read once at least
+ * {@code entries} entries have been read, if greater than {@code 0}, or {@code intervalMillis}
+ * have passed, if greater than {@code 0}, since its last persisted offset, and when it is
+ * closed, coalescing the offsets of all reads between. A reader of either family then starts
+ * at the offset last persisted under its name, so that after a restart it reads again at
+ * most the entries read since its last checkpoint.
+ */
+public final class CheckpointPolicy {
+  private static final CheckpointPolicy OnSeek = new CheckpointPolicy(0, 0);
+
+  public final int entries;
+  public final long intervalMillis;
+
+  /**
+   * Answer the {@code CheckpointPolicy} under which offsets are persisted only by
+   * {@code seekTo()}.
+   * @return CheckpointPolicy
+   */
+  public static CheckpointPolicy onSeek() {
+    return OnSeek;
+  }
+
+  /**
+   * Answer a {@code CheckpointPolicy} under which offsets are persisted after each
+   * {@code entries} entries read.
+   * @param entries the int number of entries read between checkpoints
+   * @return CheckpointPolicy
+   */
+  public static CheckpointPolicy everyEntries(final int entries) {
+    return every(entries, 0);
+  }
+
+  /**
+   * Answer a {@code CheckpointPolicy} under which offsets are persisted after each
+   * {@code entries} entries read, or after the first read following {@code intervalMillis}
+   * since the last checkpoint, whichever is first, where either may be {@code 0} for never.
+   * @param entries the int number of entries read between checkpoints, or 0
+   * @param intervalMillis the long milliseconds between checkpoints, or 0
+   * @return CheckpointPolicy
+   */
+  public static CheckpointPolicy every(final int entries, final long intervalMillis) {
+    if (entries < 0 || intervalMillis < 0 || (entries == 0 && intervalMillis == 0)) {
+      throw new IllegalArgumentException("The entries or the interval must be greater than zero, and neither negative.");
+    }
+    return new CheckpointPolicy(entries, intervalMillis);
+  }
+
+  /**
+   * Answer whether an offset is due to be persisted after {@code entriesRead} entries
+   * and {@code elapsedMillis} since the last persisted offset.
+   * @param entriesRead the long number of entries read since the last checkpoint
+   * @param elapsedMillis the long milliseconds since the last checkpoint
+   * @return boolean
+   */
+  public boolean isDue(final long entriesRead, final long elapsedMillis) {
+    if (entriesRead <= 0) return false;
+    return (entries > 0 && entriesRead >= entries) || (intervalMillis > 0 && elapsedMillis >= intervalMillis);
+  }
+
+  /**
+   * Answer whether offsets are persisted only by {@code seekTo()}.
+   * @return boolean
+   */
+  public boolean isOnSeek() {
+    return entries == 0 && intervalMillis == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "CheckpointPolicy[entries=" + entries + " intervalMillis=" + intervalMillis + "]";
+  }
+
+  private CheckpointPolicy(final int entries, final long intervalMillis) {
+    this.entries = entries;
+    this.intervalMillis = intervalMillis;
+  }
+}
@@ -9,6 +9,7 @@ package io.vlingo.symbio.store.common.jdbc;
 
 import java.sql.Connection;
 import java.sql.Statement;
+import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.vlingo.symbio.store.DataFormat;
@@ -51,16 +52,53 @@ public class Configuration {
 
   protected final ConfigurationInterest interest;
 
+  private PayloadCodec payloadCodec = PayloadCodec.none();
+  private int statePartitions;
+  private StateExpiry stateExpiry = StateExpiry.none();
+  private StateHistory stateHistory = StateHistory.none();
+  private boolean stateChanges;
+  private CheckpointPolicy entryReaderCheckpoints = CheckpointPolicy.onSeek();
+
   public static Configuration cloneOf(final Configuration other) {
     try {
       return new Configuration(other.databaseType, other.interest, other.connectionProvider.driverClassname, other.format,
               other.connectionProvider.url, other.actualDatabaseName, other.connectionProvider.username, other.connectionProvider.password, other.connectionProvider.useSSL,
-              other.originatorId, other.createTables, other.transactionTimeoutMillis, true);
+              other.originatorId, other.createTables, other.transactionTimeoutMillis, true)
+              .usingPayloadCodec(other.payloadCodec)
+              .usingStatePartitions(other.statePartitions)
+              .usingStateExpiry(other.stateExpiry)
+              .usingStateHistory(other.stateHistory)
+              .usingStateChanges(other.stateChanges)
+              .usingEntryReaderCheckpoints(other.entryReaderCheckpoints);
     } catch (Exception e) {
       throw new IllegalArgumentException("Cannot clone the configuration for " + other.connectionProvider.url + " because: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * Answer a new {@code Configuration} like {@code primary} but connected to the
+   * read replica at {@code replicaUrl}, which is only meant to serve reads and so
+   * never creates tables. The replica must replicate the database of {@code primary}.
+   * @param primary the Configuration of the primary database
+   * @param replicaUrl the String url of the replica, without the database name
+   * @return Configuration
+   */
+  public static Configuration replicaOf(final Configuration primary, final String replicaUrl) {
+    try {
+      return new Configuration(primary.databaseType, primary.interest, primary.connectionProvider.driverClassname, primary.format,
+              replicaUrl, primary.actualDatabaseName, primary.connectionProvider.username, primary.connectionProvider.password, primary.connectionProvider.useSSL,
+              primary.originatorId, false, primary.transactionTimeoutMillis, true)
+              .usingPayloadCodec(primary.payloadCodec)
+              .usingStatePartitions(primary.statePartitions)
+              .usingStateExpiry(primary.stateExpiry)
+              .usingStateHistory(primary.stateHistory)
+              .usingStateChanges(primary.stateChanges)
+              .usingEntryReaderCheckpoints(primary.entryReaderCheckpoints);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot create the replica configuration for " + replicaUrl + " because: " + e.getMessage(), e);
+    }
+  }
+
   public static ConfigurationInterest interestOf(final DatabaseType databaseType) {
     switch (databaseType) {
     case HSQLDB:
@@ -147,6 +185,150 @@ public class Configuration {
     afterConnect();
   }
 
+  /**
+   * Answer the {@code PayloadCodec} of payloads, which is {@code PayloadCodec.none()} by default.
+   * @return PayloadCodec
+   */
+  public PayloadCodec payloadCodec() {
+    return payloadCodec;
+  }
+
+  /**
+   * Answer myself after using {@code payloadCodec} for payloads, which must be set
+   * before any delegate or reader is created with me, and must not become
+   * {@code PayloadCodec.none()} while the store holds encoded payloads. Unless it is
+   * {@code PayloadCodec.none()}, text payloads are also encoded, and stored in binary
+   * columns rather than text columns, which must be converted to binary as UTF-8 if the
+   * tables already exist, and which cannot be queried as JSON.
+   * @param payloadCodec the PayloadCodec to use
+   * @return Configuration
+   */
+  public Configuration usingPayloadCodec(final PayloadCodec payloadCodec) {
+    this.payloadCodec = payloadCodec == null ? PayloadCodec.none() : payloadCodec;
+    return this;
+  }
+
+  /**
+   * Answer the number of hash partitions of each state store table, where {@code 0},
+   * the default, means that the tables are not partitioned.
+   * @return int
+   */
+  public int statePartitions() {
+    return statePartitions;
+  }
+
+  /**
+   * Answer myself after using {@code statePartitions} hash partitions of the id of each
+   * state store table created, by databases that support them. Existing tables are not
+   * altered, so this must be set before any delegate creates the tables.
+   * @param statePartitions the int number of partitions, or 0 for none
+   * @return Configuration
+   */
+  public Configuration usingStatePartitions(final int statePartitions) {
+    if (statePartitions < 0) {
+      throw new IllegalArgumentException("The state partitions must not be negative.");
+    }
+    this.statePartitions = statePartitions;
+    return this;
+  }
+
+  /**
+   * Answer the {@code StateExpiry} of states, which is {@code StateExpiry.none()} by default.
+   * @return StateExpiry
+   */
+  public StateExpiry stateExpiry() {
+    return stateExpiry;
+  }
+
+  /**
+   * Answer myself after using {@code stateExpiry} for states, which must be set before
+   * any delegate creates the state store tables, because unless it is {@code StateExpiry.none()}
+   * they must have an expiry column. Existing tables are not altered.
+   * @param stateExpiry the StateExpiry to use
+   * @return Configuration
+   */
+  public Configuration usingStateExpiry(final StateExpiry stateExpiry) {
+    this.stateExpiry = stateExpiry == null ? StateExpiry.none() : stateExpiry;
+    return this;
+  }
+
+  /**
+   * Answer the {@code StateHistory} of states, which is {@code StateHistory.none()} by default.
+   * @return StateHistory
+   */
+  public StateHistory stateHistory() {
+    return stateHistory;
+  }
+
+  /**
+   * Answer myself after using {@code stateHistory} for states, which must be set before
+   * any delegate creates the state store tables, because unless it is {@code StateHistory.none()}
+   * each must have a history table.
+   * @param stateHistory the StateHistory to use
+   * @return Configuration
+   */
+  public Configuration usingStateHistory(final StateHistory stateHistory) {
+    this.stateHistory = stateHistory == null ? StateHistory.none() : stateHistory;
+    return this;
+  }
+
+  /**
+   * Answer whether each write of a state assigns it the next change sequence of its
+   * table, so that changes can be read in order, which is {@code false} by default.
+   * @return boolean
+   */
+  public boolean stateChanges() {
+    return stateChanges;
+  }
+
+  /**
+   * Answer myself after maintaining the change sequence of states, or not, which must be
+   * set before any delegate creates the state store tables, because if {@code true} they
+   * must have a change sequence column and index. Existing tables are not altered.
+   * @param stateChanges the boolean indicating whether to maintain the change sequence
+   * @return Configuration
+   */
+  public Configuration usingStateChanges(final boolean stateChanges) {
+    this.stateChanges = stateChanges;
+    return this;
+  }
+
+  /**
+   * Answer the {@code CheckpointPolicy} of entry readers, which is {@code CheckpointPolicy.onSeek()} by default.
+   * @return CheckpointPolicy
+   */
+  public CheckpointPolicy entryReaderCheckpoints() {
+    return entryReaderCheckpoints;
+  }
+
+  /**
+   * Answer myself after using {@code entryReaderCheckpoints} for the entry readers
+   * created after it is set.
+   * @param entryReaderCheckpoints the CheckpointPolicy to use
+   * @return Configuration
+   */
+  public Configuration usingEntryReaderCheckpoints(final CheckpointPolicy entryReaderCheckpoints) {
+    this.entryReaderCheckpoints = entryReaderCheckpoints == null ? CheckpointPolicy.onSeek() : entryReaderCheckpoints;
+    return this;
+  }
+
+  /**
+   * Answer a new {@code Connection} to my actual database, like my {@code connection}
+   * but opened with the additional driver {@code driverProperties}, for a user whose
+   * statements depend on them. The caller owns and closes it.
+   * @param driverProperties the Properties to pass to the driver
+   * @return Connection
+   */
+  public Connection connectionWith(final Properties driverProperties) {
+    final Connection connection = connectionProvider.copyReplacing(actualDatabaseName).connection(driverProperties);
+    try {
+      interest.afterConnect(connection);
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot prepare the connection to " + actualDatabaseName + " because: " + e.getMessage(), e);
+    }
+    return connection;
+  }
+
   protected String actualDatabaseName(final String databaseName) {
     return connectionProvider.databaseName;
   }
@@ -43,9 +43,20 @@ public class ConnectionProvider {
    * @return Connection
    */
   public Connection connection() {
+    return connection(new Properties());
+  }
+
+  /**
+   * Answer a new instance of a {@code Connection} opened with the additional
+   * driver {@code driverProperties}.
+   * @param driverProperties the Properties to pass to the driver along with my credentials
+   * @return Connection
+   */
+  public Connection connection(final Properties driverProperties) {
     try {
       Class.forName(driverClassname);
       final Properties properties = new Properties();
+      properties.putAll(driverProperties);
       properties.setProperty("user", username);
       properties.setProperty("password", password);
       properties.setProperty("ssl", Boolean.toString(useSSL));
@@ -0,0 +1,261 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vlingo.symbio.store.dispatch.Dispatchable;
+
+/**
+ * Instrumentation of the dispatcher pipeline for a single originator,
+ * shared between a store actor, which reports each {@code Dispatchable}
+ * once its transaction has committed, and its dispatcher control delegate,
+ * which reports confirmations and the periodic expiry scans. It answers:
+ * <ul>
+ *   <li>a commit-to-confirm latency histogram;</li>
+ *   <li>the backlog size of unconfirmed dispatchables;</li>
+ *   <li>the total and per-dispatchable maximum redelivery counts;</li>
+ *   <li>the age of the oldest unconfirmed dispatchable;</li>
+ *   <li>a histogram of the duration of each expiry scan.</li>
+ * </ul>
+ * A {@code Snapshot} is pushed to the {@code Exporter}, if any, after each
+ * expiry scan, and may be pulled at any time using {@code snapshot()}.
+ * All operations are safe to use from the store actor and its dispatcher
+ * control actor concurrently.
+ */
+public class DispatcherInstrumentation {
+  private final LatencyHistogram confirmationLatency;
+  private final LongAdder confirmations;
+  private final LatencyHistogram expiryScanDuration;
+  private final String originatorId;
+  private final Map<String, Pending> pending;
+  private final LongAdder redeliveries;
+
+  private volatile long backlog;
+  private volatile long confirmationExpiration;
+  private volatile Exporter exporter;
+  private volatile long maximumRedeliveries;
+  private volatile long oldestUnconfirmedAt;
+
+  public DispatcherInstrumentation(final String originatorId) {
+    this(originatorId, Exporter.None);
+  }
+
+  public DispatcherInstrumentation(final String originatorId, final Exporter exporter) {
+    this.originatorId = originatorId;
+    this.exporter = exporter;
+    this.confirmationLatency = new LatencyHistogram();
+    this.confirmations = new LongAdder();
+    this.expiryScanDuration = new LatencyHistogram();
+    this.pending = new ConcurrentHashMap<>();
+    this.redeliveries = new LongAdder();
+    this.confirmationExpiration = Long.MAX_VALUE;
+    this.oldestUnconfirmedAt = -1;
+  }
+
+  /**
+   * Set the confirmation expiration used by the dispatcher control to decide redelivery.
+   * @param confirmationExpiration the long expiration in milliseconds
+   */
+  public void confirmationExpiration(final long confirmationExpiration) {
+    this.confirmationExpiration = confirmationExpiration;
+  }
+
+  /**
+   * Set the {@code exporter} to receive a {@code Snapshot} after each expiry scan.
+   * @param exporter the Exporter
+   */
+  public void exportTo(final Exporter exporter) {
+    this.exporter = exporter == null ? Exporter.None : exporter;
+  }
+
+  /**
+   * Record that the {@code dispatchable} has been committed and is about to be dispatched.
+   * @param dispatchable the {@code Dispatchable<?,?>} that was committed
+   */
+  public void committed(final Dispatchable<?, ?> dispatchable) {
+    pending.putIfAbsent(dispatchable.id(), new Pending(System.currentTimeMillis()));
+  }
+
+  /**
+   * Record that the dispatchable identified by {@code dispatchId} has been confirmed.
+   * @param dispatchId the String identity of the confirmed dispatchable
+   */
+  public void confirmed(final String dispatchId) {
+    confirmations.increment();
+    final Pending confirmed = pending.remove(dispatchId);
+    if (confirmed != null) {
+      confirmationLatency.record(System.currentTimeMillis() - confirmed.committedAt);
+    }
+  }
+
+  /**
+   * Record the result of an expiry scan of all unconfirmed dispatchables.
+   * @param unconfirmed the {@code Collection<? extends Dispatchable<?,?>>} found by the scan
+   * @param scanStartedAtNanos the long {@code System.nanoTime()} at which the scan started
+   */
+  public void scanned(final Collection<? extends Dispatchable<?, ?>> unconfirmed, final long scanStartedAtNanos) {
+    final long now = System.currentTimeMillis();
+    final long scanDuration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scanStartedAtNanos);
+    final long scanStartedAt = now - scanDuration;
+
+    expiryScanDuration.record(scanDuration);
+
+    final Set<String> found = new HashSet<>(unconfirmed.size());
+    long oldest = -1;
+    long maximum = 0;
+
+    for (final Dispatchable<?, ?> dispatchable : unconfirmed) {
+      final long createdAt = epochMillisOf(dispatchable.createdOn());
+      final Pending each = pending.computeIfAbsent(dispatchable.id(), id -> new Pending(createdAt));
+      found.add(dispatchable.id());
+
+      if (Math.abs(now - createdAt) > confirmationExpiration) {
+        redeliveries.increment();
+        maximum = Math.max(maximum, ++each.redeliveries);
+      }
+
+      if (oldest == -1 || each.committedAt < oldest) {
+        oldest = each.committedAt;
+      }
+    }
+
+    // anything committed before the scan started but not found by it
+    // was confirmed elsewhere, such as by a prior instance of the store
+    for (final Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+      final Map.Entry<String, Pending> entry = iterator.next();
+      if (entry.getValue().committedAt < scanStartedAt && !found.contains(entry.getKey())) {
+        iterator.remove();
+      }
+    }
+
+    this.backlog = unconfirmed.size();
+    this.oldestUnconfirmedAt = oldest;
+    this.maximumRedeliveries = Math.max(maximumRedeliveries, maximum);
+
+    try {
+      exporter.export(snapshot());
+    } catch (final RuntimeException e) {
+      // a failing exporter must never interfere with dispatching
+    }
+  }
+
+  /**
+   * Answer a {@code Snapshot} of my current measurements.
+   * @return Snapshot
+   */
+  public Snapshot snapshot() {
+    final long oldestAt = oldestUnconfirmedAt;
+    final long oldestAge = oldestAt == -1 || backlog == 0 ? 0 : System.currentTimeMillis() - oldestAt;
+
+    return new Snapshot(
+            originatorId,
+            backlog,
+            oldestAge,
+            confirmations.sum(),
+            redeliveries.sum(),
+            maximumRedeliveries,
+            confirmationLatency.summary(),
+            expiryScanDuration.summary());
+  }
+
+  /**
+   * Answer my commit-to-confirm latency histogram.
+   * @return LatencyHistogram
+   */
+  public LatencyHistogram confirmationLatency() {
+    return confirmationLatency;
+  }
+
+  /**
+   * Answer my expiry scan duration histogram.
+   * @return LatencyHistogram
+   */
+  public LatencyHistogram expiryScanDuration() {
+    return expiryScanDuration;
+  }
+
+  public String originatorId() {
+    return originatorId;
+  }
+
+  private long epochMillisOf(final LocalDateTime createdOn) {
+    return createdOn.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  /**
+   * Receives a {@code Snapshot} after each expiry scan, such as to publish
+   * it to the metrics system of choice.
+   */
+  @FunctionalInterface
+  public interface Exporter {
+    static final Exporter None = snapshot -> { };
+
+    void export(final Snapshot snapshot);
+  }
+
+  /**
+   * An immutable point-in-time view of a {@code DispatcherInstrumentation}.
+   * Ages and durations are in milliseconds.
+   */
+  public static class Snapshot {
+    public final String originatorId;
+    public final long backlog;
+    public final long oldestUnconfirmedAge;
+    public final long confirmations;
+    public final long redeliveries;
+    public final long maximumRedeliveries;
+    public final LatencyHistogram.Summary confirmationLatency;
+    public final LatencyHistogram.Summary expiryScanDuration;
+
+    Snapshot(
+            final String originatorId,
+            final long backlog,
+            final long oldestUnconfirmedAge,
+            final long confirmations,
+            final long redeliveries,
+            final long maximumRedeliveries,
+            final LatencyHistogram.Summary confirmationLatency,
+            final LatencyHistogram.Summary expiryScanDuration) {
+      this.originatorId = originatorId;
+      this.backlog = backlog;
+      this.oldestUnconfirmedAge = oldestUnconfirmedAge;
+      this.confirmations = confirmations;
+      this.redeliveries = redeliveries;
+      this.maximumRedeliveries = maximumRedeliveries;
+      this.confirmationLatency = confirmationLatency;
+      this.expiryScanDuration = expiryScanDuration;
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot[originatorId=" + originatorId + " backlog=" + backlog +
+              " oldestUnconfirmedAge=" + oldestUnconfirmedAge + " confirmations=" + confirmations +
+              " redeliveries=" + redeliveries + " maximumRedeliveries=" + maximumRedeliveries +
+              " confirmationLatency=" + confirmationLatency + " expiryScanDuration=" + expiryScanDuration + "]";
+    }
+  }
+
+  private static final class Pending {
+    final long committedAt;
+    volatile long redeliveries;
+
+    Pending(final long committedAt) {
+      this.committedAt = committedAt;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of millisecond durations using power-of-two
+ * buckets. Bucket {@code 0} holds zero durations and bucket {@code i}
+ * holds durations in the range {@code [2^(i-1), 2^i - 1]}, so that
+ * percentiles are answered as the upper bound of their bucket. This is
+ * coarse but sufficient for latency reporting without depending on an
+ * external metrics library, and it is safe to record from any thread.
+ */
+public class LatencyHistogram {
+  private static final int BucketCount = 40;
+
+  private final AtomicLongArray buckets;
+  private final LongAdder count;
+  private final AtomicLong max;
+  private final LongAdder sum;
+
+  public LatencyHistogram() {
+    this.buckets = new AtomicLongArray(BucketCount);
+    this.count = new LongAdder();
+    this.max = new AtomicLong();
+    this.sum = new LongAdder();
+  }
+
+  /**
+   * Record the {@code millis} duration.
+   * @param millis the long duration in milliseconds, where negatives are recorded as zero
+   */
+  public void record(final long millis) {
+    final long duration = Math.max(0, millis);
+    buckets.incrementAndGet(bucketOf(duration));
+    count.increment();
+    sum.add(duration);
+    max.accumulateAndGet(duration, Math::max);
+  }
+
+  /**
+   * Answer a copy of my bucket counts.
+   * @return long[]
+   */
+  public long[] buckets() {
+    final long[] copy = new long[BucketCount];
+    for (int index = 0; index < BucketCount; ++index) {
+      copy[index] = buckets.get(index);
+    }
+    return copy;
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    final long total = count.sum();
+    return total == 0 ? 0.0 : ((double) sum.sum()) / total;
+  }
+
+  /**
+   * Answer the upper bound in milliseconds of the bucket holding the {@code percentile}.
+   * @param percentile the double percentile in the range 0.0 to 100.0
+   * @return long
+   */
+  public long percentile(final double percentile) {
+    final long[] counts = buckets();
+    long total = 0;
+    for (final long bucketCount : counts) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = (long) Math.ceil((percentile / 100.0) * total);
+    long seen = 0;
+    for (int index = 0; index < BucketCount; ++index) {
+      seen += counts[index];
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBoundOf(index), max());
+      }
+    }
+    return max();
+  }
+
+  /**
+   * Answer a {@code Summary} of my current state.
+   * @return Summary
+   */
+  public Summary summary() {
+    return new Summary(count(), mean(), percentile(50), percentile(90), percentile(99), max());
+  }
+
+  /**
+   * Answer the inclusive upper bound in milliseconds of the {@code bucket}.
+   * @param bucket the int bucket index
+   * @return long
+   */
+  public static long upperBoundOf(final int bucket) {
+    return bucket == 0 ? 0 : (1L << bucket) - 1;
+  }
+
+  private static int bucketOf(final long millis) {
+    final int bucket = 64 - Long.numberOfLeadingZeros(millis);
+    return Math.min(bucket, BucketCount - 1);
+  }
+
+  /**
+   * An immutable summary of a {@code LatencyHistogram}.
+   */
+  public static class Summary {
+    public final long count;
+    public final double mean;
+    public final long p50;
+    public final long p90;
+    public final long p99;
+    public final long max;
+
+    Summary(final long count, final double mean, final long p50, final long p90, final long p99, final long max) {
+      this.count = count;
+      this.mean = mean;
+      this.p50 = p50;
+      this.p90 = p90;
+      this.p99 = p99;
+      this.max = max;
+    }
+
+    @Override
+    public String toString() {
+      return "Summary[count=" + count + " mean=" + String.format("%.2f", mean) +
+              " p50=" + p50 + " p90=" + p90 + " p99=" + p99 + " max=" + max + "]";
+    }
+  }
+}
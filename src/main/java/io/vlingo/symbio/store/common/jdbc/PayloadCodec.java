@@ -0,0 +1,238 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes payloads before they are stored and decodes them after they are read, both
+ * those of binary states and, as UTF-8, those of text states, which are then stored in
+ * binary columns. Other than {@code none()}, payloads of at least the {@code threshold}
+ * that become smaller are stored compressed behind a header byte from {@code 0xF5} to
+ * {@code 0xFF}, which can never start UTF-8. Other payloads are stored as they are,
+ * unless they themselves start with such a byte, when they are stored behind the header
+ * of {@code Uncompressed}. Thus text payloads stored before a codec was used, including
+ * those of text columns converted to binary as UTF-8, are still read as they are. Binary
+ * payloads stored before are also read as they are, except those starting with a byte
+ * from {@code 0xF5}, which cannot be told from encoded payloads, and so must be moved,
+ * such as by an export of {@code BulkStateTransfer} without a codec and an import with one
+ * into new tables.
+ */
+public final class PayloadCodec {
+  public static final byte Uncompressed = (byte) 0xFE;
+
+  /**
+   * The JDK deflate {@code Compression}, whose header byte is {@code 0xFF}.
+   */
+  public static final Compression Deflate = new DeflateCompression();
+
+  private static final int FirstHeader = 0xF5;
+  private static final PayloadCodec None = new PayloadCodec(null, Integer.MAX_VALUE);
+
+  private final Compression compression;
+  private final int threshold;
+
+  /**
+   * Answer the {@code PayloadCodec} that neither encodes nor decodes payloads.
+   * @return PayloadCodec
+   */
+  public static PayloadCodec none() {
+    return None;
+  }
+
+  /**
+   * Answer a {@code PayloadCodec} that deflates payloads of at least {@code threshold} bytes.
+   * @param threshold the int minimum number of bytes of compressed payloads
+   * @return PayloadCodec
+   */
+  public static PayloadCodec deflate(final int threshold) {
+    return new PayloadCodec(Deflate, threshold);
+  }
+
+  /**
+   * Answer a {@code PayloadCodec} that compresses payloads of at least {@code threshold} bytes
+   * using {@code compression}, whose header byte must be from {@code 0xF5} to {@code 0xFD}
+   * unless it is {@code Deflate}.
+   * @param compression the Compression to use
+   * @param threshold the int minimum number of bytes of compressed payloads
+   * @return PayloadCodec
+   */
+  public static PayloadCodec using(final Compression compression, final int threshold) {
+    if (compression == null || !isHeader(compression.header()) || compression.header() == Uncompressed ||
+            (compression != Deflate && compression.header() == Deflate.header())) {
+      throw new IllegalArgumentException("The compression must have a header from 0xF5 to 0xFD.");
+    }
+    return new PayloadCodec(compression, threshold);
+  }
+
+  private PayloadCodec(final Compression compression, final int threshold) {
+    this.compression = compression;
+    this.threshold = Math.max(0, threshold);
+  }
+
+  /**
+   * Answer the {@code payload} decoded from {@code stored}. Payloads deflated by
+   * {@code Deflate} are decoded by any codec other than {@code none()}.
+   * @param stored the byte[] encoded payload
+   * @return byte[]
+   */
+  public byte[] decode(final byte[] stored) {
+    if (compression == null || stored == null || stored.length == 0 || !isHeader(stored[0])) return stored;
+
+    final byte header = stored[0];
+    if (header == Uncompressed) {
+      return Arrays.copyOfRange(stored, 1, stored.length);
+    } else if (header == compression.header()) {
+      return compression.decompress(stored, 1);
+    } else if (header == Deflate.header()) {
+      return Deflate.decompress(stored, 1);
+    }
+    throw new IllegalStateException("Cannot decode a payload with header: " + (header & 0xFF));
+  }
+
+  /**
+   * Answer the text payload decoded from {@code stored} as by {@code decode()}.
+   * @param stored the byte[] encoded UTF-8 payload
+   * @return String
+   */
+  public String decodeText(final byte[] stored) {
+    return stored == null ? null : new String(decode(stored), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Answer the {@code payload} encoded for storage.
+   * @param payload the byte[] payload
+   * @return byte[]
+   */
+  public byte[] encode(final byte[] payload) {
+    if (compression == null || payload == null) return payload;
+
+    if (payload.length >= threshold) {
+      final byte[] compressed = compression.compress(payload, 1);
+      if (compressed.length < payload.length) {
+        compressed[0] = compression.header();
+        return compressed;
+      }
+    }
+
+    if (payload.length == 0 || !isHeader(payload[0])) return payload;
+
+    final byte[] uncompressed = new byte[payload.length + 1];
+    uncompressed[0] = Uncompressed;
+    System.arraycopy(payload, 0, uncompressed, 1, payload.length);
+    return uncompressed;
+  }
+
+  /**
+   * Answer the text {@code payload} encoded for storage as UTF-8, as by {@code encode()}.
+   * @param payload the String payload
+   * @return byte[]
+   */
+  public byte[] encodeText(final String payload) {
+    return payload == null ? null : encode(payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Answer whether I neither encode nor decode payloads.
+   * @return boolean
+   */
+  public boolean isNone() {
+    return compression == null;
+  }
+
+  private static boolean isHeader(final byte first) {
+    return (first & 0xFF) >= FirstHeader;
+  }
+
+  @Override
+  public String toString() {
+    return "PayloadCodec[compression=" + (compression == null ? "none" : compression.getClass().getSimpleName()) + " threshold=" + threshold + "]";
+  }
+
+  /**
+   * Compresses and decompresses payloads for a {@code PayloadCodec}.
+   */
+  public static interface Compression {
+    /**
+     * Answer my header byte, which identifies payloads I have compressed.
+     * @return byte
+     */
+    byte header();
+
+    /**
+     * Answer {@code payload} compressed following {@code offset} reserved bytes.
+     * @param payload the byte[] to compress
+     * @param offset the int number of bytes to reserve before the compressed bytes
+     * @return byte[]
+     */
+    byte[] compress(final byte[] payload, final int offset);
+
+    /**
+     * Answer the payload decompressed from {@code compressed} starting at {@code offset}.
+     * @param compressed the byte[] holding the compressed bytes
+     * @param offset the int index of the first compressed byte
+     * @return byte[]
+     */
+    byte[] decompress(final byte[] compressed, final int offset);
+  }
+
+  private static final class DeflateCompression implements Compression {
+    private static final int BufferSize = 8 * 1024;
+
+    @Override
+    public byte header() {
+      return (byte) 0xFF;
+    }
+
+    @Override
+    public byte[] compress(final byte[] payload, final int offset) {
+      final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        deflater.setInput(payload);
+        deflater.finish();
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+        compressed.write(new byte[offset], 0, offset);
+        final byte[] buffer = new byte[Math.min(BufferSize, Math.max(64, payload.length))];
+        while (!deflater.finished()) {
+          final int count = deflater.deflate(buffer);
+          compressed.write(buffer, 0, count);
+        }
+        return compressed.toByteArray();
+      } finally {
+        deflater.end();
+      }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] compressed, final int offset) {
+      final Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(compressed, offset, compressed.length - offset);
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream(compressed.length * 4);
+        final byte[] buffer = new byte[BufferSize];
+        while (!inflater.finished()) {
+          final int count = inflater.inflate(buffer);
+          if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IllegalStateException("Cannot inflate a truncated payload.");
+          }
+          payload.write(buffer, 0, count);
+        }
+        return payload.toByteArray();
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Cannot inflate payload because: " + e.getMessage(), e);
+      } finally {
+        inflater.end();
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.vlingo.symbio.State;
+
+/**
+ * The expiry policy of the states of a JDBC state store. Unless it is {@code none()},
+ * state store tables have an expiry column holding the epoch milliseconds after which
+ * each state is no longer read, and which is set on each write: to that of the
+ * {@code StateExpiry.At} of the metadata object of the state, if it has one; otherwise
+ * to the time to live of the type of the state after the write, if it has one; otherwise
+ * to {@code null}, meaning that the state never expires. Expired states are deleted in
+ * bounded batches by a {@code StatePurgeActor}.
+ */
+public final class StateExpiry {
+  private static final StateExpiry None = new StateExpiry(false, Collections.emptyMap());
+
+  private final boolean enabled;
+  private final Map<String, Long> timeToLive;
+
+  /**
+   * Answer the {@code StateExpiry} under which states never expire, and whose
+   * tables have no expiry column.
+   * @return StateExpiry
+   */
+  public static StateExpiry none() {
+    return None;
+  }
+
+  /**
+   * Answer a {@code StateExpiry} under which only states whose metadata object is a
+   * {@code StateExpiry.At} expire.
+   * @return StateExpiry
+   */
+  public static StateExpiry byMetadata() {
+    return new StateExpiry(true, Collections.emptyMap());
+  }
+
+  /**
+   * Answer a {@code StateExpiry} under which states of {@code type} expire
+   * {@code timeToLiveMillis} after each write.
+   * @param type the {@code Class<?>} of the states
+   * @param timeToLiveMillis the long milliseconds for which a state is read after its write
+   * @return StateExpiry
+   */
+  public static StateExpiry after(final Class<?> type, final long timeToLiveMillis) {
+    return byMetadata().and(type, timeToLiveMillis);
+  }
+
+  /**
+   * Answer a new {@code StateExpiry} like me, but under which states of {@code type}
+   * expire {@code timeToLiveMillis} after each write.
+   * @param type the {@code Class<?>} of the states
+   * @param timeToLiveMillis the long milliseconds for which a state is read after its write
+   * @return StateExpiry
+   */
+  public StateExpiry and(final Class<?> type, final long timeToLiveMillis) {
+    if (timeToLiveMillis <= 0) {
+      throw new IllegalArgumentException("The time to live must be greater than zero.");
+    }
+    final Map<String, Long> timeToLive = new HashMap<>(this.timeToLive);
+    timeToLive.put(type.getName(), timeToLiveMillis);
+    return new StateExpiry(true, timeToLive);
+  }
+
+  /**
+   * Answer the epoch milliseconds at which {@code state} written at {@code now} expires,
+   * or {@code 0} if it never expires.
+   * @param state the {@code State<?>} being written
+   * @param now the long epoch milliseconds of the write
+   * @return long
+   */
+  public long expiresAt(final State<?> state, final long now) {
+    if (!enabled) return 0;
+
+    if (state.metadata.hasObject() && state.metadata.object instanceof At) {
+      return ((At) state.metadata.object).epochMillis;
+    }
+
+    final Long timeToLiveMillis = timeToLive.get(state.type);
+    return timeToLiveMillis == null ? 0 : now + timeToLiveMillis;
+  }
+
+  /**
+   * Answer whether states never expire and tables have no expiry column.
+   * @return boolean
+   */
+  public boolean isNone() {
+    return !enabled;
+  }
+
+  @Override
+  public String toString() {
+    return "StateExpiry[enabled=" + enabled + " types=" + timeToLive.keySet() + "]";
+  }
+
+  private StateExpiry(final boolean enabled, final Map<String, Long> timeToLive) {
+    this.enabled = enabled;
+    this.timeToLive = Collections.unmodifiableMap(timeToLive);
+  }
+
+  /**
+   * The metadata object of a state that expires at {@code epochMillis}.
+   */
+  public static final class At {
+    public final long epochMillis;
+
+    public static At of(final long epochMillis) {
+      return new At(epochMillis);
+    }
+
+    public At(final long epochMillis) {
+      this.epochMillis = epochMillis;
+    }
+
+    @Override
+    public String toString() {
+      return "At[epochMillis=" + epochMillis + "]";
+    }
+  }
+}
@@ -0,0 +1,90 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+/**
+ * The history policy of the states of a JDBC state store. Unless it is {@code none()},
+ * each state store table has a history table, and each write that replaces a state
+ * archives the replaced state in the history table within the same statement, so that
+ * the state of any retained version can be read. Archived states are retained for
+ * {@code ageMillis} after being replaced, if greater than {@code 0}, and for as long as
+ * their version is among the {@code versions} latest versions archived of their id, if
+ * greater than {@code 0}. Those that are no longer retained are deleted in bounded batches by a
+ * {@code StatePurgeActor}.
+ */
+public final class StateHistory {
+  private static final StateHistory None = new StateHistory(false, 0, 0);
+
+  public final long ageMillis;
+  public final int versions;
+
+  private final boolean enabled;
+
+  /**
+   * Answer the {@code StateHistory} under which replaced states are not archived,
+   * and whose tables have no history tables.
+   * @return StateHistory
+   */
+  public static StateHistory none() {
+    return None;
+  }
+
+  /**
+   * Answer a {@code StateHistory} under which all replaced states are retained.
+   * @return StateHistory
+   */
+  public static StateHistory keepingAll() {
+    return new StateHistory(true, 0, 0);
+  }
+
+  /**
+   * Answer a {@code StateHistory} under which the archived states of each id are retained
+   * for the {@code versions} versions up to the latest archived one, so that fewer states
+   * are retained of an id whose versions have gaps.
+   * @param versions the int number of archived states retained per id
+   * @return StateHistory
+   */
+  public static StateHistory keepingVersions(final int versions) {
+    if (versions <= 0) {
+      throw new IllegalArgumentException("The versions must be greater than zero.");
+    }
+    return new StateHistory(true, 0, versions);
+  }
+
+  /**
+   * Answer a {@code StateHistory} under which replaced states are retained for
+   * {@code ageMillis} after being replaced.
+   * @param ageMillis the long milliseconds for which a replaced state is retained
+   * @return StateHistory
+   */
+  public static StateHistory keepingFor(final long ageMillis) {
+    if (ageMillis <= 0) {
+      throw new IllegalArgumentException("The age must be greater than zero.");
+    }
+    return new StateHistory(true, ageMillis, 0);
+  }
+
+  /**
+   * Answer whether replaced states are not archived and tables have no history tables.
+   * @return boolean
+   */
+  public boolean isNone() {
+    return !enabled;
+  }
+
+  @Override
+  public String toString() {
+    return "StateHistory[enabled=" + enabled + " ageMillis=" + ageMillis + " versions=" + versions + "]";
+  }
+
+  private StateHistory(final boolean enabled, final long ageMillis, final int versions) {
+    this.enabled = enabled;
+    this.ageMillis = ageMillis;
+    this.versions = versions;
+  }
+}
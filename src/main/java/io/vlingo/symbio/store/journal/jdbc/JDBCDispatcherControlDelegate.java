@@ -15,6 +15,7 @@ import io.vlingo.symbio.Metadata;
 import io.vlingo.symbio.State;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.common.jdbc.DatabaseType;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
 import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.dispatch.DispatcherControl;
 
@@ -34,13 +35,19 @@ public class JDBCDispatcherControlDelegate implements DispatcherControl.Dispatch
 
     private final Connection connection;
     private final DatabaseType databaseType;
+    private final DispatcherInstrumentation instrumentation;
     private final Logger logger;
     private final PreparedStatement selectDispatchables;
     private final JDBCQueries queries;
 
     public JDBCDispatcherControlDelegate(final Configuration configuration, final Logger logger) throws SQLException {
+        this(configuration, new DispatcherInstrumentation(configuration.originatorId), logger);
+    }
+
+    public JDBCDispatcherControlDelegate(final Configuration configuration, final DispatcherInstrumentation instrumentation, final Logger logger) throws SQLException {
         this.connection = configuration.connection;
         this.databaseType = configuration.databaseType;
+        this.instrumentation = instrumentation;
         this.logger = logger;
         this.queries = JDBCQueries.queriesFor(configuration.connection);
 
@@ -51,6 +58,7 @@ public class JDBCDispatcherControlDelegate implements DispatcherControl.Dispatch
 
     @Override
     public Collection<Dispatchable<Entry<String>, State.TextState>> allUnconfirmedDispatchableStates() throws Exception {
+        final long scanStartedAt = System.nanoTime();
         final List<Dispatchable<Entry<String>, State.TextState>> dispatchables = new ArrayList<>();
 
         try (final ResultSet result = selectDispatchables.executeQuery()) {
@@ -59,6 +67,8 @@ public class JDBCDispatcherControlDelegate implements DispatcherControl.Dispatch
             }
         }
 
+        instrumentation.scanned(dispatchables, scanStartedAt);
+
         return dispatchables;
     }
 
@@ -67,12 +77,17 @@ public class JDBCDispatcherControlDelegate implements DispatcherControl.Dispatch
         try {
             queries.prepareDeleteDispatchableQuery(dispatchId).executeUpdate();
             doCommit();
+            instrumentation.confirmed(dispatchId);
         } catch (final Exception e) {
             logger.error("vlingo/symbio-jdbc-" + databaseType + ": Failed to confirm dispatch with id" + dispatchId, e);
             fail();
         }
     }
 
+    public DispatcherInstrumentation instrumentation() {
+        return instrumentation;
+    }
+
     @Override
     public void stop() {
         try {
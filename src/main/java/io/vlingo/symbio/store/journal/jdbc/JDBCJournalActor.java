@@ -43,6 +43,7 @@ import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.StorageException;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.common.jdbc.DatabaseType;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
 import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.dispatch.Dispatcher;
 import io.vlingo.symbio.store.dispatch.DispatcherControl;
@@ -66,6 +67,7 @@ public class JDBCJournalActor extends Actor implements Journal<String> {
     private final IdentityGenerator dispatchablesIdentityGenerator;
     private final Dispatcher<Dispatchable<Entry<String>, TextState>> dispatcher;
     private final DispatcherControl dispatcherControl;
+    private final DispatcherInstrumentation instrumentation;
 
     private final JDBCQueries queries;
 
@@ -77,9 +79,16 @@ public class JDBCJournalActor extends Actor implements Journal<String> {
         this(dispatcher, configuration, 1000L, 1000L);
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public JDBCJournalActor(final Dispatcher<Dispatchable<Entry<String>, TextState>> dispatcher, final Configuration configuration,
                             final long checkConfirmationExpirationInterval, final long confirmationExpiration) throws Exception {
+        this(dispatcher, configuration, checkConfirmationExpirationInterval, confirmationExpiration,
+                new DispatcherInstrumentation(configuration.originatorId));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public JDBCJournalActor(final Dispatcher<Dispatchable<Entry<String>, TextState>> dispatcher, final Configuration configuration,
+                            final long checkConfirmationExpirationInterval, final long confirmationExpiration,
+                            final DispatcherInstrumentation instrumentation) throws Exception {
         this.configuration = configuration;
         this.connection = configuration.connection;
         this.databaseType = configuration.databaseType;
@@ -96,8 +105,10 @@ public class JDBCJournalActor extends Actor implements Journal<String> {
 
         if (dispatcher != null) {
             this.dispatcher = dispatcher;
+            this.instrumentation = instrumentation;
+            this.instrumentation.confirmationExpiration(confirmationExpiration);
             final JDBCDispatcherControlDelegate dispatcherControlDelegate =
-                    new JDBCDispatcherControlDelegate(Configuration.cloneOf(configuration), stage().world().defaultLogger());
+                    new JDBCDispatcherControlDelegate(Configuration.cloneOf(configuration), instrumentation, stage().world().defaultLogger());
             this.dispatcherControl = stage().actorFor(DispatcherControl.class,
                     Definition.has(DispatcherControlActor.class,
                             new DispatcherControlInstantiator(dispatcher,
@@ -109,6 +120,7 @@ public class JDBCJournalActor extends Actor implements Journal<String> {
         } else {
             this.dispatcher = null;
             this.dispatcherControl = null;
+            this.instrumentation = null;
         }
     }
 
@@ -379,6 +391,7 @@ public class JDBCJournalActor extends Actor implements Journal<String> {
     private void dispatch(final Dispatchable<Entry<String>, TextState> dispatchable) {
         if (dispatcher != null) {
             //dispatch only if insert successful
+            this.instrumentation.committed(dispatchable);
             this.dispatcher.dispatch(dispatchable);
         }
     }
@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -81,13 +82,17 @@ public class JDBCObjectStoreActor extends Actor implements ObjectStore, Schedule
     final long timeout = delegate.configuration.transactionTimeoutMillis;
     stage().scheduler().schedule(selfAs(Scheduled.class), null, timeout, timeout);
 
+    //Get a copy of storage delegate to use other connection
+    final JDBCObjectStoreDelegate controlDelegate = (JDBCObjectStoreDelegate) delegate.copy();
+    controlDelegate.instrumentWith(delegate.instrumentation());
+    delegate.instrumentation().confirmationExpiration(confirmationExpiration);
+
     this.dispatcherControl = stage().actorFor(
             DispatcherControl.class,
             Definition.has(
                     DispatcherControlActor.class,
                     new DispatcherControlInstantiator(
-                            //Get a copy of storage delegate to use other connection
-                            dispatcher, delegate.copy(),
+                            dispatcher, controlDelegate,
                             checkConfirmationExpirationInterval,
                             confirmationExpiration)));
   }
@@ -154,7 +159,7 @@ public class JDBCObjectStoreActor extends Actor implements ObjectStore, Schedule
 
       delegate.completeTransaction();
 
-      dispatcher.dispatch(dispatchable);
+      dispatch(dispatchable);
       interest.persistResultedIn(Success.of(Result.Success), persistentObject, 1, 1, object);
 
     } catch (final StorageException e) {
@@ -171,29 +176,38 @@ public class JDBCObjectStoreActor extends Actor implements ObjectStore, Schedule
 
   @Override
   public <T extends StateObject, E> void persistAll(Collection<StateSources<T, E>> allStateSources, Metadata metadata, long updateId, PersistResultInterest interest, Object object) {
-    final Collection<T> allPersistentObjects = new ArrayList<>();
-    final List<Dispatchable<Entry<?>, State<?>>> allDispatchables = new ArrayList<>();
+    final Collection<T> allPersistentObjects = new ArrayList<>(allStateSources.size());
+    final List<Dispatchable<Entry<?>, State<?>>> allDispatchables = new ArrayList<>(allStateSources.size());
     try {
       delegate.beginTransaction();
+
+      // the entries, objects and dispatchables are each persisted together
+      final List<List<Entry<?>>> entriesOfEach = new ArrayList<>(allStateSources.size());
+      final List<Entry<?>> allEntries = new ArrayList<>();
       for (StateSources<T,E> stateSources : allStateSources) {
-        final T persistentObject = stateSources.stateObject();
         final List<Source<E>> sources = stateSources.sources();
 
         final int entryVersion = (int) stateSources.stateObject().version();
         final List<Entry<?>> entries = entryAdapterProvider.asEntries(sources, entryVersion, metadata);
-        delegate.persistEntries(entries);
+        entriesOfEach.add(entries);
+        allEntries.addAll(entries);
+
+        allPersistentObjects.add(stateSources.stateObject());
+      }
+      delegate.persistEntries(allEntries);
 
-        final State<?> state = delegate.persist(persistentObject, updateId, metadata);
-        allPersistentObjects.add(persistentObject);
+      final Collection<State<?>> states = delegate.persistAll(allPersistentObjects, updateId, metadata);
 
-        final Dispatchable<Entry<?>, State<?>> dispatchable = buildDispatchable(state, entries);
-        delegate.persistDispatchable(dispatchable);
-        allDispatchables.add(dispatchable);
+      final Iterator<List<Entry<?>>> entries = entriesOfEach.iterator();
+      for (final State<?> state : states) {
+        allDispatchables.add(buildDispatchable(state, entries.next()));
       }
+      delegate.persistDispatchables(allDispatchables);
+
       delegate.completeTransaction();
 
       //Dispatch after commit
-      allDispatchables.forEach(dispatcher::dispatch);
+      allDispatchables.forEach(this::dispatch);
       interest.persistResultedIn(Success.of(Result.Success), allPersistentObjects, allPersistentObjects.size(), allPersistentObjects.size(), object);
 
     } catch (final StorageException e) {
@@ -257,6 +271,11 @@ public class JDBCObjectStoreActor extends Actor implements ObjectStore, Schedule
     super.stop();
   }
 
+  private void dispatch(final Dispatchable<Entry<?>, State<?>> dispatchable) {
+    delegate.instrumentation().committed(dispatchable);
+    dispatcher.dispatch(dispatchable);
+  }
+
   private Dispatchable<Entry<?>, State<?>> buildDispatchable(final State<?> state, final List<Entry<?>> entries){
     final String id = identityGenerator.generate().toString();
     return new Dispatchable<>(id, LocalDateTime.now(), state, entries);
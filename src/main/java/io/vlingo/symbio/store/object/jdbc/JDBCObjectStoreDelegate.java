@@ -7,9 +7,14 @@
 
 package io.vlingo.symbio.store.object.jdbc;
 
+import java.util.Collection;
+
 import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.State;
+import io.vlingo.symbio.store.StorageException;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
+import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.object.ObjectStoreDelegate;
 
 /**
@@ -22,6 +27,8 @@ public abstract class JDBCObjectStoreDelegate implements ObjectStoreDelegate<Ent
 
   public final Configuration configuration;
 
+  protected DispatcherInstrumentation instrumentation;
+
   /**
    * Constructs my default state.
    *
@@ -29,6 +36,36 @@ public abstract class JDBCObjectStoreDelegate implements ObjectStoreDelegate<Ent
    */
   protected JDBCObjectStoreDelegate(final Configuration configuration) {
     this.configuration = configuration;
+    this.instrumentation = new DispatcherInstrumentation(configuration.originatorId);
+  }
+
+  /**
+   * Answer my {@code DispatcherInstrumentation}, which is shared with my
+   * copy that serves as the dispatcher control delegate.
+   * @return DispatcherInstrumentation
+   */
+  public DispatcherInstrumentation instrumentation() {
+    return instrumentation;
+  }
+
+  /**
+   * Use the given {@code instrumentation} in place of my own.
+   * @param instrumentation the DispatcherInstrumentation to use
+   */
+  public void instrumentWith(final DispatcherInstrumentation instrumentation) {
+    this.instrumentation = instrumentation;
+  }
+
+  /**
+   * Persist all {@code dispatchables}, each in turn unless overridden
+   * by a concrete delegate that persists them together.
+   * @param dispatchables the {@code Collection<Dispatchable<Entry<?>, State<?>>>} to persist
+   * @throws StorageException when the dispatchables could not be persisted
+   */
+  public void persistDispatchables(final Collection<Dispatchable<Entry<?>, State<?>>> dispatchables) throws StorageException {
+    for (final Dispatchable<Entry<?>, State<?>> dispatchable : dispatchables) {
+      persistDispatchable(dispatchable);
+    }
   }
 
   /**
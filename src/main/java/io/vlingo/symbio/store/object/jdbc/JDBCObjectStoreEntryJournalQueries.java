@@ -104,7 +104,7 @@ public abstract class JDBCObjectStoreEntryJournalQueries {
             "SELECT E_ID,E_TYPE,E_TYPE_VERSION,E_DATA,E_METADATA_VALUE,E_METADATA_OP " +
             "FROM {0} WHERE E_ID >= {1} ORDER BY E_ID LIMIT 1",
             EntryJournalTableName,
-            id);
+            String.valueOf(id));
   }
 
   /**
@@ -132,8 +132,35 @@ public abstract class JDBCObjectStoreEntryJournalQueries {
             "SELECT E_ID,E_TYPE,E_TYPE_VERSION,E_DATA,E_METADATA_VALUE,E_METADATA_OP " +
             "FROM {0} WHERE E_ID BETWEEN {1} AND {2} ORDER BY E_ID",
             EntryJournalTableName,
-            id,
-            id + count - 1);
+            String.valueOf(id),
+            String.valueOf(id + count - 1));
+  }
+
+  /**
+   * Answer the parameterized query for retrieving at most a number of {@code Entry}
+   * instances in identity order, beginning with a given identity or the next greater.
+   * @param placeholders the String[] of placeholders for the identity and the number of entries
+   * @return String
+   */
+  public String entriesFromQuery(final String[] placeholders) {
+    return MessageFormat.format(
+            "SELECT E_ID,E_TYPE,E_TYPE_VERSION,E_DATA,E_METADATA_VALUE,E_METADATA_OP " +
+            "FROM {0} WHERE E_ID >= {1} ORDER BY E_ID LIMIT {2}",
+            EntryJournalTableName,
+            placeholders[0],
+            placeholders[1]);
+  }
+
+  /**
+   * Answer the parameterized query for retrieving the current offset of an entry reader.
+   * @param namePlaceholder the String placeholder for the name of the entry reader
+   * @return String
+   */
+  public String entryReaderOffsetQuery(final String namePlaceholder) {
+    return MessageFormat.format(
+            "SELECT O_READER_OFFSET FROM {0} WHERE O_READER_NAME = {1}",
+            EntryReaderOffsetsTableName,
+            namePlaceholder);
   }
 
   /**
@@ -0,0 +1,320 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.object.jdbc.jdbi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import io.vlingo.symbio.store.object.StateObject;
+
+/**
+ * The {@code StateObjectChangeTracker} that compares objects field by field. A snapshot
+ * holds the value of each non-static, non-transient field of the object and its
+ * superclasses, where primitives, enums and the known immutable values of the {@code java}
+ * platform, such as boxed primitives, {@code String}, {@code BigDecimal}, {@code BigInteger},
+ * {@code UUID} and {@code java.time} values, are held as they are and compared by
+ * {@code equals()}, dates are cloned, arrays, collections and maps are copied element by
+ * element, and other objects are copied field by field in turn. The keys of maps and the
+ * elements of sets are also held as they are, because they must not be mutated in place,
+ * so that a map is compared by the lookup of each key and a set as a set, regardless of
+ * their order of iteration. Any other {@code java} platform object, such as an
+ * {@code AtomicLong}, a {@code StringBuilder} or a {@code Calendar}, may be mutated in
+ * place where its fields cannot be read, so it is never taken to match its snapshot, and
+ * its field is always reported as changed. The fields of each class are found by
+ * reflection once and read through {@code MethodHandle}s, and objects are compared to
+ * their snapshot without taking another, so that an unmodified object allocates next
+ * to nothing.
+ * I hold no state other than the fields of each class and am safe for concurrent use.
+ */
+final class FieldChangeTracker implements StateObjectChangeTracker {
+  static final FieldChangeTracker Instance = new FieldChangeTracker();
+
+  // the snapshot of a reference back to an object being copied
+  private static final Object Cycle = new Object();
+
+  // the snapshot of a platform object whose changes cannot be seen, which never matches
+  private static final Object Untracked = new Object();
+
+  private static final Set<Class<?>> ImmutableValueTypes = new HashSet<>(Arrays.asList(
+          Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+          String.class, BigDecimal.class, BigInteger.class, UUID.class, Class.class, Locale.class, Currency.class));
+
+  private static final MethodType Getter = MethodType.methodType(Object.class, Object.class);
+
+  private final ClassValue<FieldAccessor[]> fields = new ClassValue<FieldAccessor[]>() {
+    @Override
+    protected FieldAccessor[] computeValue(final Class<?> type) {
+      return accessorsOf(type);
+    }
+  };
+
+  private final ClassValue<Boolean> valueTypes = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      // java.time types are immutable, but not all are final, so only those of the platform
+      return type.isPrimitive() || Enum.class.isAssignableFrom(type) || ImmutableValueTypes.contains(type) ||
+              (type.getName().startsWith("java.time.") && Modifier.isFinal(type.getModifiers()));
+    }
+  };
+
+  @Override
+  public Object snapshotOf(final StateObject stateObject) {
+    return snapshot(stateObject, new Path());
+  }
+
+  @Override
+  public List<String> changedFieldsOf(final Object snapshot, final StateObject stateObject) {
+    final Composite composite = (Composite) snapshot;
+    final FieldAccessor[] accessors = fields.get(stateObject.getClass());
+
+    if (composite.type != stateObject.getClass()) {
+      final List<String> all = new ArrayList<>(accessors.length);
+      for (final FieldAccessor accessor : accessors) {
+        all.add(accessor.name);
+      }
+      return all;
+    }
+
+    final Path visiting = new Path();
+    visiting.push(stateObject);
+
+    List<String> changed = null;
+    for (int index = 0; index < accessors.length; ++index) {
+      if (!matches(composite.values[index], accessors[index].get(stateObject), visiting)) {
+        if (changed == null) changed = new ArrayList<>(2);
+        changed.add(accessors[index].name);
+      }
+    }
+    return changed == null ? Collections.emptyList() : changed;
+  }
+
+  @Override
+  public boolean isModified(final Object snapshot, final StateObject stateObject) {
+    return !matches(snapshot, stateObject, new Path());
+  }
+
+  private FieldChangeTracker() { }
+
+  private FieldAccessor[] accessorsOf(final Class<?> type) {
+    final List<FieldAccessor> accessors = new ArrayList<>();
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (final Field field : current.getDeclaredFields()) {
+        final int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+        try {
+          field.setAccessible(true);
+          accessors.add(new FieldAccessor(field.getName(), lookup.unreflectGetter(field).asType(Getter)));
+        } catch (final Exception e) {
+          throw new IllegalStateException("Cannot track the field " + field.getName() + " of " + current.getName() + " because: " + e.getMessage(), e);
+        }
+      }
+    }
+    return accessors.toArray(new FieldAccessor[accessors.size()]);
+  }
+
+  private boolean isUntracked(final Class<?> type) {
+    return type.getName().startsWith("java.") && !type.isArray() &&
+            !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type);
+  }
+
+  private Object snapshot(final Object value, final Path visiting) {
+    if (value == null) return null;
+
+    final Class<?> type = value.getClass();
+
+    if (valueTypes.get(type)) return value;
+
+    if (value instanceof Date) return ((Date) value).clone();
+
+    if (isUntracked(type)) return Untracked;
+
+    if (type.isArray() && type.getComponentType().isPrimitive()) {
+      final int length = Array.getLength(value);
+      final Object copy = Array.newInstance(type.getComponentType(), length);
+      System.arraycopy(value, 0, copy, 0, length);
+      return copy;
+    }
+
+    if (visiting.contains(value)) return Cycle;
+    visiting.push(value);
+
+    try {
+      final Object[] values;
+      if (value instanceof Object[]) {
+        final Object[] elements = (Object[]) value;
+        values = new Object[elements.length];
+        for (int index = 0; index < elements.length; ++index) {
+          values[index] = snapshot(elements[index], visiting);
+        }
+      } else if (value instanceof Set) {
+        // each element is followed by its snapshot
+        final Set<?> elements = (Set<?>) value;
+        values = new Object[elements.size() * 2];
+        int index = 0;
+        for (final Object element : elements) {
+          values[index++] = element;
+          values[index++] = snapshot(element, visiting);
+        }
+      } else if (value instanceof Collection) {
+        final Collection<?> elements = (Collection<?>) value;
+        values = new Object[elements.size()];
+        int index = 0;
+        for (final Object element : elements) {
+          values[index++] = snapshot(element, visiting);
+        }
+      } else if (value instanceof Map) {
+        // each key is followed by the snapshot of its value
+        final Map<?, ?> entries = (Map<?, ?>) value;
+        values = new Object[entries.size() * 2];
+        int index = 0;
+        for (final Map.Entry<?, ?> entry : entries.entrySet()) {
+          values[index++] = entry.getKey();
+          values[index++] = snapshot(entry.getValue(), visiting);
+        }
+      } else {
+        final FieldAccessor[] accessors = fields.get(type);
+        values = new Object[accessors.length];
+        for (int index = 0; index < accessors.length; ++index) {
+          values[index] = snapshot(accessors[index].get(value), visiting);
+        }
+      }
+      return new Composite(type, values);
+    } finally {
+      visiting.pop();
+    }
+  }
+
+  private boolean matches(final Object snapshot, final Object value, final Path visiting) {
+    if (snapshot == value) return true;
+    if (snapshot == null || value == null) return false;
+    if (snapshot == Cycle) return visiting.contains(value);
+    if (snapshot == Untracked) return false;
+    if (!(snapshot instanceof Composite)) return Objects.deepEquals(snapshot, value);
+
+    final Composite composite = (Composite) snapshot;
+    if (composite.type != value.getClass()) return false;
+
+    // a new reference back to an object being compared is a change of structure
+    if (visiting.contains(value)) return false;
+    visiting.push(value);
+
+    try {
+      final Object[] values = composite.values;
+      if (value instanceof Object[]) {
+        final Object[] elements = (Object[]) value;
+        if (elements.length != values.length) return false;
+        for (int index = 0; index < elements.length; ++index) {
+          if (!matches(values[index], elements[index], visiting)) return false;
+        }
+      } else if (value instanceof Set) {
+        final Set<?> elements = (Set<?>) value;
+        if (elements.size() * 2 != values.length) return false;
+        for (int index = 0; index < values.length; index += 2) {
+          if (!elements.contains(values[index])) return false;
+          if (!matches(values[index + 1], values[index], visiting)) return false;
+        }
+      } else if (value instanceof Collection) {
+        final Collection<?> elements = (Collection<?>) value;
+        if (elements.size() != values.length) return false;
+        int index = 0;
+        for (final Object element : elements) {
+          if (!matches(values[index++], element, visiting)) return false;
+        }
+      } else if (value instanceof Map) {
+        final Map<?, ?> entries = (Map<?, ?>) value;
+        if (entries.size() * 2 != values.length) return false;
+        for (int index = 0; index < values.length; index += 2) {
+          final Object entryValue = entries.get(values[index]);
+          if (entryValue == null && !entries.containsKey(values[index])) return false;
+          if (!matches(values[index + 1], entryValue, visiting)) return false;
+        }
+      } else {
+        final FieldAccessor[] accessors = fields.get(composite.type);
+        for (int index = 0; index < accessors.length; ++index) {
+          if (!matches(values[index], accessors[index].get(value), visiting)) return false;
+        }
+      }
+      return true;
+    } finally {
+      visiting.pop();
+    }
+  }
+
+  // the objects being copied or compared from the root, which are few
+  private static final class Path {
+    private Object[] objects = new Object[4];
+    private int size;
+
+    boolean contains(final Object object) {
+      for (int index = 0; index < size; ++index) {
+        if (objects[index] == object) return true;
+      }
+      return false;
+    }
+
+    void pop() {
+      objects[--size] = null;
+    }
+
+    void push(final Object object) {
+      if (size == objects.length) {
+        objects = Arrays.copyOf(objects, size * 2);
+      }
+      objects[size++] = object;
+    }
+  }
+
+  private static final class Composite {
+    final Class<?> type;
+    final Object[] values;
+
+    Composite(final Class<?> type, final Object[] values) {
+      this.type = type;
+      this.values = values;
+    }
+  }
+
+  private static final class FieldAccessor {
+    final MethodHandle getter;
+    final String name;
+
+    FieldAccessor(final String name, final MethodHandle getter) {
+      this.name = name;
+      this.getter = getter;
+    }
+
+    Object get(final Object target) {
+      try {
+        return (Object) getter.invokeExact(target);
+      } catch (final Throwable t) {
+        throw new IllegalStateException("Cannot read the field " + name + " because: " + t.getMessage(), t);
+      }
+    }
+  }
+}
@@ -10,6 +10,7 @@ package io.vlingo.symbio.store.object.jdbc.jdbi;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,9 +19,13 @@ import java.util.function.BiFunction;
 
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.argument.Argument;
 import org.jdbi.v3.core.generic.GenericType;
 import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.result.ResultBearing;
+import org.jdbi.v3.core.statement.ParsedParameters;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.SqlStatements;
 import org.jdbi.v3.core.statement.Update;
 
 import io.vlingo.actors.Logger;
@@ -29,6 +34,7 @@ import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.Metadata;
 import io.vlingo.symbio.State;
 import io.vlingo.symbio.StateAdapterProvider;
+import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.StorageException;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.dispatch.Dispatchable;
@@ -51,9 +57,11 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
   private static final UnitOfWork AlwaysModified = new AlwaysModifiedUnitOfWork();
 
   private final StateAdapterProvider stateAdapterProvider;
+  private final StateObjectChangeTracker changeTracker;
   private final Handle handle;
   private final Logger logger;
   private final Map<Class<?>, StateObjectMapper> mappers;
+  private final Map<String, String> partialUpdateStatements;
   private final Map<Long, UnitOfWork> unitOfWorkRegistry;
   private long updateId;
   private final QueryExpression unconfirmedDispatchablesExpression;
@@ -69,11 +77,29 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
    */
   public JdbiObjectStoreDelegate(final Configuration configuration, final StateAdapterProvider stateAdapterProvider,
           final QueryExpression unconfirmedDispatchablesExpression, final Collection<StateObjectMapper> mappers, final Logger logger) {
+    this(configuration, stateAdapterProvider, unconfirmedDispatchablesExpression, mappers, StateObjectChangeTracker.fieldLevel(), logger);
+  }
+
+  /**
+   * Constructs my default state, where the changes of objects read for update are tracked by {@code changeTracker}.
+   *
+   * @param configuration                      the Configuration used to configure my concrete subclasses
+   * @param stateAdapterProvider               {@code StateAdapterProvider} used get raw {@code State<?>} from {@code PersistentObject}
+   * @param unconfirmedDispatchablesExpression the query expression to use for getting unconfirmed dispatchables
+   * @param mappers                            collection of {@code PersistentObjectMapper} to be registered
+   * @param changeTracker                      the {@code StateObjectChangeTracker} of objects read for update
+   * @param logger                             the instance of {@link Logger} to be used
+   */
+  public JdbiObjectStoreDelegate(final Configuration configuration, final StateAdapterProvider stateAdapterProvider,
+          final QueryExpression unconfirmedDispatchablesExpression, final Collection<StateObjectMapper> mappers,
+          final StateObjectChangeTracker changeTracker, final Logger logger) {
     super(configuration);
     this.handle = Jdbi.open(configuration.connection);
     this.stateAdapterProvider = stateAdapterProvider;
+    this.changeTracker = changeTracker;
     this.unconfirmedDispatchablesExpression = unconfirmedDispatchablesExpression;
     this.mappers = new HashMap<>();
+    this.partialUpdateStatements = new ConcurrentHashMap<>();
     this.unitOfWorkRegistry = new ConcurrentHashMap<>();
     this.updateId = 0;
     this.logger = logger;
@@ -101,7 +127,7 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
   public JDBCObjectStoreDelegate copy() {
     try {
       return new JdbiObjectStoreDelegate(Configuration.cloneOf(configuration), stateAdapterProvider, this.unconfirmedDispatchablesExpression, mappers.values(),
-              logger);
+              changeTracker, logger);
     } catch (final Exception e) {
       final String message = "Copy of JDBCObjectStoreDelegate failed because: " + e.getMessage();
       logger.error(message, e);
@@ -124,19 +150,34 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
     handle.rollback();
   }
 
+  /*
+   * Persists the {@code persistentObjects} that are created or modified by one
+   * {@code PreparedBatch} for each distinct insert or update statement, where each
+   * object is created or updated as it would be by {@code persist()}.
+   */
   @Override
   public <T extends StateObject> Collection<State<?>> persistAll(final Collection<T> persistentObjects, final long updateId, final Metadata metadata)
           throws StorageException {
-    final boolean create = ObjectStoreReader.isNoId(updateId);
+    final boolean noId = ObjectStoreReader.isNoId(updateId);
     final UnitOfWork unitOfWork = unitOfWorkRegistry.getOrDefault(updateId, AlwaysModified);
-    final List<State<?>> states = new ArrayList<>();
+    final List<State<?>> states = new ArrayList<>(persistentObjects.size());
+    final Map<String, PersistBatch> batches = new LinkedHashMap<>();
 
     for (final T each : persistentObjects) {
       final State<?> state = getRawState(metadata, each);
-      persistEach(handle, unitOfWork, each, create);
+      final boolean create = state.dataVersion <= 1 && noId;
+      final JdbiPersistMapper mapper = mappers.get(each.getClass()).persistMapper();
+      final String statement = persistStatementOf(unitOfWork, each, mapper, create);
+      if (statement != null) {
+        batches.computeIfAbsent(statement, key -> new PersistBatch(key, mapper, create)).persistentObjects.add(each);
+      }
       states.add(state);
     }
 
+    for (final PersistBatch batch : batches.values()) {
+      persistBatch(batch);
+    }
+
     unitOfWorkRegistry.remove(updateId);
     return states;
   }
@@ -162,13 +203,30 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
     return this.stateAdapterProvider.asRaw(String.valueOf(detachedEntity.persistenceId()), detachedEntity, stateVersion, metadata);
   }
 
+  /*
+   * Persists all {@code entries} by one {@code PreparedBatch}.
+   */
   @Override
   public void persistEntries(final Collection<Entry<?>> entries) throws StorageException {
+    if (entries.isEmpty()) return;
+
     final JdbiPersistMapper mapper = mappers.get(Entry.class).persistMapper();
+    final List<PersistentEntry> persistentEntries = new ArrayList<>(entries.size());
     for (final Entry<?> entry : entries) {
-      final Update statement = handle.createUpdate(mapper.insertStatement);
-      final ResultBearing resultBearing = bindAll(new PersistentEntry(entry), mapper, statement).executeAndReturnGeneratedKeys();
-      final Object id = resultBearing.mapToMap().one().get("e_id");
+      persistentEntries.add(new PersistentEntry(entry));
+    }
+
+    final List<Map<String, Object>> keys;
+    try (final PreparedBatch batch = prepareBatch(mapper.insertStatement, mapper, persistentEntries)) {
+      keys = batch.executeAndReturnGeneratedKeys().mapToMap().list();
+    }
+    if (keys.size() != entries.size()) {
+      throw new StorageException(Result.Failure, "Persist of entries answered " + keys.size() + " ids for " + entries.size() + " entries.");
+    }
+
+    int index = 0;
+    for (final Entry<?> entry : entries) {
+      final Object id = keys.get(index++).get("e_id");
       ((BaseEntry<?>) entry).__internal__setId(id.toString());
     }
   }
@@ -180,6 +238,24 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
     bindAll(new PersistentDispatchable(configuration.originatorId, dispatchable), mapper, statement).execute();
   }
 
+  /*
+   * Persists all {@code dispatchables} by one {@code PreparedBatch}.
+   */
+  @Override
+  public void persistDispatchables(final Collection<Dispatchable<Entry<?>, State<?>>> dispatchables) throws StorageException {
+    if (dispatchables.isEmpty()) return;
+
+    final JdbiPersistMapper mapper = mappers.get(dispatchables.iterator().next().getClass()).persistMapper();
+    final List<PersistentDispatchable> persistentDispatchables = new ArrayList<>(dispatchables.size());
+    for (final Dispatchable<Entry<?>, State<?>> dispatchable : dispatchables) {
+      persistentDispatchables.add(new PersistentDispatchable(configuration.originatorId, dispatchable));
+    }
+
+    try (final PreparedBatch batch = prepareBatch(mapper.insertStatement, mapper, persistentDispatchables)) {
+      batch.execute();
+    }
+  }
+
   @Override
   public QueryMultiResults queryAll(final QueryExpression expression) throws StorageException {
     final List<?> results;
@@ -250,15 +326,20 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
 
   @Override
   public Collection<Dispatchable<Entry<?>, State<?>>> allUnconfirmedDispatchableStates() {
-    return handle.createQuery(unconfirmedDispatchablesExpression.query)
-            .mapTo(new GenericType<Dispatchable<Entry<?>, State<?>>>() {})
-            .list();
+    final long scanStartedAt = System.nanoTime();
+    final List<Dispatchable<Entry<?>, State<?>>> dispatchables =
+            handle.createQuery(unconfirmedDispatchablesExpression.query)
+              .mapTo(new GenericType<Dispatchable<Entry<?>, State<?>>>() {})
+              .list();
+    instrumentation.scanned(dispatchables, scanStartedAt);
+    return dispatchables;
   }
 
   @Override
   public void confirmDispatched(final String dispatchId) {
     final JdbiPersistMapper mapper = mappers.get(Dispatchable.class).persistMapper();
     handle.createUpdate(mapper.updateStatement).bind("id", dispatchId).execute();
+    instrumentation.confirmed(dispatchId);
   }
 
   @Override
@@ -285,23 +366,117 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
     }
   }
 
-  private <T extends StateObject> int persistEach(final Handle handle, final UnitOfWork unitOfWork, final T persistentObject, final boolean create) {
+  private void persistBatch(final PersistBatch persistBatch) throws StorageException {
+    final JdbiPersistMapper mapper = persistBatch.mapper;
+    final List<StateObject> persistentObjects = persistBatch.persistentObjects;
+
+    final List<Long> generatedIds;
+    try (final PreparedBatch batch = prepareBatch(persistBatch.statement, mapper, persistentObjects)) {
+      if (persistBatch.create) {
+        generatedIds = batch.executeAndReturnGeneratedKeys(mapper.idColumnName).mapTo(Long.class).list();
+      } else {
+        batch.execute();
+        return;
+      }
+    } catch (final Exception e) {
+      throw new StorageException(Result.Failure, "Persist of " + persistentObjects.size() + " objects by: " + persistBatch.statement + " failed because: " + e.getMessage(), e);
+    }
+    if (generatedIds.size() != persistentObjects.size()) {
+      throw new StorageException(Result.Failure, "Persist of " + persistentObjects.size() + " objects by: " + persistBatch.statement + " answered " + generatedIds.size() + " ids.");
+    }
 
+    int index = 0;
+    for (final StateObject persistentObject : persistentObjects) {
+      persistentObject.__internal__setPersistenceId(generatedIds.get(index++));
+    }
+  }
+
+  /*
+   * Answer the statement by which to persist {@code persistentObject}, which is
+   * {@code null} when it need not be persisted.
+   */
+  private <T extends StateObject> String persistStatementOf(final UnitOfWork unitOfWork, final T persistentObject, final JdbiPersistMapper mapper, final boolean create) {
     final StateObject typed = StateObject.from(persistentObject);
 
-    if (unitOfWork.isModified(typed)) {
-      final Class<?> type = persistentObject.getClass();
+    if (!create && mapper.isPartiallyUpdating()) {
+      final List<String> changedFields = unitOfWork.changedFieldsOf(typed);
+      if (changedFields != null) {
+        return changedFields.isEmpty() ? null : partialUpdateStatementOf(persistentObject.getClass(), mapper, changedFields);
+      }
+    }
 
-      final JdbiPersistMapper mapper = mappers.get(type).persistMapper();
+    if (!unitOfWork.isModified(typed)) {
+      return null;
+    }
 
-      try (final Update statement = create ? handle.createUpdate(mapper.insertStatement) : handle.createUpdate(mapper.updateStatement)) {
+    return create ? mapper.insertStatement : mapper.updateStatement;
+  }
+
+  private String partialUpdateStatementOf(final Class<?> type, final JdbiPersistMapper mapper, final List<String> changedFields) {
+    final String key = type.getName() + changedFields;
+    String updateStatement = partialUpdateStatements.get(key);
+    if (updateStatement == null) {
+      updateStatement = mapper.partialUpdateStatement(changedFields);
+      if (updateStatement != null) {
+        partialUpdateStatements.put(key, updateStatement);
+      }
+    }
+    return updateStatement;
+  }
+
+  /*
+   * Answer a {@code PreparedBatch} of {@code statement} to which each of the
+   * {@code persistentObjects} is added as bound by the binders of {@code mapper}.
+   * The binders bind an {@code Update}, so each object is bound to one that is
+   * never executed, from which the arguments of the statement are taken.
+   */
+  private PreparedBatch prepareBatch(final String statement, final JdbiPersistMapper mapper, final Collection<?> persistentObjects) {
+    final PreparedBatch batch = handle.prepareBatch(statement);
+    final ParsedParameters parameters =
+            batch.getConfig(SqlStatements.class).getSqlParser().parse(statement, batch.getContext()).getParameters();
+
+    for (final Object persistentObject : persistentObjects) {
+      try (final BoundArguments arguments = new BoundArguments(handle, statement)) {
+        bindAll(persistentObject, mapper, arguments);
+        if (parameters.isPositional()) {
+          for (int position = 0; position < parameters.getParameterCount(); ++position) {
+            final int boundPosition = position;
+            arguments.at(position).ifPresent(argument -> batch.bind(boundPosition, argument));
+          }
+        } else {
+          for (final String name : parameters.getParameterNames()) {
+            arguments.named(name).ifPresent(argument -> batch.bind(name, argument));
+          }
+        }
+      }
+      batch.add();
+    }
+
+    return batch;
+  }
+
+  private <T extends StateObject> int persistEach(final Handle handle, final UnitOfWork unitOfWork, final T persistentObject, final boolean create) {
+    final JdbiPersistMapper mapper = mappers.get(persistentObject.getClass()).persistMapper();
+
+    final String persistStatement = persistStatementOf(unitOfWork, persistentObject, mapper, create);
+
+    if (persistStatement == null) {
+      return 1;
+    }
+
+    try (final Update statement = handle.createUpdate(persistStatement)) {
+      if (create || persistStatement.equals(mapper.updateStatement)) {
         final Update update = bindAll(persistentObject, mapper, statement);
         final ResultBearing result = update.executeAndReturnGeneratedKeys(mapper.idColumnName);
         final long generatedId = result.mapTo(Long.class).one();
         persistentObject.__internal__setPersistenceId(generatedId);
-      } catch (Exception e) {
-        return 0;
+      } else {
+        // the binders bind every column, of which only the changed are used
+        statement.getConfig(SqlStatements.class).setUnusedBindingAllowed(true);
+        bindAll(persistentObject, mapper, statement).execute();
       }
+    } catch (Exception e) {
+      return 0;
     }
 
     return 1;
@@ -324,7 +499,7 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
   private long registerUnitOfWork(final Object presistentObject) {
     final long unitOfWorkId = ++updateId;
 
-    unitOfWorkRegistry.put(unitOfWorkId, UnitOfWork.acquireFor(unitOfWorkId, presistentObject));
+    unitOfWorkRegistry.put(unitOfWorkId, UnitOfWork.acquireFor(unitOfWorkId, presistentObject, changeTracker));
 
     return unitOfWorkId;
   }
@@ -332,8 +507,38 @@ public class JdbiObjectStoreDelegate extends JDBCObjectStoreDelegate {
   private long registerUnitOfWork(final List<?> presistentObjects) {
     final long unitOfWorkId = ++updateId;
 
-    unitOfWorkRegistry.put(unitOfWorkId, UnitOfWork.acquireFor(unitOfWorkId, presistentObjects));
+    unitOfWorkRegistry.put(unitOfWorkId, UnitOfWork.acquireFor(unitOfWorkId, presistentObjects, changeTracker));
 
     return unitOfWorkId;
   }
+
+  // the objects persisted by one statement
+  private static final class PersistBatch {
+    final boolean create;
+    final JdbiPersistMapper mapper;
+    final List<StateObject> persistentObjects;
+    final String statement;
+
+    PersistBatch(final String statement, final JdbiPersistMapper mapper, final boolean create) {
+      this.statement = statement;
+      this.mapper = mapper;
+      this.create = create;
+      this.persistentObjects = new ArrayList<>();
+    }
+  }
+
+  // an Update that is never executed, from which the arguments bound to it are taken
+  private static final class BoundArguments extends Update {
+    BoundArguments(final Handle handle, final String statement) {
+      super(handle, statement);
+    }
+
+    Optional<Argument> at(final int position) {
+      return getBinding().findForPosition(position);
+    }
+
+    Optional<Argument> named(final String name) {
+      return getBinding().findForName(name, getContext());
+    }
+  }
 }
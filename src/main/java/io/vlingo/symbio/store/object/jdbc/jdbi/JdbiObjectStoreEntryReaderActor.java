@@ -17,19 +17,28 @@ import io.vlingo.actors.Actor;
 import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.common.Completes;
 import io.vlingo.symbio.Entry;
+import io.vlingo.symbio.store.common.jdbc.CheckpointPolicy;
 import io.vlingo.symbio.store.object.ObjectStoreEntryReader;
 import io.vlingo.symbio.store.object.QueryExpression;
 import io.vlingo.symbio.store.object.StateObjectMapper;
 
 /**
- * An {@code ObjectStoreEntryReader} for Jdbi.
+ * An {@code ObjectStoreEntryReader} for Jdbi, which reads entries in keyset batches of
+ * {@code E_ID >= offset} by a query bound with parameters, persisting my offset under
+ * my {@code name} according to the {@code CheckpointPolicy} of my configuration.
  */
 public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStoreEntryReader<Entry<String>> {
+  private final CheckpointPolicy checkpoints;
+  private long checkpointedAt;
+  private long checkpointedOffset;
   private final JdbiPersistMapper currentEntryOffsetMapper;
   private final JdbiOnDatabase jdbi;
   private final String name;
+  private final QueryExpression queryEntries;
   private final QueryExpression queryLastEntryId;
+  private final QueryExpression queryOffset;
   private final QueryExpression querySize;
+  private long readSinceCheckpoint;
 
   private long offset;
 
@@ -37,17 +46,33 @@ public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStor
     this.jdbi = jdbi;
     this.name = name;
     this.offset = 1L;
+    this.checkpoints = jdbi.configuration().entryReaderCheckpoints();
+    this.queryEntries = jdbi.queryEntriesFrom();
     this.queryLastEntryId = jdbi.queryLastEntryId();
+    this.queryOffset = jdbi.queryEntryReaderOffset();
     this.currentEntryOffsetMapper = jdbi.currentEntryOffsetMapper(new String[] {":name", ":offset"});
     this.querySize = jdbi.querySize();
 
     mappers.forEach(mapper -> jdbi.handle.registerRowMapper((RowMapper<?>) mapper.queryMapper()));
 
+    try {
+      // each persisted offset is visible to other readers of my name at once
+      jdbi.configuration().connection.setAutoCommit(true);
+    } catch (SQLException e) {
+      logger().error("vlingo/symbio-jdbc: " + getClass().getSimpleName() + " Could not set auto-commit; offsets may not be persisted.", e);
+    }
+
     restoreCurrentOffset();
+
+    this.checkpointedOffset = offset;
+    this.checkpointedAt = System.currentTimeMillis();
   }
 
   @Override
   public void close() {
+    if (!checkpoints.isOnSeek() && offset != checkpointedOffset) {
+      updateCurrentOffset();
+    }
     try {
       if (!jdbi.configuration().connection.isClosed()) {
         jdbi.configuration().connection.close();
@@ -63,14 +88,10 @@ public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStor
   }
 
   @Override
-  @SuppressWarnings({ "rawtypes", "unchecked" })
   public Completes<Entry<String>> readNext() {
     try {
-      final QueryExpression expression = jdbi.queryEntry(offset);
-      final Entry entry = jdbi.handle().createQuery(expression.query).mapTo(Entry.class).one();
-      ++offset;
-      updateCurrentOffset();
-      return completes().with(entry);
+      final List<Entry<String>> entries = queryNext(1);
+      return completes().with(entries.isEmpty() ? null : entries.get(0));
     } catch (Exception e) {
       logger().info("vlingo/symbio-jdbc: " + getClass().getSimpleName() + " Could not read next entry because: " + e.getMessage(), e);
       return completes().with(null);
@@ -84,14 +105,9 @@ public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStor
   }
 
   @Override
-  @SuppressWarnings({ "rawtypes", "unchecked" })
   public Completes<List<Entry<String>>> readNext(final int maximumEntries) {
     try {
-      final QueryExpression expression = jdbi.queryEntries(offset, maximumEntries);
-      final List<Entry<String>> entries = (List) jdbi.handle().createQuery(expression.query).mapTo(expression.type).list();
-      offset += entries.size();
-      updateCurrentOffset();
-      return completes().with(entries);
+      return completes().with(queryNext(maximumEntries));
     } catch (Exception e) {
       logger().info("vlingo/symbio-jdbc: " + getClass().getSimpleName() + " Could not read next entry because: " + e.getMessage(), e);
       return completes().with(null);
@@ -142,8 +158,42 @@ public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStor
     }
   }
 
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private List<Entry<String>> queryNext(final int maximumEntries) {
+    final List<Entry<String>> entries =
+            (List) jdbi.handle().createQuery(queryEntries.query)
+              .bind("id", offset)
+              .bind("count", maximumEntries)
+              .setFetchSize(maximumEntries)
+              .mapTo(queryEntries.type)
+              .list();
+
+    if (!entries.isEmpty()) {
+      offset = Long.parseLong(entries.get(entries.size() - 1).id()) + 1L;
+      checkpointIfDue(entries.size());
+    }
+
+    return entries;
+  }
+
+  private void checkpointIfDue(final int entriesRead) {
+    readSinceCheckpoint += entriesRead;
+    if (checkpoints.isDue(readSinceCheckpoint, System.currentTimeMillis() - checkpointedAt)) {
+      updateCurrentOffset();
+    }
+  }
+
   private void restoreCurrentOffset() {
-    this.offset = retrieveLatestOffset();
+    this.offset = checkpoints.isOnSeek() ? retrieveLatestOffset() : retrieveCheckpointedOffset();
+  }
+
+  private long retrieveCheckpointedOffset() {
+    try {
+      return jdbi.handle().createQuery(queryOffset.query).bind("name", name).mapTo(Long.class).findFirst().orElse(offset);
+    } catch (Exception e) {
+      logger().info("vlingo/symbio-jdbc: " + getClass().getSimpleName() + " Could not retrieve checkpointed offset, using current.");
+      return offset;
+    }
   }
 
   private long retrieveLatestOffset() {
@@ -156,7 +206,15 @@ public class JdbiObjectStoreEntryReaderActor extends Actor implements ObjectStor
   }
 
   private void updateCurrentOffset() {
-    jdbi.handle().createUpdate(currentEntryOffsetMapper.insertStatement).bind("name", name).bind("offset", offset).execute();
+    try {
+      jdbi.handle().createUpdate(currentEntryOffsetMapper.insertStatement).bind("name", name).bind("offset", offset).execute();
+
+      checkpointedOffset = offset;
+      checkpointedAt = System.currentTimeMillis();
+      readSinceCheckpoint = 0;
+    } catch (Exception e) {
+      logger().error("vlingo/symbio-jdbc: " + getClass().getSimpleName() + " Could not persist the offset. Will retry on next checkpoint.", e);
+    }
   }
 
   public static class JdbiObjectStoreEntryReaderInstantiator implements ActorInstantiator<JdbiObjectStoreEntryReaderActor> {
@@ -183,6 +183,24 @@ public abstract class JdbiOnDatabase {
         return ListQueryExpression.using(Entry.class, queries.entriesQuery(id, count));
     }
 
+    /**
+     * Answer the {@code QueryExpression} for at most {@code :count} {@code Entry} instances,
+     * beginning with the identity {@code :id} or the next greater, whose text is the same
+     * for every read so that it is prepared once by drivers that cache statements.
+     * @return QueryExpression
+     */
+    public QueryExpression queryEntriesFrom() {
+        return QueryExpression.using(Entry.class, queries.entriesFromQuery(new String[] { ":id", ":count" }));
+    }
+
+    /**
+     * Answer the {@code QueryExpression} for the current offset of the entry reader named {@code :name}.
+     * @return QueryExpression
+     */
+    public QueryExpression queryEntryReaderOffset() {
+        return QueryExpression.using(Long.class, queries.entryReaderOffsetQuery(":name"));
+    }
+
     /**
      * Answer the {@code QueryExpression} for the id of the most recently inserted {@code Entry}.
      * @return QueryExpression
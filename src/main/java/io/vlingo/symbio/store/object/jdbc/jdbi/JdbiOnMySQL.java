@@ -31,7 +31,7 @@ public class JdbiOnMySQL extends JdbiOnDatabase {
         return JdbiPersistMapper.with(
                 MessageFormat.format(
                         "INSERT INTO TBL_VLINGO_OBJECTSTORE_ENTRYREADER_OFFSETS(O_READER_NAME, O_READER_OFFSET) VALUES({0}, {1}) " +
-                                "ON CONFLICT (O_READER_NAME) DO UPDATE SET O_READER_OFFSET=?",
+                                "ON DUPLICATE KEY UPDATE O_READER_OFFSET={1}",
                         placeholders[0],
                         placeholders[1]),
                 null,
@@ -7,6 +7,10 @@
 
 package io.vlingo.symbio.store.object.jdbc.jdbi;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiFunction;
 
 import org.jdbi.v3.core.statement.Update;
@@ -25,6 +29,8 @@ public class JdbiPersistMapper {
   public final String insertStatement;
   public final String updateStatement;
   public final BiFunction<Update,Object,Update>[] binders;
+  public final String tableName;
+  public final Map<String,String> columnsByField;
 
   /**
    * Answer a new {@code JdbiPersistMapper} with {@code insertStatement}, {@code updateStatement}, and {@code binder}.
@@ -75,9 +81,81 @@ public class JdbiPersistMapper {
    */
   @SafeVarargs
   public JdbiPersistMapper(final String idColumnName, final String insertStatement, final String updateStatement, final BiFunction<Update,Object,Update> ... binders) {
+    this(idColumnName, insertStatement, updateStatement, null, Collections.emptyMap(), binders);
+  }
+
+  /**
+   * Answer a copy of me that updates objects read for update by an {@code UPDATE} of
+   * {@code tableName} setting only the {@code columns} whose fields have changed, where
+   * each column is the field of the same name. See {@code withPartialUpdates(String, Map)}.
+   * @param tableName the String name of the table of the objects
+   * @param columns the String names of the columns that are updated partially
+   * @return JdbiPersistMapper
+   */
+  public JdbiPersistMapper withPartialUpdates(final String tableName, final String ... columns) {
+    final Map<String,String> columnsByField = new LinkedHashMap<>(columns.length);
+    for (final String column : columns) {
+      columnsByField.put(column, column);
+    }
+    return withPartialUpdates(tableName, columnsByField);
+  }
+
+  /**
+   * Answer a copy of me that updates objects read for update by an {@code UPDATE} of
+   * {@code tableName} setting only the columns of {@code columnsByField} whose fields have
+   * changed, each to the parameter named by its field, where the object is identified by
+   * the parameter named by my {@code idColumnName}, as bound by my {@code binders}. When
+   * only fields that are not columns have changed, the object is not updated. Objects that
+   * are not read for update, and so whose changes are unknown, are updated by my
+   * {@code updateStatement}.
+   * @param tableName the String name of the table of the objects
+   * @param columnsByField the {@code Map<String,String>} of the names of columns by the names of their fields
+   * @return JdbiPersistMapper
+   */
+  public JdbiPersistMapper withPartialUpdates(final String tableName, final Map<String,String> columnsByField) {
+    return new JdbiPersistMapper(idColumnName, insertStatement, updateStatement, tableName, new LinkedHashMap<>(columnsByField), binders);
+  }
+
+  /**
+   * Answer whether I update only the columns of changed fields.
+   * @return boolean
+   */
+  public boolean isPartiallyUpdating() {
+    return tableName != null;
+  }
+
+  /**
+   * Answer the {@code UPDATE} statement setting only the columns of {@code changedFields},
+   * or {@code null} if none of them is a column.
+   * @param changedFields the {@code List<String>} names of the changed fields
+   * @return String
+   */
+  public String partialUpdateStatement(final List<String> changedFields) {
+    final StringBuilder assignments = new StringBuilder();
+    for (final String field : changedFields) {
+      final String column = columnsByField.get(field);
+      if (column == null) continue;
+      if (assignments.length() > 0) assignments.append(", ");
+      assignments.append(column).append(" = :").append(field);
+    }
+    if (assignments.length() == 0) {
+      return null;
+    }
+    return "UPDATE " + tableName + " SET " + assignments + " WHERE " + idColumnName + " = :" + idColumnName;
+  }
+
+  private JdbiPersistMapper(
+          final String idColumnName,
+          final String insertStatement,
+          final String updateStatement,
+          final String tableName,
+          final Map<String,String> columnsByField,
+          final BiFunction<Update,Object,Update>[] binders) {
     this.idColumnName = idColumnName;
     this.insertStatement = insertStatement;
     this.updateStatement = updateStatement;
+    this.tableName = tableName;
+    this.columnsByField = Collections.unmodifiableMap(columnsByField);
     this.binders = binders;
   }
 }
@@ -0,0 +1,55 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.object.jdbc.jdbi;
+
+import java.util.List;
+
+import io.vlingo.symbio.store.object.StateObject;
+
+/**
+ * Tracks the changes of {@code StateObject}s read for update, by taking a snapshot
+ * of each when it is read and comparing the object to its snapshot when it is persisted.
+ * Implementations must be safe for concurrent use by multiple stores, and snapshots
+ * must not be affected by later changes to their objects.
+ */
+public interface StateObjectChangeTracker {
+  /**
+   * Answer the {@code StateObjectChangeTracker} that compares the fields of objects,
+   * which is the default.
+   * @return StateObjectChangeTracker
+   */
+  static StateObjectChangeTracker fieldLevel() {
+    return FieldChangeTracker.Instance;
+  }
+
+  /**
+   * Answer a snapshot of the state of {@code stateObject}.
+   * @param stateObject the StateObject of which to take a snapshot
+   * @return Object
+   */
+  Object snapshotOf(final StateObject stateObject);
+
+  /**
+   * Answer the names of the fields of {@code stateObject} that differ from those of
+   * its {@code snapshot}, which is empty when it is not modified.
+   * @param snapshot the Object snapshot previously taken of the object
+   * @param stateObject the StateObject to compare
+   * @return {@code List<String>}
+   */
+  List<String> changedFieldsOf(final Object snapshot, final StateObject stateObject);
+
+  /**
+   * Answer whether {@code stateObject} differs from its {@code snapshot}.
+   * @param snapshot the Object snapshot previously taken of the object
+   * @param stateObject the StateObject to compare
+   * @return boolean
+   */
+  default boolean isModified(final Object snapshot, final StateObject stateObject) {
+    return !changedFieldsOf(snapshot, stateObject).isEmpty();
+  }
+}
@@ -7,9 +7,6 @@
 
 package io.vlingo.symbio.store.object.jdbc.jdbi;
 
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -18,29 +15,12 @@ import java.util.Map;
 import io.vlingo.symbio.store.object.StateObject;
 
 /**
- * A binary copy of a given {@code StateObject}.
- * <p>
- * This is not thread-safe and is intended for use by an
- * actor-based implementation where a single copy will
- * be made at any given time. Note that the {@code byteStream}
- * and {@code serializer} are intentionally static.
- * </p>
+ * A copy of a given {@code StateObject}, being the snapshot of it taken by a
+ * {@code StateObjectChangeTracker}, to which the object is later compared.
  */
 final class StateObjectCopy {
-  // TODO: Improve choice of serializer
-  private static final ByteArrayOutputStream byteStream;
-  private static final ObjectOutputStream serializer;
-
-  static {
-    try {
-      byteStream = new ByteArrayOutputStream();
-      serializer = new ObjectOutputStream(byteStream);
-    } catch (Exception e) {
-      throw new IllegalStateException("Cannot initialize StateObjectCopy.");
-    }
-  }
-
-  private final byte[] image;
+  private final Object snapshot;
+  private final StateObjectChangeTracker tracker;
 
   /**
    * Answer a new {@code Map<Long, StateObjectCopy>} from the {@code persistentObjects}.
@@ -48,10 +28,21 @@ final class StateObjectCopy {
    * @return {@code Map<Long, StateObjectCopy>}
    */
   static Map<Long,StateObjectCopy> all(final List<?> persistentObjects) {
+    return all(persistentObjects, StateObjectChangeTracker.fieldLevel());
+  }
+
+  /**
+   * Answer a new {@code Map<Long, StateObjectCopy>} from the {@code persistentObjects}
+   * using {@code tracker}.
+   * @param persistentObjects the {@code List<?>}
+   * @param tracker the StateObjectChangeTracker taking the copies
+   * @return {@code Map<Long, StateObjectCopy>}
+   */
+  static Map<Long,StateObjectCopy> all(final List<?> persistentObjects, final StateObjectChangeTracker tracker) {
     final Map<Long,StateObjectCopy> all = new HashMap<>(persistentObjects.size());
     for (final Object persistentObject : persistentObjects) {
       final StateObject typed = StateObject.from(persistentObject);
-      all.put(typed.persistenceId(), new StateObjectCopy(typed));
+      all.put(typed.persistenceId(), new StateObjectCopy(typed, tracker));
     }
     return all;
   }
@@ -62,57 +53,50 @@ final class StateObjectCopy {
    * @return {@code Map<Long, StateObjectCopy>}
    */
   static Map<Long, StateObjectCopy> of(final StateObject persistentObject) {
-    return Collections.singletonMap(persistentObject.persistenceId(), new StateObjectCopy(persistentObject));
+    return of(persistentObject, StateObjectChangeTracker.fieldLevel());
   }
 
-  static String readable(byte[] data) {
-    final StringBuilder builder = new StringBuilder();
-    for (int idx = 0; idx < data.length; ++idx) {
-      builder.append("[").append(data[idx]).append("]");
-    }
-    return builder.toString();
+  /**
+   * Answer a new {@code Map<Long, StateObjectCopy>} from the {@code persistentObject}
+   * using {@code tracker}.
+   * @param persistentObject the StateObject
+   * @param tracker the StateObjectChangeTracker taking the copy
+   * @return {@code Map<Long, StateObjectCopy>}
+   */
+  static Map<Long, StateObjectCopy> of(final StateObject persistentObject, final StateObjectChangeTracker tracker) {
+    return Collections.singletonMap(persistentObject.persistenceId(), new StateObjectCopy(persistentObject, tracker));
   }
 
   /**
    * Constructs my state from the {@code persistentObject}.
-   * @param persistentObject the {@code StateObject} to copy.
+   * @param persistentObject the {@code StateObject} to copy
+   * @param tracker the StateObjectChangeTracker taking the copy
    */
-  StateObjectCopy(final StateObject persistentObject) {
-    this.image = toBytes(persistentObject);
+  StateObjectCopy(final StateObject persistentObject, final StateObjectChangeTracker tracker) {
+    this.tracker = tracker;
+    this.snapshot = tracker.snapshotOf(persistentObject);
   }
 
   /**
-   * Answer whether or not this {@code image} differs from that of the {@code persistentObject}.
+   * Answer whether or not my {@code snapshot} differs from the {@code persistentObject}.
    * @param persistentObject the StateObject to compare
    * @return boolean
    */
   boolean differsFrom(final StateObject persistentObject) {
-    final byte[] other = toBytes(persistentObject);
-    return !Arrays.equals(image, other);
+    return tracker.isModified(snapshot, persistentObject);
   }
 
-  byte[] image() {
-    return image;
+  /**
+   * Answer the names of the fields of the {@code persistentObject} that differ from my {@code snapshot}.
+   * @param persistentObject the StateObject to compare
+   * @return {@code List<String>}
+   */
+  List<String> changedFieldsOf(final StateObject persistentObject) {
+    return tracker.changedFieldsOf(snapshot, persistentObject);
   }
 
   @Override
   public String toString() {
-    return "StateObjectCopy[image=" + readable(image) + "]";
-  }
-
-  /**
-   * Answer the byte array of the serialized {@code persistentObject}.
-   * @param persistentObject the StateObject to serialize
-   * @return byte[]
-   */
-  private byte[] toBytes(final StateObject persistentObject) {
-    try {
-      byteStream.reset();
-      serializer.reset();
-      serializer.writeObject(persistentObject);
-      return byteStream.toByteArray();
-    } catch (Exception e) {
-      throw new IllegalStateException("Cannot initialize StateObjectCopy.");
-    }
+    return "StateObjectCopy[tracker=" + tracker.getClass().getSimpleName() + "]";
   }
 }
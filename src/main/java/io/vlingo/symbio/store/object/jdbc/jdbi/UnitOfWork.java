@@ -32,7 +32,19 @@ class UnitOfWork {
    * @return UnitOfWork
    */
   static UnitOfWork acquireFor(final long unitOfWorkId, final Object stateObject) {
-    return new UnitOfWork(unitOfWorkId, stateObject);
+    return new UnitOfWork(unitOfWorkId, stateObject, StateObjectChangeTracker.fieldLevel());
+  }
+
+  /**
+   * Answer a new {@code UnitOfWork} for the given {@code unitOfWorkId} and {@code stateObject}
+   * whose changes are tracked by {@code tracker}.
+   * @param unitOfWorkId the long unique identity for the UnitOfWork
+   * @param stateObject the Object to place under the UnitOfWork
+   * @param tracker the StateObjectChangeTracker of the stateObject
+   * @return UnitOfWork
+   */
+  static UnitOfWork acquireFor(final long unitOfWorkId, final Object stateObject, final StateObjectChangeTracker tracker) {
+    return new UnitOfWork(unitOfWorkId, stateObject, tracker);
   }
 
   /**
@@ -42,23 +54,36 @@ class UnitOfWork {
    * @return UnitOfWork
    */
   static UnitOfWork acquireFor(final long unitOfWorkId, final List<?> persistentObjects) {
-    return new UnitOfWork(unitOfWorkId, persistentObjects);
+    return new UnitOfWork(unitOfWorkId, persistentObjects, StateObjectChangeTracker.fieldLevel());
+  }
+
+  /**
+   * Answer a new {@code UnitOfWork} for the given {@code unitOfWorkId} and {@code persistentObjects}
+   * whose changes are tracked by {@code tracker}.
+   * @param unitOfWorkId the long unique identity for the UnitOfWork
+   * @param persistentObjects the {@code List<?>} to place under the UnitOfWork
+   * @param tracker the StateObjectChangeTracker of the persistentObjects
+   * @return UnitOfWork
+   */
+  static UnitOfWork acquireFor(final long unitOfWorkId, final List<?> persistentObjects, final StateObjectChangeTracker tracker) {
+    return new UnitOfWork(unitOfWorkId, persistentObjects, tracker);
   }
 
   /**
    * Constructs me state.
    * @param unitOfWorkId my long identity
    * @param stateObject the Object to manage
+   * @param tracker the StateObjectChangeTracker of the stateObject
    */
-  UnitOfWork(final long unitOfWorkId, final Object stateObject) {
+  UnitOfWork(final long unitOfWorkId, final Object stateObject, final StateObjectChangeTracker tracker) {
     this.unitOfWorkId = unitOfWorkId;
-    this.presistentObjects = StateObjectCopy.of(StateObject.from(stateObject));
+    this.presistentObjects = StateObjectCopy.of(StateObject.from(stateObject), tracker);
     this.timestamp = System.currentTimeMillis();
   }
 
-  UnitOfWork(final long unitOfWorkId, final List<?> persistentObjects) {
+  UnitOfWork(final long unitOfWorkId, final List<?> persistentObjects, final StateObjectChangeTracker tracker) {
     this.unitOfWorkId = unitOfWorkId;
-    this.presistentObjects = StateObjectCopy.all(persistentObjects);
+    this.presistentObjects = StateObjectCopy.all(persistentObjects, tracker);
     this.timestamp = System.currentTimeMillis();
   }
 
@@ -82,12 +107,23 @@ class UnitOfWork {
     return original.differsFrom(stateObject);
   }
 
+  /**
+   * Answer the names of the fields of {@code stateObject} that differ from
+   * its {@code StateObjectCopy}, or {@code null} if they are unknown.
+   * @param stateObject the StateObject to compare
+   * @return {@code List<String>}
+   */
+  List<String> changedFieldsOf(final StateObject stateObject) {
+    final StateObjectCopy original = presistentObjects.get(stateObject.persistenceId());
+    return original == null ? null : original.changedFieldsOf(stateObject);
+  }
+
   /**
    * A UnitOfWork appearing to be modified.
    */
   public static class AlwaysModifiedUnitOfWork extends UnitOfWork {
     AlwaysModifiedUnitOfWork() {
-      super(ObjectStore.NoId, Arrays.asList());
+      super(ObjectStore.NoId, Arrays.asList(), StateObjectChangeTracker.fieldLevel());
     }
 
     /**
@@ -98,5 +134,14 @@ class UnitOfWork {
     boolean isModified(final StateObject stateObject) {
       return true;
     }
+
+    /**
+     * Answer null, as changes are unknown.
+     * @return {@code List<String>}
+     */
+    @Override
+    List<String> changedFieldsOf(final StateObject stateObject) {
+      return null;
+    }
   }
 }
@@ -0,0 +1,410 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import io.vlingo.common.serialization.JsonSerialization;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.State;
+import io.vlingo.symbio.State.BinaryState;
+import io.vlingo.symbio.State.TextState;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+
+/**
+ * Exports the states of a type from a JDBC state store to a local file, and imports
+ * them from such a file, bypassing the {@code JDBCStateStoreActor}. States are exported
+ * in keyset chunks of the store's table in the order of their ids, and imported by the
+ * {@code bulkWrite()} of the delegate, so without dispatchables or entries. Files are
+ * read and written through {@code FileChannel}s in one of two {@code FileFormat}s:
+ * <ul>
+ * <li>{@code Binary}, a header of the magic {@code VSST}, the int file version and a byte
+ * of {@code 1} for binary or {@code 0} for text data, followed by one length-prefixed
+ * record per state;</li>
+ * <li>{@code Json}, one JSON object per line and state, where binary data is Base64.</li>
+ * </ul>
+ * States are exported with their data decoded, so a file may be imported into a store
+ * using another {@code PayloadCodec}, but not another {@code DataFormat}. I run on the
+ * thread of my caller, and the delegate should be my own, such as a {@code copy()}.
+ */
+public class BulkStateTransfer {
+  private static final int BinaryMagic = 0x56535354;
+  private static final int BinaryVersion = 1;
+  private static final int BufferSize = 1024 * 1024;
+
+  private final JDBCStorageDelegate<?> delegate;
+  private final FileFormat fileFormat;
+
+  public BulkStateTransfer(final JDBCStorageDelegate<?> delegate, final FileFormat fileFormat) {
+    this.delegate = delegate;
+    this.fileFormat = fileFormat;
+  }
+
+  /**
+   * Answer the number of states of {@code type} exported to {@code file}, which is
+   * replaced, reading up to {@code chunkSize} states per query. Expired states are not
+   * exported.
+   * @param type the {@code Class<?>} of the states
+   * @param file the Path of the file to write
+   * @param chunkSize the int maximum number of states read per query
+   * @return long
+   * @throws Exception when the states cannot be read or the file cannot be written
+   */
+  public long exportTo(final Class<?> type, final Path file, final int chunkSize) throws Exception {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be greater than zero.");
+    }
+    final String storeName = storeNameOf(type);
+
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      final StateFileWriter writer = fileFormat == FileFormat.Binary ? new BinaryStateFileWriter(channel) : new JsonStateFileWriter(channel);
+
+      long exported = 0;
+      String afterId = null;
+      int count;
+      do {
+        count = 0;
+        try {
+          delegate.beginRead();
+          final PreparedStatement scanStatement = delegate.scanExpressionFor(storeName, afterId, null, chunkSize);
+          try (final ResultSet result = scanStatement.executeQuery()) {
+            while (result.next()) {
+              afterId = result.getString(7);
+              final State<?> state = delegate.currentStateFrom(result, afterId);
+              writer.write(state);
+              ++count;
+            }
+          }
+          delegate.complete();
+        } catch (final Exception e) {
+          delegate.fail();
+          throw e;
+        }
+        exported += count;
+      } while (count == chunkSize);
+
+      writer.flush();
+      return exported;
+    }
+  }
+
+  /**
+   * Answer the number of states of {@code type} imported from {@code file}, writing
+   * up to {@code batchSize} states per JDBC batch and transaction. A state is not
+   * imported if the store already has the same or a newer version of it. The batches
+   * committed before a failure remain imported, so an import may be repeated.
+   * @param type the {@code Class<?>} of the states
+   * @param file the Path of the file to read
+   * @param batchSize the int maximum number of states written per transaction
+   * @return long
+   * @throws Exception when the file cannot be read or the states cannot be written
+   */
+  public long importFrom(final Class<?> type, final Path file, final int batchSize) throws Exception {
+    final String storeName = storeNameOf(type);
+
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final Iterator<State<?>> reader = fileFormat == FileFormat.Binary ? new BinaryStateFileReader(channel) : new JsonStateFileReader(channel);
+      return delegate.bulkWrite(storeName, reader, batchSize);
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private String storeNameOf(final Class<?> type) {
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+    if (storeName == null) {
+      throw new IllegalArgumentException("No type store for: " + type.getName());
+    }
+    return storeName;
+  }
+
+  private byte formatByte() {
+    return (byte) (delegate.format.isBinary() ? 1 : 0);
+  }
+
+  private State<?> stateOf(final String id, final String typeName, final int typeVersion, final Object data, final int dataVersion, final String metadataValue, final String metadataOperation) {
+    final Class<?> type;
+    try {
+      type = Class.forName(typeName);
+    } catch (final ClassNotFoundException e) {
+      throw new IllegalStateException("Cannot import state " + id + " of unknown type: " + typeName, e);
+    }
+    final Metadata metadata = Metadata.with(metadataValue == null ? "" : metadataValue, metadataOperation == null ? "" : metadataOperation);
+    return delegate.format.isBinary() ?
+            new BinaryState(id, type, typeVersion, (byte[]) data, dataVersion, metadata) :
+            new TextState(id, type, typeVersion, (String) data, dataVersion, metadata);
+  }
+
+  /**
+   * The format of the files of a {@code BulkStateTransfer}.
+   */
+  public static enum FileFormat { Binary, Json }
+
+  private static interface StateFileWriter {
+    void write(final State<?> state) throws IOException;
+    void flush() throws IOException;
+  }
+
+  private class BinaryStateFileWriter implements StateFileWriter {
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+
+    BinaryStateFileWriter(final FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocateDirect(BufferSize);
+      buffer.putInt(BinaryMagic).putInt(BinaryVersion).put(formatByte());
+    }
+
+    @Override
+    public void write(final State<?> state) throws IOException {
+      final byte[] id = bytesOf(state.id);
+      final byte[] type = bytesOf(state.type);
+      final byte[] metadataValue = bytesOf(state.metadata.value);
+      final byte[] metadataOperation = bytesOf(state.metadata.operation);
+      final byte[] data = state.isBinary() ? (byte[]) state.data : bytesOf((String) state.data);
+
+      final int length = 4 * 7 + lengthOf(id) + lengthOf(type) + lengthOf(metadataValue) + lengthOf(metadataOperation) + lengthOf(data);
+
+      final ByteBuffer record = reserve(4 + length);
+      record.putInt(length);
+      put(record, id);
+      put(record, type);
+      record.putInt(state.typeVersion);
+      record.putInt(state.dataVersion);
+      put(record, metadataValue);
+      put(record, metadataOperation);
+      put(record, data);
+
+      if (record != buffer) {
+        record.flip();
+        writeFully(record);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      buffer.flip();
+      writeFully(buffer);
+      buffer.clear();
+    }
+
+    private byte[] bytesOf(final String value) {
+      return value == null ? null : value.getBytes(UTF_8);
+    }
+
+    private int lengthOf(final byte[] value) {
+      return value == null ? 0 : value.length;
+    }
+
+    private void put(final ByteBuffer record, final byte[] value) {
+      if (value == null) {
+        record.putInt(-1);
+      } else {
+        record.putInt(value.length).put(value);
+      }
+    }
+
+    // answer my buffer with room for length bytes, or a record buffer of its own if too large
+    private ByteBuffer reserve(final int length) throws IOException {
+      if (buffer.remaining() < length) {
+        flush();
+      }
+      return buffer.remaining() < length ? ByteBuffer.allocate(length) : buffer;
+    }
+
+    private void writeFully(final ByteBuffer source) throws IOException {
+      while (source.hasRemaining()) {
+        channel.write(source);
+      }
+    }
+  }
+
+  private class BinaryStateFileReader implements Iterator<State<?>> {
+    private ByteBuffer buffer;
+    private final FileChannel channel;
+    private boolean exhausted;
+
+    BinaryStateFileReader(final FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocateDirect(BufferSize);
+      buffer.flip();
+
+      if (!fill(9) || buffer.getInt() != BinaryMagic) {
+        throw new IOException("Not a binary state file.");
+      }
+      final int version = buffer.getInt();
+      if (version != BinaryVersion) {
+        throw new IOException("Unsupported binary state file version: " + version);
+      }
+      if (buffer.get() != formatByte()) {
+        throw new IllegalArgumentException("The data format of the file is not: " + delegate.format);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (exhausted) return false;
+      try {
+        exhausted = !fill(4);
+        return !exhausted;
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public State<?> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        final int length = buffer.getInt();
+        if (!fill(length)) {
+          throw new EOFException("Truncated binary state file.");
+        }
+        final String id = string();
+        final String type = string();
+        final int typeVersion = buffer.getInt();
+        final int dataVersion = buffer.getInt();
+        final String metadataValue = string();
+        final String metadataOperation = string();
+        final byte[] data = bytes();
+
+        return stateOf(id, type, typeVersion, delegate.format.isBinary() ? data : new String(data, UTF_8), dataVersion, metadataValue, metadataOperation);
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private byte[] bytes() {
+      final int length = buffer.getInt();
+      if (length < 0) return null;
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    private String string() {
+      final byte[] bytes = bytes();
+      return bytes == null ? null : new String(bytes, UTF_8);
+    }
+
+    // answer whether at least length bytes are buffered, reading them as needed
+    private boolean fill(final int length) throws IOException {
+      if (buffer.remaining() >= length) return true;
+
+      if (buffer.capacity() < length) {
+        final ByteBuffer larger = ByteBuffer.allocate(length);
+        larger.put(buffer);
+        buffer = larger;
+      } else {
+        buffer.compact();
+      }
+      while (buffer.position() < length) {
+        if (channel.read(buffer) < 0) {
+          buffer.flip();
+          if (buffer.hasRemaining()) {
+            throw new EOFException("Truncated binary state file.");
+          }
+          return false;
+        }
+      }
+      buffer.flip();
+      return true;
+    }
+  }
+
+  private class JsonStateFileWriter implements StateFileWriter {
+    private final BufferedWriter writer;
+
+    JsonStateFileWriter(final FileChannel channel) {
+      this.writer = new BufferedWriter(Channels.newWriter(channel, UTF_8.newEncoder(), -1), BufferSize);
+    }
+
+    @Override
+    public void write(final State<?> state) throws IOException {
+      final String data = state.isBinary() ? Base64.getEncoder().encodeToString((byte[]) state.data) : (String) state.data;
+      writer.write(JsonSerialization.serialized(new JsonStateRecord(state.id, state.type, state.typeVersion, data, state.dataVersion, state.metadata)));
+      writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+  }
+
+  private class JsonStateFileReader implements Iterator<State<?>> {
+    private String line;
+    private final BufferedReader reader;
+
+    JsonStateFileReader(final FileChannel channel) {
+      this.reader = new BufferedReader(Channels.newReader(channel, UTF_8.newDecoder(), -1), BufferSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (line == null || line.isEmpty()) {
+          line = reader.readLine();
+          if (line == null) return false;
+        }
+        return true;
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public State<?> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final JsonStateRecord record = JsonSerialization.deserialized(line, JsonStateRecord.class);
+      line = null;
+      final Object data = delegate.format.isBinary() ? Base64.getDecoder().decode(record.data) : record.data;
+      return stateOf(record.id, record.type, record.typeVersion, data, record.dataVersion, record.metadataValue, record.metadataOperation);
+    }
+  }
+
+  private static final class JsonStateRecord {
+    final String id;
+    final String type;
+    final int typeVersion;
+    final String data;
+    final int dataVersion;
+    final String metadataValue;
+    final String metadataOperation;
+
+    JsonStateRecord(final String id, final String type, final int typeVersion, final String data, final int dataVersion, final Metadata metadata) {
+      this.id = id;
+      this.type = type;
+      this.typeVersion = typeVersion;
+      this.data = data;
+      this.dataVersion = dataVersion;
+      this.metadataValue = metadata.value;
+      this.metadataOperation = metadata.operation;
+    }
+  }
+}
@@ -7,7 +7,6 @@
 
 package io.vlingo.symbio.store.state.jdbc;
 
-import java.sql.Blob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -22,38 +21,55 @@ import io.vlingo.symbio.BaseEntry.TextEntry;
 import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.Metadata;
 import io.vlingo.symbio.store.EntryReader;
+import io.vlingo.symbio.store.common.jdbc.CheckpointPolicy;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.state.StateStoreEntryReader;
 
+/**
+ * Reads the entries of a JDBC state store in forward-only keyset batches of
+ * {@code E_ID >= currentId}, persisting my offset under my {@code name} according
+ * to the {@code CheckpointPolicy} of my configuration.
+ */
 public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor implements StateStoreEntryReader<T> {
   private final Advice advice;
+  private final CheckpointPolicy checkpoints;
+  private long checkpointedAt;
+  private long checkpointedId;
   private final Configuration configuration;
   private long currentId;
   private final String name;
   private final PreparedStatement queryBatch;
-  private final PreparedStatement queryCount;
   private final PreparedStatement queryLatestOffset;
-  private final PreparedStatement queryOne;
+  private final PreparedStatement querySize;
+  private long readSinceCheckpoint;
   private final PreparedStatement updateCurrentOffset;
 
   public DbStateStoreEntryReaderActor(final EntryReader.Advice advice, final String name) throws Exception {
     this.advice = advice;
     this.name = name;
     this.configuration = advice.specificConfiguration();
-    this.currentId = 0;
+    this.checkpoints = configuration.entryReaderCheckpoints();
 
-    this.queryBatch = configuration.connection.prepareStatement(this.advice.queryEntryBatchExpression);
-    this.queryCount = configuration.connection.prepareStatement(this.advice.queryCount);
+    this.queryBatch = configuration.connection.prepareStatement(this.advice.queryEntryBatchExpression, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    this.querySize = configuration.connection.prepareStatement(this.advice.queryCount);
     this.queryLatestOffset = configuration.connection.prepareStatement(this.advice.queryLatestOffset);
-    this.queryOne = configuration.connection.prepareStatement(this.advice.queryEntryExpression);
     this.updateCurrentOffset = configuration.connection.prepareStatement(this.advice.queryUpdateCurrentOffset);
+
+    this.currentId = checkpoints.isOnSeek() ? 0 : retrieveLatestOffset();
+    this.checkpointedId = currentId;
+    this.checkpointedAt = System.currentTimeMillis();
   }
 
   @Override
   public void close() {
+    if (!checkpoints.isOnSeek() && currentId != checkpointedId) {
+      updateCurrentOffset();
+    }
     try {
       queryBatch.close();
-      queryOne.close();
+      querySize.close();
+      queryLatestOffset.close();
+      updateCurrentOffset.close();
       configuration.connection.close();
     } catch (SQLException e) {
       // ignore
@@ -118,7 +134,7 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
 
   @Override
   public Completes<Long> size() {
-      try (final ResultSet resultSet = queryCount.executeQuery()) {
+      try (final ResultSet resultSet = querySize.executeQuery()) {
         if (resultSet.next()) {
             final long count = resultSet.getLong(1);
             return completes().with(count);
@@ -132,21 +148,8 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
   }
 
   private Entry<?> queryNext() {
-    try {
-      queryOne.clearParameters();
-      queryOne.setLong(1, currentId);
-      try (final ResultSet result = queryOne.executeQuery()) {
-        if (result.first()) {
-          final long id = result.getLong(1);
-          final Entry<?> entry = entryFrom(result, id);
-          currentId = id + 1L;
-          return entry;
-        }
-      }
-    } catch (Exception e) {
-      logger().error("Unable to read next entry for " + name + " because: " + e.getMessage(), e);
-    }
-    return null;
+    final List<Entry<?>> entries = queryNext(1);
+    return entries.isEmpty() ? null : entries.get(0);
   }
 
   private List<Entry<?>> queryNext(final int maximumEntries) {
@@ -154,6 +157,7 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
       queryBatch.clearParameters();
       queryBatch.setLong(1, currentId);
       queryBatch.setInt(2, maximumEntries);
+      queryBatch.setFetchSize(maximumEntries);
       try (final ResultSet result = queryBatch.executeQuery()) {
         final List<Entry<?>> entries = new ArrayList<>(maximumEntries);
         while (result.next()) {
@@ -162,6 +166,7 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
           currentId = id + 1L;
           entries.add(entry);
         }
+        checkpointIfDue(entries.size());
         return entries;
       }
     } catch (Exception e) {
@@ -180,15 +185,16 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
     final Metadata metadata = Metadata.with(metadataValue, metadataOperation);
 
     if (configuration.format.isBinary()) {
-      return new BinaryEntry(String.valueOf(id), typed(type), typeVersion, binaryDataFrom(result, 4), metadata);
-    } else {
+      return new BinaryEntry(String.valueOf(id), typed(type), typeVersion, configuration.payloadCodec().decode(binaryDataFrom(result, 4)), metadata);
+    } else if (configuration.payloadCodec().isNone()) {
       return new TextEntry(String.valueOf(id), typed(type), typeVersion, textDataFrom(result, 4), metadata);
+    } else {
+      return new TextEntry(String.valueOf(id), typed(type), typeVersion, configuration.payloadCodec().decodeText(binaryDataFrom(result, 4)), metadata);
     }
   }
 
   private byte[] binaryDataFrom(final ResultSet resultSet, final int columnIndex) throws Exception {
-    final Blob blob = resultSet.getBlob(columnIndex);
-    final byte[] data = blob.getBytes(1, (int) blob.length());
+    final byte[] data = resultSet.getBytes(columnIndex);
     return data;
   }
 
@@ -201,9 +207,16 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
     return Class.forName(typeName);
   }
 
+  private void checkpointIfDue(final int entriesRead) {
+    readSinceCheckpoint += entriesRead;
+    if (checkpoints.isDue(readSinceCheckpoint, System.currentTimeMillis() - checkpointedAt)) {
+      updateCurrentOffset();
+    }
+  }
+
   private long retrieveLatestOffset() {
       try {
-          queryBatch.clearParameters();
+          queryLatestOffset.clearParameters();
           queryLatestOffset.setString(1, name);
           try (ResultSet resultSet = queryLatestOffset.executeQuery()) {
               if (resultSet.next()) {
@@ -226,6 +239,10 @@ public class DbStateStoreEntryReaderActor<T extends Entry<?>> extends Actor impl
 
           updateCurrentOffset.executeUpdate();
           configuration.connection.commit();
+
+          checkpointedId = currentId;
+          checkpointedAt = System.currentTimeMillis();
+          readSinceCheckpoint = 0;
       } catch (Exception e) {
           logger().error("vlingo/symbio-postgres: Could not persist the offset. Will retry on next read.");
           logger().error("vlingo/symbio-postgres: " + e.getMessage(), e);
@@ -9,6 +9,7 @@ package io.vlingo.symbio.store.state.jdbc;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.Statement;
 
 import io.vlingo.actors.Logger;
 import io.vlingo.symbio.store.DataFormat;
@@ -18,7 +19,6 @@ public abstract class JDBCDispatchableCachedStatements<T> {
   private final CachedStatement<T> appendDispatchable;
   private final CachedStatement<T> queryEntry;
   private final CachedStatement<T> appendEntry;
-  private final CachedStatement<T> appendEntryIdentity;
   private final CachedStatement<T> deleteDispatchable;
   private final CachedStatement<T> queryAllDispatchables;
 
@@ -29,8 +29,7 @@ public abstract class JDBCDispatchableCachedStatements<T> {
           final T appendDataObject,
           final Logger logger) {
     this.queryEntry = createStatement(queryEntryExpression(), appendDataObject, connection, logger);
-    this.appendEntry = createStatement(appendEntryExpression(), appendDataObject, connection, logger);
-    this.appendEntryIdentity = createStatement(appendEntryIdentityExpression(), null, connection, logger);
+    this.appendEntry = createAppendEntryStatement(appendEntryExpression(), appendDataObject, connection, logger);
     this.appendDispatchable = createStatement(appendDispatchableExpression(), appendDataObject, connection, logger);
     this.deleteDispatchable = createStatement(deleteDispatchableExpression(), null, connection, logger);
     this.queryAllDispatchables = prepareQuery(createStatement(selectDispatchableExpression(), null, connection, logger), originatorId, logger);
@@ -44,10 +43,6 @@ public abstract class JDBCDispatchableCachedStatements<T> {
     return appendEntry;
   }
 
-  public final CachedStatement<T> appendEntryIdentityStatement() {
-    return appendEntryIdentity;
-  }
-
   public final CachedStatement<T> deleteStatement() {
     return deleteDispatchable;
   }
@@ -64,10 +59,41 @@ public abstract class JDBCDispatchableCachedStatements<T> {
   protected abstract String queryEntryExpression();
 
   protected abstract String appendDispatchableExpression();
-  protected abstract String appendEntryIdentityExpression();
   protected abstract String deleteDispatchableExpression();
   protected abstract String selectDispatchableExpression();
 
+  /**
+   * Answer the names of the key columns generated by the entry append, or {@code null}
+   * to answer whatever keys the driver generates, which suffices for dialects that
+   * generate only the identity column.
+   * @return String[]
+   */
+  protected String[] appendEntryGeneratedKeyColumns() {
+    return null;
+  }
+
+  private CachedStatement<T> createAppendEntryStatement(
+          final String sql,
+          final T data,
+          final Connection connection,
+          final Logger logger) {
+
+    try {
+      final String[] keyColumns = appendEntryGeneratedKeyColumns();
+      final PreparedStatement preparedStatement = keyColumns == null ?
+              connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) :
+              connection.prepareStatement(sql, keyColumns);
+      return new CachedStatement<T>(preparedStatement, data);
+    } catch (Exception e) {
+      final String message =
+              getClass().getSimpleName() + ": Failed to create append entry statement: \n" +
+              sql +
+              "\nbecause: " + e.getMessage();
+      logger.error(message, e);
+      throw new IllegalStateException(message);
+    }
+  }
+
   private CachedStatement<T> createStatement(
           final String sql,
           final T data,
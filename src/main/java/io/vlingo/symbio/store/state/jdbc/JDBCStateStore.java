@@ -0,0 +1,409 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.vlingo.common.Completes;
+import io.vlingo.common.Outcome;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.Source;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.state.StateStore;
+
+/**
+ * The {@code StateStore} protocol extended with operations
+ * that are specific to the JDBC implementation.
+ */
+public interface JDBCStateStore extends StateStore {
+
+  /**
+   * Read all states of {@code type} identified by {@code ids}, using one
+   * query per chunk of ids rather than one query per id.
+   * @param ids the {@code Collection<String>} of state identities
+   * @param type the {@code Class<?>} of the states
+   * @param interest the ReadAllResultInterest to which the outcome is reported
+   */
+  default void readAll(final Collection<String> ids, final Class<?> type, final ReadAllResultInterest interest) {
+    readAll(ids, type, interest, null);
+  }
+
+  /**
+   * Read all states of {@code type} identified by {@code ids}, using one
+   * query per chunk of ids rather than one query per id.
+   * @param ids the {@code Collection<String>} of state identities
+   * @param type the {@code Class<?>} of the states
+   * @param interest the ReadAllResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readAll(final Collection<String> ids, final Class<?> type, final ReadAllResultInterest interest, final Object object);
+
+  /**
+   * Read all states of {@code type} whose JSON documents match the {@code query},
+   * which is evaluated by the database, and may be served by its indexes. The found
+   * states are answered in the order read and {@code notFound} is always empty.
+   * @param type the {@code Class<?>} of the states
+   * @param query the JsonQuery to match
+   * @param interest the ReadAllResultInterest to which the outcome is reported
+   */
+  default void readAllMatching(final Class<?> type, final JsonQuery query, final ReadAllResultInterest interest) {
+    readAllMatching(type, query, interest, null);
+  }
+
+  /**
+   * Read all states of {@code type} whose JSON documents match the {@code query},
+   * which is evaluated by the database, and may be served by its indexes. The found
+   * states are answered in the order read and {@code notFound} is always empty.
+   * @param type the {@code Class<?>} of the states
+   * @param query the JsonQuery to match
+   * @param interest the ReadAllResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readAllMatching(final Class<?> type, final JsonQuery query, final ReadAllResultInterest interest, final Object object);
+
+  /**
+   * Read the state of {@code id} and {@code type} only if its stored version is not
+   * {@code knownVersion}, such as to validate a cached copy. When the stored version is
+   * {@code knownVersion} the outcome is {@code Result.Success} with a {@code null} state
+   * and the {@code knownVersion}, and its data is not transferred by the database.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param knownVersion the int state version already known to the reader
+   * @param interest the ReadResultInterest to which the outcome is reported
+   */
+  default void readIfChanged(final String id, final Class<?> type, final int knownVersion, final ReadResultInterest interest) {
+    readIfChanged(id, type, knownVersion, interest, null);
+  }
+
+  /**
+   * Read the state of {@code id} and {@code type} only if its stored version is not
+   * {@code knownVersion}, such as to validate a cached copy. When the stored version is
+   * {@code knownVersion} the outcome is {@code Result.Success} with a {@code null} state
+   * and the {@code knownVersion}, and its data is not transferred by the database.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param knownVersion the int state version already known to the reader
+   * @param interest the ReadResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readIfChanged(final String id, final Class<?> type, final int knownVersion, final ReadResultInterest interest, final Object object);
+
+  /**
+   * Read up to {@code maximumChanges} states of {@code type} written after the change
+   * sequence {@code afterSequence}, in the order of their change sequences, as maintained
+   * when using {@code Configuration.usingStateChanges(true)}. A follower of the changes
+   * reads the next batch after the {@code lastSequence} answered with the prior batch,
+   * starting with {@code 0}, so that each batch is one range read of an index. Each state
+   * is read once per batch at its latest version, so versions replaced between batches
+   * are not read. When several connections write the same table concurrently, such as
+   * the shards of a {@code ShardedJDBCStateStore}, no change is read before all changes
+   * of lesser change sequences are committed, so that none is missed. On Postgres the
+   * change sequence is the id of the writing transaction, read only below the oldest
+   * transaction in progress, and all changes of a transaction are read together, even
+   * beyond {@code maximumChanges}. On MySQL and HSQLDB change sequences are drawn in the
+   * order in which their transactions commit.
+   * @param type the {@code Class<?>} of the states
+   * @param afterSequence the long change sequence after which states are read
+   * @param maximumChanges the int maximum number of states to read
+   * @param interest the ChangesResultInterest to which the outcome is reported
+   */
+  default void readChanges(final Class<?> type, final long afterSequence, final int maximumChanges, final ChangesResultInterest interest) {
+    readChanges(type, afterSequence, maximumChanges, interest, null);
+  }
+
+  /**
+   * Read up to {@code maximumChanges} states of {@code type} written after the change
+   * sequence {@code afterSequence}, in the order of their change sequences.
+   * @param type the {@code Class<?>} of the states
+   * @param afterSequence the long change sequence after which states are read
+   * @param maximumChanges the int maximum number of states to read
+   * @param interest the ChangesResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readChanges(final Class<?> type, final long afterSequence, final int maximumChanges, final ChangesResultInterest interest, final Object object);
+
+  /**
+   * Read the state of {@code id} and {@code type} as it was at {@code stateVersion},
+   * which is either its current version or one retained by the {@code StateHistory}
+   * of the store. Any other version is {@code Result.NotFound}.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param stateVersion the int version of the state to read
+   * @param interest the ReadResultInterest to which the outcome is reported
+   */
+  default void readAtVersion(final String id, final Class<?> type, final int stateVersion, final ReadResultInterest interest) {
+    readAtVersion(id, type, stateVersion, interest, null);
+  }
+
+  /**
+   * Read the state of {@code id} and {@code type} as it was at {@code stateVersion},
+   * which is either its current version or one retained by the {@code StateHistory}
+   * of the store. Any other version is {@code Result.NotFound}.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param stateVersion the int version of the state to read
+   * @param interest the ReadResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readAtVersion(final String id, final Class<?> type, final int stateVersion, final ReadResultInterest interest, final Object object);
+
+  /**
+   * Read the version, stored type and metadata of the state of {@code id} and
+   * {@code type}, but not its data, such as to learn whether a cached copy is stale.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param interest the VersionResultInterest to which the outcome is reported
+   */
+  default void readVersion(final String id, final Class<?> type, final VersionResultInterest interest) {
+    readVersion(id, type, interest, null);
+  }
+
+  /**
+   * Read the version, stored type and metadata of the state of {@code id} and
+   * {@code type}, but not its data, such as to learn whether a cached copy is stale.
+   * @param id the String identity of the state
+   * @param type the {@code Class<?>} of the state
+   * @param interest the VersionResultInterest to which the outcome is reported
+   * @param object the Object to send back to the interest with the outcome
+   */
+  void readVersion(final String id, final Class<?> type, final VersionResultInterest interest, final Object object);
+
+  /**
+   * Scan all states of {@code type} in chunks of at most {@code chunkSize} ordered
+   * by id, starting with the first chunk. Each following chunk is read only when
+   * requested by the {@code ScanCursor} answered with the prior chunk.
+   * @param type the {@code Class<?>} of the states
+   * @param chunkSize the int maximum number of states of each chunk
+   * @param interest the ScanResultInterest to which each chunk is reported
+   */
+  default void scan(final Class<?> type, final int chunkSize, final ScanResultInterest interest) {
+    scan(type, null, null, chunkSize, interest, null);
+  }
+
+  /**
+   * Scan the next chunk of at most {@code chunkSize} states of {@code type} ordered by id,
+   * whose ids are greater than {@code afterId} and, unless {@code untilId} is {@code null},
+   * no greater than {@code untilId}. A {@code null} {@code afterId} starts with the first id.
+   * Chunks are read by keyset rather than offset, so each is read at the same cost, and only
+   * when requested, so that the memory used is bounded by the chunk regardless of table size.
+   * @param type the {@code Class<?>} of the states
+   * @param afterId the String id after which states are scanned, or null
+   * @param untilId the String id through which states are scanned, or null
+   * @param chunkSize the int maximum number of states of each chunk
+   * @param interest the ScanResultInterest to which each chunk is reported
+   * @param object the Object to send back to the interest with each chunk
+   */
+  void scan(final Class<?> type, final String afterId, final String untilId, final int chunkSize, final ScanResultInterest interest, final Object object);
+
+  /**
+   * Answer the ids that split the states of {@code type} into {@code partitions} ranges of
+   * about equal size, which may be scanned in parallel, where the first range is through the
+   * first id and the last is after the last id. The ids are read from the histogram of the
+   * ids where the database keeps one, as Postgres does once analyzed, without reading the
+   * table. Otherwise each id is found by a probe of the primary key index that skips, from
+   * the prior id, the number of states estimated by the database divided by
+   * {@code partitions}, so that all probes together read the index once. Fewer ids are
+   * answered when there are too few states, and none when the boundaries cannot be read.
+   * @param type the {@code Class<?>} of the states
+   * @param partitions the int number of ranges
+   * @return {@code Completes<List<String>>}
+   */
+  Completes<List<String>> scanBoundaries(final Class<?> type, final int partitions);
+
+  /**
+   * Write all of the {@code states} using a single transaction, where each
+   * write is reported individually to the {@code interest}.
+   * @param states the {@code List<StateToWrite<?,?>>} to write
+   * @param interest the WriteResultInterest to which each outcome is reported
+   */
+  default void writeAll(final List<StateToWrite<?,?>> states, final WriteResultInterest interest) {
+    writeAll(states, interest, null);
+  }
+
+  /**
+   * Write all of the {@code states} using a single transaction, where each
+   * write is reported individually to the {@code interest}.
+   * @param states the {@code List<StateToWrite<?,?>>} to write
+   * @param interest the WriteResultInterest to which each outcome is reported
+   * @param object the Object to send back to the interest with each outcome
+   */
+  void writeAll(final List<StateToWrite<?,?>> states, final WriteResultInterest interest, final Object object);
+
+  /**
+   * Defines the result of reading multiple states at once.
+   */
+  public static interface ReadAllResultInterest {
+    /**
+     * Receive the outcome of {@code readAll()}, where {@code bundles} holds the found
+     * states by id in the order requested and {@code notFound} the ids of those missing.
+     * @param outcome the {@code Outcome<StorageException,Result>} of the read
+     * @param bundles the {@code Map<String,ReadBundle<S>>} of found states
+     * @param notFound the {@code List<String>} of ids that were not found
+     * @param object the Object passed to readAll() that is sent back to the receiver
+     * @param <S> the type of the states
+     */
+    <S> void readAllResultedIn(final Outcome<StorageException, Result> outcome, final Map<String, ReadBundle<S>> bundles, final List<String> notFound, final Object object);
+  }
+
+  /**
+   * Defines the result of reading changed states.
+   */
+  public static interface ChangesResultInterest {
+    /**
+     * Receive the outcome of {@code readChanges()}, where {@code changes} holds the changed
+     * states in the order of their change sequences, and {@code lastSequence} is that of
+     * the last of them, or the {@code afterSequence} read after if there are none.
+     * @param outcome the {@code Outcome<StorageException,Result>} of the read
+     * @param changes the {@code List<ReadBundle<S>>} of changed states
+     * @param lastSequence the long change sequence after which the next changes are read
+     * @param object the Object passed to readChanges() that is sent back to the receiver
+     * @param <S> the type of the states
+     */
+    <S> void readChangesResultedIn(final Outcome<StorageException, Result> outcome, final List<ReadBundle<S>> changes, final long lastSequence, final Object object);
+  }
+
+  /**
+   * Defines the result of scanning states.
+   */
+  public static interface ScanResultInterest {
+    /**
+     * Receive the outcome of scanning a {@code chunk} of states, in the order of their ids.
+     * The next chunk is scanned only when requested by {@code cursor.next()}.
+     * @param outcome the {@code Outcome<StorageException,Result>} of the scan
+     * @param chunk the {@code List<ReadBundle<S>>} of scanned states
+     * @param cursor the ScanCursor of the next chunk
+     * @param object the Object passed to scan() that is sent back to the receiver
+     * @param <S> the type of the states
+     */
+    <S> void scanResultedIn(final Outcome<StorageException, Result> outcome, final List<ReadBundle<S>> chunk, final ScanCursor cursor, final Object object);
+  }
+
+  /**
+   * Defines the result of reading the version of a state.
+   */
+  public static interface VersionResultInterest {
+    /**
+     * Receive the outcome of {@code readVersion()}, where the version and metadata are
+     * only meaningful for {@code Result.Success}.
+     * @param outcome the {@code Outcome<StorageException,Result>} of the read
+     * @param id the String identity of the state
+     * @param storedType the String name of the stored type of the state, or null
+     * @param typeVersion the int version of the stored type
+     * @param stateVersion the int version of the state
+     * @param metadata the Metadata of the state, or null
+     * @param object the Object passed to readVersion() that is sent back to the receiver
+     */
+    void versionResultedIn(final Outcome<StorageException, Result> outcome, final String id, final String storedType, final int typeVersion, final int stateVersion, final Metadata metadata, final Object object);
+  }
+
+  /**
+   * The position of a scan following its last chunk.
+   */
+  public static class ScanCursor {
+    public final int chunkSize;
+    public final boolean exhausted;
+    public final String lastId;
+    public final Class<?> type;
+    public final String untilId;
+
+    private final ScanResultInterest interest;
+    private final Object object;
+    private final JDBCStateStore store;
+
+    ScanCursor(final JDBCStateStore store, final Class<?> type, final String lastId, final String untilId, final int chunkSize,
+            final boolean exhausted, final ScanResultInterest interest, final Object object) {
+      this.store = store;
+      this.type = type;
+      this.lastId = lastId;
+      this.untilId = untilId;
+      this.chunkSize = chunkSize;
+      this.exhausted = exhausted;
+      this.interest = interest;
+      this.object = object;
+    }
+
+    /**
+     * Request the next chunk, unless the scan is exhausted.
+     */
+    public void next() {
+      if (!exhausted) {
+        store.scan(type, lastId, untilId, chunkSize, interest, object);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "ScanCursor[type=" + type.getName() + " lastId=" + lastId + " untilId=" + untilId + " exhausted=" + exhausted + "]";
+    }
+  }
+
+  /**
+   * A single state read by {@code readAll()}.
+   * @param <S> the type of the state
+   */
+  public static class ReadBundle<S> {
+    public final String id;
+    public final S state;
+    public final int stateVersion;
+    public final Metadata metadata;
+
+    public ReadBundle(final String id, final S state, final int stateVersion, final Metadata metadata) {
+      this.id = id;
+      this.state = state;
+      this.stateVersion = stateVersion;
+      this.metadata = metadata;
+    }
+
+    @Override
+    public String toString() {
+      return "ReadBundle[id=" + id + " stateVersion=" + stateVersion + "]";
+    }
+  }
+
+  /**
+   * A single state with its sources to be written by {@code writeAll()}.
+   * @param <S> the type of the state
+   * @param <C> the type of the sources
+   */
+  public static class StateToWrite<S,C> {
+    public final String id;
+    public final S state;
+    public final int stateVersion;
+    public final List<Source<C>> sources;
+    public final Metadata metadata;
+
+    public static <S,C> StateToWrite<S,C> with(final String id, final S state, final int stateVersion) {
+      return new StateToWrite<>(id, state, stateVersion, Collections.emptyList(), Metadata.nullMetadata());
+    }
+
+    public static <S,C> StateToWrite<S,C> with(final String id, final S state, final int stateVersion, final List<Source<C>> sources) {
+      return new StateToWrite<>(id, state, stateVersion, sources, Metadata.nullMetadata());
+    }
+
+    public static <S,C> StateToWrite<S,C> with(final String id, final S state, final int stateVersion, final List<Source<C>> sources, final Metadata metadata) {
+      return new StateToWrite<>(id, state, stateVersion, sources, metadata);
+    }
+
+    public StateToWrite(final String id, final S state, final int stateVersion, final List<Source<C>> sources, final Metadata metadata) {
+      this.id = id;
+      this.state = state;
+      this.stateVersion = stateVersion;
+      this.sources = sources == null ? Collections.emptyList() : sources;
+      this.metadata = metadata == null ? Metadata.nullMetadata() : metadata;
+    }
+
+    @Override
+    public String toString() {
+      return "StateToWrite[id=" + id + " stateVersion=" + stateVersion + " sources=" + sources.size() + "]";
+    }
+  }
+}
@@ -11,15 +11,22 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
 import io.vlingo.actors.Actor;
 import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.actors.Definition;
+import io.vlingo.common.Cancellable;
 import io.vlingo.common.Completes;
 import io.vlingo.common.Failure;
+import io.vlingo.common.Outcome;
+import io.vlingo.common.Scheduled;
 import io.vlingo.common.Success;
 import io.vlingo.symbio.BaseEntry;
 import io.vlingo.symbio.Entry;
@@ -32,22 +39,27 @@ import io.vlingo.symbio.StateAdapterProvider;
 import io.vlingo.symbio.store.EntryReader;
 import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
 import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.dispatch.Dispatcher;
 import io.vlingo.symbio.store.dispatch.DispatcherControl;
 import io.vlingo.symbio.store.dispatch.DispatcherControl.DispatcherControlInstantiator;
 import io.vlingo.symbio.store.dispatch.control.DispatcherControlActor;
-import io.vlingo.symbio.store.state.StateStore;
 import io.vlingo.symbio.store.state.StateStoreEntryReader;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 
-public class JDBCStateStoreActor extends Actor implements StateStore {
+public class JDBCStateStoreActor extends Actor implements JDBCStateStore, Scheduled<Object> {
+
+  private final StateCache cache;
   private final JDBCStorageDelegate<TextState> delegate;
   private final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher;
   private final DispatcherControl dispatcherControl;
   private final Map<String,StateStoreEntryReader<?>> entryReaders;
   private final EntryAdapterProvider entryAdapterProvider;
+  private final Cancellable flusher;
+  private final Map<String,PendingWrite<?>> pending;
   private final StateAdapterProvider stateAdapterProvider;
+  private final WriteBehind writeBehind;
 
   public JDBCStateStoreActor(final JDBCStorageDelegate<TextState> delegate) {
     this(null, delegate, 0L, 0L);
@@ -57,23 +69,81 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     this(dispatcher, delegate, 1000L, 1000L);
   }
 
-  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public JDBCStateStoreActor(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate, final StateCache cache) {
+    this(dispatcher, delegate, 1000L, 1000L, cache);
+  }
+
   public JDBCStateStoreActor(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate,
           final long checkConfirmationExpirationInterval, final long confirmationExpiration) {
+    this(dispatcher, delegate, checkConfirmationExpirationInterval, confirmationExpiration, null);
+  }
+
+  public JDBCStateStoreActor(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate,
+          final long checkConfirmationExpirationInterval, final long confirmationExpiration, final StateCache cache) {
+    this(dispatcher, delegate, checkConfirmationExpirationInterval, confirmationExpiration, cache, true);
+  }
+
+  /**
+   * Constructs my default state, where I control the redelivery and confirmation of my
+   * unconfirmed dispatchables only if {@code controlsDispatching}. Stores that share the
+   * same originator, such as the shards of {@code ShardedJDBCStateStore}, must have
+   * only one that controls dispatching, or expired dispatchables are redelivered once per store.
+   * @param dispatcher the Dispatcher, which may be null
+   * @param delegate the JDBCStorageDelegate
+   * @param checkConfirmationExpirationInterval the long milliseconds between checks for expired confirmations
+   * @param confirmationExpiration the long milliseconds after which a dispatch confirmation expires
+   * @param cache the StateCache, which may be null
+   * @param controlsDispatching the boolean indicating whether I control dispatching
+   */
+  public JDBCStateStoreActor(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate,
+          final long checkConfirmationExpirationInterval, final long confirmationExpiration, final StateCache cache, final boolean controlsDispatching) {
+    this(dispatcher, delegate, checkConfirmationExpirationInterval, confirmationExpiration, cache, controlsDispatching, null);
+  }
+
+  /**
+   * Constructs my default state as above, where I write the states selected by
+   * {@code writeBehind} behind, or all states through if {@code writeBehind} is null.
+   * @param dispatcher the Dispatcher, which may be null
+   * @param delegate the JDBCStorageDelegate
+   * @param checkConfirmationExpirationInterval the long milliseconds between checks for expired confirmations
+   * @param confirmationExpiration the long milliseconds after which a dispatch confirmation expires
+   * @param cache the StateCache, which may be null
+   * @param controlsDispatching the boolean indicating whether I control dispatching
+   * @param writeBehind the WriteBehind, which may be null
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public JDBCStateStoreActor(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate,
+          final long checkConfirmationExpirationInterval, final long confirmationExpiration, final StateCache cache, final boolean controlsDispatching,
+          final WriteBehind writeBehind) {
     this.delegate = delegate;
+    this.cache = cache;
+    this.writeBehind = writeBehind;
+    this.pending = new LinkedHashMap<>();
+
+    if (writeBehind != null) {
+      this.flusher = stage().scheduler().schedule(selfAs(Scheduled.class), null, writeBehind.flushIntervalMillis, writeBehind.flushIntervalMillis);
+    } else {
+      this.flusher = null;
+    }
 
     this.entryReaders = new HashMap<>();
 
     this.entryAdapterProvider = EntryAdapterProvider.instance(stage().world());
     this.stateAdapterProvider = StateAdapterProvider.instance(stage().world());
 
-    if (dispatcher!=null){
+    if (dispatcher != null && !controlsDispatching) {
       this.dispatcher = dispatcher;
+      this.dispatcherControl = null;
+    } else if (dispatcher!=null){
+      this.dispatcher = dispatcher;
+      final JDBCStorageDelegate<TextState> controlDelegate = (JDBCStorageDelegate) delegate.copy();
+      controlDelegate.instrumentWith(delegate.instrumentation());
+      delegate.instrumentation().confirmationExpiration(confirmationExpiration);
       this.dispatcherControl = stage().actorFor(
         DispatcherControl.class,
         Definition.has(
           DispatcherControlActor.class,
-          new DispatcherControlInstantiator((Dispatcher) dispatcher, (JDBCStorageDelegate) delegate.copy(), checkConfirmationExpirationInterval, confirmationExpiration))
+          new DispatcherControlInstantiator((Dispatcher) dispatcher, controlDelegate, checkConfirmationExpirationInterval, confirmationExpiration))
       );
     } else {
       this.dispatcher = null;
@@ -81,8 +151,17 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     }
   }
 
+  @Override
+  public void intervalSignal(final Scheduled<Object> scheduled, final Object data) {
+    flushPending();
+  }
+
   @Override
   public void stop() {
+    if (flusher != null) {
+      flusher.cancel();
+    }
+    flushPending();
     for (final StateStoreEntryReader<?> reader : entryReaders.values()) {
       reader.close();
     }
@@ -123,12 +202,20 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
         return;
       }
 
+      final TextState cached = pendingOrCached(storeName, id);
+
+      if (cached != null) {
+        interest.readResultedIn(Success.of(Result.Success), id, stateAdapterProvider.fromRaw(cached), cached.dataVersion, cached.metadata, object);
+        return;
+      }
+
       try {
         delegate.beginRead();
         final PreparedStatement readStatement = delegate.readExpressionFor(storeName, id);
         try (final ResultSet result = readStatement.executeQuery()) {
-          if (result.first()) {
-            final TextState raw = delegate.stateFrom(result, id);
+          if (result.next()) {
+            final TextState raw = delegate.currentStateFrom(result, id);
+            if (cache != null) cache.put(storeName, raw);
             final Object state = stateAdapterProvider.fromRaw(raw);
             interest.readResultedIn(Success.of(Result.Success), id, state, raw.dataVersion, raw.metadata, object);
           } else {
@@ -153,6 +240,386 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     }
   }
 
+  @Override
+  public void readAll(final Collection<String> ids, final Class<?> type, final ReadAllResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readAll() missing ReadAllResultInterest for: " + (ids == null ? "unknown ids" : ids.size() + " ids"));
+      return;
+    }
+
+    if (ids == null || type == null) {
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.Error, ids == null ? "The ids are null." : "The type is null.")), Collections.emptyMap(), Collections.emptyList(), object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), Collections.emptyMap(), new ArrayList<>(ids), object);
+      return;
+    }
+
+    final List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    final Map<String, ReadBundle<Object>> read = new HashMap<>(distinctIds.size());
+    final List<String> uncachedIds = new ArrayList<>(distinctIds.size());
+
+    for (final String id : distinctIds) {
+      final TextState cached = pendingOrCached(storeName, id);
+      if (cached != null) {
+        read.put(id, new ReadBundle<>(id, stateAdapterProvider.fromRaw(cached), cached.dataVersion, cached.metadata));
+      } else {
+        uncachedIds.add(id);
+      }
+    }
+
+    try {
+      if (!uncachedIds.isEmpty()) {
+        delegate.beginRead();
+      }
+      final int chunkSize = delegate.readAllChunkSize();
+      for (int from = 0; from < uncachedIds.size(); from += chunkSize) {
+        final List<String> chunk = uncachedIds.subList(from, Math.min(from + chunkSize, uncachedIds.size()));
+        final PreparedStatement readAllStatement = delegate.readAllExpressionFor(storeName, chunk);
+        try (final ResultSet result = readAllStatement.executeQuery()) {
+          while (result.next()) {
+            final String id = result.getString(7);
+            final TextState raw = delegate.currentStateFrom(result, id);
+            if (cache != null) cache.put(storeName, raw);
+            read.put(id, new ReadBundle<>(id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata));
+          }
+        }
+      }
+      if (!uncachedIds.isEmpty()) {
+        delegate.complete();
+      }
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), Collections.emptyMap(), Collections.emptyList(), object);
+      logger().error(getClass().getSimpleName() + " readAll() failed because: " + e.getMessage() + " for: " + distinctIds.size() + " ids", e);
+      return;
+    }
+
+    final Map<String, ReadBundle<Object>> bundles = new LinkedHashMap<>(read.size());
+    final List<String> notFound = new ArrayList<>();
+    for (final String id : distinctIds) {
+      final ReadBundle<Object> bundle = read.get(id);
+      if (bundle != null) {
+        bundles.put(id, bundle);
+      } else {
+        notFound.add(id);
+      }
+    }
+
+    interest.readAllResultedIn(Success.of(Result.Success), bundles, notFound, object);
+  }
+
+  @Override
+  public void readAllMatching(final Class<?> type, final JsonQuery query, final ReadAllResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readAllMatching() missing ReadAllResultInterest for: " + query);
+      return;
+    }
+
+    if (type == null || query == null) {
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.Error, type == null ? "The type is null." : "The query is null.")), Collections.emptyMap(), Collections.emptyList(), object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), Collections.emptyMap(), Collections.emptyList(), object);
+      return;
+    }
+
+    flushPending();
+
+    final Map<String, ReadBundle<Object>> bundles = new LinkedHashMap<>();
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement queryStatement = delegate.queryExpressionFor(storeName, query);
+      try (final ResultSet result = queryStatement.executeQuery()) {
+        while (result.next()) {
+          final String id = result.getString(7);
+          final TextState raw = delegate.currentStateFrom(result, id);
+          if (cache != null) cache.put(storeName, raw);
+          bundles.put(id, new ReadBundle<>(id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata));
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.readAllResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), Collections.emptyMap(), Collections.emptyList(), object);
+      logger().error(getClass().getSimpleName() + " readAllMatching() failed because: " + e.getMessage() + " for: " + query, e);
+      return;
+    }
+
+    interest.readAllResultedIn(Success.of(Result.Success), bundles, Collections.emptyList(), object);
+  }
+
+  @Override
+  public void readIfChanged(final String id, final Class<?> type, final int knownVersion, final ReadResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readIfChanged() missing ResultInterest for: " + (id == null ? "unknown id" : id));
+      return;
+    }
+
+    if (id == null || type == null) {
+      interest.readResultedIn(Failure.of(new StorageException(Result.Error, id == null ? "The id is null." : "The type is null.")), id, null, -1, null, object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.readResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), id, null, -1, null, object);
+      return;
+    }
+
+    final TextState cached = pendingOrCached(storeName, id);
+
+    if (cached != null) {
+      final Object state = cached.dataVersion == knownVersion ? null : stateAdapterProvider.fromRaw(cached);
+      interest.readResultedIn(Success.of(Result.Success), id, state, cached.dataVersion, cached.metadata, object);
+      return;
+    }
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement readStatement = delegate.readIfChangedExpressionFor(storeName, id, knownVersion);
+      try (final ResultSet result = readStatement.executeQuery()) {
+        if (!result.next()) {
+          interest.readResultedIn(Failure.of(new StorageException(Result.NotFound, "Not found for: " + id)), id, null, -1, null, object);
+        } else if (result.getInt(4) == knownVersion) {
+          // the data column is null, so only the metadata is answered
+          interest.readResultedIn(Success.of(Result.Success), id, null, knownVersion, Metadata.with(result.getString(5), result.getString(6)), object);
+        } else {
+          final TextState raw = delegate.currentStateFrom(result, id);
+          if (cache != null) cache.put(storeName, raw);
+          interest.readResultedIn(Success.of(Result.Success), id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata, object);
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.readResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), id, null, -1, null, object);
+      logger().error(getClass().getSimpleName() + " readIfChanged() failed because: " + e.getMessage() + " for: " + id, e);
+    }
+  }
+
+  @Override
+  public void readChanges(final Class<?> type, final long afterSequence, final int maximumChanges, final ChangesResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readChanges() missing ChangesResultInterest for: " + (type == null ? "unknown type" : type.getName()));
+      return;
+    }
+
+    if (type == null || maximumChanges <= 0) {
+      interest.readChangesResultedIn(Failure.of(new StorageException(Result.Error, type == null ? "The type is null." : "The maximum changes must be greater than zero.")), Collections.emptyList(), afterSequence, object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.readChangesResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), Collections.emptyList(), afterSequence, object);
+      return;
+    }
+
+    flushPending();
+
+    final List<ReadBundle<Object>> changes = new ArrayList<>(maximumChanges);
+    long lastSequence = afterSequence;
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement changesStatement = delegate.readChangesExpressionFor(storeName, afterSequence, maximumChanges);
+      try (final ResultSet result = changesStatement.executeQuery()) {
+        while (result.next()) {
+          final String id = result.getString(7);
+          // changed states are not cached, which would evict those being used
+          final TextState raw = delegate.currentStateFrom(result, id);
+          changes.add(new ReadBundle<>(id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata));
+          lastSequence = result.getLong(8);
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.readChangesResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), Collections.emptyList(), afterSequence, object);
+      logger().error(getClass().getSimpleName() + " readChanges() failed because: " + e.getMessage() + " for: " + storeName + " after: " + afterSequence, e);
+      return;
+    }
+
+    interest.readChangesResultedIn(Success.of(Result.Success), changes, lastSequence, object);
+  }
+
+  @Override
+  public void readAtVersion(final String id, final Class<?> type, final int stateVersion, final ReadResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readAtVersion() missing ResultInterest for: " + (id == null ? "unknown id" : id));
+      return;
+    }
+
+    if (id == null || type == null) {
+      interest.readResultedIn(Failure.of(new StorageException(Result.Error, id == null ? "The id is null." : "The type is null.")), id, null, -1, null, object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.readResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), id, null, -1, null, object);
+      return;
+    }
+
+    final TextState cached = pendingOrCached(storeName, id);
+
+    if (cached != null && cached.dataVersion == stateVersion) {
+      interest.readResultedIn(Success.of(Result.Success), id, stateAdapterProvider.fromRaw(cached), cached.dataVersion, cached.metadata, object);
+      return;
+    }
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement readStatement = delegate.readHistoryExpressionFor(storeName, id, stateVersion);
+      try (final ResultSet result = readStatement.executeQuery()) {
+        if (result.next()) {
+          final TextState raw = delegate.currentStateFrom(result, id);
+          interest.readResultedIn(Success.of(Result.Success), id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata, object);
+        } else {
+          interest.readResultedIn(Failure.of(new StorageException(Result.NotFound, "Not found for: " + id + " at version: " + stateVersion)), id, null, -1, null, object);
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.readResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), id, null, -1, null, object);
+      logger().error(getClass().getSimpleName() + " readAtVersion() failed because: " + e.getMessage() + " for: " + id, e);
+    }
+  }
+
+  @Override
+  public void readVersion(final String id, final Class<?> type, final VersionResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " readVersion() missing VersionResultInterest for: " + (id == null ? "unknown id" : id));
+      return;
+    }
+
+    if (id == null || type == null) {
+      interest.versionResultedIn(Failure.of(new StorageException(Result.Error, id == null ? "The id is null." : "The type is null.")), id, null, -1, -1, null, object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.versionResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), id, null, -1, -1, null, object);
+      return;
+    }
+
+    final TextState cached = pendingOrCached(storeName, id);
+
+    if (cached != null) {
+      interest.versionResultedIn(Success.of(Result.Success), id, cached.type, cached.typeVersion, cached.dataVersion, cached.metadata, object);
+      return;
+    }
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement versionStatement = delegate.readVersionExpressionFor(storeName, id);
+      try (final ResultSet result = versionStatement.executeQuery()) {
+        if (result.next()) {
+          final Metadata metadata = Metadata.with(result.getString(4), result.getString(5));
+          interest.versionResultedIn(Success.of(Result.Success), id, result.getString(1), result.getInt(2), result.getInt(3), metadata, object);
+        } else {
+          interest.versionResultedIn(Failure.of(new StorageException(Result.NotFound, "Not found for: " + id)), id, null, -1, -1, null, object);
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.versionResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), id, null, -1, -1, null, object);
+      logger().error(getClass().getSimpleName() + " readVersion() failed because: " + e.getMessage() + " for: " + id, e);
+    }
+  }
+
+  @Override
+  public void scan(final Class<?> type, final String afterId, final String untilId, final int chunkSize, final ScanResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " scan() missing ScanResultInterest for: " + (type == null ? "unknown type" : type.getName()));
+      return;
+    }
+
+    final ScanCursor exhausted = new ScanCursor(null, type, afterId, untilId, chunkSize, true, interest, object);
+
+    if (type == null || chunkSize <= 0) {
+      interest.scanResultedIn(Failure.of(new StorageException(Result.Error, type == null ? "The type is null." : "The chunk size must be greater than zero.")), Collections.emptyList(), exhausted, object);
+      return;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null) {
+      interest.scanResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), Collections.emptyList(), exhausted, object);
+      return;
+    }
+
+    flushPending();
+
+    final List<ReadBundle<Object>> chunk = new ArrayList<>(chunkSize);
+
+    try {
+      delegate.beginRead();
+      final PreparedStatement scanStatement = delegate.scanExpressionFor(storeName, afterId, untilId, chunkSize);
+      try (final ResultSet result = scanStatement.executeQuery()) {
+        while (result.next()) {
+          final String id = result.getString(7);
+          // scanned states are not cached, which would evict those being used
+          final TextState raw = delegate.currentStateFrom(result, id);
+          chunk.add(new ReadBundle<>(id, stateAdapterProvider.fromRaw(raw), raw.dataVersion, raw.metadata));
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      interest.scanResultedIn(Failure.of(new StorageException(Result.Failure, e.getMessage(), e)), Collections.emptyList(), exhausted, object);
+      logger().error(getClass().getSimpleName() + " scan() failed because: " + e.getMessage() + " for: " + storeName + " after: " + afterId, e);
+      return;
+    }
+
+    final String lastId = chunk.isEmpty() ? afterId : chunk.get(chunk.size() - 1).id;
+    final ScanCursor cursor = new ScanCursor(selfAs(JDBCStateStore.class), type, lastId, untilId, chunkSize, chunk.size() < chunkSize, interest, object);
+
+    interest.scanResultedIn(Success.of(Result.Success), chunk, cursor, object);
+  }
+
+  @Override
+  public Completes<List<String>> scanBoundaries(final Class<?> type, final int partitions) {
+    final String storeName = type == null ? null : StateTypeStateStoreMap.storeNameFrom(type);
+
+    if (storeName == null || partitions <= 1) {
+      return completes().with(Collections.emptyList());
+    }
+
+    flushPending();
+
+    List<String> boundaries = sampledScanBoundaries(storeName, partitions);
+
+    if (boundaries == null) {
+      try {
+        boundaries = probedScanBoundaries(storeName, partitions);
+      } catch (final Exception e) {
+        delegate.fail();
+        logger().error(getClass().getSimpleName() + " scanBoundaries() failed because: " + e.getMessage() + " for: " + storeName, e);
+        return completes().with(Collections.emptyList());
+      }
+    }
+
+    return completes().with(boundaries);
+  }
+
   @Override
   public <S,C> void write(final String id, final S state, final int stateVersion, final List<Source<C>> sources, final Metadata metadata,
           final WriteResultInterest interest, final Object object) {
@@ -172,9 +639,24 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
                   stateAdapterProvider.asRaw(id, state, stateVersion) :
                   stateAdapterProvider.asRaw(id, state, stateVersion, metadata);
 
+          if (writeBehind != null && writeBehind.appliesTo(state.getClass())) {
+            if (sources.isEmpty()) {
+              writeBehind(storeName, raw, state, stateVersion, metadata, interest, object);
+              return;
+            }
+            // entries must be appended with their state, so its pending state is flushed first
+            flushPending();
+          }
+
           delegate.beginWrite();
           final PreparedStatement writeStatement = delegate.writeExpressionFor(storeName, raw);
-          writeStatement.execute();
+          if (writeStatement.executeUpdate() == 0) {
+            // the conditional upsert skipped the stored state, which is not older
+            delegate.fail();
+            if (cache != null) cache.invalidate(storeName, id);
+            interest.writeResultedIn(Failure.of(new StorageException(Result.ConcurrencyViolation, "Version conflict for: " + id)), id, state, stateVersion, sources, object);
+            return;
+          }
           final String dispatchId = storeName + ":" + id;
           final List<Entry<?>> entries = appendEntries(sources, stateVersion, metadata);
 
@@ -184,6 +666,8 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
 
           delegate.complete();
 
+          if (cache != null) cache.put(storeName, raw);
+
           dispatch(dispatchable);
 
           interest.writeResultedIn(Success.of(Result.Success), id, state, stateVersion, sources, object);
@@ -201,31 +685,256 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     }
   }
 
-  @SuppressWarnings("rawtypes")
+  @Override
+  public void writeAll(final List<StateToWrite<?,?>> states, final WriteResultInterest interest, final Object object) {
+    if (interest == null) {
+      logger().warn(getClass().getSimpleName() + " writeAll() missing ResultInterest for: " + states.size() + " states");
+      return;
+    }
+
+    final List<BatchedWrite<?,?>> batched = new ArrayList<>(states.size());
+    for (final StateToWrite<?,?> write : states) {
+      final BatchedWrite<?,?> each = batchedWriteOf(write, interest, object);
+      if (each != null) {
+        batched.add(each);
+      }
+    }
+
+    if (batched.isEmpty()) return;
+
+    flushPending();
+
+    writeBatched(batched, interest, object);
+  }
+
+  private void writeBatched(final List<BatchedWrite<?,?>> batched, final WriteResultInterest interest, final Object object) {
+    final Map<String,PreparedStatement> writeStatements = new LinkedHashMap<>();
+    PreparedStatement dispatchableStatement = null;
+
+    try {
+      delegate.beginWrite();
+
+      final Map<String,List<BatchedWrite<?,?>>> writesByStore = new LinkedHashMap<>();
+      for (final BatchedWrite<?,?> each : batched) {
+        final PreparedStatement writeStatement = delegate.writeExpressionFor(each.storeName, each.raw);
+        writeStatement.addBatch();
+        writeStatements.put(each.storeName, writeStatement);
+        writesByStore.computeIfAbsent(each.storeName, storeName -> new ArrayList<>()).add(each);
+      }
+      for (final Map.Entry<String,PreparedStatement> storeStatement : writeStatements.entrySet()) {
+        final int[] counts = storeStatement.getValue().executeBatch();
+        final List<BatchedWrite<?,?>> storeWrites = writesByStore.get(storeStatement.getKey());
+        for (int index = 0; index < counts.length; ++index) {
+          // the conditional upsert skipped the stored state, which is not older
+          storeWrites.get(index).violated = counts[index] == 0;
+        }
+      }
+
+      // entries of all writes are appended in a single batch
+      final List<Entry<?>> allEntries = new ArrayList<>();
+      for (final BatchedWrite<?,?> each : batched) {
+        if (each.violated) continue;
+        each.entries = each.write.sources.isEmpty() ? Collections.emptyList() : entryAdapterProvider.asEntries(each.write.sources, each.write.stateVersion, each.write.metadata);
+        allEntries.addAll(each.entries);
+      }
+      appendAll(allEntries);
+
+      for (final BatchedWrite<?,?> each : batched) {
+        if (each.violated) continue;
+        each.dispatchable = buildDispatchable(each.storeName + ":" + each.write.id, each.raw, each.entries);
+        dispatchableStatement = delegate.dispatchableWriteExpressionFor(each.dispatchable);
+        dispatchableStatement.addBatch();
+      }
+      if (dispatchableStatement != null) {
+        dispatchableStatement.executeBatch();
+      }
+
+      delegate.complete();
+
+      for (final BatchedWrite<?,?> each : batched) {
+        if (each.violated) {
+          if (cache != null) cache.invalidate(each.storeName, each.write.id);
+          each.violated(interest, object);
+        } else {
+          if (cache != null) cache.put(each.storeName, each.raw);
+          dispatch(each.dispatchable);
+          each.succeeded(interest, object);
+        }
+      }
+    } catch (final Exception e) {
+      logger().error(getClass().getSimpleName() + " writeAll() error because: " + e.getMessage(), e);
+      clearBatches(writeStatements.values(), dispatchableStatement);
+      delegate.fail();
+      for (final BatchedWrite<?,?> each : batched) {
+        each.failed(interest, object, e);
+      }
+    }
+  }
+
+  // the ids at the quantiles of the histogram of the database, without reading the table, or null if it has none
+  private List<String> sampledScanBoundaries(final String storeName, final int partitions) {
+    final List<String> sampled = new ArrayList<>();
+    try {
+      final PreparedStatement statisticsStatement = delegate.scanStatisticsExpressionFor(storeName);
+      if (statisticsStatement == null) return null;
+      delegate.beginRead();
+      try (final ResultSet result = statisticsStatement.executeQuery()) {
+        while (result.next()) {
+          sampled.add(result.getString(1));
+        }
+      }
+      delegate.complete();
+    } catch (final Exception e) {
+      delegate.fail();
+      logger().info(getClass().getSimpleName() + " scanBoundaries() could not read the statistics of: " + storeName + " because: " + e.getMessage());
+      return null;
+    }
+
+    if (sampled.size() < 2) return null;
+
+    final List<String> boundaries = new ArrayList<>(partitions - 1);
+    for (int partition = 1; partition < partitions; ++partition) {
+      addScanBoundary(boundaries, sampled.get((int) ((long) (sampled.size() - 1) * partition / partitions)));
+    }
+    return boundaries;
+  }
+
+  // the ids that follow each estimated share of the states, found by probes that together walk the primary key index once
+  private List<String> probedScanBoundaries(final String storeName, final int partitions) throws Exception {
+    final List<String> boundaries = new ArrayList<>(partitions - 1);
+
+    delegate.beginRead();
+    long estimate = 0;
+    final PreparedStatement estimateStatement = delegate.scanEstimateExpressionFor(storeName);
+    try (final ResultSet result = estimateStatement.executeQuery()) {
+      if (result.next()) {
+        estimate = result.getLong(1);
+      }
+    }
+    final long share = estimate / partitions;
+    if (share > 0) {
+      String previous = null;
+      for (int partition = 1; partition < partitions; ++partition) {
+        // the first boundary is preceded by a share, and each other by a share less itself
+        final PreparedStatement probeStatement = delegate.scanProbeExpressionFor(storeName, previous, previous == null ? share : share - 1);
+        try (final ResultSet result = probeStatement.executeQuery()) {
+          previous = result.next() ? result.getString(1) : null;
+        }
+        if (previous == null) break;
+        addScanBoundary(boundaries, previous);
+      }
+    }
+    delegate.complete();
+
+    return boundaries;
+  }
+
+  private void addScanBoundary(final List<String> boundaries, final String boundary) {
+    if (boundary != null && (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary))) {
+      boundaries.add(boundary);
+    }
+  }
+
+  private void flushPending() {
+    if (pending.isEmpty()) return;
+
+    final List<BatchedWrite<?,?>> batched = new ArrayList<>(pending.values());
+    pending.clear();
+
+    writeBatched(batched, null, null);
+  }
+
+  private TextState pendingOrCached(final String storeName, final String id) {
+    if (!pending.isEmpty()) {
+      final PendingWrite<?> pendingWrite = pending.get(storeName + ":" + id);
+      if (pendingWrite != null) return pendingWrite.raw;
+    }
+    return cache == null ? null : cache.get(storeName, id);
+  }
+
+  private <S> void writeBehind(final String storeName, final TextState raw, final S state, final int stateVersion, final Metadata metadata,
+          final WriteResultInterest interest, final Object object) {
+    final String key = storeName + ":" + raw.id;
+    final PendingWrite<?> prior = pending.get(key);
+
+    if (prior != null && stateVersion <= prior.write.stateVersion) {
+      interest.writeResultedIn(Failure.of(new StorageException(Result.ConcurrencyViolation, "Version conflict for: " + raw.id)), raw.id, state, stateVersion, Collections.emptyList(), object);
+      return;
+    }
+
+    final PendingWrite<S> latest = new PendingWrite<>(new StateToWrite<>(raw.id, state, stateVersion, Collections.emptyList(), metadata), storeName, raw, prior);
+    latest.awaiting(new AwaitingWrite(state, stateVersion, interest, object));
+    pending.put(key, latest);
+
+    if (pending.size() >= writeBehind.maximumPending) {
+      flushPending();
+    }
+  }
+
+  private <S,C> BatchedWrite<S,C> batchedWriteOf(final StateToWrite<S,C> write, final WriteResultInterest interest, final Object object) {
+    if (write.state == null) {
+      interest.writeResultedIn(Failure.of(new StorageException(Result.Error, "The state is null.")), write.id, null, write.stateVersion, write.sources, object);
+      return null;
+    }
+
+    final String storeName = StateTypeStateStoreMap.storeNameFrom(write.state.getClass());
+
+    if (storeName == null) {
+      interest.writeResultedIn(Failure.of(new StorageException(Result.NoTypeStore, "No type store.")), write.id, write.state, write.stateVersion, write.sources, object);
+      return null;
+    }
+
+    try {
+      final TextState raw = stateAdapterProvider.asRaw(write.id, write.state, write.stateVersion, write.metadata);
+
+      return new BatchedWrite<>(write, storeName, raw);
+    } catch (final Exception e) {
+      logger().error(getClass().getSimpleName() + " writeAll() error because: " + e.getMessage(), e);
+      interest.writeResultedIn(Failure.of(new StorageException(Result.Error, e.getMessage(), e)), write.id, write.state, write.stateVersion, write.sources, object);
+      return null;
+    }
+  }
+
+  private void clearBatches(final Iterable<PreparedStatement> writeStatements, final PreparedStatement dispatchableStatement) {
+    try {
+      for (final PreparedStatement writeStatement : writeStatements) {
+        writeStatement.clearBatch();
+      }
+      if (dispatchableStatement != null) {
+        dispatchableStatement.clearBatch();
+      }
+    } catch (final Exception e) {
+      logger().error(getClass().getSimpleName() + " writeAll() could not clear batches because: " + e.getMessage(), e);
+    }
+  }
+
   private <C> List<Entry<?>> appendEntries(final List<Source<C>> sources, final int stateVersion, final Metadata metadata) {
     if (sources.isEmpty()) return Collections.emptyList();
+    final List<Entry<?>> adapted = entryAdapterProvider.asEntries(sources, stateVersion, metadata);
+    appendAll(adapted);
+    return adapted;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private void appendAll(final List<Entry<?>> entries) {
+    if (entries.isEmpty()) return;
     try {
-      final List<Entry<?>> adapted = entryAdapterProvider.asEntries(sources, stateVersion, metadata);
-      for (final Entry<?> entry : adapted) {
-        long id = -1L;
-        final PreparedStatement appendStatement = delegate.appendExpressionFor(entry);
-        final int count = appendStatement.executeUpdate();
-        if (count == 1) {
-          final PreparedStatement queryLastIdentityStatement = delegate.appendIdentityExpression();
-          try (final ResultSet result = queryLastIdentityStatement.executeQuery()) {
-            if (result.next()) {
-              id = result.getLong(1);
-              ((BaseEntry) entry).__internal__setId(Long.toString(id));
-            }
+      PreparedStatement appendStatement = null;
+      for (final Entry<?> entry : entries) {
+        appendStatement = delegate.appendExpressionFor(entry);
+        appendStatement.addBatch();
+      }
+      appendStatement.executeBatch();
+      try (final ResultSet generatedKeys = appendStatement.getGeneratedKeys()) {
+        for (final Entry<?> entry : entries) {
+          if (!generatedKeys.next()) {
+            final String message = "Could not retrieve entry id.";
+            logger().error(message);
+            throw new IllegalStateException(message);
           }
-        }
-        if (id == -1L) {
-          final String message = "Could not retrieve entry id.";
-          logger().error(message);
-          throw new IllegalStateException(message);
+          ((BaseEntry) entry).__internal__setId(Long.toString(generatedKeys.getLong(1)));
         }
       }
-      return adapted;
     } catch (final Exception e) {
       final String message = "Failed to append entry because: " + e.getMessage();
       logger().error(message, e);
@@ -235,6 +944,7 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
 
   private void dispatch(final Dispatchable<Entry<?>, State<String>> dispatchable) {
     if (this.dispatcher != null) {
+      delegate.instrumentation().committed(dispatchable);
       dispatcher.dispatch(dispatchable);
     }
   }
@@ -243,9 +953,95 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     return new Dispatchable<>(dispatchId, LocalDateTime.now(), state.asTextState(), entries);
   }
 
+  private static class BatchedWrite<S,C> {
+    final StateToWrite<S,C> write;
+    final String storeName;
+    final TextState raw;
+    Dispatchable<Entry<?>, State<String>> dispatchable;
+    List<Entry<?>> entries;
+    boolean violated;
+
+    BatchedWrite(final StateToWrite<S,C> write, final String storeName, final TextState raw) {
+      this.write = write;
+      this.storeName = storeName;
+      this.raw = raw;
+    }
+
+    void failed(final WriteResultInterest interest, final Object object, final Exception e) {
+      interest.writeResultedIn(Failure.of(new StorageException(Result.Error, e.getMessage(), e)), write.id, write.state, write.stateVersion, write.sources, object);
+    }
+
+    void violated(final WriteResultInterest interest, final Object object) {
+      interest.writeResultedIn(Failure.of(new StorageException(Result.ConcurrencyViolation, "Version conflict for: " + write.id)), write.id, write.state, write.stateVersion, write.sources, object);
+    }
+
+    void succeeded(final WriteResultInterest interest, final Object object) {
+      interest.writeResultedIn(Success.of(Result.Success), write.id, write.state, write.stateVersion, write.sources, object);
+    }
+  }
+
+  /**
+   * The latest pending state of an id that is written behind, which answers the
+   * interests of all writes it replaced with success, because each had a valid version
+   * when replaced, and its own interest with its own outcome, when flushed.
+   */
+  private static class PendingWrite<S> extends BatchedWrite<S,Object> {
+    final List<AwaitingWrite> awaiting;
+
+    PendingWrite(final StateToWrite<S,Object> write, final String storeName, final TextState raw, final PendingWrite<?> prior) {
+      super(write, storeName, raw);
+      this.awaiting = prior == null ? new ArrayList<>(2) : prior.awaiting;
+    }
+
+    void awaiting(final AwaitingWrite write) {
+      awaiting.add(write);
+    }
+
+    @Override
+    void failed(final WriteResultInterest interest, final Object object, final Exception e) {
+      answer(Failure.of(new StorageException(Result.Error, e.getMessage(), e)));
+    }
+
+    @Override
+    void violated(final WriteResultInterest interest, final Object object) {
+      answer(Failure.of(new StorageException(Result.ConcurrencyViolation, "Version conflict for: " + write.id)));
+    }
+
+    @Override
+    void succeeded(final WriteResultInterest interest, final Object object) {
+      answer(Success.of(Result.Success));
+    }
+
+    private void answer(final Outcome<StorageException, Result> outcome) {
+      final int last = awaiting.size() - 1;
+      for (int index = 0; index <= last; ++index) {
+        final AwaitingWrite each = awaiting.get(index);
+        each.interest.writeResultedIn(index == last ? outcome : Success.of(Result.Success), write.id, each.state, each.stateVersion, Collections.emptyList(), each.object);
+      }
+    }
+  }
+
+  private static class AwaitingWrite {
+    final WriteResultInterest interest;
+    final Object object;
+    final Object state;
+    final int stateVersion;
+
+    AwaitingWrite(final Object state, final int stateVersion, final WriteResultInterest interest, final Object object) {
+      this.state = state;
+      this.stateVersion = stateVersion;
+      this.interest = interest;
+      this.object = object;
+    }
+  }
+
   public static class JDBCStateStoreInstantiator implements ActorInstantiator<JDBCStateStoreActor> {
+    private StateCache cache;
+    private boolean controlsDispatching = true;
     private Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher;
     private JDBCStorageDelegate<TextState> delegate;
+    private DispatcherInstrumentation instrumentation;
+    private WriteBehind writeBehind;
 
     public JDBCStateStoreInstantiator(final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher, final JDBCStorageDelegate<TextState> delegate) {
       this.dispatcher = dispatcher;
@@ -256,7 +1052,9 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
 
     @Override
     public JDBCStateStoreActor instantiate() {
-      return new JDBCStateStoreActor(dispatcher, delegate);
+      // shards of one originator report to one instrumentation, read by the shard that controls dispatching
+      if (instrumentation != null) delegate.instrumentWith(instrumentation);
+      return new JDBCStateStoreActor(dispatcher, delegate, 1000L, 1000L, cache, controlsDispatching, writeBehind);
     }
 
     @Override
@@ -268,12 +1066,24 @@ public class JDBCStateStoreActor extends Actor implements StateStore {
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public void set(final String name, final Object value) {
       switch (name) {
+      case "cache":
+        this.cache = (StateCache) value;
+        break;
+      case "controlsDispatching":
+        this.controlsDispatching = (Boolean) value;
+        break;
       case "dispatcher":
         this.dispatcher = (Dispatcher) value;
         break;
       case "delegate":
         this.delegate = (JDBCStorageDelegate) value;
         break;
+      case "instrumentation":
+        this.instrumentation = (DispatcherInstrumentation) value;
+        break;
+      case "writeBehind":
+        this.writeBehind = (WriteBehind) value;
+        break;
       }
     }
   }
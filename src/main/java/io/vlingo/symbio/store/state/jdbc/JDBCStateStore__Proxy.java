@@ -0,0 +1,167 @@
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.Collection;
+import java.util.List;
+
+import io.vlingo.actors.Actor;
+import io.vlingo.actors.DeadLetter;
+import io.vlingo.actors.LocalMessage;
+import io.vlingo.actors.Mailbox;
+import io.vlingo.actors.Returns;
+import io.vlingo.common.BasicCompletes;
+import io.vlingo.common.Completes;
+import io.vlingo.symbio.Entry;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.Source;
+import io.vlingo.symbio.store.state.StateStoreEntryReader;
+
+public class JDBCStateStore__Proxy implements io.vlingo.symbio.store.state.jdbc.JDBCStateStore {
+
+  private static final String writeRepresentation1 = "write(java.lang.String, S, int, java.util.List<Source<?>>, io.vlingo.symbio.Metadata, io.vlingo.symbio.store.state.StateStore.WriteResultInterest, java.lang.Object)";
+  private static final String readRepresentation2 = "read(java.lang.String, java.lang.Class<?>, io.vlingo.symbio.store.state.StateStore.ReadResultInterest, java.lang.Object)";
+  private static final String entryReaderRepresentation3 = "entryReader(java.lang.String)";
+  private static final String writeAllRepresentation4 = "writeAll(java.util.List<io.vlingo.symbio.store.state.jdbc.JDBCStateStore.StateToWrite<?, ?>>, io.vlingo.symbio.store.state.StateStore.WriteResultInterest, java.lang.Object)";
+  private static final String readAllRepresentation5 = "readAll(java.util.Collection<java.lang.String>, java.lang.Class<?>, io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadAllResultInterest, java.lang.Object)";
+  private static final String scanRepresentation7 = "scan(java.lang.Class<?>, java.lang.String, java.lang.String, int, io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ScanResultInterest, java.lang.Object)";
+  private static final String scanBoundariesRepresentation8 = "scanBoundaries(java.lang.Class<?>, int)";
+  private static final String readIfChangedRepresentation9 = "readIfChanged(java.lang.String, java.lang.Class<?>, int, io.vlingo.symbio.store.state.StateStore.ReadResultInterest, java.lang.Object)";
+  private static final String readVersionRepresentation10 = "readVersion(java.lang.String, java.lang.Class<?>, io.vlingo.symbio.store.state.jdbc.JDBCStateStore.VersionResultInterest, java.lang.Object)";
+  private static final String readAtVersionRepresentation11 = "readAtVersion(java.lang.String, java.lang.Class<?>, int, io.vlingo.symbio.store.state.StateStore.ReadResultInterest, java.lang.Object)";
+  private static final String readChangesRepresentation12 = "readChanges(java.lang.Class<?>, long, int, io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ChangesResultInterest, java.lang.Object)";
+  private static final String readAllMatchingRepresentation6 = "readAllMatching(java.lang.Class<?>, io.vlingo.symbio.store.state.jdbc.JsonQuery, io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadAllResultInterest, java.lang.Object)";
+
+  private final Actor actor;
+  private final Mailbox mailbox;
+
+  public JDBCStateStore__Proxy(final Actor actor, final Mailbox mailbox){
+    this.actor = actor;
+    this.mailbox = mailbox;
+  }
+
+  @Override
+  public <S,C>void write(final java.lang.String arg0, final S arg1, final int arg2, final List<Source<C>> arg3, final Metadata arg4, final io.vlingo.symbio.store.state.StateStore.WriteResultInterest arg5, final java.lang.Object arg6) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.write(arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, writeRepresentation1); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, writeRepresentation1)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, writeRepresentation1));
+    }
+  }
+  @Override
+  public void read(final java.lang.String arg0, final java.lang.Class<?> arg1, final io.vlingo.symbio.store.state.StateStore.ReadResultInterest arg2, final java.lang.Object arg3) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.read(arg0, arg1, arg2, arg3);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readRepresentation2); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readRepresentation2)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readRepresentation2));
+    }
+  }
+  @Override
+  public <ET extends Entry<?>>Completes<StateStoreEntryReader<ET>> entryReader(final java.lang.String arg0) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.entryReader(arg0);
+      final Completes<StateStoreEntryReader<ET>> completes = new BasicCompletes<>(actor.scheduler());
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, Returns.value(completes), entryReaderRepresentation3); }
+      else { mailbox.send(new LocalMessage<JDBCStateStore>(actor, JDBCStateStore.class, consumer, Returns.value(completes), entryReaderRepresentation3)); }
+      return completes;
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, entryReaderRepresentation3));
+    }
+    return null;
+  }
+  @Override
+  public void writeAll(final List<StateToWrite<?,?>> arg0, final io.vlingo.symbio.store.state.StateStore.WriteResultInterest arg1, final java.lang.Object arg2) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.writeAll(arg0, arg1, arg2);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, writeAllRepresentation4); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, writeAllRepresentation4)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, writeAllRepresentation4));
+    }
+  }
+  @Override
+  public void readAll(final Collection<String> arg0, final java.lang.Class<?> arg1, final io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadAllResultInterest arg2, final java.lang.Object arg3) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readAll(arg0, arg1, arg2, arg3);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readAllRepresentation5); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readAllRepresentation5)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readAllRepresentation5));
+    }
+  }
+  @Override
+  public void readAllMatching(final java.lang.Class<?> arg0, final io.vlingo.symbio.store.state.jdbc.JsonQuery arg1, final io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadAllResultInterest arg2, final java.lang.Object arg3) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readAllMatching(arg0, arg1, arg2, arg3);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readAllMatchingRepresentation6); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readAllMatchingRepresentation6)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readAllMatchingRepresentation6));
+    }
+  }
+  @Override
+  public void readIfChanged(final java.lang.String arg0, final java.lang.Class<?> arg1, final int arg2, final io.vlingo.symbio.store.state.StateStore.ReadResultInterest arg3, final java.lang.Object arg4) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readIfChanged(arg0, arg1, arg2, arg3, arg4);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readIfChangedRepresentation9); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readIfChangedRepresentation9)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readIfChangedRepresentation9));
+    }
+  }
+  @Override
+  public void readChanges(final java.lang.Class<?> arg0, final long arg1, final int arg2, final io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ChangesResultInterest arg3, final java.lang.Object arg4) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readChanges(arg0, arg1, arg2, arg3, arg4);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readChangesRepresentation12); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readChangesRepresentation12)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readChangesRepresentation12));
+    }
+  }
+  @Override
+  public void readAtVersion(final java.lang.String arg0, final java.lang.Class<?> arg1, final int arg2, final io.vlingo.symbio.store.state.StateStore.ReadResultInterest arg3, final java.lang.Object arg4) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readAtVersion(arg0, arg1, arg2, arg3, arg4);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readAtVersionRepresentation11); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readAtVersionRepresentation11)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readAtVersionRepresentation11));
+    }
+  }
+  @Override
+  public void readVersion(final java.lang.String arg0, final java.lang.Class<?> arg1, final io.vlingo.symbio.store.state.jdbc.JDBCStateStore.VersionResultInterest arg2, final java.lang.Object arg3) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.readVersion(arg0, arg1, arg2, arg3);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, readVersionRepresentation10); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, readVersionRepresentation10)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, readVersionRepresentation10));
+    }
+  }
+  @Override
+  public void scan(final java.lang.Class<?> arg0, final java.lang.String arg1, final java.lang.String arg2, final int arg3, final io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ScanResultInterest arg4, final java.lang.Object arg5) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.scan(arg0, arg1, arg2, arg3, arg4, arg5);
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, null, scanRepresentation7); }
+      else { mailbox.send(new LocalMessage<>(actor, JDBCStateStore.class, consumer, scanRepresentation7)); }
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, scanRepresentation7));
+    }
+  }
+  @Override
+  public Completes<List<String>> scanBoundaries(final java.lang.Class<?> arg0, final int arg1) {
+    if (!actor.isStopped()) {
+      final java.util.function.Consumer<JDBCStateStore> consumer = (actor) -> actor.scanBoundaries(arg0, arg1);
+      final Completes<List<String>> completes = new BasicCompletes<>(actor.scheduler());
+      if (mailbox.isPreallocated()) { mailbox.send(actor, JDBCStateStore.class, consumer, Returns.value(completes), scanBoundariesRepresentation8); }
+      else { mailbox.send(new LocalMessage<JDBCStateStore>(actor, JDBCStateStore.class, consumer, Returns.value(completes), scanBoundariesRepresentation8)); }
+      return completes;
+    } else {
+      actor.deadLetters().failedDelivery(new DeadLetter(actor, scanBoundariesRepresentation8));
+    }
+    return null;
+  }
+}
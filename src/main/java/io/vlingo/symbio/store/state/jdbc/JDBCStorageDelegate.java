@@ -16,16 +16,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import io.vlingo.actors.Logger;
-import io.vlingo.common.Tuple2;
 import io.vlingo.common.serialization.JsonSerialization;
 import io.vlingo.symbio.BaseEntry;
 import io.vlingo.symbio.Entry;
@@ -35,6 +37,10 @@ import io.vlingo.symbio.State.BinaryState;
 import io.vlingo.symbio.State.TextState;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.common.jdbc.CachedStatement;
+import io.vlingo.symbio.store.common.jdbc.PayloadCodec;
+import io.vlingo.symbio.store.common.jdbc.StateExpiry;
+import io.vlingo.symbio.store.common.jdbc.StateHistory;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
 import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.dispatch.DispatcherControl;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
@@ -43,13 +49,22 @@ import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
         DispatcherControl.DispatcherControlDelegate<Entry<?>, State<?>> {
   private static final String DISPATCHEABLE_ENTRIES_DELIMITER = "|";
+  private static final int READ_ALL_CHUNK_SIZE = 512;
   protected final Connection connection;
   protected final JDBCDispatchableCachedStatements<T> dispatchableCachedStatements;
   protected final DataFormat format;
+  protected DispatcherInstrumentation instrumentation;
   protected final Logger logger;
   protected Mode mode;
   protected final String originatorId;
+  protected final PayloadCodec payloadCodec;
+  protected final StateExpiry expiry;
+  protected final StateHistory history;
+  protected final boolean stateChanges;
+  protected final Map<String, CachedStatement<T>> queryStatements;
+  protected final Map<String, CachedStatement<T>> readAllStatements;
   protected final Map<String, CachedStatement<T>> readStatements;
+  protected final Map<String, CachedStatement<T>> keyedStatements;
   protected final Map<String, CachedStatement<T>> writeStatements;
 
   protected JDBCStorageDelegate(
@@ -59,14 +74,47 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
           final boolean createTables,
           final Logger logger) {
 
+    this(connection, format, originatorId, createTables, PayloadCodec.none(), logger);
+  }
+
+  protected JDBCStorageDelegate(
+          final Connection connection,
+          final DataFormat format,
+          final String originatorId,
+          final boolean createTables,
+          final PayloadCodec payloadCodec,
+          final Logger logger) {
+
+    this(connection, format, originatorId, createTables, payloadCodec, StateExpiry.none(), StateHistory.none(), false, logger);
+  }
+
+  protected JDBCStorageDelegate(
+          final Connection connection,
+          final DataFormat format,
+          final String originatorId,
+          final boolean createTables,
+          final PayloadCodec payloadCodec,
+          final StateExpiry expiry,
+          final StateHistory history,
+          final boolean stateChanges,
+          final Logger logger) {
+
     this.connection = connection;
+    this.payloadCodec = payloadCodec;
+    this.expiry = expiry;
+    this.history = history;
+    this.stateChanges = stateChanges;
     this.format = format;
     this.originatorId = originatorId;
     this.logger = logger;
+    this.instrumentation = new DispatcherInstrumentation(originatorId);
     this.mode = Mode.None;
     if (createTables) createTables();
     this.dispatchableCachedStatements = dispatchableCachedStatements();
+    this.queryStatements = new HashMap<>();
+    this.readAllStatements = new HashMap<>();
     this.readStatements = new HashMap<>();
+    this.keyedStatements = new HashMap<>();
     this.writeStatements = new HashMap<>();
   }
 
@@ -77,14 +125,9 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     return (A) cachedStatement.preparedStatement;
   }
 
-  @SuppressWarnings("unchecked")
-  public <A> A appendIdentityExpression() {
-    final CachedStatement<T> cachedStatement = dispatchableCachedStatements.appendEntryIdentityStatement();
-    return (A) cachedStatement.preparedStatement;
-  }
-
   @Override
   public Collection<Dispatchable<Entry<?>, State<?>>> allUnconfirmedDispatchableStates() throws Exception {
+    final long scanStartedAt = System.nanoTime();
     final List<Dispatchable<Entry<?>, State<?>>> dispatchables = new ArrayList<>();
 
     try (final ResultSet result = dispatchableCachedStatements.queryAllStatement().preparedStatement.executeQuery()) {
@@ -94,6 +137,8 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
       }
     }
 
+    instrumentation.scanned(dispatchables, scanStartedAt);
+
     return dispatchables;
   }
 
@@ -163,6 +208,7 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
       dispatchableCachedStatements.deleteStatement().preparedStatement.setString(1, dispatchId);
       dispatchableCachedStatements.deleteStatement().preparedStatement.executeUpdate();
       complete();
+      instrumentation.confirmed(dispatchId);
     } catch (final Exception e) {
       fail();
       logger.error(getClass().getSimpleName() +
@@ -177,34 +223,26 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
 
     final State<S> state = dispatchable.typedState();
 
-    preparedStatement.clearParameters();
+    // every parameter is rebound, so the cached statement is reused without clearParameters()
     preparedStatement.setObject(1, Timestamp.valueOf(dispatchable.createdOn()));
     preparedStatement.setString(2, originatorId);
     preparedStatement.setString(3, dispatchable.id());
     preparedStatement.setString(4, state.id);
     preparedStatement.setString(5, state.type);
     preparedStatement.setInt(6, state.typeVersion);
-    if (format.isBinary()) {
-      setBinaryObject(dispatchableCachedStatements.appendDispatchableStatement(), 7, state);
-    } else if (state.isText()) {
-      setTextObject(dispatchableCachedStatements.appendDispatchableStatement(), 7, state);
-    }
+    setDataObject(dispatchableCachedStatements.appendDispatchableStatement(), 7, state.data);
     preparedStatement.setInt(8, state.dataVersion);
     preparedStatement.setString(9, state.metadata.value);
     preparedStatement.setString(10, state.metadata.operation);
-    final Tuple2<String, String> metadataObject = serialized(state.metadata.object);
-    preparedStatement.setString(11, metadataObject._1);
-    preparedStatement.setString(12, metadataObject._2);
-    if (dispatchable.entries() !=null && !dispatchable.entries().isEmpty()){
-      preparedStatement.setString(13,
-              dispatchable.entries()
-                      .stream()
-                      .map(Entry::id)
-                      .collect(Collectors.joining(DISPATCHEABLE_ENTRIES_DELIMITER))
-      );
+    if (state.metadata.hasObject()) {
+      preparedStatement.setString(11, JsonSerialization.serialized(state.metadata.object));
+      preparedStatement.setString(12, state.metadata.object.getClass().getName());
     } else {
-       preparedStatement.setString(13, "");
+      // the empty object is read back as the empty object, so it is never serialized
+      preparedStatement.setString(11, null);
+      preparedStatement.setString(12, null);
     }
+    preparedStatement.setString(13, entryIdsOf(dispatchable.entries()));
     return (W) preparedStatement;
   }
 
@@ -229,10 +267,10 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
 
     final S state;
     if (format.isBinary()) {
-      final byte[] data = binaryDataFrom(resultSet, 6);
+      final byte[] data = payloadCodec.decode(binaryDataFrom(resultSet, 6));
       state = ((S) new BinaryState(id, type, typeVersion, data, dataVersion, metadata));
     } else {
-      final String data = textDataFrom(resultSet, 6);
+      final String data = storedTextFrom(resultSet, 6);
       state = ((S) new TextState(id, type, typeVersion, data, dataVersion, metadata));
     }
 
@@ -265,12 +303,29 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     final Metadata metadata = Metadata.with(metadataValue, metadataOperation);
 
     if (format.isBinary()) {
-      return new BaseEntry.BinaryEntry(id, typed(type), typeVersion, binaryDataFrom(result, 4), metadata);
+      return new BaseEntry.BinaryEntry(id, typed(type), typeVersion, payloadCodec.decode(binaryDataFrom(result, 4)), metadata);
     } else {
-      return new BaseEntry.TextEntry(id, typed(type), typeVersion, textDataFrom(result, 4), metadata);
+      return new BaseEntry.TextEntry(id, typed(type), typeVersion, storedTextFrom(result, 4), metadata);
     }
   }
 
+  /**
+   * Answer my {@code DispatcherInstrumentation}, which is shared with my
+   * copy that serves as the dispatcher control delegate.
+   * @return DispatcherInstrumentation
+   */
+  public DispatcherInstrumentation instrumentation() {
+    return instrumentation;
+  }
+
+  /**
+   * Use the given {@code instrumentation} in place of my own.
+   * @param instrumentation the DispatcherInstrumentation to use
+   */
+  public void instrumentWith(final DispatcherInstrumentation instrumentation) {
+    this.instrumentation = instrumentation;
+  }
+
   public void fail() {
     try {
       mode = Mode.None;
@@ -290,7 +345,7 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     final CachedStatement<T> maybeCached = readStatements.get(storeName);
 
     if (maybeCached == null) {
-      final String select = readExpression(storeName, id);
+      final String select = readExpression(storeName, id) + expiryCondition(storeName);
       final PreparedStatement preparedStatement = connection.prepareStatement(select);
       final CachedStatement<T> cached = new CachedStatement<>(preparedStatement, null);
       readStatements.put(storeName, cached);
@@ -303,6 +358,411 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     return (R) maybeCached.preparedStatement;
   }
 
+  /**
+   * Answer the {@code PreparedStatement} that reads all states of {@code storeName}
+   * matching the {@code query}, with the same columns as {@code readAllExpressionFor()}.
+   * @param storeName the String name of the store
+   * @param query the JsonQuery to push down to the database
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   * @throws UnsupportedOperationException when the query is not supported by the database or format
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R queryExpressionFor(final String storeName, final JsonQuery query) throws Exception {
+    final String key = storeName + ":" + query.shape();
+    CachedStatement<T> cached = queryStatements.get(key);
+
+    if (cached == null) {
+      final String select = queryExpression(storeName, query) + expiryCondition(storeName);
+      cached = new CachedStatement<>(connection.prepareStatement(select), null);
+      queryStatements.put(key, cached);
+    }
+
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, query.value);
+    setExpiryCondition(cached, 2);
+
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads all states of {@code storeName}
+   * whose identities are in {@code ids}, which must not exceed {@code readAllChunkSize()}.
+   * The number of parameters is padded to the next power of two by repeating the last
+   * id, so that only a few statements per store are ever prepared and cached.
+   * @param storeName the String name of the store
+   * @param ids the {@code List<String>} of state identities
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R readAllExpressionFor(final String storeName, final List<String> ids) throws Exception {
+    final int idCount = paddedIdCountOf(ids.size());
+    final String key = storeName + ":" + idCount;
+    CachedStatement<T> cached = readAllStatements.get(key);
+
+    if (cached == null) {
+      final String select = readAllExpression(storeName, idCount) + expiryCondition(storeName);
+      cached = new CachedStatement<>(connection.prepareStatement(select), null);
+      readAllStatements.put(key, cached);
+    }
+
+    cached.preparedStatement.clearParameters();
+    for (int index = 0; index < idCount; ++index) {
+      cached.preparedStatement.setString(index + 1, ids.get(Math.min(index, ids.size() - 1)));
+    }
+    setExpiryCondition(cached, idCount + 1);
+
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the maximum number of ids read by a single statement of {@code readAllExpressionFor()}.
+   * @return int
+   */
+  public int readAllChunkSize() {
+    return READ_ALL_CHUNK_SIZE;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that counts the states of {@code storeName}
+   * that have not expired.
+   * @param storeName the String name of the store
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R countExpressionFor(final String storeName) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("count:" + storeName,
+            () -> countExpression(storeName) + (expiry.isNone() ? "" : " WHERE " + notExpiredExpression(storeName)));
+    setExpiryCondition(cached, 1);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads at most {@code limit} states of
+   * {@code storeName} ordered by id, whose ids are greater than {@code afterId} and,
+   * unless {@code untilId} is {@code null}, no greater than {@code untilId}. A {@code null}
+   * {@code afterId} starts with the first id. The fetch size is the {@code limit},
+   * so that a chunk is read in one round trip and no more than a chunk is held.
+   * @param storeName the String name of the store
+   * @param afterId the String id after which states are read, or null
+   * @param untilId the String id through which states are read, or null
+   * @param limit the int maximum number of states to read
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R scanExpressionFor(final String storeName, final String afterId, final String untilId, final int limit) throws Exception {
+    final boolean bounded = untilId != null;
+    final CachedStatement<T> cached = keyedStatementFor("scan:" + bounded + ":" + storeName, () -> scanExpression(storeName, bounded));
+
+    int parameter = 1;
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(parameter++, afterId == null ? "" : afterId);
+    if (bounded) {
+      cached.preparedStatement.setString(parameter++, untilId);
+    }
+    if (!expiry.isNone()) {
+      setExpiryCondition(cached, parameter++);
+    }
+    cached.preparedStatement.setInt(parameter, limit);
+    cached.preparedStatement.setFetchSize(limit);
+
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the id of the states of {@code storeName}
+   * that follows {@code skipped} ids after {@code afterId}, if any, by a walk of the primary
+   * key index.
+   * @param storeName the String name of the store
+   * @param afterId the String id after which to walk, or null for the first id
+   * @param skipped the long number of ids to skip
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R scanProbeExpressionFor(final String storeName, final String afterId, final long skipped) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("probe:" + storeName, () -> scanProbeExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, afterId == null ? "" : afterId);
+    cached.preparedStatement.setLong(2, skipped);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the number of states of {@code storeName}
+   * as estimated by the database, without reading the table where it keeps the estimate.
+   * @param storeName the String name of the store
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R scanEstimateExpressionFor(final String storeName) throws Exception {
+    return (R) keyedStatementFor("estimate:" + storeName, () -> scanEstimateExpression(storeName)).preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the ids of the states of {@code storeName}
+   * sampled by the statistics of the database, in order and about evenly spaced, or
+   * {@code null} if the database keeps no such statistics.
+   * @param storeName the String name of the store
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R scanStatisticsExpressionFor(final String storeName) throws Exception {
+    final String sql = scanStatisticsExpression(storeName);
+    if (sql == null) return null;
+    return (R) keyedStatementFor("statistics:" + storeName, () -> sql).preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the type, type version, state
+   * version and metadata of the state of {@code id} in {@code storeName}, but not its data.
+   * @param storeName the String name of the store
+   * @param id the String identity of the state
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R readVersionExpressionFor(final String storeName, final String id) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("version:" + storeName, () -> readVersionExpression(storeName) + expiryCondition(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, id);
+    setExpiryCondition(cached, 2);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the state of {@code id} in {@code storeName}
+   * with the same columns as {@code readExpressionFor()}, but whose data is {@code null}
+   * when its state version is {@code knownVersion}.
+   * @param storeName the String name of the store
+   * @param id the String identity of the state
+   * @param knownVersion the int state version already known to the reader
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R readIfChangedExpressionFor(final String storeName, final String id, final int knownVersion) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("changed:" + storeName, () -> readIfChangedExpression(storeName) + expiryCondition(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setInt(1, knownVersion);
+    cached.preparedStatement.setString(2, id);
+    setExpiryCondition(cached, 3);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that deletes up to {@code limit} states of
+   * {@code storeName} that expired by {@code now}, in the order of their expiry, so that
+   * each batch is a range of the expiry index.
+   * @param storeName the String name of the store
+   * @param now the long epoch milliseconds by which the states expired
+   * @param limit the int maximum number of states to delete
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R purgeExpiredExpressionFor(final String storeName, final long now, final int limit) throws Exception {
+    if (expiry.isNone()) {
+      throw new IllegalStateException("Cannot purge expired states without a StateExpiry.");
+    }
+    final CachedStatement<T> cached = keyedStatementFor("purge:" + storeName, () -> purgeExpiredExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setLong(1, now);
+    cached.preparedStatement.setInt(2, limit);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads the state of {@code id} in {@code storeName}
+   * at {@code stateVersion}, whether current or archived, with the same columns as
+   * {@code readExpressionFor()}. The current state is read only when not expired, as by
+   * {@code readExpressionFor()}, while archived states are retained by the {@code StateHistory}.
+   * @param storeName the String name of the store
+   * @param id the String identity of the state
+   * @param stateVersion the int version of the state
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R readHistoryExpressionFor(final String storeName, final String id, final int stateVersion) throws Exception {
+    if (history.isNone()) {
+      throw new IllegalStateException("Cannot read archived states without a StateHistory.");
+    }
+    final CachedStatement<T> cached = keyedStatementFor("history:" + storeName, () -> readHistoryExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, id);
+    cached.preparedStatement.setInt(2, stateVersion);
+    final int offset = expiry.isNone() ? 2 : 3;
+    setExpiryCondition(cached, 3);
+    cached.preparedStatement.setString(offset + 1, id);
+    cached.preparedStatement.setInt(offset + 2, stateVersion);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that deletes up to {@code limit} archived states
+   * of {@code storeName} replaced before {@code before}.
+   * @param storeName the String name of the store
+   * @param before the long epoch milliseconds before which the states were replaced
+   * @param limit the int maximum number of archived states to delete
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R purgeHistoryByAgeExpressionFor(final String storeName, final long before, final int limit) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("purgeAge:" + storeName, () -> purgeHistoryByAgeExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setLong(1, before);
+    cached.preparedStatement.setInt(2, limit);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads up to {@code limit} ids of the archived
+   * states of {@code storeName} after {@code afterId}, in order, each with the lowest and
+   * the highest of its archived versions, by a walk of the primary key of the history.
+   * @param storeName the String name of the store
+   * @param afterId the String id after which to walk, or null for the first id
+   * @param limit the int maximum number of ids to read
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R historyVersionsExpressionFor(final String storeName, final String afterId, final int limit) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("historyVersions:" + storeName, () -> historyVersionsExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, afterId == null ? "" : afterId);
+    cached.preparedStatement.setInt(2, limit);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that deletes the archived states of {@code id} in
+   * {@code storeName} of versions up to {@code lastVersion}, by a range of the primary key
+   * of the history.
+   * @param storeName the String name of the store
+   * @param id the String identity of the archived states
+   * @param lastVersion the int highest version deleted
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R purgeHistoryVersionsExpressionFor(final String storeName, final String id, final int lastVersion) throws Exception {
+    final CachedStatement<T> cached = keyedStatementFor("purgeVersions:" + storeName, () -> purgeHistoryVersionsExpression(storeName));
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setString(1, id);
+    cached.preparedStatement.setInt(2, lastVersion);
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the {@code PreparedStatement} that reads up to {@code limit} states of
+   * {@code storeName} written after the change sequence {@code afterSequence}, in the
+   * order of their change sequences, with the same columns as {@code scanExpressionFor()}
+   * followed by the change sequence. Each read is a range of the change sequence index,
+   * so that following the changes of a table costs the same regardless of its size. Only
+   * changes of which every lesser change sequence is committed are read, as bounded by
+   * the {@code readChangesExpression()} of the database.
+   * @param storeName the String name of the store
+   * @param afterSequence the long change sequence after which states are read
+   * @param limit the int maximum number of states to read
+   * @param <R> the type of the statement
+   * @return R
+   * @throws Exception when the statement cannot be prepared
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R readChangesExpressionFor(final String storeName, final long afterSequence, final int limit) throws Exception {
+    if (!stateChanges) {
+      throw new IllegalStateException("Cannot read changes without maintaining the change sequence of states.");
+    }
+    final CachedStatement<T> cached = keyedStatementFor("changes:" + storeName, () -> readChangesExpression(storeName));
+
+    int parameter = 1;
+    cached.preparedStatement.clearParameters();
+    cached.preparedStatement.setLong(parameter++, afterSequence);
+    if (!expiry.isNone()) {
+      setExpiryCondition(cached, parameter++);
+    }
+    cached.preparedStatement.setInt(parameter, limit);
+    cached.preparedStatement.setFetchSize(limit);
+
+    return (R) cached.preparedStatement;
+  }
+
+  /**
+   * Answer the number of {@code states} written to {@code storeName} by the conditional
+   * upsert of {@code writeExpressionFor()}, in batches of up to {@code batchSize} states,
+   * each executed as one JDBC batch and committed in its own transaction. Unlike writes
+   * through a store, no dispatchables or entries are created, and the states are not
+   * cached. Replaced states are archived as they are by writes, including a state
+   * replaced by a later state of the same id in the same batch.
+   * @param storeName the String name of the store
+   * @param states the {@code Iterator<State<?>>} of the states to write
+   * @param batchSize the int maximum number of states written per transaction
+   * @return long
+   * @throws Exception when a batch cannot be written, which is rolled back
+   */
+  public long bulkWrite(final String storeName, final Iterator<State<?>> states, final int batchSize) throws Exception {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("The batch size must be greater than zero.");
+    }
+    long written = 0;
+    while (states.hasNext()) {
+      PreparedStatement writeStatement = null;
+      try {
+        beginWrite();
+        for (int count = 0; count < batchSize && states.hasNext(); ++count) {
+          writeStatement = writeExpressionFor(storeName, states.next());
+          writeStatement.addBatch();
+        }
+        for (final int count : writeStatement.executeBatch()) {
+          if (count != 0) ++written;
+        }
+        complete();
+      } catch (final Exception e) {
+        if (writeStatement != null) writeStatement.clearBatch();
+        fail();
+        throw e;
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Answer my {@code StateExpiry}.
+   * @return StateExpiry
+   */
+  public StateExpiry expiry() {
+    return expiry;
+  }
+
+  /**
+   * Answer my {@code StateHistory}.
+   * @return StateHistory
+   */
+  public StateHistory history() {
+    return history;
+  }
+
   public <S> S session() throws Exception {
     return null;
   }
@@ -314,6 +774,20 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     if (!resultSet.next()) {
       return (S) (format.isBinary() ? new BinaryState() : new TextState());
     }
+    return currentStateFrom(resultSet, id);
+  }
+
+  /**
+   * Answer the state of the current row of the {@code resultSet}, which
+   * unlike {@code stateFrom()} is not advanced.
+   * @param resultSet the ResultSet positioned on a state row
+   * @param id the String identity of the state
+   * @param <S> the type of the state
+   * @return S
+   * @throws Exception when the row cannot be read
+   */
+  @SuppressWarnings("unchecked")
+  public <S> S currentStateFrom(final ResultSet resultSet, final String id) throws Exception {
     final Class<?> type = Class.forName(resultSet.getString(1));
     final int typeVersion = resultSet.getInt(2);
     // 3 below
@@ -327,10 +801,10 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     // hopefully no objects are larger than int max value
 
     if (format.isBinary()) {
-      final byte[] data = binaryDataFrom(resultSet, 3);
+      final byte[] data = payloadCodec.decode(binaryDataFrom(resultSet, 3));
       return (S) new BinaryState(id, type, typeVersion, data, dataVersion, metadata);
     } else {
-      final String data = textDataFrom(resultSet, 3);
+      final String data = storedTextFrom(resultSet, 3);
       return (S) new TextState(id, type, typeVersion, data, dataVersion, metadata);
     }
   }
@@ -359,21 +833,145 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
   protected abstract String dispatchableIdIndexCreateExpression();
   protected abstract String dispatchableOriginatorIdIndexCreateExpression();
   protected abstract String dispatchableTableCreateExpression();
+  protected abstract String expiresAtIndexCreateExpression(final String tableName);
+  protected abstract List<String> archiveTriggerCreateExpressions(final String tableName, final String historyTableName);
+  protected abstract String changesIndexCreateExpression(final String tableName);
+  protected abstract String historyIndexCreateExpression(final String historyTableName);
+  protected abstract String historyTableCreateExpression(final String historyTableName);
   protected abstract String dispatchableTableName();
   protected abstract String entryTableCreateExpression();
   protected abstract String entryTableName();
   protected abstract String entryOffsetsTableName();
   protected abstract String entryOffsetsTableCreateExpression();
+  /**
+   * Answer the SQL that reads all states of {@code storeName} matching the {@code query},
+   * whose single parameter is the {@code query.value}. By default JSON queries are not supported.
+   * @param storeName the String name of the store
+   * @param query the JsonQuery to push down to the database
+   * @return String
+   */
+  protected String queryExpression(final String storeName, final JsonQuery query) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support JSON queries: " + query);
+  }
+
+  /**
+   * Answer the SQL that reads the ids of {@code storeName} sampled by the statistics of the
+   * database, in order and about evenly spaced, or {@code null}, the default, if it keeps none.
+   * @param storeName the String name of the store
+   * @return String
+   */
+  protected String scanStatisticsExpression(final String storeName) {
+    return null;
+  }
+
+  /**
+   * Answer whether my payloads are stored in binary columns, which they are when my
+   * format is binary, or when my {@code PayloadCodec} encodes my text payloads.
+   * @return boolean
+   */
+  protected boolean storesBinary() {
+    return format.isBinary() || !payloadCodec.isNone();
+  }
+
+  /**
+   * Answer the text payload at {@code columnIndex} of the current row of {@code resultSet},
+   * decoded by my {@code PayloadCodec} from its binary column unless it is none.
+   * @param resultSet the ResultSet positioned on a row
+   * @param columnIndex the int index of the column
+   * @return String
+   * @throws Exception when the payload cannot be read
+   */
+  protected String storedTextFrom(final ResultSet resultSet, final int columnIndex) throws Exception {
+    return payloadCodec.isNone() ? textDataFrom(resultSet, columnIndex) : payloadCodec.decodeText(binaryDataFrom(resultSet, columnIndex));
+  }
+
+  /**
+   * Set the binary {@code data} at {@code columnIndex}, already encoded by my {@code PayloadCodec}.
+   * The data is bound by value so that batched rows never share a cached binary object.
+   * @param cached the {@code CachedStatement<T>} to set
+   * @param columnIndex the int index of the parameter
+   * @param data the byte[] to set
+   * @throws Exception when the data cannot be set
+   */
+  protected void setBinaryObject(final CachedStatement<T> cached, final int columnIndex, final byte[] data) throws Exception {
+    cached.preparedStatement.setBytes(columnIndex, data);
+  }
+
+  /**
+   * Set the text {@code data} at {@code columnIndex} as a plain string. Dialects whose
+   * columns are typed, such as JSON, cast the parameter in their SQL rather than
+   * wrapping each value in a driver-specific object.
+   * @param cached the {@code CachedStatement<T>} to set
+   * @param columnIndex the int index of the parameter
+   * @param data the String to set
+   * @throws Exception when the data cannot be set
+   */
+  protected void setTextObject(final CachedStatement<T> cached, final int columnIndex, final String data) throws Exception {
+    cached.preparedStatement.setString(columnIndex, data);
+  }
+
+  protected abstract String countExpression(final String storeName);
+  protected abstract String notExpiredExpression(final String storeName);
+  protected abstract String purgeExpiredExpression(final String storeName);
+  protected abstract String purgeHistoryByAgeExpression(final String storeName);
+  protected abstract String historyVersionsExpression(final String storeName);
+  protected abstract String purgeHistoryVersionsExpression(final String storeName);
+  protected abstract String readHistoryExpression(final String storeName);
+  protected abstract String scanExpression(final String storeName, final boolean bounded);
+  protected abstract String scanEstimateExpression(final String storeName);
+  protected abstract String scanProbeExpression(final String storeName);
+  protected abstract String readAllExpression(final String storeName, final int idCount);
+  protected abstract String readChangesExpression(final String storeName);
   protected abstract String readExpression(final String storeName, final String id);
-  protected abstract <S> void setBinaryObject(final CachedStatement<T> cached, int columnIndex, final State<S> state) throws Exception;
-  protected abstract <E> void setBinaryObject(final CachedStatement<T> cached, int columnIndex, final Entry<E> entry) throws Exception;
-  protected abstract <S> void setTextObject(final CachedStatement<T> cached, int columnIndex, final State<S> state) throws Exception;
-  protected abstract <E> void setTextObject(final CachedStatement<T> cached, int columnIndex, final Entry<E> entry) throws Exception;
+  protected abstract String readIfChangedExpression(final String storeName);
+  protected abstract String readVersionExpression(final String storeName);
   protected abstract String stateStoreTableCreateExpression(final String tableName);
+
+  /**
+   * Answer the statements that create the partitions of the state store table named
+   * {@code tableName} following its {@code stateStoreTableCreateExpression()}, which
+   * by default are none, because the table holds its rows itself.
+   * @param tableName the String name of the state store table
+   * @return {@code List<String>}
+   */
+  protected List<String> stateStoreTablePartitionExpressions(final String tableName) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Answer the statements that create the objects from which the change sequences of the
+   * state store table named {@code tableName} are drawn, which by default are none,
+   * because the {@code writeExpression()} draws them from the database itself.
+   * @param tableName the String name of the state store table
+   * @return {@code List<String>}
+   */
+  protected List<String> changeSequenceCreateExpressions(final String tableName) {
+    return Collections.emptyList();
+  }
   protected abstract String tableNameFor(final String storeName);
   protected abstract String textDataFrom(final ResultSet resultSet, final int columnIndex) throws Exception;
   protected abstract String writeExpression(final String storeName);
 
+  /**
+   * Answer the condition appended to the {@code WHERE} clause of reads of {@code storeName}
+   * that excludes expired states, whose parameter is the current epoch milliseconds, or an
+   * empty String if states never expire.
+   * @param storeName the String name of the store
+   * @return String
+   */
+  protected String expiryCondition(final String storeName) {
+    return expiry.isNone() ? "" : " AND " + notExpiredExpression(storeName);
+  }
+
+  /**
+   * Answer the name of the history table of the state store table named {@code tableName}.
+   * @param tableName the String name of the state store table
+   * @return String
+   */
+  protected String historyTableNameFor(final String tableName) {
+    return tableName + "_history";
+  }
+
   private void createDispatchablesTable() throws Exception {
     final String tableName = dispatchableTableName();
     if (!tableExists(tableName)) {
@@ -416,11 +1014,34 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
     final String sql = stateStoreTableCreateExpression(tableName);
     try (final Statement statement = connection.createStatement()) {
       statement.executeUpdate(sql);
+      for (final String partitionSql : stateStoreTablePartitionExpressions(tableName)) {
+        statement.executeUpdate(partitionSql);
+      }
+      if (!expiry.isNone()) {
+        statement.executeUpdate(expiresAtIndexCreateExpression(tableName));
+      }
+      if (stateChanges) {
+        for (final String sequenceSql : changeSequenceCreateExpressions(tableName)) {
+          statement.executeUpdate(sequenceSql);
+        }
+        statement.executeUpdate(changesIndexCreateExpression(tableName));
+      }
+      connection.commit();
+    }
+  }
+
+  private void createStateHistoryTable(final String tableName, final String historyTableName) throws Exception {
+    try (final Statement statement = connection.createStatement()) {
+      statement.executeUpdate(historyTableCreateExpression(historyTableName));
+      statement.executeUpdate(historyIndexCreateExpression(historyTableName));
+      for (final String triggerSql : archiveTriggerCreateExpressions(tableName, historyTableName)) {
+        statement.executeUpdate(triggerSql);
+      }
       connection.commit();
     }
   }
 
-  private void createTables() {
+  protected void createTables() {
     try {
       createDispatchablesTable();
     } catch (final Exception e) {
@@ -452,48 +1073,102 @@ public abstract class JDBCStorageDelegate<T> implements StorageDelegate,
         // assume table exists; could look at metadata
         logger.error("Could not create " + tableName + " table because: " + e.getMessage(), e);
       }
+
+      if (history.isNone()) continue;
+
+      final String historyTableName = historyTableNameFor(tableName);
+      try {
+        if (!tableExists(historyTableName)) {
+          createStateHistoryTable(tableName, historyTableName);
+        }
+      } catch (final Exception e) {
+        // assume table exists; could look at metadata
+        logger.error("Could not create " + historyTableName + " table because: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  private CachedStatement<T> keyedStatementFor(final String key, final Supplier<String> sql) throws Exception {
+    CachedStatement<T> cached = keyedStatements.get(key);
+    if (cached == null) {
+      cached = new CachedStatement<>(connection.prepareStatement(sql.get()), null);
+      keyedStatements.put(key, cached);
     }
+    return cached;
+  }
+
+  private int paddedIdCountOf(final int idCount) {
+    if (idCount <= 1) return 1;
+    final int padded = Integer.highestOneBit(idCount - 1) << 1;
+    return Math.max(idCount, Math.min(padded, readAllChunkSize()));
+  }
+
+  protected static String placeholders(final int count) {
+    final StringBuilder builder = new StringBuilder(count * 3);
+    for (int index = 0; index < count; ++index) {
+      if (index > 0) builder.append(", ");
+      builder.append('?');
+    }
+    return builder.toString();
   }
 
   private void prepareForRead(final CachedStatement<T> cached, final String id) throws Exception {
-    cached.preparedStatement.clearParameters();
     cached.preparedStatement.setString(1, id);
+    setExpiryCondition(cached, 2);
   }
 
   private <E> void prepareForAppend(final CachedStatement<T> cached, final Entry<E> entry) throws Exception {
-    cached.preparedStatement.clearParameters();
     cached.preparedStatement.setString(1, entry.typeName());
     cached.preparedStatement.setInt(2, entry.typeVersion());
-    if (format.isBinary()) {
-      this.setBinaryObject(cached, 3, entry);
-    } else if (format.isText()) {
-      this.setTextObject(cached, 3, entry);
-    }
+    setDataObject(cached, 3, entry.entryData());
     cached.preparedStatement.setString(4, entry.metadata().value);
     cached.preparedStatement.setString(5, entry.metadata().operation);
   }
 
   private <S> void prepareForWrite(final CachedStatement<T> cached, final State<S> state) throws Exception {
-    cached.preparedStatement.clearParameters();
-
     cached.preparedStatement.setString(1, state.id);
     cached.preparedStatement.setString(2, state.type);
     cached.preparedStatement.setInt(3, state.typeVersion);
-    if (format.isBinary()) {
-      this.setBinaryObject(cached, 4, state);
-    } else if (state.isText()) {
-      this.setTextObject(cached, 4, state);
-    }
+    setDataObject(cached, 4, state.data);
     cached.preparedStatement.setInt(5, state.dataVersion);
     cached.preparedStatement.setString(6, state.metadata.value);
     cached.preparedStatement.setString(7, state.metadata.operation);
+    if (!expiry.isNone()) {
+      final long expiresAt = expiry.expiresAt(state, System.currentTimeMillis());
+      if (expiresAt > 0) {
+        cached.preparedStatement.setLong(8, expiresAt);
+      } else {
+        cached.preparedStatement.setNull(8, Types.BIGINT);
+      }
+    }
   }
 
-  private Tuple2<String, String> serialized(final Object object) {
-    if (object != null) {
-      return Tuple2.from(JsonSerialization.serialized(object), object.getClass().getName());
+  private void setDataObject(final CachedStatement<T> cached, final int columnIndex, final Object data) throws Exception {
+    if (format.isBinary()) {
+      setBinaryObject(cached, columnIndex, payloadCodec.encode((byte[]) data));
+    } else if (payloadCodec.isNone()) {
+      setTextObject(cached, columnIndex, (String) data);
+    } else {
+      setBinaryObject(cached, columnIndex, payloadCodec.encodeText((String) data));
+    }
+  }
+
+  private void setExpiryCondition(final CachedStatement<T> cached, final int parameterIndex) throws Exception {
+    if (!expiry.isNone()) {
+      cached.preparedStatement.setLong(parameterIndex, System.currentTimeMillis());
+    }
+  }
+
+  private String entryIdsOf(final List<Entry<?>> entries) {
+    if (entries == null || entries.isEmpty()) return "";
+    if (entries.size() == 1) return entries.get(0).id();
+
+    final StringBuilder builder = new StringBuilder(entries.size() * 8);
+    for (final Entry<?> entry : entries) {
+      if (builder.length() > 0) builder.append(DISPATCHEABLE_ENTRIES_DELIMITER);
+      builder.append(entry.id());
     }
-    return Tuple2.from(null, null);
+    return builder.toString();
   }
 
   private boolean tableExists(final String tableName) throws Exception {
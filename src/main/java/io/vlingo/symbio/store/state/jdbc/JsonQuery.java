@@ -0,0 +1,102 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * A predicate over the JSON document of text states that is pushed down to
+ * the database by {@code JDBCStateStore#readAllMatching()}. Only the
+ * {@code value} is bound as a statement parameter; the {@code path} of an
+ * attribute becomes part of the statement so that expression indexes on
+ * the same path may be used, and it is therefore restricted to dot-separated
+ * identifiers.
+ */
+public final class JsonQuery {
+  private static final Pattern PathPattern = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+  public final Kind kind;
+  public final String[] path;
+  public final String value;
+
+  /**
+   * Answer a {@code JsonQuery} for the attribute at the dot-separated {@code path}
+   * whose text is equal to {@code value}, such as {@code attributeEquals("address.city", "Boulder")}.
+   * @param path the String dot-separated path of the attribute
+   * @param value the String text to compare with
+   * @return JsonQuery
+   */
+  public static JsonQuery attributeEquals(final String path, final String value) {
+    return new JsonQuery(Kind.AttributeEquals, pathElementsOf(path), value);
+  }
+
+  /**
+   * Answer a {@code JsonQuery} for documents that contain the {@code document},
+   * such as {@code containing("{\"address\":{\"city\":\"Boulder\"}}")}.
+   * @param document the String JSON document that must be contained
+   * @return JsonQuery
+   */
+  public static JsonQuery containing(final String document) {
+    return new JsonQuery(Kind.Containing, new String[0], document);
+  }
+
+  /**
+   * Answer a {@code JsonQuery} for documents that match the JSON path predicate
+   * {@code jsonPath}, such as {@code matching("$.address.city == \"Boulder\"")}.
+   * @param jsonPath the String JSON path predicate
+   * @return JsonQuery
+   */
+  public static JsonQuery matching(final String jsonPath) {
+    return new JsonQuery(Kind.Matching, new String[0], jsonPath);
+  }
+
+  /**
+   * Answer the elements of the dot-separated {@code path}.
+   * @param path the String dot-separated path
+   * @return String[]
+   * @throws IllegalArgumentException if the path is not dot-separated identifiers
+   */
+  public static String[] pathElementsOf(final String path) {
+    if (path == null || !PathPattern.matcher(path).matches()) {
+      throw new IllegalArgumentException("The JSON path must be dot-separated identifiers: " + path);
+    }
+    return path.split("\\.");
+  }
+
+  private JsonQuery(final Kind kind, final String[] path, final String value) {
+    if (value == null) {
+      throw new IllegalArgumentException("The JSON query value must not be null.");
+    }
+    this.kind = kind;
+    this.path = path;
+    this.value = value;
+  }
+
+  /**
+   * Answer the String that identifies the statement of this query, which is
+   * the same for all queries that differ only by {@code value}.
+   * @return String
+   */
+  public String shape() {
+    return kind.name() + ":" + String.join(".", path);
+  }
+
+  @Override
+  public String toString() {
+    return "JsonQuery[kind=" + kind + " path=" + String.join(".", path) + " value=" + value + "]";
+  }
+
+  /**
+   * The kind of predicate.
+   */
+  public static enum Kind {
+    AttributeEquals,
+    Containing,
+    Matching
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vlingo.actors.Definition;
+import io.vlingo.actors.Protocols;
+import io.vlingo.actors.Stage;
+import io.vlingo.actors.Stoppable;
+import io.vlingo.common.Completes;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ScanResultInterest;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
+
+/**
+ * Scans all states of a type in parallel by splitting their ids into ranges of
+ * about equal size, using {@code JDBCStateStore#scanBoundaries()}, and scanning
+ * each range with its own {@code JDBCStateStoreActor} and connection. Chunks of
+ * different ranges are reported to the {@code ScanResultInterest} concurrently,
+ * each range in the order of its ids, and each range is exhausted independently.
+ */
+public class ParallelStateScan {
+  private final List<JDBCStateStore> scanners;
+  private final List<Stoppable> stoppables;
+
+  /**
+   * Answer a new {@code ParallelStateScan} of the states of {@code type} using up to
+   * {@code partitions} scanners, where the first uses {@code delegate} and every other
+   * uses a {@code copy()} of it, and start the scan.
+   * @param stage the Stage in which the scanners are created
+   * @param delegate the JDBCStorageDelegate of the first scanner
+   * @param type the {@code Class<?>} of the states
+   * @param partitions the int maximum number of ranges scanned in parallel
+   * @param chunkSize the int maximum number of states of each chunk
+   * @param interest the ScanResultInterest to which each chunk is reported
+   * @param object the Object to send back to the interest with each chunk
+   * @return ParallelStateScan
+   */
+  public static ParallelStateScan start(
+          final Stage stage,
+          final JDBCStorageDelegate<?> delegate,
+          final Class<?> type,
+          final int partitions,
+          final int chunkSize,
+          final ScanResultInterest interest,
+          final Object object) {
+
+    if (partitions <= 0) {
+      throw new IllegalArgumentException("The partitions must be greater than zero.");
+    }
+
+    final List<JDBCStorageDelegate<?>> delegates = new ArrayList<>(partitions);
+    delegates.add(delegate);
+    for (int partition = 1; partition < partitions; ++partition) {
+      delegates.add((JDBCStorageDelegate<?>) delegate.copy());
+    }
+
+    final ParallelStateScan scan = new ParallelStateScan(stage, delegates);
+    scan.start(type, chunkSize, interest, object);
+    return scan;
+  }
+
+  private ParallelStateScan(final Stage stage, final List<JDBCStorageDelegate<?>> delegates) {
+    this.scanners = new ArrayList<>(delegates.size());
+    this.stoppables = new ArrayList<>(delegates.size());
+
+    for (final JDBCStorageDelegate<?> delegate : delegates) {
+      final JDBCStateStoreInstantiator instantiator = new JDBCStateStoreInstantiator();
+      instantiator.set("delegate", delegate);
+
+      final Protocols protocols =
+              stage.actorFor(
+                      new Class<?>[] { JDBCStateStore.class, Stoppable.class },
+                      Definition.has(JDBCStateStoreActor.class, instantiator));
+
+      final Protocols.Two<JDBCStateStore, Stoppable> scanner = Protocols.two(protocols);
+      scanners.add(scanner._1);
+      stoppables.add(scanner._2);
+    }
+  }
+
+  /**
+   * Stop all of my scanners, which closes their delegates.
+   */
+  public void stop() {
+    for (final Stoppable stoppable : stoppables) {
+      stoppable.stop();
+    }
+  }
+
+  private void start(final Class<?> type, final int chunkSize, final ScanResultInterest interest, final Object object) {
+    final Completes<List<String>> boundaries = scanners.get(0).scanBoundaries(type, scanners.size());
+
+    boundaries.andThenConsume(ids -> {
+      String afterId = null;
+      for (int range = 0; range <= ids.size(); ++range) {
+        final String untilId = range < ids.size() ? ids.get(range) : null;
+        scanners.get(range).scan(type, afterId, untilId, chunkSize, interest, object);
+        afterId = untilId;
+      }
+    });
+  }
+}
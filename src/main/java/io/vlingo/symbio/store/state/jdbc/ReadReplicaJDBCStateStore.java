@@ -0,0 +1,245 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vlingo.actors.Definition;
+import io.vlingo.actors.Protocols;
+import io.vlingo.actors.Stage;
+import io.vlingo.actors.Stoppable;
+import io.vlingo.common.Completes;
+import io.vlingo.symbio.Entry;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.Source;
+import io.vlingo.symbio.store.state.StateStoreEntryReader;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
+
+/**
+ * A {@code JDBCStateStore} front-end that sends writes to a primary store and reads
+ * to a pool of reader {@code JDBCStateStoreActor}s, each with its own read-only
+ * {@code JDBCStorageDelegate}, such as one using {@code Configuration.replicaOf()}.
+ * Reads are then never queued behind writes of the primary.
+ * <p>
+ * Reads of an id that was written within the read-your-writes window are sent to the
+ * primary instead, where they are handled after the write, so that neither the order
+ * of the primary's mailbox nor the replication lag may answer a prior state. The window
+ * should be longer than the expected replication lag, and a window of zero disables
+ * read-your-writes. A {@code readAllMatching()}, a {@code readChanges()}, and a {@code scan()}
+ * are always answered by a reader.
+ */
+public class ReadReplicaJDBCStateStore implements JDBCStateStore {
+  private static final int PruneInterval = 1024;
+
+  private final AtomicInteger nextReader;
+  private final JDBCStateStore primary;
+  private final long readYourWritesNanos;
+  private final List<JDBCStateStore> readers;
+  private final List<Stoppable> stoppables;
+  private final AtomicInteger writesSincePrune;
+  private final Map<String, Long> writtenAt;
+
+  /**
+   * Answer a new {@code ReadReplicaJDBCStateStore} of {@code readerCount} readers, where
+   * the first reader uses {@code readDelegate} and every other reader uses a {@code copy()} of it.
+   * @param stage the Stage in which the readers are created
+   * @param primary the JDBCStateStore to which all writes are sent
+   * @param readDelegate the JDBCStorageDelegate of the first reader
+   * @param readerCount the int number of readers
+   * @param readYourWritesMillis the long milliseconds after a write during which its id is read from the primary
+   * @return ReadReplicaJDBCStateStore
+   */
+  public static ReadReplicaJDBCStateStore using(
+          final Stage stage,
+          final JDBCStateStore primary,
+          final JDBCStorageDelegate<?> readDelegate,
+          final int readerCount,
+          final long readYourWritesMillis) {
+
+    if (readerCount <= 0) {
+      throw new IllegalArgumentException("The reader count must be greater than zero.");
+    }
+
+    final List<JDBCStorageDelegate<?>> readDelegates = new ArrayList<>(readerCount);
+    readDelegates.add(readDelegate);
+    for (int reader = 1; reader < readerCount; ++reader) {
+      readDelegates.add((JDBCStorageDelegate<?>) readDelegate.copy());
+    }
+
+    return new ReadReplicaJDBCStateStore(stage, primary, readDelegates, readYourWritesMillis);
+  }
+
+  /**
+   * Constructs my default state with one reader for each of the {@code readDelegates}.
+   * @param stage the Stage in which the readers are created
+   * @param primary the JDBCStateStore to which all writes are sent
+   * @param readDelegates the {@code List<JDBCStorageDelegate<?>>} of the readers
+   * @param readYourWritesMillis the long milliseconds after a write during which its id is read from the primary
+   */
+  public ReadReplicaJDBCStateStore(
+          final Stage stage,
+          final JDBCStateStore primary,
+          final List<JDBCStorageDelegate<?>> readDelegates,
+          final long readYourWritesMillis) {
+
+    if (readDelegates == null || readDelegates.isEmpty()) {
+      throw new IllegalArgumentException("At least one read delegate is required.");
+    }
+
+    this.primary = primary;
+    this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, readYourWritesMillis));
+    this.nextReader = new AtomicInteger(0);
+    this.readers = new ArrayList<>(readDelegates.size());
+    this.stoppables = new ArrayList<>(readDelegates.size());
+    this.writesSincePrune = new AtomicInteger(0);
+    this.writtenAt = new ConcurrentHashMap<>();
+
+    for (final JDBCStorageDelegate<?> readDelegate : readDelegates) {
+      final JDBCStateStoreInstantiator instantiator = new JDBCStateStoreInstantiator();
+      instantiator.set("delegate", readDelegate);
+
+      final Protocols protocols =
+              stage.actorFor(
+                      new Class<?>[] { JDBCStateStore.class, Stoppable.class },
+                      Definition.has(JDBCStateStoreActor.class, instantiator));
+
+      final Protocols.Two<JDBCStateStore, Stoppable> reader = Protocols.two(protocols);
+      readers.add(reader._1);
+      stoppables.add(reader._2);
+    }
+  }
+
+  /**
+   * Stop all of my readers, which closes their delegates, but not my primary.
+   */
+  public void stop() {
+    for (final Stoppable stoppable : stoppables) {
+      stoppable.stop();
+    }
+  }
+
+  @Override
+  public <ET extends Entry<?>> Completes<StateStoreEntryReader<ET>> entryReader(final String name) {
+    return primary.entryReader(name);
+  }
+
+  @Override
+  public void read(final String id, final Class<?> type, final ReadResultInterest interest, final Object object) {
+    if (isRecentlyWritten(id)) {
+      primary.read(id, type, interest, object);
+    } else {
+      nextReader().read(id, type, interest, object);
+    }
+  }
+
+  @Override
+  public void readAll(final Collection<String> ids, final Class<?> type, final ReadAllResultInterest interest, final Object object) {
+    if (ids != null && readYourWritesNanos > 0) {
+      for (final String id : ids) {
+        if (isRecentlyWritten(id)) {
+          primary.readAll(ids, type, interest, object);
+          return;
+        }
+      }
+    }
+    nextReader().readAll(ids, type, interest, object);
+  }
+
+  @Override
+  public void readAllMatching(final Class<?> type, final JsonQuery query, final ReadAllResultInterest interest, final Object object) {
+    nextReader().readAllMatching(type, query, interest, object);
+  }
+
+  @Override
+  public void readIfChanged(final String id, final Class<?> type, final int knownVersion, final ReadResultInterest interest, final Object object) {
+    if (isRecentlyWritten(id)) {
+      primary.readIfChanged(id, type, knownVersion, interest, object);
+    } else {
+      nextReader().readIfChanged(id, type, knownVersion, interest, object);
+    }
+  }
+
+  @Override
+  public void readChanges(final Class<?> type, final long afterSequence, final int maximumChanges, final ChangesResultInterest interest, final Object object) {
+    nextReader().readChanges(type, afterSequence, maximumChanges, interest, object);
+  }
+
+  @Override
+  public void readAtVersion(final String id, final Class<?> type, final int stateVersion, final ReadResultInterest interest, final Object object) {
+    if (isRecentlyWritten(id)) {
+      primary.readAtVersion(id, type, stateVersion, interest, object);
+    } else {
+      nextReader().readAtVersion(id, type, stateVersion, interest, object);
+    }
+  }
+
+  @Override
+  public void readVersion(final String id, final Class<?> type, final VersionResultInterest interest, final Object object) {
+    if (isRecentlyWritten(id)) {
+      primary.readVersion(id, type, interest, object);
+    } else {
+      nextReader().readVersion(id, type, interest, object);
+    }
+  }
+
+  @Override
+  public void scan(final Class<?> type, final String afterId, final String untilId, final int chunkSize, final ScanResultInterest interest, final Object object) {
+    nextReader().scan(type, afterId, untilId, chunkSize, interest, object);
+  }
+
+  @Override
+  public Completes<List<String>> scanBoundaries(final Class<?> type, final int partitions) {
+    return nextReader().scanBoundaries(type, partitions);
+  }
+
+  @Override
+  public <S, C> void write(final String id, final S state, final int stateVersion, final List<Source<C>> sources, final Metadata metadata, final WriteResultInterest interest, final Object object) {
+    written(id);
+    primary.write(id, state, stateVersion, sources, metadata, interest, object);
+  }
+
+  @Override
+  public void writeAll(final List<StateToWrite<?, ?>> states, final WriteResultInterest interest, final Object object) {
+    if (states != null) {
+      for (final StateToWrite<?, ?> state : states) {
+        written(state.id);
+      }
+    }
+    primary.writeAll(states, interest, object);
+  }
+
+  private boolean isRecentlyWritten(final String id) {
+    if (readYourWritesNanos == 0 || id == null) return false;
+    final Long at = writtenAt.get(id);
+    return at != null && System.nanoTime() - at < readYourWritesNanos;
+  }
+
+  private JDBCStateStore nextReader() {
+    return readers.get(Math.floorMod(nextReader.getAndIncrement(), readers.size()));
+  }
+
+  private void prune() {
+    final long now = System.nanoTime();
+    writtenAt.values().removeIf(at -> now - at >= readYourWritesNanos);
+  }
+
+  private void written(final String id) {
+    if (readYourWritesNanos == 0 || id == null) return;
+    writtenAt.put(id, System.nanoTime());
+    if (writesSincePrune.incrementAndGet() >= PruneInterval) {
+      writesSincePrune.set(0);
+      prune();
+    }
+  }
+}
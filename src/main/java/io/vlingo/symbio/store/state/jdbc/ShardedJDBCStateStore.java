@@ -0,0 +1,300 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vlingo.actors.Definition;
+import io.vlingo.actors.Protocols;
+import io.vlingo.actors.Stage;
+import io.vlingo.actors.Stoppable;
+import io.vlingo.common.Completes;
+import io.vlingo.common.Failure;
+import io.vlingo.common.Outcome;
+import io.vlingo.common.Success;
+import io.vlingo.symbio.Entry;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.Source;
+import io.vlingo.symbio.State;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
+import io.vlingo.symbio.store.dispatch.Dispatchable;
+import io.vlingo.symbio.store.dispatch.Dispatcher;
+import io.vlingo.symbio.store.state.StateStoreEntryReader;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
+
+/**
+ * A {@code JDBCStateStore} front-end that routes each message by the hash of its
+ * state id to one of several {@code JDBCStateStoreActor} shards, each with its own
+ * {@code JDBCStorageDelegate}, and therefore its own connection and cached statements.
+ * All messages for a given id are handled by the same shard in the order sent, while
+ * messages for different ids are handled concurrently by up to one shard per connection.
+ * <p>
+ * All shards use the same tables. A {@code writeAll()} is split by shard and so uses
+ * one transaction per shard, and a {@code readAll()} is split by shard and its outcomes
+ * combined. A {@code readAllMatching()}, {@code readChanges()}, or {@code scan()} is answered
+ * by any one shard, so it does not necessarily observe writes still queued for other shards.
+ * Only the first shard controls the redelivery and confirmation of dispatchables,
+ * because all shards share its originator, and so all shards report their commits to
+ * the {@code DispatcherInstrumentation} of its delegate, which covers every write.
+ */
+public class ShardedJDBCStateStore implements JDBCStateStore {
+  private final AtomicInteger nextShard;
+  private final List<JDBCStateStore> shards;
+  private final List<Stoppable> stoppables;
+
+  /**
+   * Answer a new {@code ShardedJDBCStateStore} of {@code shardCount} shards, where the first
+   * shard uses {@code delegate} and every other shard uses a {@code copy()} of it.
+   * @param stage the Stage in which the shards are created
+   * @param dispatcher the Dispatcher of all shards, which may be null
+   * @param delegate the JDBCStorageDelegate of the first shard
+   * @param shardCount the int number of shards
+   * @return ShardedJDBCStateStore
+   */
+  public static ShardedJDBCStateStore using(
+          final Stage stage,
+          final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher,
+          final JDBCStorageDelegate<?> delegate,
+          final int shardCount) {
+
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("The shard count must be greater than zero.");
+    }
+
+    final List<JDBCStorageDelegate<?>> delegates = new ArrayList<>(shardCount);
+    delegates.add(delegate);
+    for (int shard = 1; shard < shardCount; ++shard) {
+      delegates.add((JDBCStorageDelegate<?>) delegate.copy());
+    }
+
+    return new ShardedJDBCStateStore(stage, dispatcher, delegates);
+  }
+
+  /**
+   * Constructs my default state with one shard for each of the {@code delegates},
+   * which must each have their own connection to the same database.
+   * @param stage the Stage in which the shards are created
+   * @param dispatcher the Dispatcher of all shards, which may be null
+   * @param delegates the {@code List<JDBCStorageDelegate<?>>} of the shards
+   */
+  public ShardedJDBCStateStore(
+          final Stage stage,
+          final Dispatcher<Dispatchable<Entry<?>, State<String>>> dispatcher,
+          final List<JDBCStorageDelegate<?>> delegates) {
+
+    if (delegates == null || delegates.isEmpty()) {
+      throw new IllegalArgumentException("At least one delegate is required.");
+    }
+
+    this.nextShard = new AtomicInteger(0);
+    this.shards = new ArrayList<>(delegates.size());
+    this.stoppables = new ArrayList<>(delegates.size());
+
+    final DispatcherInstrumentation instrumentation = delegates.get(0).instrumentation();
+
+    for (final JDBCStorageDelegate<?> delegate : delegates) {
+      final JDBCStateStoreInstantiator instantiator = new JDBCStateStoreInstantiator();
+      instantiator.set("dispatcher", dispatcher);
+      instantiator.set("delegate", delegate);
+      instantiator.set("controlsDispatching", shards.isEmpty());
+      instantiator.set("instrumentation", instrumentation);
+
+      final Protocols protocols =
+              stage.actorFor(
+                      new Class<?>[] { JDBCStateStore.class, Stoppable.class },
+                      Definition.has(JDBCStateStoreActor.class, instantiator));
+
+      final Protocols.Two<JDBCStateStore, Stoppable> shard = Protocols.two(protocols);
+      shards.add(shard._1);
+      stoppables.add(shard._2);
+    }
+  }
+
+  /**
+   * Answer the number of my shards.
+   * @return int
+   */
+  public int shardCount() {
+    return shards.size();
+  }
+
+  /**
+   * Stop all of my shards, which closes their delegates.
+   */
+  public void stop() {
+    for (final Stoppable stoppable : stoppables) {
+      stoppable.stop();
+    }
+  }
+
+  @Override
+  public <ET extends Entry<?>> Completes<StateStoreEntryReader<ET>> entryReader(final String name) {
+    return shards.get(0).entryReader(name);
+  }
+
+  @Override
+  public void read(final String id, final Class<?> type, final ReadResultInterest interest, final Object object) {
+    shardOf(id).read(id, type, interest, object);
+  }
+
+  @Override
+  public void readAll(final Collection<String> ids, final Class<?> type, final ReadAllResultInterest interest, final Object object) {
+    if (ids == null || ids.isEmpty() || shards.size() == 1) {
+      shards.get(0).readAll(ids, type, interest, object);
+      return;
+    }
+
+    final List<String> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+    final Map<JDBCStateStore, List<String>> idsByShard = new LinkedHashMap<>();
+    for (final String id : requested) {
+      idsByShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+    }
+
+    if (idsByShard.size() == 1) {
+      idsByShard.keySet().iterator().next().readAll(requested, type, interest, object);
+      return;
+    }
+
+    final ReadAllCombiner combiner = new ReadAllCombiner(requested, idsByShard.size(), interest, object);
+    for (final Map.Entry<JDBCStateStore, List<String>> shardIds : idsByShard.entrySet()) {
+      shardIds.getKey().readAll(shardIds.getValue(), type, combiner, null);
+    }
+  }
+
+  @Override
+  public void readAllMatching(final Class<?> type, final JsonQuery query, final ReadAllResultInterest interest, final Object object) {
+    nextShard().readAllMatching(type, query, interest, object);
+  }
+
+  @Override
+  public void readIfChanged(final String id, final Class<?> type, final int knownVersion, final ReadResultInterest interest, final Object object) {
+    shardOf(id).readIfChanged(id, type, knownVersion, interest, object);
+  }
+
+  @Override
+  public void readChanges(final Class<?> type, final long afterSequence, final int maximumChanges, final ChangesResultInterest interest, final Object object) {
+    nextShard().readChanges(type, afterSequence, maximumChanges, interest, object);
+  }
+
+  @Override
+  public void readAtVersion(final String id, final Class<?> type, final int stateVersion, final ReadResultInterest interest, final Object object) {
+    shardOf(id).readAtVersion(id, type, stateVersion, interest, object);
+  }
+
+  @Override
+  public void readVersion(final String id, final Class<?> type, final VersionResultInterest interest, final Object object) {
+    shardOf(id).readVersion(id, type, interest, object);
+  }
+
+  @Override
+  public void scan(final Class<?> type, final String afterId, final String untilId, final int chunkSize, final ScanResultInterest interest, final Object object) {
+    nextShard().scan(type, afterId, untilId, chunkSize, interest, object);
+  }
+
+  @Override
+  public Completes<List<String>> scanBoundaries(final Class<?> type, final int partitions) {
+    return nextShard().scanBoundaries(type, partitions);
+  }
+
+  @Override
+  public <S, C> void write(final String id, final S state, final int stateVersion, final List<Source<C>> sources, final Metadata metadata, final WriteResultInterest interest, final Object object) {
+    shardOf(id).write(id, state, stateVersion, sources, metadata, interest, object);
+  }
+
+  @Override
+  public void writeAll(final List<StateToWrite<?, ?>> states, final WriteResultInterest interest, final Object object) {
+    if (states == null || states.isEmpty() || shards.size() == 1) {
+      shards.get(0).writeAll(states, interest, object);
+      return;
+    }
+
+    final Map<JDBCStateStore, List<StateToWrite<?, ?>>> statesByShard = new LinkedHashMap<>();
+    for (final StateToWrite<?, ?> state : states) {
+      statesByShard.computeIfAbsent(shardOf(state.id), shard -> new ArrayList<>()).add(state);
+    }
+
+    for (final Map.Entry<JDBCStateStore, List<StateToWrite<?, ?>>> shardStates : statesByShard.entrySet()) {
+      shardStates.getKey().writeAll(shardStates.getValue(), interest, object);
+    }
+  }
+
+  private JDBCStateStore nextShard() {
+    return shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+  }
+
+  private JDBCStateStore shardOf(final String id) {
+    if (id == null) return shards.get(0);
+    // spread the bits of poorly distributed hash codes, as does HashMap
+    final int hash = id.hashCode();
+    return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+  }
+
+  /**
+   * Combines the outcomes of the {@code readAll()} of each shard into one,
+   * answering the found states and the ids not found in the order requested.
+   * The outcomes are received from the different shards concurrently.
+   */
+  private static class ReadAllCombiner implements ReadAllResultInterest {
+    private final Map<String, ReadBundle<Object>> found;
+    private final ReadAllResultInterest interest;
+    private final Object object;
+    private final List<String> requested;
+    private int remaining;
+    private StorageException failure;
+
+    ReadAllCombiner(final List<String> requested, final int shardCount, final ReadAllResultInterest interest, final Object object) {
+      this.requested = requested;
+      this.remaining = shardCount;
+      this.interest = interest;
+      this.object = object;
+      this.found = new LinkedHashMap<>(requested.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> void readAllResultedIn(final Outcome<StorageException, Result> outcome, final Map<String, ReadBundle<S>> bundles, final List<String> notFound, final Object ignored) {
+      synchronized (this) {
+        final StorageException cause = outcome.resolve(exception -> exception, result -> null);
+        if (failure == null) failure = cause;
+
+        for (final ReadBundle<S> bundle : bundles.values()) {
+          found.put(bundle.id, (ReadBundle<Object>) bundle);
+        }
+
+        if (--remaining > 0) return;
+      }
+
+      if (failure != null) {
+        interest.readAllResultedIn(Failure.of(failure), Collections.emptyMap(), Collections.emptyList(), object);
+        return;
+      }
+
+      final Map<String, ReadBundle<Object>> ordered = new LinkedHashMap<>(found.size());
+      final List<String> missing = new ArrayList<>();
+      for (final String id : requested) {
+        final ReadBundle<Object> bundle = found.get(id);
+        if (bundle != null) {
+          ordered.put(id, bundle);
+        } else {
+          missing.add(id);
+        }
+      }
+
+      interest.readAllResultedIn(Success.of(Result.Success), ordered, missing, object);
+    }
+  }
+}
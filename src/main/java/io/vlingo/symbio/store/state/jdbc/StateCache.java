@@ -0,0 +1,207 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vlingo.symbio.State;
+
+/**
+ * A bounded cache of raw states keyed by store name and state id, used by
+ * {@code JDBCStateStoreActor} to answer reads without a database round trip.
+ * The cache is updated on each successful write, so it is only valid when
+ * its store actor is the single writer of the cached tables. It is bounded
+ * by a maximum number of entries, a maximum estimated number of bytes, or
+ * both, and evicts according to its {@code EvictionPolicy}.
+ * <p>
+ * The cache itself must only be used by its owning actor, but its metrics
+ * may be read from any thread.
+ */
+public class StateCache {
+  private static final int EntryOverhead = 64;
+
+  private final Map<String, Cached> cached;
+  private final long maximumBytes;
+  private final int maximumEntries;
+  private final EvictionPolicy policy;
+
+  private final LongAdder evictions;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  private volatile long bytes;
+  private volatile int size;
+
+  /**
+   * Answer a new {@code StateCache} limited to {@code maximumEntries} and evicting least recently used.
+   * @param maximumEntries the int maximum number of cached states
+   * @return StateCache
+   */
+  public static StateCache withMaximumEntries(final int maximumEntries) {
+    return new StateCache(maximumEntries, Long.MAX_VALUE, EvictionPolicy.LeastRecentlyUsed);
+  }
+
+  /**
+   * Answer a new {@code StateCache} limited to {@code maximumBytes} and evicting least recently used.
+   * @param maximumBytes the long maximum estimated bytes of cached states
+   * @return StateCache
+   */
+  public static StateCache withMaximumBytes(final long maximumBytes) {
+    return new StateCache(Integer.MAX_VALUE, maximumBytes, EvictionPolicy.LeastRecentlyUsed);
+  }
+
+  public StateCache(final int maximumEntries, final long maximumBytes, final EvictionPolicy policy) {
+    if (maximumEntries <= 0 || maximumBytes <= 0) {
+      throw new IllegalArgumentException("Cache maximums must be greater than zero.");
+    }
+    this.maximumEntries = maximumEntries;
+    this.maximumBytes = maximumBytes;
+    this.policy = policy;
+    this.cached = new LinkedHashMap<>(16, 0.75f, policy == EvictionPolicy.LeastRecentlyUsed);
+    this.evictions = new LongAdder();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Answer the cached state of {@code id} in {@code storeName}, or {@code null} if not cached.
+   * @param storeName the String name of the store
+   * @param id the String identity of the state
+   * @param <S> the type of the raw state
+   * @return S
+   */
+  @SuppressWarnings("unchecked")
+  public <S extends State<?>> S get(final String storeName, final String id) {
+    final Cached maybeCached = cached.get(keyOf(storeName, id));
+    if (maybeCached == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return (S) maybeCached.state;
+  }
+
+  /**
+   * Cache the {@code state} of {@code storeName}, replacing any prior state
+   * with the same id, and evicting as needed to remain within my bounds.
+   * @param storeName the String name of the store
+   * @param state the {@code State<?>} to cache
+   */
+  public void put(final String storeName, final State<?> state) {
+    final Cached replaced = cached.remove(keyOf(storeName, state.id));
+    if (replaced != null) {
+      bytes -= replaced.bytes;
+    }
+
+    final Cached added = new Cached(state, estimatedBytesOf(state));
+    cached.put(keyOf(storeName, state.id), added);
+    bytes += added.bytes;
+
+    evictAsNeeded();
+
+    size = cached.size();
+  }
+
+  /**
+   * Remove the state of {@code id} in {@code storeName}, if cached.
+   * @param storeName the String name of the store
+   * @param id the String identity of the state
+   */
+  public void invalidate(final String storeName, final String id) {
+    final Cached removed = cached.remove(keyOf(storeName, id));
+    if (removed != null) {
+      bytes -= removed.bytes;
+      size = cached.size();
+    }
+  }
+
+  /**
+   * Remove all cached states.
+   */
+  public void clear() {
+    cached.clear();
+    bytes = 0;
+    size = 0;
+  }
+
+  public long bytes() {
+    return bytes;
+  }
+
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  public EvictionPolicy policy() {
+    return policy;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "StateCache[size=" + size + " bytes=" + bytes + " hits=" + hits() +
+            " misses=" + misses() + " evictions=" + evictions() + " policy=" + policy + "]";
+  }
+
+  private void evictAsNeeded() {
+    final Iterator<Cached> iterator = cached.values().iterator();
+    // never evict the state just added, which is last
+    while ((cached.size() > maximumEntries || bytes > maximumBytes) && cached.size() > 1) {
+      final Cached eldest = iterator.next();
+      iterator.remove();
+      bytes -= eldest.bytes;
+      evictions.increment();
+    }
+  }
+
+  private long estimatedBytesOf(final State<?> state) {
+    final long data = state.isBinary() ? ((byte[]) state.data).length : ((String) state.data).length() * 2L;
+    return EntryOverhead + data +
+            (lengthOf(state.id) + lengthOf(state.type) + lengthOf(state.metadata.value) + lengthOf(state.metadata.operation)) * 2L;
+  }
+
+  private int lengthOf(final String value) {
+    return value == null ? 0 : value.length();
+  }
+
+  private String keyOf(final String storeName, final String id) {
+    return storeName + ":" + id;
+  }
+
+  /**
+   * The order in which cached states are evicted.
+   */
+  public static enum EvictionPolicy {
+    FirstInFirstOut,
+    LeastRecentlyUsed
+  }
+
+  private static final class Cached {
+    final long bytes;
+    final State<?> state;
+
+    Cached(final State<?> state, final long bytes) {
+      this.state = state;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.vlingo.actors.Actor;
+import io.vlingo.actors.ActorInstantiator;
+import io.vlingo.actors.Stoppable;
+import io.vlingo.common.Cancellable;
+import io.vlingo.common.Scheduled;
+import io.vlingo.symbio.store.common.jdbc.StateExpiry;
+import io.vlingo.symbio.store.common.jdbc.StateHistory;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+
+/**
+ * Deletes the expired states and the archived states no longer retained of all stores
+ * of a {@code JDBCStorageDelegate}, according to its {@code StateExpiry} and
+ * {@code StateHistory}, every {@code intervalMillis}. Each store is purged in batches
+ * of up to {@code batchSize} rows, each in its own transaction, and at most
+ * {@code maximumBatches} batches per store and kind of purge and interval, so that no
+ * purge holds long locks or grows one large transaction. Any remaining rows are purged
+ * in the following intervals, and expired states are not read meanwhile. The archived
+ * states beyond the retained versions are purged by a walk of the ids of the history in
+ * order, of up to {@code batchSize} ids per batch, that resumes where the prior interval
+ * stopped, so that no batch ranks the whole history. The delegate
+ * should be my own, such as a {@code copy()}, so that purges do not contend with the
+ * store's connection, and is closed when I am stopped.
+ */
+public class StatePurgeActor extends Actor implements Scheduled<Object>, Stoppable {
+  private final int batchSize;
+  private final JDBCStorageDelegate<?> delegate;
+  private final Map<String, String> historyCursors;
+  private final int maximumBatches;
+  private final Cancellable purger;
+
+  public StatePurgeActor(final JDBCStorageDelegate<?> delegate, final long intervalMillis, final int batchSize, final int maximumBatches) {
+    if (intervalMillis <= 0 || batchSize <= 0 || maximumBatches <= 0) {
+      throw new IllegalArgumentException("The interval, batch size, and maximum batches must be greater than zero.");
+    }
+    this.delegate = delegate;
+    this.batchSize = batchSize;
+    this.maximumBatches = maximumBatches;
+    this.historyCursors = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    final Scheduled<Object> scheduled = selfAs(Scheduled.class);
+    this.purger = stage().scheduler().schedule(scheduled, null, intervalMillis, intervalMillis);
+  }
+
+  @Override
+  public void intervalSignal(final Scheduled<Object> scheduled, final Object data) {
+    final long now = System.currentTimeMillis();
+    final StateExpiry expiry = delegate.expiry();
+    final StateHistory history = delegate.history();
+
+    for (final String storeName : StateTypeStateStoreMap.allStoreNames()) {
+      if (!expiry.isNone()) {
+        purge(storeName, "expired states", () -> delegate.purgeExpiredExpressionFor(storeName, now, batchSize));
+      }
+      if (history.ageMillis > 0) {
+        purge(storeName, "aged history", () -> delegate.purgeHistoryByAgeExpressionFor(storeName, now - history.ageMillis, batchSize));
+      }
+      if (history.versions > 0) {
+        purgeHistoryVersions(storeName, history.versions);
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    purger.cancel();
+    delegate.close();
+    super.stop();
+  }
+
+  private void purge(final String storeName, final String kind, final PurgeExpression expression) {
+    for (int batch = 0; batch < maximumBatches; ++batch) {
+      try {
+        delegate.beginWrite();
+        final int deleted = expression.statement().executeUpdate();
+        delegate.complete();
+        if (deleted < batchSize) {
+          return;
+        }
+      } catch (final Exception e) {
+        delegate.fail();
+        logger().error(getClass().getSimpleName() + ": Could not purge " + kind + " of " + storeName + " because: " + e.getMessage(), e);
+        return;
+      }
+    }
+  }
+
+  private void purgeHistoryVersions(final String storeName, final int versions) {
+    for (int batch = 0; batch < maximumBatches; ++batch) {
+      try {
+        delegate.beginWrite();
+        final String afterId = historyCursors.get(storeName);
+        final PreparedStatement versionsStatement = delegate.historyVersionsExpressionFor(storeName, afterId, batchSize);
+        String lastId = afterId;
+        int walked = 0;
+        PreparedStatement purgeStatement = null;
+        try (final ResultSet result = versionsStatement.executeQuery()) {
+          while (result.next()) {
+            lastId = result.getString(1);
+            ++walked;
+            final int lastPurgedVersion = result.getInt(3) - versions;
+            if (result.getInt(2) <= lastPurgedVersion) {
+              purgeStatement = delegate.purgeHistoryVersionsExpressionFor(storeName, lastId, lastPurgedVersion);
+              purgeStatement.addBatch();
+            }
+          }
+        }
+        if (purgeStatement != null) {
+          purgeStatement.executeBatch();
+        }
+        delegate.complete();
+        if (walked < batchSize) {
+          // the walk is complete, and the next starts again from the first id
+          historyCursors.remove(storeName);
+          return;
+        }
+        historyCursors.put(storeName, lastId);
+      } catch (final Exception e) {
+        delegate.fail();
+        logger().error(getClass().getSimpleName() + ": Could not purge versioned history of " + storeName + " because: " + e.getMessage(), e);
+        return;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private static interface PurgeExpression {
+    PreparedStatement statement() throws Exception;
+  }
+
+  public static class StatePurgeInstantiator implements ActorInstantiator<StatePurgeActor> {
+    private final int batchSize;
+    private final JDBCStorageDelegate<?> delegate;
+    private final long intervalMillis;
+    private final int maximumBatches;
+
+    public StatePurgeInstantiator(final JDBCStorageDelegate<?> delegate, final long intervalMillis, final int batchSize, final int maximumBatches) {
+      this.delegate = delegate;
+      this.intervalMillis = intervalMillis;
+      this.batchSize = batchSize;
+      this.maximumBatches = maximumBatches;
+    }
+
+    @Override
+    public StatePurgeActor instantiate() {
+      return new StatePurgeActor(delegate, intervalMillis, batchSize, maximumBatches);
+    }
+
+    @Override
+    public Class<StatePurgeActor> type() {
+      return StatePurgeActor.class;
+    }
+  }
+}
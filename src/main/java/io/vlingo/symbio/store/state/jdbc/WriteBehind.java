@@ -0,0 +1,73 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The opt-in write-behind policy of a {@code JDBCStateStoreActor}. Writes of states of
+ * the selected types that have no sources are held in memory, where each newer write of
+ * the same id replaces the prior pending state, and the latest state of each id is
+ * flushed in one batched transaction every {@code flushIntervalMillis}, or as soon as
+ * {@code maximumPending} ids are pending.
+ * <p>
+ * A pending write must have a greater state version than the write it replaces, or it
+ * is answered with {@code Result.ConcurrencyViolation} at once. All other writes are
+ * answered when flushed, each with its own state and version. A write replaced by a
+ * newer pending write is answered with {@code Result.Success}, because its version was
+ * valid when replaced, and only the latest write of each id is answered with the outcome
+ * of its flushed state. Reads of a pending id answer the pending state.
+ * Pending states are lost if the process ends before they are flushed, so only states
+ * that can tolerate such loss, such as counters and presence, should be written behind.
+ */
+public final class WriteBehind {
+  public final long flushIntervalMillis;
+  public final int maximumPending;
+
+  private final Set<Class<?>> types;
+
+  /**
+   * Answer a new {@code WriteBehind} of the states of {@code types}.
+   * @param flushIntervalMillis the long milliseconds between flushes
+   * @param maximumPending the int number of pending ids that causes a flush
+   * @param types the {@code Class<?>} of each state type written behind
+   * @return WriteBehind
+   */
+  public static WriteBehind of(final long flushIntervalMillis, final int maximumPending, final Class<?>... types) {
+    return new WriteBehind(flushIntervalMillis, maximumPending, new HashSet<>(Arrays.asList(types)));
+  }
+
+  private WriteBehind(final long flushIntervalMillis, final int maximumPending, final Set<Class<?>> types) {
+    if (flushIntervalMillis <= 0 || maximumPending <= 0) {
+      throw new IllegalArgumentException("The flush interval and maximum pending must be greater than zero.");
+    }
+    if (types.isEmpty()) {
+      throw new IllegalArgumentException("At least one state type is required.");
+    }
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.maximumPending = maximumPending;
+    this.types = Collections.unmodifiableSet(types);
+  }
+
+  /**
+   * Answer whether states of {@code type} are written behind.
+   * @param type the {@code Class<?>} of the state
+   * @return boolean
+   */
+  public boolean appliesTo(final Class<?> type) {
+    return types.contains(type);
+  }
+
+  @Override
+  public String toString() {
+    return "WriteBehind[flushIntervalMillis=" + flushIntervalMillis + " maximumPending=" + maximumPending + " types=" + types.size() + "]";
+  }
+}
@@ -13,23 +13,85 @@ public interface HSQLDBQueries {
           "FROM TBL_{0} " +
           "WHERE TBL_{0}.S_ID = ?";
 
+  final static String SQL_STATE_READ_VERSION =
+          "SELECT TBL_{0}.S_TYPE, TBL_{0}.S_TYPE_VERSION, TBL_{0}.S_DATA_VERSION, TBL_{0}.S_METADATA_VALUE, TBL_{0}.S_METADATA_OP " +
+          "FROM TBL_{0} " +
+          "WHERE TBL_{0}.S_ID = ?";
+
+  final static String SQL_STATE_READ_IF_CHANGED =
+          "SELECT TBL_{0}.S_TYPE, TBL_{0}.S_TYPE_VERSION, CASE WHEN TBL_{0}.S_DATA_VERSION <> ? THEN TBL_{0}.S_DATA END, TBL_{0}.S_DATA_VERSION, TBL_{0}.S_METADATA_VALUE, TBL_{0}.S_METADATA_OP " +
+          "FROM TBL_{0} " +
+          "WHERE TBL_{0}.S_ID = ?";
+
+  final static String SQL_STATE_READ_ALL =
+          "SELECT TBL_{0}.S_TYPE, TBL_{0}.S_TYPE_VERSION, TBL_{0}.S_DATA, TBL_{0}.S_DATA_VERSION, TBL_{0}.S_METADATA_VALUE, TBL_{0}.S_METADATA_OP, TBL_{0}.S_ID " +
+          "FROM TBL_{0} " +
+          "WHERE TBL_{0}.S_ID IN ({1})";
+
+  final static String SQL_STATE_SCAN =
+          "SELECT TBL_{0}.S_TYPE, TBL_{0}.S_TYPE_VERSION, TBL_{0}.S_DATA, TBL_{0}.S_DATA_VERSION, TBL_{0}.S_METADATA_VALUE, TBL_{0}.S_METADATA_OP, TBL_{0}.S_ID " +
+          "FROM TBL_{0} " +
+          "WHERE TBL_{0}.S_ID > ?{1} " +
+          "ORDER BY TBL_{0}.S_ID LIMIT ?";
+
+  final static String SQL_STATE_SCAN_UPPER_BOUND = " AND TBL_{0}.S_ID <= ?";
+
+  final static String SQL_STATE_READ_CHANGES =
+          "SELECT TBL_{0}.S_TYPE, TBL_{0}.S_TYPE_VERSION, TBL_{0}.S_DATA, TBL_{0}.S_DATA_VERSION, TBL_{0}.S_METADATA_VALUE, TBL_{0}.S_METADATA_OP, TBL_{0}.S_ID, TBL_{0}.S_CHANGE_SEQ " +
+          "FROM TBL_{0} " +
+          "WHERE TBL_{0}.S_CHANGE_SEQ > ?{1} " +
+          "ORDER BY TBL_{0}.S_CHANGE_SEQ LIMIT ?";
+
+  final static String SQL_STATE_SCAN_PROBE =
+          "SELECT TBL_{0}.S_ID FROM TBL_{0} WHERE TBL_{0}.S_ID > ? ORDER BY TBL_{0}.S_ID LIMIT 1 OFFSET ?";
+
+  // the row count of a memory table is kept by its primary key index, which answers it without reading the table
+  final static String SQL_STATE_SCAN_ESTIMATE =
+          "SELECT COUNT(*) FROM TBL_{0}";
+
+  final static String SQL_STATE_COUNT =
+          "SELECT COUNT(*) FROM TBL_{0}";
+
   final static String SQL_STATE_WRITE =
           "MERGE INTO TBL_{0} \n" +
           "USING (VALUES ?, ?, ?, {1}, ?, ?, ?) \n" +
-          "S (S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_OP, S_METADATA_VALUE) \n" +
+          "S (S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP) \n" +
           "ON (TBL_{0}.S_ID = S.S_ID) \n" +
-          "WHEN MATCHED THEN UPDATE \n" +
+          "WHEN MATCHED AND TBL_{0}.S_DATA_VERSION < S.S_DATA_VERSION THEN UPDATE \n" +
+                  "SET TBL_{0}.S_TYPE = S.S_TYPE, \n" +
+                  "    TBL_{0}.S_TYPE_VERSION = S.S_TYPE_VERSION, \n" +
+                  "    TBL_{0}.S_DATA = S.S_DATA, \n" +
+                  "    TBL_{0}.S_DATA_VERSION = S.S_DATA_VERSION, \n" +
+                  "    TBL_{0}.S_METADATA_OP = S.S_METADATA_OP, \n" +
+                  "    TBL_{0}.S_METADATA_VALUE = S.S_METADATA_VALUE{2} \n" +
+          "WHEN NOT MATCHED THEN INSERT \n" +
+                  "(S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP{3}) \n" +
+                  "VALUES (S.S_ID, S.S_TYPE, S.S_TYPE_VERSION, S.S_DATA, S.S_DATA_VERSION, S.S_METADATA_VALUE, S.S_METADATA_OP{4})";
+
+  final static String SQL_STATE_WRITE_EXPIRING =
+          "MERGE INTO TBL_{0} \n" +
+          "USING (VALUES ?, ?, ?, {1}, ?, ?, ?, CAST(? AS BIGINT)) \n" +
+          "S (S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP, S_EXPIRES_AT) \n" +
+          "ON (TBL_{0}.S_ID = S.S_ID) \n" +
+          "WHEN MATCHED AND TBL_{0}.S_DATA_VERSION < S.S_DATA_VERSION THEN UPDATE \n" +
                   "SET TBL_{0}.S_TYPE = S.S_TYPE, \n" +
                   "    TBL_{0}.S_TYPE_VERSION = S.S_TYPE_VERSION, \n" +
                   "    TBL_{0}.S_DATA = S.S_DATA, \n" +
                   "    TBL_{0}.S_DATA_VERSION = S.S_DATA_VERSION, \n" +
                   "    TBL_{0}.S_METADATA_OP = S.S_METADATA_OP, \n" +
-                  "    TBL_{0}.S_METADATA_VALUE = S.S_METADATA_VALUE \n" +
+                  "    TBL_{0}.S_METADATA_VALUE = S.S_METADATA_VALUE, \n" +
+                  "    TBL_{0}.S_EXPIRES_AT = S.S_EXPIRES_AT{2} \n" +
           "WHEN NOT MATCHED THEN INSERT \n" +
-                  "(S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_OP, S_METADATA_VALUE) \n" +
-                  "VALUES (S.S_ID, S.S_TYPE, S.S_TYPE_VERSION, S.S_DATA, S.S_DATA_VERSION, S.S_METADATA_VALUE, S.S_METADATA_OP)";
+                  "(S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP, S_EXPIRES_AT{3}) \n" +
+                  "VALUES (S.S_ID, S.S_TYPE, S.S_TYPE_VERSION, S.S_DATA, S.S_DATA_VERSION, S.S_METADATA_VALUE, S.S_METADATA_OP, S.S_EXPIRES_AT{4})";
 
-  final static String SQL_FORMAT_BINARY_CAST = "CAST(? AS VARBINARY(65535))";
+  // a write locks its table until it commits, so sequences are drawn in the order of commits
+  final static String SQL_STATE_CHANGE_ASSIGNMENT =
+          ", \n    TBL_{0}.S_CHANGE_SEQ = NEXT VALUE FOR TBL_{0}_CHANGES";
+  final static String SQL_STATE_CHANGE_COLUMN = ", S_CHANGE_SEQ";
+  final static String SQL_STATE_CHANGE_VALUE = ", NEXT VALUE FOR TBL_{0}_CHANGES";
+
+  final static String SQL_FORMAT_BINARY_CAST = "CAST(? AS BLOB(64M))";
   final static String SQL_FORMAT_TEXT_CAST = "CAST(? AS LONGVARCHAR(65535))";
 
   final static String TBL_VLINGO_SYMBIO_DISPATCHABLES = "TBL_VLINGO_SYMBIO_DISPATCHABLES";
@@ -69,11 +131,74 @@ public interface HSQLDBQueries {
           "   S_DATA_VERSION INT NOT NULL,\n" +
           "   S_METADATA_VALUE VARCHAR(4000) NOT NULL,\n" +
           "   S_METADATA_OP VARCHAR(128) NOT NULL,\n" +
+          "{2}" +
+          "{3}" +
           "   PRIMARY KEY (S_ID) \n" +
           ");";
 
+  final static String SQL_STATE_EXPIRES_AT_COLUMN = "   S_EXPIRES_AT BIGINT,\n";
+
+  final static String SQL_STATE_EXPIRES_AT_INDEX =
+          "CREATE INDEX IDX_{0}_EXPIRES_AT ON {0} (S_EXPIRES_AT)";
+
+  final static String SQL_STATE_CHANGE_SEQ_COLUMN = "   S_CHANGE_SEQ BIGINT,\n";
+
+  final static String SQL_STATE_CHANGE_SEQUENCE =
+          "CREATE SEQUENCE {0}_CHANGES AS BIGINT START WITH 1";
+
+  final static String SQL_STATE_CHANGE_SEQ_INDEX =
+          "CREATE INDEX IDX_{0}_CHANGE_SEQ ON {0} (S_CHANGE_SEQ)";
+
+  final static String SQL_STATE_NOT_EXPIRED = "(TBL_{0}.S_EXPIRES_AT IS NULL OR TBL_{0}.S_EXPIRES_AT > ?)";
+
+  final static String SQL_STATE_PURGE_EXPIRED =
+          "DELETE FROM TBL_{0} WHERE TBL_{0}.S_EXPIRES_AT <= ? LIMIT ?";
+
+  final static String SQL_CREATE_STATE_HISTORY =
+          "CREATE TABLE {0} (\n" +
+          "   S_ID VARCHAR(128) NOT NULL,\n" +
+          "   S_TYPE VARCHAR(256) NOT NULL,\n" +
+          "   S_TYPE_VERSION INT NOT NULL,\n" +
+          "   S_DATA {1} NOT NULL,\n" +
+          "   S_DATA_VERSION INT NOT NULL,\n" +
+          "   S_METADATA_VALUE VARCHAR(4000) NOT NULL,\n" +
+          "   S_METADATA_OP VARCHAR(128) NOT NULL,\n" +
+          "   S_ARCHIVED_AT BIGINT NOT NULL,\n" +
+          "   PRIMARY KEY (S_ID, S_DATA_VERSION) \n" +
+          ");";
+
+  final static String SQL_STATE_HISTORY_ARCHIVED_AT_INDEX =
+          "CREATE INDEX IDX_{0}_ARCHIVED_AT ON {0} (S_ARCHIVED_AT)";
+
+  // each update that replaces a state archives it, including those of batched writes of the same id
+  final static String SQL_STATE_ARCHIVE_TRIGGER =
+          "CREATE TRIGGER {1}_ARCHIVE AFTER UPDATE ON {0} \n" +
+          "REFERENCING OLD ROW AS REPLACED NEW ROW AS WRITTEN FOR EACH ROW \n" +
+          "WHEN (REPLACED.S_DATA_VERSION < WRITTEN.S_DATA_VERSION) \n" +
+          "INSERT INTO {1} \n" +
+          "(S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP, S_ARCHIVED_AT) \n" +
+          "VALUES (REPLACED.S_ID, REPLACED.S_TYPE, REPLACED.S_TYPE_VERSION, REPLACED.S_DATA, REPLACED.S_DATA_VERSION, " +
+          "REPLACED.S_METADATA_VALUE, REPLACED.S_METADATA_OP, UNIX_MILLIS())";
+
+  final static String SQL_STATE_READ_HISTORY =
+          "SELECT S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP " +
+          "FROM TBL_{0} WHERE S_ID = ? AND S_DATA_VERSION = ?{1} " +
+          "UNION ALL " +
+          "SELECT S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP " +
+          "FROM TBL_{0}_HISTORY WHERE S_ID = ? AND S_DATA_VERSION = ?";
+
+  final static String SQL_STATE_PURGE_HISTORY_BY_AGE =
+          "DELETE FROM TBL_{0}_HISTORY WHERE S_ARCHIVED_AT < ? LIMIT ?";
+
+  final static String SQL_STATE_HISTORY_VERSIONS =
+          "SELECT S_ID, MIN(S_DATA_VERSION), MAX(S_DATA_VERSION) FROM TBL_{0}_HISTORY " +
+          "WHERE S_ID > ? GROUP BY S_ID ORDER BY S_ID LIMIT ?";
+
+  final static String SQL_STATE_PURGE_HISTORY_VERSIONS =
+          "DELETE FROM TBL_{0}_HISTORY WHERE S_ID = ? AND S_DATA_VERSION <= ?";
+
   final static String SQL_FORMAT_TEXT = "LONGVARCHAR(65535)";
-  final static String SQL_FORMAT_BINARY = "VARBINARY(65535)";
+  final static String SQL_FORMAT_BINARY = "BLOB(64M)";
 
   final static String SQL_DISPATCHABLE_APPEND =
           "INSERT INTO {0} \n" +
@@ -117,8 +242,6 @@ public interface HSQLDBQueries {
                "(E_TYPE, E_TYPE_VERSION, E_DATA, E_METADATA_VALUE, E_METADATA_OP) \n" +
                "VALUES (?, ?, ?, ?, ?)";
 
-  final static String SQL_APPEND_ENTRY_IDENTITY = "CALL IDENTITY()";
-
   final static String SQL_QUERY_ENTRY_BATCH =
           "SELECT E_ID, E_TYPE, E_TYPE_VERSION, E_DATA, E_METADATA_VALUE, E_METADATA_OP FROM " +
                   " {0} WHERE E_ID >= ? " +
@@ -137,11 +260,11 @@ public interface HSQLDBQueries {
 
   final static String UPDATE_CURRENT_OFFSET =
           "MERGE INTO {0} \n" +
-          "USING (VALUES ?, ?) \n " +
-          "O (O_READER_NAME, O_READER_OFFSET) \n" +
+          "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(128)))) \n " +
+          "O (O_READER_OFFSET, O_READER_NAME) \n" +
           "ON ({0}.O_READER_NAME = O.O_READER_NAME) \n" +
           "WHEN MATCHED THEN UPDATE \n" +
-                  "SET {0}.O_READER_OFFSET = O.O_READER_OFFSET \n" +
+                  "SET {0}.O_READER_OFFSET = ? \n" +
           "WHEN NOT MATCHED THEN INSERT \n" +
                   "(O_READER_NAME, O_READER_OFFSET) \n" +
                   "VALUES (O.O_READER_NAME, O.O_READER_OFFSET)";
@@ -12,15 +12,15 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.List;
 
 import io.vlingo.actors.Actor;
 import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.actors.Logger;
-import io.vlingo.symbio.Entry;
-import io.vlingo.symbio.State;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.EntryReader;
-import io.vlingo.symbio.store.common.jdbc.CachedStatement;
+import io.vlingo.symbio.store.common.jdbc.BinaryStreams;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
 import io.vlingo.symbio.store.state.jdbc.JDBCDispatchableCachedStatements;
@@ -36,6 +36,10 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
           configuration.format,
           configuration.originatorId,
           configuration.createTables,
+          configuration.payloadCodec(),
+          configuration.stateExpiry(),
+          configuration.stateHistory(),
+          configuration.stateChanges(),
           logger);
 
     this.configuration = configuration;
@@ -76,9 +80,7 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
 
   @Override
   protected byte[] binaryDataFrom(final ResultSet resultSet, final int columnIndex) throws Exception {
-    final Blob blob = resultSet.getBlob(columnIndex);
-    final byte[] data = blob.getBytes(1, (int) blob.length());
-    return data;
+    return BinaryStreams.blobFrom(resultSet, columnIndex);
   }
 
   @Override
@@ -87,6 +89,11 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
     return (D) connection.createBlob();
   }
 
+  @Override
+  protected String countExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_COUNT, storeName.toUpperCase());
+  }
+
   @Override
   protected JDBCDispatchableCachedStatements<Blob> dispatchableCachedStatements() {
     return new HSQLDBDispatchableCachedStatements(originatorId, connection, format, logger);
@@ -105,7 +112,7 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
   @Override
   protected String dispatchableTableCreateExpression() {
     return MessageFormat.format(SQL_CREATE_DISPATCHABLES_STORE, dispatchableTableName(),
-            format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
+            storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
   }
 
   @Override
@@ -116,13 +123,13 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
   @Override
   protected String entryTableCreateExpression() {
     return MessageFormat.format(SQL_CREATE_ENTRY_STORE, entryTableName(),
-            format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
+            storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
   }
 
   @Override
   protected String entryOffsetsTableCreateExpression() {
     return MessageFormat.format(SQL_CREATE_ENTRY_STORE_OFFSETS, entryOffsetsTableName(),
-            format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
+            storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
   }
 
   @Override
@@ -135,39 +142,114 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
     return TBL_VLINGO_SYMBIO_STATE_ENTRY_OFFSETS;
   }
 
+  @Override
+  protected String readAllExpression(final String storeName, final int idCount) {
+    return MessageFormat.format(SQL_STATE_READ_ALL, storeName.toUpperCase(), placeholders(idCount));
+  }
+
+  @Override
+  protected String expiresAtIndexCreateExpression(final String tableName) {
+    return MessageFormat.format(SQL_STATE_EXPIRES_AT_INDEX, tableName);
+  }
+
+  @Override
+  protected String notExpiredExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_NOT_EXPIRED, storeName.toUpperCase());
+  }
+
+  @Override
+  protected String purgeExpiredExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_PURGE_EXPIRED, storeName.toUpperCase());
+  }
+
+  @Override
+  protected List<String> archiveTriggerCreateExpressions(final String tableName, final String historyTableName) {
+    return Collections.singletonList(MessageFormat.format(SQL_STATE_ARCHIVE_TRIGGER, tableName, historyTableName));
+  }
+
+  @Override
+  protected String changesIndexCreateExpression(final String tableName) {
+    return MessageFormat.format(SQL_STATE_CHANGE_SEQ_INDEX, tableName);
+  }
+
+  @Override
+  protected List<String> changeSequenceCreateExpressions(final String tableName) {
+    return Collections.singletonList(MessageFormat.format(SQL_STATE_CHANGE_SEQUENCE, tableName));
+  }
+
+  @Override
+  protected String historyIndexCreateExpression(final String historyTableName) {
+    return MessageFormat.format(SQL_STATE_HISTORY_ARCHIVED_AT_INDEX, historyTableName);
+  }
+
+  @Override
+  protected String historyTableCreateExpression(final String historyTableName) {
+    return MessageFormat.format(SQL_CREATE_STATE_HISTORY, historyTableName,
+            storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
+  }
+
+  @Override
+  protected String purgeHistoryByAgeExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_PURGE_HISTORY_BY_AGE, storeName.toUpperCase());
+  }
+
+  @Override
+  protected String historyVersionsExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_HISTORY_VERSIONS, storeName.toUpperCase());
+  }
+
+  @Override
+  protected String purgeHistoryVersionsExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_PURGE_HISTORY_VERSIONS, storeName.toUpperCase());
+  }
+
+  @Override
+  protected String readHistoryExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_READ_HISTORY, storeName.toUpperCase(), expiryCondition(storeName));
+  }
+
+  @Override
+  protected String readChangesExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_READ_CHANGES, storeName.toUpperCase(), expiryCondition(storeName));
+  }
+
   @Override
   protected String readExpression(final String storeName, final String id) {
     return MessageFormat.format(SQL_STATE_READ, storeName.toUpperCase());
   }
 
   @Override
-  protected <S> void setBinaryObject(final CachedStatement<Blob> cached, int columnIndex, State<S> state) throws Exception {
-    final byte[] data = (byte[]) state.data;
-    cached.data.setBytes(1, data);
-    cached.preparedStatement.setBlob(columnIndex, cached.data);
+  protected String readIfChangedExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_READ_IF_CHANGED, storeName.toUpperCase());
+  }
+
+  @Override
+  protected String readVersionExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_READ_VERSION, storeName.toUpperCase());
   }
 
   @Override
-  protected <E> void setBinaryObject(final CachedStatement<Blob> cached, int columnIndex, Entry<E> entry) throws Exception {
-    final byte[] data = (byte[]) entry.entryData();
-    cached.data.setBytes(1, data);
-    cached.preparedStatement.setBlob(columnIndex, cached.data);
+  protected String scanExpression(final String storeName, final boolean bounded) {
+    final String name = storeName.toUpperCase();
+    return MessageFormat.format(SQL_STATE_SCAN, name, (bounded ? MessageFormat.format(SQL_STATE_SCAN_UPPER_BOUND, name) : "") + expiryCondition(storeName));
   }
 
   @Override
-  protected <S> void setTextObject(final CachedStatement<Blob> cached, int columnIndex, State<S> state) throws Exception {
-    cached.preparedStatement.setString(columnIndex, (String) state.data);
+  protected String scanEstimateExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_SCAN_ESTIMATE, storeName.toUpperCase());
   }
 
   @Override
-  protected <E> void setTextObject(final CachedStatement<Blob> cached, int columnIndex, Entry<E> entry) throws Exception {
-    cached.preparedStatement.setString(columnIndex, (String) entry.entryData());
+  protected String scanProbeExpression(final String storeName) {
+    return MessageFormat.format(SQL_STATE_SCAN_PROBE, storeName.toUpperCase());
   }
 
   @Override
   protected String stateStoreTableCreateExpression(final String tableName) {
     return MessageFormat.format(SQL_CREATE_STATE_STORE, tableName,
-            format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT);
+            storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT,
+            expiry.isNone() ? "" : SQL_STATE_EXPIRES_AT_COLUMN,
+            stateChanges ? SQL_STATE_CHANGE_SEQ_COLUMN : "");
   }
 
   @Override
@@ -175,6 +257,11 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
     return "TBL_" + storeName.toUpperCase();
   }
 
+  @Override
+  protected String historyTableNameFor(final String tableName) {
+    return tableName + "_HISTORY";
+  }
+
   @Override
   protected String textDataFrom(final ResultSet resultSet, final int columnIndex) throws Exception {
     final String data = resultSet.getString(columnIndex);
@@ -183,8 +270,12 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
 
   @Override
   protected String writeExpression(String storeName) {
-    return MessageFormat.format(SQL_STATE_WRITE, storeName.toUpperCase(),
-            format.isBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST);
+    final String name = storeName.toUpperCase();
+    return MessageFormat.format(expiry.isNone() ? SQL_STATE_WRITE : SQL_STATE_WRITE_EXPIRING, name,
+            storesBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST,
+            stateChanges ? MessageFormat.format(SQL_STATE_CHANGE_ASSIGNMENT, name) : "",
+            stateChanges ? SQL_STATE_CHANGE_COLUMN : "",
+            stateChanges ? MessageFormat.format(SQL_STATE_CHANGE_VALUE, name) : "");
   }
 
   private String namedDispatchable(final String sql) {
@@ -236,11 +327,6 @@ public class HSQLDBStorageDelegate extends JDBCStorageDelegate<Blob> implements
       return namedEntry(SQL_QUERY_ENTRY);
     }
 
-    @Override
-    protected String appendEntryIdentityExpression() {
-      return SQL_APPEND_ENTRY_IDENTITY;
-    }
-
     @Override
     protected String deleteDispatchableExpression() {
       return namedDispatchable(SQL_DISPATCHABLE_DELETE);
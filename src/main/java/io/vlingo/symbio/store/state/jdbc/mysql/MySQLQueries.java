@@ -13,17 +13,74 @@ public interface MySQLQueries {
                     "FROM tbl_{0} " +
                     "WHERE tbl_{0}.S_ID = ?";
 
+    final static String SQL_STATE_READ_VERSION =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID = ?";
+
+    final static String SQL_STATE_READ_IF_CHANGED =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, CASE WHEN tbl_{0}.S_DATA_VERSION <> ? THEN tbl_{0}.S_DATA END, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID = ?";
+
+    final static String SQL_STATE_READ_ALL =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID IN ({1})";
+
+    final static String SQL_STATE_SCAN =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID > ?{1} " +
+                    "ORDER BY tbl_{0}.S_ID LIMIT ?";
+
+    final static String SQL_STATE_SCAN_UPPER_BOUND = " AND tbl_{0}.S_ID <= ?";
+
+    final static String SQL_STATE_READ_CHANGES =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID, tbl_{0}.S_CHANGE_SEQ " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_CHANGE_SEQ > ?{1} " +
+                    "ORDER BY tbl_{0}.S_CHANGE_SEQ LIMIT ?";
+
+    final static String SQL_STATE_SCAN_PROBE =
+            "SELECT tbl_{0}.S_ID FROM tbl_{0} WHERE tbl_{0}.S_ID > ? ORDER BY tbl_{0}.S_ID LIMIT 1 OFFSET ?";
+
+    // the row count sampled by InnoDB for the data dictionary, of all partitions if partitioned
+    final static String SQL_STATE_SCAN_ESTIMATE =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ''tbl_{0}''";
+
+    final static String SQL_STATE_COUNT =
+            "SELECT COUNT(*) FROM tbl_{0}";
+
     final static String SQL_STATE_WRITE =
             "INSERT INTO tbl_{0} \n" +
-                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op) \n" +
-                    "VALUES (?, ?, ?, {1}, ?, ?, ?) \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op{3}) \n" +
+                    "VALUES (?, ?, ?, {1}, ?, ?, ?{4}) \n" +
+                    "ON DUPLICATE KEY UPDATE \n" +
+                    // assignments are evaluated in order, so s_data_version must be last
+                    "s_type = IF(s_data_version < VALUES(s_data_version), VALUES(s_type), s_type), \n" +
+                    "s_type_version = IF(s_data_version < VALUES(s_data_version), VALUES(s_type_version), s_type_version), \n" +
+                    "s_data = IF(s_data_version < VALUES(s_data_version), VALUES(s_data), s_data), \n" +
+                    "s_metadata_value = IF(s_data_version < VALUES(s_data_version), VALUES(s_metadata_value), s_metadata_value), \n" +
+                    "s_metadata_op = IF(s_data_version < VALUES(s_data_version), VALUES(s_metadata_op), s_metadata_op), \n" +
+                    "{2}" +
+                    "s_data_version = IF(s_data_version < VALUES(s_data_version), VALUES(s_data_version), s_data_version) \n";
+
+    final static String SQL_STATE_WRITE_EXPIRING =
+            "INSERT INTO tbl_{0} \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op, s_expires_at{3}) \n" +
+                    "VALUES (?, ?, ?, {1}, ?, ?, ?, ?{4}) \n" +
                     "ON DUPLICATE KEY UPDATE \n" +
-                    "s_type = VALUES(s_type), \n" +
-                    "s_type_version = VALUES(s_type_version), \n" +
-                    "s_data = VALUES(s_data), \n" +
-                    "s_data_version = VALUES(s_data_version), \n" +
-                    "s_metadata_value = VALUES(s_metadata_value), \n" +
-                    "s_metadata_op = VALUES(s_metadata_op) \n";
+                    // assignments are evaluated in order, so s_data_version must be last
+                    "s_type = IF(s_data_version < VALUES(s_data_version), VALUES(s_type), s_type), \n" +
+                    "s_type_version = IF(s_data_version < VALUES(s_data_version), VALUES(s_type_version), s_type_version), \n" +
+                    "s_data = IF(s_data_version < VALUES(s_data_version), VALUES(s_data), s_data), \n" +
+                    "s_metadata_value = IF(s_data_version < VALUES(s_data_version), VALUES(s_metadata_value), s_metadata_value), \n" +
+                    "s_metadata_op = IF(s_data_version < VALUES(s_data_version), VALUES(s_metadata_op), s_metadata_op), \n" +
+                    "s_expires_at = IF(s_data_version < VALUES(s_data_version), VALUES(s_expires_at), s_expires_at), \n" +
+                    "{2}" +
+                    "s_data_version = IF(s_data_version < VALUES(s_data_version), VALUES(s_data_version), s_data_version) \n";
+
 
     final static String SQL_FORMAT_BINARY_CAST = "?";
     final static String SQL_FORMAT_TEXT_CAST = "?";
@@ -37,11 +94,97 @@ public interface MySQLQueries {
                     "   s_data_version INT NOT NULL,\n" +
                     "   s_metadata_value TEXT NOT NULL,\n" +
                     "   s_metadata_op VARCHAR(128) NOT NULL,\n" +
+                    "{3}" +
+                    "{4}" +
                     "   PRIMARY KEY (s_id) \n" +
+                    "){2};";
+
+    final static String SQL_STATE_EXPIRES_AT_COLUMN = "   s_expires_at BIGINT,\n";
+
+    final static String SQL_STATE_CHANGE_SEQ_COLUMN = "   s_change_seq BIGINT,\n";
+
+    // MySQL has no sequences, so change sequences are drawn from the one row of a table of its own,
+    // which is persisted and replicated with its rows, and so keeps increasing across restarts,
+    // replicas and failover
+    final static String SQL_STATE_CHANGE_SEQUENCE =
+            "CREATE TABLE IF NOT EXISTS {0}_changes (s_change_seq BIGINT NOT NULL)";
+
+    final static String SQL_STATE_CHANGE_SEQUENCE_START =
+            "INSERT INTO {0}_changes (s_change_seq) SELECT 0 FROM DUAL WHERE NOT EXISTS (SELECT * FROM {0}_changes)";
+
+    // the row stays locked until the drawing transaction commits, so sequences are drawn in the order of commits
+    final static String SQL_STATE_CHANGE_DRAW =
+            "UPDATE {0}_changes SET s_change_seq = LAST_INSERT_ID(s_change_seq + 1); \n" +
+                    "SET NEW.s_change_seq = LAST_INSERT_ID(); \n";
+
+    final static String SQL_STATE_CHANGE_INSERT_TRIGGER =
+            "CREATE TRIGGER {0}_change_insert BEFORE INSERT ON {0} FOR EACH ROW BEGIN \n" +
+                    SQL_STATE_CHANGE_DRAW +
+                    "END";
+
+    final static String SQL_STATE_CHANGE_UPDATE_TRIGGER =
+            "CREATE TRIGGER {0}_change_update BEFORE UPDATE ON {0} FOR EACH ROW \n" +
+                    "IF OLD.s_data_version < NEW.s_data_version THEN \n" +
+                    SQL_STATE_CHANGE_DRAW +
+                    "END IF";
+
+    final static String SQL_STATE_CHANGE_SEQ_INDEX =
+            "CREATE INDEX idx_{0}_change_seq ON {0} (s_change_seq)";
+
+    final static String SQL_STATE_EXPIRES_AT_INDEX =
+            "CREATE INDEX idx_{0}_expires_at ON {0} (s_expires_at)";
+
+    final static String SQL_STATE_NOT_EXPIRED = "(tbl_{0}.s_expires_at IS NULL OR tbl_{0}.s_expires_at > ?)";
+
+    final static String SQL_STATE_PURGE_EXPIRED =
+            "DELETE FROM tbl_{0} WHERE s_expires_at <= ? ORDER BY s_expires_at LIMIT ?";
+
+    final static String SQL_CREATE_STATE_HISTORY =
+            "CREATE TABLE {0} (\n" +
+                    "   s_id VARCHAR(128) NOT NULL,\n" +
+                    "   s_type VARCHAR(256) NOT NULL,\n" +
+                    "   s_type_version INT NOT NULL,\n" +
+                    "   s_data {1} NOT NULL,\n" +
+                    "   s_data_version INT NOT NULL,\n" +
+                    "   s_metadata_value TEXT NOT NULL,\n" +
+                    "   s_metadata_op VARCHAR(128) NOT NULL,\n" +
+                    "   s_archived_at BIGINT NOT NULL,\n" +
+                    "   PRIMARY KEY (s_id, s_data_version) \n" +
                     ");";
 
-    final static String SQL_FORMAT_BINARY = "VARBINARY(4096)";
-    final static String SQL_FORMAT_TEXT1 = "TEXT";
+    final static String SQL_STATE_HISTORY_ARCHIVED_AT_INDEX =
+            "CREATE INDEX idx_{0}_archived_at ON {0} (s_archived_at)";
+
+    // each update that replaces a state archives it, including those of batched writes of the same id
+    final static String SQL_STATE_ARCHIVE_TRIGGER =
+            "CREATE TRIGGER {1}_archive AFTER UPDATE ON {0} FOR EACH ROW \n" +
+                    "INSERT INTO {1} \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op, s_archived_at) \n" +
+                    "SELECT OLD.s_id, OLD.s_type, OLD.s_type_version, OLD.s_data, OLD.s_data_version, OLD.s_metadata_value, OLD.s_metadata_op, " +
+                    "ROUND(UNIX_TIMESTAMP(NOW(3)) * 1000) \n" +
+                    "FROM DUAL WHERE OLD.s_data_version < NEW.s_data_version";
+
+    final static String SQL_STATE_READ_HISTORY =
+            "SELECT s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op " +
+                    "FROM tbl_{0} WHERE s_id = ? AND s_data_version = ?{1} " +
+                    "UNION ALL " +
+                    "SELECT s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op " +
+                    "FROM tbl_{0}_history WHERE s_id = ? AND s_data_version = ?";
+
+    final static String SQL_STATE_PURGE_HISTORY_BY_AGE =
+            "DELETE FROM tbl_{0}_history WHERE s_archived_at < ? ORDER BY s_archived_at LIMIT ?";
+
+    final static String SQL_STATE_HISTORY_VERSIONS =
+            "SELECT s_id, MIN(s_data_version), MAX(s_data_version) FROM tbl_{0}_history \n" +
+                    "WHERE s_id > ? GROUP BY s_id ORDER BY s_id LIMIT ?";
+
+    final static String SQL_STATE_PURGE_HISTORY_VERSIONS =
+            "DELETE FROM tbl_{0}_history WHERE s_id = ? AND s_data_version <= ?";
+
+    final static String SQL_STATE_PARTITIONED = " PARTITION BY KEY (s_id) PARTITIONS {0}";
+
+    final static String SQL_FORMAT_BINARY = "LONGBLOB";
+    final static String SQL_FORMAT_TEXT1 = "LONGTEXT";
     // private final static String SQL_FORMAT_TEXT2 = "jsonb";
 
     final static String TBL_VLINGO_SYMBIO_DISPATCHABLES = "tbl_vlingo_symbio_dispatchables";
@@ -115,8 +258,6 @@ public interface MySQLQueries {
                     "(e_id, e_type, e_type_version, e_data, e_metadata_value, e_metadata_op) \n" +
                     "VALUES (DEFAULT, ?, ?, ?, ?, ?)";
 
-    final static String SQL_APPEND_ENTRY_IDENTITY = "SELECT LAST_INSERT_ID()";
-
     final static String SQL_QUERY_ENTRY_BATCH =
             "SELECT e_id, e_type, e_type_version, e_data, e_metadata_value, e_metadata_op FROM " +
                     " {0} WHERE E_ID >= ? " +
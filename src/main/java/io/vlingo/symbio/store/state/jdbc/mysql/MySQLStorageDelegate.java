@@ -10,15 +10,16 @@ package io.vlingo.symbio.store.state.jdbc.mysql;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
 
 import io.vlingo.actors.Actor;
 import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.actors.Logger;
-import io.vlingo.symbio.Entry;
-import io.vlingo.symbio.State;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.EntryReader;
-import io.vlingo.symbio.store.common.jdbc.CachedStatement;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.state.StateStore;
 import io.vlingo.symbio.store.state.jdbc.DbStateStoreEntryReaderActor;
@@ -30,14 +31,20 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
     private final Configuration configuration;
 
     public MySQLStorageDelegate(final Configuration configuration, final Logger logger) {
-
-        super(configuration.connection,
+        // tables are created once my own state is set, because they depend on it
+        super(affectedRowsConnectionOf(configuration),
                 configuration.format,
                 configuration.originatorId,
-                configuration.createTables,
+                false,
+                configuration.payloadCodec(),
+                configuration.stateExpiry(),
+                configuration.stateHistory(),
+                configuration.stateChanges(),
                 logger);
 
         this.configuration = configuration;
+
+        if (configuration.createTables) createTables();
     }
 
     @Override
@@ -84,6 +91,11 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
         return null;
     }
 
+    @Override
+    protected String countExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_COUNT, storeName.toLowerCase());
+    }
+
     @Override
     protected JDBCDispatchableCachedStatements<Object> dispatchableCachedStatements() {
         return new MySQLStorageDelegate.MySQLDispatchableCachedStatements<Object>(originatorId, connection, format, logger);
@@ -102,7 +114,7 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
     @Override
     protected String dispatchableTableCreateExpression() {
         return MessageFormat.format(SQL_CREATE_DISPATCHABLES_STORE, dispatchableTableName(),
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
     }
 
     @Override
@@ -113,7 +125,7 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
     @Override
     protected String entryTableCreateExpression() {
         return MessageFormat.format(SQL_CREATE_ENTRY_STORE, entryTableName(),
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1);
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1);
     }
 
     @Override
@@ -131,35 +143,120 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
         return TBL_VLINGO_SYMBIO_STATE_ENTRY_OFFSETS;
     }
 
+    @Override
+    protected String readAllExpression(final String storeName, final int idCount) {
+        return MessageFormat.format(SQL_STATE_READ_ALL, storeName.toLowerCase(), placeholders(idCount));
+    }
+
+    @Override
+    protected String expiresAtIndexCreateExpression(final String tableName) {
+        return MessageFormat.format(SQL_STATE_EXPIRES_AT_INDEX, tableName);
+    }
+
+    @Override
+    protected String notExpiredExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_NOT_EXPIRED, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String purgeExpiredExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_EXPIRED, storeName.toLowerCase());
+    }
+
+    @Override
+    protected List<String> archiveTriggerCreateExpressions(final String tableName, final String historyTableName) {
+        return Collections.singletonList(MessageFormat.format(SQL_STATE_ARCHIVE_TRIGGER, tableName, historyTableName));
+    }
+
+    @Override
+    protected String changesIndexCreateExpression(final String tableName) {
+        return MessageFormat.format(SQL_STATE_CHANGE_SEQ_INDEX, tableName);
+    }
+
+    @Override
+    protected List<String> changeSequenceCreateExpressions(final String tableName) {
+        return Arrays.asList(
+                MessageFormat.format(SQL_STATE_CHANGE_SEQUENCE, tableName),
+                MessageFormat.format(SQL_STATE_CHANGE_SEQUENCE_START, tableName),
+                MessageFormat.format(SQL_STATE_CHANGE_INSERT_TRIGGER, tableName),
+                MessageFormat.format(SQL_STATE_CHANGE_UPDATE_TRIGGER, tableName));
+    }
+
+    @Override
+    protected String historyIndexCreateExpression(final String historyTableName) {
+        return MessageFormat.format(SQL_STATE_HISTORY_ARCHIVED_AT_INDEX, historyTableName);
+    }
+
+    @Override
+    protected String historyTableCreateExpression(final String historyTableName) {
+        return MessageFormat.format(SQL_CREATE_STATE_HISTORY, historyTableName,
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1);
+    }
+
+    @Override
+    protected String purgeHistoryByAgeExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_HISTORY_BY_AGE, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String historyVersionsExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_HISTORY_VERSIONS, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String purgeHistoryVersionsExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_HISTORY_VERSIONS, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String readHistoryExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_HISTORY, storeName.toLowerCase(), expiryCondition(storeName));
+    }
+
+    @Override
+    protected String readChangesExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_CHANGES, storeName.toLowerCase(), expiryCondition(storeName));
+    }
+
     @Override
     protected String readExpression(final String storeName, final String id) {
         return MessageFormat.format(SQL_STATE_READ, storeName.toLowerCase());
     }
 
     @Override
-    protected <E> void setBinaryObject(final CachedStatement<Object> cached, final int columnIndex, final Entry<E> entry) throws Exception {
-        cached.preparedStatement.setBytes(columnIndex, (byte[]) entry.entryData());
+    protected String readIfChangedExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_IF_CHANGED, storeName.toLowerCase());
     }
 
     @Override
-    protected <S> void setBinaryObject(final CachedStatement<Object> cached, int columnIndex, final State<S> state) throws Exception {
-        cached.preparedStatement.setBytes(columnIndex, (byte[]) state.data);
+    protected String readVersionExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_VERSION, storeName.toLowerCase());
     }
 
     @Override
-    protected <E> void setTextObject(final CachedStatement<Object> cached, final int columnIndex, final Entry<E> entry) throws Exception {
-        cached.preparedStatement.setObject(columnIndex, entry.entryData());
+    protected String scanExpression(final String storeName, final boolean bounded) {
+        final String name = storeName.toLowerCase();
+        return MessageFormat.format(SQL_STATE_SCAN, name, (bounded ? MessageFormat.format(SQL_STATE_SCAN_UPPER_BOUND, name) : "") + expiryCondition(storeName));
     }
 
     @Override
-    protected <S> void setTextObject(final CachedStatement<Object> cached, int columnIndex, State<S> state) throws Exception {
-        cached.preparedStatement.setObject(columnIndex, state.data);
+    protected String scanEstimateExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_SCAN_ESTIMATE, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String scanProbeExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_SCAN_PROBE, storeName.toLowerCase());
     }
 
     @Override
     protected String stateStoreTableCreateExpression(final String tableName) {
+        final int partitions = configuration.statePartitions();
         return MessageFormat.format(SQL_CREATE_STATE_STORE, tableName,
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1, // TODO: SQL_FORMAT_TEXT2
+                partitions > 0 ? MessageFormat.format(SQL_STATE_PARTITIONED, String.valueOf(partitions)) : "",
+                expiry.isNone() ? "" : SQL_STATE_EXPIRES_AT_COLUMN,
+                stateChanges ? SQL_STATE_CHANGE_SEQ_COLUMN : "");
     }
 
     @Override
@@ -175,8 +272,23 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
 
     @Override
     protected String writeExpression(final String storeName) {
-        return MessageFormat.format(SQL_STATE_WRITE, storeName.toLowerCase(),
-                format.isBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST);
+        return MessageFormat.format(expiry.isNone() ? SQL_STATE_WRITE : SQL_STATE_WRITE_EXPIRING, storeName.toLowerCase(),
+                storesBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST,
+                "", "", ""); // change sequences are drawn by the triggers of changeSequenceCreateExpressions()
+    }
+
+    /**
+     * Answer my own connection to the database of {@code configuration}, which counts
+     * changed rather than matched rows, so that an upsert skipped for a stale version
+     * affects none. Only my statements depend on it, so the shared connection of the
+     * {@code configuration} keeps the driver default for its other users.
+     * @param configuration the Configuration of the database
+     * @return Connection
+     */
+    private static Connection affectedRowsConnectionOf(final Configuration configuration) {
+        final Properties properties = new Properties();
+        properties.setProperty("useAffectedRows", "true");
+        return configuration.connectionWith(properties);
     }
 
     private String namedDispatchable(final String sql) {
@@ -225,10 +337,5 @@ public class MySQLStorageDelegate extends JDBCStorageDelegate<Object> implements
         protected String queryEntryExpression() {
             return namedEntry(SQL_QUERY_ENTRY);
         }
-
-        @Override
-        protected String appendEntryIdentityExpression() {
-            return SQL_APPEND_ENTRY_IDENTITY;
-        }
     }
 }
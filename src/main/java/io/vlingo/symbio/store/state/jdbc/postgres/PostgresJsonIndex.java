@@ -0,0 +1,91 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc.postgres;
+
+import io.vlingo.symbio.store.state.jdbc.JsonQuery;
+
+/**
+ * Declares an index over the JSON document of the states of a given type, which
+ * {@code PostgresStorageDelegate} creates along with the state store tables.
+ * A {@code gin()} index serves {@code JsonQuery.containing()} and {@code JsonQuery.matching()},
+ * a {@code ginPathOps()} index does the same but smaller and faster without serving key-exists
+ * operators, and an {@code attribute()} index serves {@code JsonQuery.attributeEquals()}
+ * of the same path.
+ */
+public final class PostgresJsonIndex {
+  public final Kind kind;
+  public final String[] path;
+  public final Class<?> stateType;
+
+  /**
+   * Answer a {@code PostgresJsonIndex} on the attribute at the dot-separated {@code path} of {@code stateType}.
+   * @param stateType the {@code Class<?>} of the states
+   * @param path the String dot-separated path of the attribute
+   * @return PostgresJsonIndex
+   */
+  public static PostgresJsonIndex attribute(final Class<?> stateType, final String path) {
+    return new PostgresJsonIndex(Kind.Attribute, stateType, JsonQuery.pathElementsOf(path));
+  }
+
+  /**
+   * Answer a {@code PostgresJsonIndex} using the GIN default operator class on the documents of {@code stateType}.
+   * @param stateType the {@code Class<?>} of the states
+   * @return PostgresJsonIndex
+   */
+  public static PostgresJsonIndex gin(final Class<?> stateType) {
+    return new PostgresJsonIndex(Kind.Gin, stateType, new String[0]);
+  }
+
+  /**
+   * Answer a {@code PostgresJsonIndex} using the GIN {@code jsonb_path_ops} operator class on the documents of {@code stateType}.
+   * @param stateType the {@code Class<?>} of the states
+   * @return PostgresJsonIndex
+   */
+  public static PostgresJsonIndex ginPathOps(final Class<?> stateType) {
+    return new PostgresJsonIndex(Kind.GinPathOps, stateType, new String[0]);
+  }
+
+  private PostgresJsonIndex(final Kind kind, final Class<?> stateType, final String[] path) {
+    if (stateType == null) {
+      throw new IllegalArgumentException("The state type must not be null.");
+    }
+    this.kind = kind;
+    this.stateType = stateType;
+    this.path = path;
+  }
+
+  /**
+   * Answer the name of this index on {@code tableName}.
+   * @param tableName the String name of the state store table
+   * @return String
+   */
+  String nameOn(final String tableName) {
+    switch (kind) {
+    case Attribute:
+      return "idx_" + tableName + "_" + String.join("_", path).toLowerCase();
+    case Gin:
+      return "idx_" + tableName + "_data_gin";
+    default:
+      return "idx_" + tableName + "_data_path_gin";
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PostgresJsonIndex[kind=" + kind + " stateType=" + stateType.getName() + " path=" + String.join(".", path) + "]";
+  }
+
+  /**
+   * The kind of index.
+   */
+  public static enum Kind {
+    Attribute,
+    Gin,
+    GinPathOps
+  }
+}
@@ -13,20 +13,136 @@ public interface PostgresQueries {
                     "FROM tbl_{0} " +
                     "WHERE tbl_{0}.S_ID = ?";
 
+    final static String SQL_STATE_READ_VERSION =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID = ?";
+
+    final static String SQL_STATE_READ_IF_CHANGED =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, CASE WHEN tbl_{0}.S_DATA_VERSION <> ? THEN tbl_{0}.S_DATA END, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID = ?";
+
+    final static String SQL_STATE_READ_ALL =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID IN ({1})";
+
+    final static String SQL_STATE_SCAN =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_ID > ?{1} " +
+                    "ORDER BY tbl_{0}.S_ID LIMIT ?";
+
+    final static String SQL_STATE_SCAN_UPPER_BOUND = " AND tbl_{0}.S_ID <= ?";
+
+    // the changes of transactions below the oldest one in progress, which are all committed or aborted,
+    // and of whole transactions, up to the transaction of the last of the first changes up to the limit
+    final static String SQL_STATE_READ_CHANGES =
+            "WITH bound AS (SELECT ?::BIGINT AS s_change_seq) \n" +
+                    "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID, tbl_{0}.S_CHANGE_SEQ " +
+                    "FROM tbl_{0} " +
+                    "WHERE tbl_{0}.S_CHANGE_SEQ > (SELECT s_change_seq FROM bound){1} " +
+                    "AND tbl_{0}.S_CHANGE_SEQ <= (SELECT MAX(page.s_change_seq) FROM " +
+                    "(SELECT c.s_change_seq FROM tbl_{0} c WHERE c.s_change_seq > (SELECT s_change_seq FROM bound) " +
+                    "AND c.s_change_seq < txid_snapshot_xmin(txid_current_snapshot()) ORDER BY c.s_change_seq LIMIT ?) page) " +
+                    "ORDER BY tbl_{0}.S_CHANGE_SEQ";
+
+    final static String SQL_STATE_SCAN_PROBE =
+            "SELECT tbl_{0}.S_ID FROM tbl_{0} WHERE tbl_{0}.S_ID > ? ORDER BY tbl_{0}.S_ID LIMIT 1 OFFSET ?";
+
+    // the row count of the latest ANALYZE or VACUUM, of the table and its partitions, where -1 is never analyzed
+    final static String SQL_STATE_SCAN_ESTIMATE =
+            "SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::BIGINT FROM pg_class c \n" +
+                    "WHERE c.oid = to_regclass(''tbl_{0}'') \n" +
+                    "OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = to_regclass(''tbl_{0}''))";
+
+    // the equal-frequency histogram of the ids from the latest ANALYZE, of the whole tree if partitioned
+    final static String SQL_STATE_SCAN_STATISTICS =
+            "SELECT h.bound FROM \n" +
+                    "(SELECT histogram_bounds FROM pg_stats \n" +
+                    "WHERE schemaname = current_schema() AND tablename = ''tbl_{0}'' AND attname = ''s_id'' \n" +
+                    "ORDER BY inherited DESC LIMIT 1) s, \n" +
+                    "unnest(s.histogram_bounds::text::text[]) WITH ORDINALITY AS h(bound, n) \n" +
+                    "ORDER BY h.n";
+
+    final static String SQL_STATE_COUNT =
+            "SELECT COUNT(*) FROM tbl_{0}";
+
+    final static String SQL_STATE_QUERY =
+            "SELECT tbl_{0}.S_TYPE, tbl_{0}.S_TYPE_VERSION, tbl_{0}.S_DATA, tbl_{0}.S_DATA_VERSION, tbl_{0}.S_METADATA_VALUE, tbl_{0}.S_METADATA_OP, tbl_{0}.S_ID " +
+                    "FROM tbl_{0} " +
+                    "WHERE {1}";
+
+    final static String SQL_JSON_ATTRIBUTE_EQUALS = "{0} = ?";
+    final static String SQL_JSON_CONTAINS = "{0} @> ?::JSONB";
+    final static String SQL_JSON_PATH_MATCH = "{0} @@ ?::JSONPATH";
+
+    final static String SQL_JSON_INDEX_GIN =
+            "CREATE INDEX IF NOT EXISTS {0} ON {1} USING GIN (({2}))";
+    final static String SQL_JSON_INDEX_GIN_PATH_OPS =
+            "CREATE INDEX IF NOT EXISTS {0} ON {1} USING GIN (({2}) jsonb_path_ops)";
+    final static String SQL_JSON_INDEX_EXPRESSION =
+            "CREATE INDEX IF NOT EXISTS {0} ON {1} (({2}))";
+
     final static String SQL_STATE_WRITE =
             "INSERT INTO tbl_{0} \n" +
-                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op) \n" +
-                    "VALUES (?, ?, ?, {1}, ?, ?, ?) \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op{3}) \n" +
+                    "VALUES (?, ?, ?, {1}, ?, ?, ?{4}) \n" +
+                    "ON CONFLICT (s_id) DO UPDATE SET \n" +
+                    "s_type = EXCLUDED.s_type, \n" +
+                    "s_type_version = EXCLUDED.s_type_version, \n" +
+                    "s_data = EXCLUDED.s_data, \n" +
+                    "s_data_version = EXCLUDED.s_data_version, \n" +
+                    "s_metadata_value = EXCLUDED.s_metadata_value, \n" +
+                    "s_metadata_op = EXCLUDED.s_metadata_op{2} \n" +
+                    "WHERE tbl_{0}.s_data_version < EXCLUDED.s_data_version \n";
+
+    final static String SQL_STATE_WRITE_EXPIRING =
+            "INSERT INTO tbl_{0} \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op, s_expires_at{3}) \n" +
+                    "VALUES (?, ?, ?, {1}, ?, ?, ?, ?{4}) \n" +
                     "ON CONFLICT (s_id) DO UPDATE SET \n" +
                     "s_type = EXCLUDED.s_type, \n" +
                     "s_type_version = EXCLUDED.s_type_version, \n" +
                     "s_data = EXCLUDED.s_data, \n" +
                     "s_data_version = EXCLUDED.s_data_version, \n" +
                     "s_metadata_value = EXCLUDED.s_metadata_value, \n" +
-                    "s_metadata_op = EXCLUDED.s_metadata_op \n";
+                    "s_metadata_op = EXCLUDED.s_metadata_op, \n" +
+                    "s_expires_at = EXCLUDED.s_expires_at{2} \n" +
+                    "WHERE tbl_{0}.s_data_version < EXCLUDED.s_data_version \n";
+
+    final static String SQL_STATE_IMPORT_STAGING =
+            "CREATE TEMP TABLE IF NOT EXISTS tbl_{0}_import (LIKE tbl_{0}) ON COMMIT DELETE ROWS";
+
+    final static String SQL_STATE_IMPORT_COPY =
+            "COPY tbl_{0}_import (s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op{1}) FROM STDIN";
+
+    final static String SQL_STATE_IMPORT_MERGE =
+            "INSERT INTO tbl_{0} \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op{1}{3}) \n" +
+                    "SELECT s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op{1}{4} \n" +
+                    "FROM tbl_{0}_import \n" +
+                    "ON CONFLICT (s_id) DO UPDATE SET \n" +
+                    "s_type = EXCLUDED.s_type, \n" +
+                    "s_type_version = EXCLUDED.s_type_version, \n" +
+                    "s_data = EXCLUDED.s_data, \n" +
+                    "s_data_version = EXCLUDED.s_data_version, \n" +
+                    "s_metadata_value = EXCLUDED.s_metadata_value, \n" +
+                    "s_metadata_op = EXCLUDED.s_metadata_op{5}{2} \n" +
+                    "WHERE tbl_{0}.s_data_version < EXCLUDED.s_data_version \n";
+
+    final static String SQL_STATE_IMPORT_EXPIRES_AT_COLUMN = ", s_expires_at";
+    final static String SQL_STATE_IMPORT_EXPIRES_AT_ASSIGNMENT = ", \ns_expires_at = EXCLUDED.s_expires_at";
+
+    final static String SQL_STATE_CHANGE_ASSIGNMENT = ", \ns_change_seq = EXCLUDED.s_change_seq";
+    final static String SQL_STATE_CHANGE_COLUMN = ", s_change_seq";
+    // the id of the writing transaction, with its epoch, so that changes are read in the order of transactions
+    final static String SQL_STATE_CHANGE_VALUE = ", txid_current()";
 
     final static String SQL_FORMAT_BINARY_CAST = "?";
     final static String SQL_FORMAT_TEXT_CAST = "?::JSON";
+    final static String SQL_FORMAT_TEXT2_CAST = "?::JSONB";
 
     final static String SQL_CREATE_STATE_STORE =
             "CREATE TABLE {0} (\n" +
@@ -37,12 +153,87 @@ public interface PostgresQueries {
                     "   s_data_version INT NOT NULL,\n" +
                     "   s_metadata_value TEXT NOT NULL,\n" +
                     "   s_metadata_op VARCHAR(128) NOT NULL,\n" +
+                    "{3}" +
+                    "{4}" +
                     "   PRIMARY KEY (s_id) \n" +
+                    "){2};";
+
+    final static String SQL_STATE_EXPIRES_AT_COLUMN = "   s_expires_at BIGINT,\n";
+
+    final static String SQL_STATE_CHANGE_SEQ_COLUMN = "   s_change_seq BIGINT,\n";
+
+    final static String SQL_STATE_CHANGE_SEQ_INDEX =
+            "CREATE INDEX idx_{0}_change_seq ON {0} (s_change_seq)";
+
+    final static String SQL_STATE_EXPIRES_AT_INDEX =
+            "CREATE INDEX idx_{0}_expires_at ON {0} (s_expires_at)";
+
+    final static String SQL_STATE_NOT_EXPIRED = "(tbl_{0}.s_expires_at IS NULL OR tbl_{0}.s_expires_at > ?)";
+
+    final static String SQL_STATE_PURGE_EXPIRED =
+            "DELETE FROM tbl_{0} WHERE s_id IN \n" +
+                    "(SELECT s_id FROM tbl_{0} WHERE s_expires_at <= ? ORDER BY s_expires_at LIMIT ?)";
+
+    final static String SQL_CREATE_STATE_HISTORY =
+            "CREATE TABLE {0} (\n" +
+                    "   s_id VARCHAR(128) NOT NULL,\n" +
+                    "   s_type VARCHAR(256) NOT NULL,\n" +
+                    "   s_type_version INT NOT NULL,\n" +
+                    "   s_data {1} NOT NULL,\n" +
+                    "   s_data_version INT NOT NULL,\n" +
+                    "   s_metadata_value TEXT NOT NULL,\n" +
+                    "   s_metadata_op VARCHAR(128) NOT NULL,\n" +
+                    "   s_archived_at BIGINT NOT NULL,\n" +
+                    "   PRIMARY KEY (s_id, s_data_version) \n" +
                     ");";
 
+    final static String SQL_STATE_HISTORY_ARCHIVED_AT_INDEX =
+            "CREATE INDEX idx_{0}_archived_at ON {0} (s_archived_at)";
+
+    final static String SQL_STATE_ARCHIVE_FUNCTION =
+            "CREATE OR REPLACE FUNCTION {1}_archive() RETURNS TRIGGER AS $$ \n" +
+                    "BEGIN \n" +
+                    "INSERT INTO {1} \n" +
+                    "(s_id, s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op, s_archived_at) \n" +
+                    "VALUES (OLD.s_id, OLD.s_type, OLD.s_type_version, OLD.s_data, OLD.s_data_version, OLD.s_metadata_value, OLD.s_metadata_op, " +
+                    "(EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT); \n" +
+                    "RETURN NULL; \n" +
+                    "END; \n" +
+                    "$$ LANGUAGE plpgsql";
+
+    // each update that replaces a state archives it, but not a conditional write that updates nothing
+    final static String SQL_STATE_ARCHIVE_TRIGGER =
+            "CREATE TRIGGER {1}_archive AFTER UPDATE ON {0} FOR EACH ROW \n" +
+                    "WHEN (OLD.s_data_version < NEW.s_data_version) \n" +
+                    "EXECUTE PROCEDURE {1}_archive()";
+
+    final static String SQL_STATE_READ_HISTORY =
+            "SELECT s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op " +
+                    "FROM tbl_{0} WHERE s_id = ? AND s_data_version = ?{1} " +
+                    "UNION ALL " +
+                    "SELECT s_type, s_type_version, s_data, s_data_version, s_metadata_value, s_metadata_op " +
+                    "FROM tbl_{0}_history WHERE s_id = ? AND s_data_version = ?";
+
+    final static String SQL_STATE_PURGE_HISTORY_BY_AGE =
+            "DELETE FROM tbl_{0}_history WHERE (s_id, s_data_version) IN \n" +
+                    "(SELECT s_id, s_data_version FROM tbl_{0}_history WHERE s_archived_at < ? ORDER BY s_archived_at LIMIT ?)";
+
+    final static String SQL_STATE_HISTORY_VERSIONS =
+            "SELECT s_id, MIN(s_data_version), MAX(s_data_version) FROM tbl_{0}_history \n" +
+                    "WHERE s_id > ? GROUP BY s_id ORDER BY s_id LIMIT ?";
+
+    final static String SQL_STATE_PURGE_HISTORY_VERSIONS =
+            "DELETE FROM tbl_{0}_history WHERE s_id = ? AND s_data_version <= ?";
+
+    final static String SQL_STATE_PARTITIONED = " PARTITION BY HASH (s_id)";
+
+    final static String SQL_CREATE_STATE_STORE_PARTITION =
+            "CREATE TABLE {0}_p{1} PARTITION OF {0} \n" +
+                    "FOR VALUES WITH (MODULUS {2}, REMAINDER {1});";
+
     final static String SQL_FORMAT_BINARY = "bytea";
     final static String SQL_FORMAT_TEXT1 = "json";
-    // private final static String SQL_FORMAT_TEXT2 = "jsonb";
+    final static String SQL_FORMAT_TEXT2 = "jsonb";
 
     final static String TBL_VLINGO_SYMBIO_DISPATCHABLES = "tbl_vlingo_symbio_dispatchables";
 
@@ -78,7 +269,7 @@ public interface PostgresQueries {
                     " d_state_id, d_state_type, d_state_type_version, \n" +
                     " d_state_data, d_state_data_version, \n" +
                     " d_state_metadata_value, d_state_metadata_op, d_state_metadata_object, d_state_metadata_object_type, d_entries) \n" +
-                    "VALUES (DEFAULT, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                    "VALUES (DEFAULT, ?, ?, ?, ?, ?, ?, {1}, ?, ?, ?, ?, ?, ?)";
 
     final static String SQL_DISPATCHABLE_DELETE =
             "DELETE FROM {0} WHERE d_dispatch_id = ?";
@@ -113,9 +304,9 @@ public interface PostgresQueries {
     final static String SQL_APPEND_ENTRY =
             "INSERT INTO {0} \n" +
                     "(e_id, e_type, e_type_version, e_data, e_metadata_value, e_metadata_op) \n" +
-                    "VALUES (DEFAULT, ?, ?, ?, ?, ?)";
+                    "VALUES (DEFAULT, ?, ?, {1}, ?, ?)";
 
-    final static String SQL_APPEND_ENTRY_IDENTITY = "SELECT lastval()";
+    final static String SQL_APPEND_ENTRY_ID_COLUMN = "e_id";
 
     final static String SQL_QUERY_ENTRY_BATCH =
             "SELECT e_id, e_type, e_type_version, e_data, e_metadata_value, e_metadata_op FROM " +
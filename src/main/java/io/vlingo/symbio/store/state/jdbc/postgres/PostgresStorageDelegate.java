@@ -7,45 +7,85 @@
 
 package io.vlingo.symbio.store.state.jdbc.postgres;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.Statement;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
-import org.postgresql.util.PGobject;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 
 import io.vlingo.actors.Actor;
 import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.actors.Logger;
-import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.State;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.EntryReader;
 import io.vlingo.symbio.store.EntryReader.Advice;
-import io.vlingo.symbio.store.common.jdbc.CachedStatement;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 import io.vlingo.symbio.store.state.jdbc.DbStateStoreEntryReaderActor;
 import io.vlingo.symbio.store.state.jdbc.DbStateStoreEntryReaderActor.DbStateStoreEntryReaderInstantiator;
 import io.vlingo.symbio.store.state.jdbc.JDBCDispatchableCachedStatements;
 import io.vlingo.symbio.store.state.jdbc.JDBCStorageDelegate;
+import io.vlingo.symbio.store.state.jdbc.JsonQuery;
 
 public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> implements StorageDelegate, PostgresQueries {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private final Configuration configuration;
+    private final List<PostgresJsonIndex> indexes;
+    private final boolean jsonb;
 
     public PostgresStorageDelegate(final Configuration configuration, final Logger logger) {
+        this(configuration, false, Collections.emptyList(), logger);
+    }
+
+    /**
+     * Constructs my default state, where text states are stored as {@code jsonb} rather than
+     * {@code json} when {@code jsonb} is {@code true}. Then documents are parsed once when
+     * written rather than on each read, but are answered in the normalized form of {@code jsonb},
+     * without insignificant whitespace and with keys ordered. The {@code indexes} are created
+     * along with the tables, and {@code PostgresJsonIndex.gin()} and {@code ginPathOps()}
+     * are meant for {@code jsonb}. Existing tables are not altered.
+     * @param configuration the Configuration of the database
+     * @param jsonb the boolean indicating whether text states are stored as {@code jsonb}
+     * @param indexes the {@code List<PostgresJsonIndex>} to create on the state store tables
+     * @param logger the Logger
+     */
+    public PostgresStorageDelegate(final Configuration configuration, final boolean jsonb, final List<PostgresJsonIndex> indexes, final Logger logger) {
+        // tables are created once my own state is set, because they depend on it
         super(configuration.connection,
                 configuration.format,
                 configuration.originatorId,
-                configuration.createTables,
+                false,
+                configuration.payloadCodec(),
+                configuration.stateExpiry(),
+                configuration.stateHistory(),
+                configuration.stateChanges(),
                 logger);
 
         this.configuration = configuration;
+        this.jsonb = jsonb;
+        this.indexes = indexes;
+
+        if (configuration.createTables) createTables();
     }
 
     @Override
     public StorageDelegate copy() {
         try {
-            return new PostgresStorageDelegate(Configuration.cloneOf(configuration), logger);
+            return new PostgresStorageDelegate(Configuration.cloneOf(configuration), jsonb, indexes, logger);
         } catch (Exception e) {
             final String message = "Copy of StorageDelegate failed because: " + e.getMessage();
             logger.error(message, e);
@@ -86,6 +126,24 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
         return null;
     }
 
+    @Override
+    protected void createTables() {
+        super.createTables();
+
+        for (final PostgresJsonIndex index : indexes) {
+            try {
+                createIndex(index);
+            } catch (final Exception e) {
+                logger.error("Could not create index " + index + " because: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    protected String countExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_COUNT, storeName.toLowerCase());
+    }
+
     @Override
     protected JDBCDispatchableCachedStatements<Object> dispatchableCachedStatements() {
         return new PostgresDispatchableCachedStatements<Object>(originatorId, connection, format, logger);
@@ -104,7 +162,7 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
     @Override
     protected String dispatchableTableCreateExpression() {
         return MessageFormat.format(SQL_CREATE_DISPATCHABLES_STORE, dispatchableTableName(),
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
     }
 
     @Override
@@ -115,7 +173,7 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
     @Override
     protected String entryTableCreateExpression() {
         return MessageFormat.format(SQL_CREATE_ENTRY_STORE, entryTableName(),
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1);
+                storesBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1);
     }
 
     @Override
@@ -133,41 +191,135 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
         return TBL_VLINGO_SYMBIO_STATE_ENTRY_OFFSETS;
     }
 
+    @Override
+    protected String queryExpression(final String storeName, final JsonQuery query) {
+        if (storesBinary()) {
+            throw new UnsupportedOperationException("JSON queries are not supported for binary or encoded states: " + query);
+        }
+        return MessageFormat.format(SQL_STATE_QUERY, storeName.toLowerCase(), predicateOf(query));
+    }
+
+    @Override
+    protected String readAllExpression(final String storeName, final int idCount) {
+        return MessageFormat.format(SQL_STATE_READ_ALL, storeName.toLowerCase(), placeholders(idCount));
+    }
+
+    @Override
+    protected String expiresAtIndexCreateExpression(final String tableName) {
+        return MessageFormat.format(SQL_STATE_EXPIRES_AT_INDEX, tableName);
+    }
+
+    @Override
+    protected String notExpiredExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_NOT_EXPIRED, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String purgeExpiredExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_EXPIRED, storeName.toLowerCase());
+    }
+
+    @Override
+    protected List<String> archiveTriggerCreateExpressions(final String tableName, final String historyTableName) {
+        return Arrays.asList(
+                MessageFormat.format(SQL_STATE_ARCHIVE_FUNCTION, tableName, historyTableName),
+                MessageFormat.format(SQL_STATE_ARCHIVE_TRIGGER, tableName, historyTableName));
+    }
+
+    @Override
+    protected String changesIndexCreateExpression(final String tableName) {
+        return MessageFormat.format(SQL_STATE_CHANGE_SEQ_INDEX, tableName);
+    }
+
+    @Override
+    protected String historyIndexCreateExpression(final String historyTableName) {
+        return MessageFormat.format(SQL_STATE_HISTORY_ARCHIVED_AT_INDEX, historyTableName);
+    }
+
+    @Override
+    protected String historyTableCreateExpression(final String historyTableName) {
+        return MessageFormat.format(SQL_CREATE_STATE_HISTORY, historyTableName,
+                storesBinary() ? SQL_FORMAT_BINARY : (jsonb ? SQL_FORMAT_TEXT2 : SQL_FORMAT_TEXT1));
+    }
+
+    @Override
+    protected String purgeHistoryByAgeExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_HISTORY_BY_AGE, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String historyVersionsExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_HISTORY_VERSIONS, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String purgeHistoryVersionsExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_PURGE_HISTORY_VERSIONS, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String readHistoryExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_HISTORY, storeName.toLowerCase(), expiryCondition(storeName));
+    }
+
+    @Override
+    protected String readChangesExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_CHANGES, storeName.toLowerCase(), expiryCondition(storeName));
+    }
+
     @Override
     protected String readExpression(final String storeName, final String id) {
         return MessageFormat.format(SQL_STATE_READ, storeName.toLowerCase());
     }
 
     @Override
-    protected <E> void setBinaryObject(final CachedStatement<Object> cached, final int columnIndex, final Entry<E> entry) throws Exception {
-        cached.preparedStatement.setBytes(columnIndex, (byte[]) entry.entryData());
+    protected String readIfChangedExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_IF_CHANGED, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String readVersionExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_READ_VERSION, storeName.toLowerCase());
     }
 
     @Override
-    protected <S> void setBinaryObject(final CachedStatement<Object> cached, int columnIndex, final State<S> state) throws Exception {
-        cached.preparedStatement.setBytes(columnIndex, (byte[]) state.data);
+    protected String scanExpression(final String storeName, final boolean bounded) {
+        final String name = storeName.toLowerCase();
+        return MessageFormat.format(SQL_STATE_SCAN, name, (bounded ? MessageFormat.format(SQL_STATE_SCAN_UPPER_BOUND, name) : "") + expiryCondition(storeName));
     }
 
     @Override
-    protected <E> void setTextObject(final CachedStatement<Object> cached, final int columnIndex, final Entry<E> entry) throws Exception {
-        final PGobject jsonObject = new PGobject();
-        jsonObject.setType("json");
-        jsonObject.setValue((String) entry.entryData());
-        cached.preparedStatement.setObject(columnIndex, jsonObject);
+    protected String scanEstimateExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_SCAN_ESTIMATE, storeName.toLowerCase());
     }
 
     @Override
-    protected <S> void setTextObject(final CachedStatement<Object> cached, int columnIndex, State<S> state) throws Exception {
-        final PGobject jsonObject = new PGobject();
-        jsonObject.setType("json");
-        jsonObject.setValue((String) state.data);
-        cached.preparedStatement.setObject(columnIndex, jsonObject);
+    protected String scanProbeExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_SCAN_PROBE, storeName.toLowerCase());
+    }
+
+    @Override
+    protected String scanStatisticsExpression(final String storeName) {
+        return MessageFormat.format(SQL_STATE_SCAN_STATISTICS, storeName.toLowerCase());
     }
 
     @Override
     protected String stateStoreTableCreateExpression(final String stateName) {
         return MessageFormat.format(SQL_CREATE_STATE_STORE, stateName,
-                format.isBinary() ? SQL_FORMAT_BINARY : SQL_FORMAT_TEXT1); // TODO: SQL_FORMAT_TEXT2
+                storesBinary() ? SQL_FORMAT_BINARY : (jsonb ? SQL_FORMAT_TEXT2 : SQL_FORMAT_TEXT1),
+                configuration.statePartitions() > 0 ? SQL_STATE_PARTITIONED : "",
+                expiry.isNone() ? "" : SQL_STATE_EXPIRES_AT_COLUMN,
+                stateChanges ? SQL_STATE_CHANGE_SEQ_COLUMN : "");
+    }
+
+    @Override
+    protected List<String> stateStoreTablePartitionExpressions(final String tableName) {
+        final int partitions = configuration.statePartitions();
+        final List<String> expressions = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; ++partition) {
+            expressions.add(MessageFormat.format(SQL_CREATE_STATE_STORE_PARTITION, tableName, String.valueOf(partition), String.valueOf(partitions)));
+        }
+        return expressions;
     }
 
     @Override
@@ -183,8 +335,189 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
 
     @Override
     protected String writeExpression(final String storeName) {
-        return MessageFormat.format(SQL_STATE_WRITE, storeName.toLowerCase(),
-                format.isBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST);
+        final String name = storeName.toLowerCase();
+        return MessageFormat.format(expiry.isNone() ? SQL_STATE_WRITE : SQL_STATE_WRITE_EXPIRING, name,
+                storesBinary() ? SQL_FORMAT_BINARY_CAST : (jsonb ? SQL_FORMAT_TEXT2_CAST : SQL_FORMAT_TEXT_CAST),
+                stateChanges ? SQL_STATE_CHANGE_ASSIGNMENT : "",
+                stateChanges ? SQL_STATE_CHANGE_COLUMN : "",
+                stateChanges ? MessageFormat.format(SQL_STATE_CHANGE_VALUE, name) : "");
+    }
+
+    /**
+     * Answer the number of {@code states} written to {@code storeName} as by the
+     * {@code bulkWrite()} of all delegates, but where each batch is loaded by {@code COPY}
+     * into a temporary table and upserted from it by a single statement. The states of a batch must have distinct ids.
+     * @param storeName the String name of the store
+     * @param states the {@code Iterator<State<?>>} of the states to write
+     * @param batchSize the int maximum number of states written per transaction
+     * @return long
+     * @throws Exception when a batch cannot be written, which is rolled back
+     */
+    @Override
+    public long bulkWrite(final String storeName, final Iterator<State<?>> states, final int batchSize) throws Exception {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be greater than zero.");
+        }
+
+        final String name = storeName.toLowerCase();
+        final String staging = MessageFormat.format(SQL_STATE_IMPORT_STAGING, name);
+        final String copy = MessageFormat.format(SQL_STATE_IMPORT_COPY, name, expiry.isNone() ? "" : SQL_STATE_IMPORT_EXPIRES_AT_COLUMN);
+        final String merge = MessageFormat.format(SQL_STATE_IMPORT_MERGE, name,
+                expiry.isNone() ? "" : SQL_STATE_IMPORT_EXPIRES_AT_COLUMN,
+                stateChanges ? SQL_STATE_CHANGE_ASSIGNMENT : "",
+                stateChanges ? SQL_STATE_CHANGE_COLUMN : "",
+                stateChanges ? MessageFormat.format(SQL_STATE_CHANGE_VALUE, name) : "",
+                expiry.isNone() ? "" : SQL_STATE_IMPORT_EXPIRES_AT_ASSIGNMENT);
+
+        final CopyManager copier = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        long written = 0;
+        try (final Statement statement = connection.createStatement()) {
+            while (states.hasNext()) {
+                try {
+                    beginWrite();
+                    statement.execute(staging);
+                    copyBatch(copier.copyIn(copy), states, batchSize);
+                    written += statement.executeUpdate(merge);
+                    complete();
+                } catch (final Exception e) {
+                    fail();
+                    throw e;
+                }
+            }
+        }
+        return written;
+    }
+
+    private void copyBatch(final CopyIn copyIn, final Iterator<State<?>> states, final int batchSize) throws Exception {
+        try {
+            final long now = System.currentTimeMillis();
+            final StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE);
+            for (int count = 0; count < batchSize && states.hasNext(); ++count) {
+                appendCopyRow(rows, states.next(), now);
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, rows);
+                }
+            }
+            writeToCopy(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    // a row of the text format of COPY, whose fields are tab delimited and escaped
+    private void appendCopyRow(final StringBuilder rows, final State<?> state, final long now) throws Exception {
+        appendCopyValue(rows, state.id).append('\t');
+        appendCopyValue(rows, state.type).append('\t');
+        rows.append(state.typeVersion).append('\t');
+        if (storesBinary()) {
+            // bytea in its hex format, whose backslash is itself escaped
+            rows.append("\\\\x");
+            final byte[] data = format.isBinary() ? payloadCodec.encode((byte[]) state.data) : payloadCodec.encodeText((String) state.data);
+            for (final byte each : data) {
+                rows.append(HEX_DIGITS[(each >> 4) & 0x0F]).append(HEX_DIGITS[each & 0x0F]);
+            }
+            rows.append('\t');
+        } else {
+            appendCopyValue(rows, (String) state.data).append('\t');
+        }
+        rows.append(state.dataVersion).append('\t');
+        appendCopyValue(rows, state.metadata.value).append('\t');
+        appendCopyValue(rows, state.metadata.operation);
+        if (!expiry.isNone()) {
+            final long expiresAt = expiry.expiresAt(state, now);
+            rows.append('\t');
+            if (expiresAt > 0) {
+                rows.append(expiresAt);
+            } else {
+                rows.append("\\N");
+            }
+        }
+        rows.append('\n');
+    }
+
+    private StringBuilder appendCopyValue(final StringBuilder rows, final String value) {
+        if (value == null) {
+            return rows.append("\\N");
+        }
+        for (int index = 0; index < value.length(); ++index) {
+            final char each = value.charAt(index);
+            switch (each) {
+            case '\\': rows.append("\\\\"); break;
+            case '\n': rows.append("\\n"); break;
+            case '\r': rows.append("\\r"); break;
+            case '\t': rows.append("\\t"); break;
+            default: rows.append(each); break;
+            }
+        }
+        return rows;
+    }
+
+    private void writeToCopy(final CopyIn copyIn, final StringBuilder rows) throws Exception {
+        if (rows.length() == 0) return;
+        final byte[] bytes = rows.toString().getBytes(UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private String attributeExpression(final String[] path) {
+        return "s_data #>> '{" + String.join(",", path) + "}'";
+    }
+
+    private void createIndex(final PostgresJsonIndex index) throws Exception {
+        final String storeName = StateTypeStateStoreMap.storeNameFrom(index.stateType);
+        if (storeName == null) {
+            logger.error("Could not create index " + index + " because its state type has no store.");
+            return;
+        }
+        if (storesBinary()) {
+            logger.warn("Not creating index " + index + " because states are binary or encoded.");
+            return;
+        }
+
+        final String tableName = tableNameFor(storeName);
+        final String sql;
+        switch (index.kind) {
+        case Attribute:
+            sql = MessageFormat.format(SQL_JSON_INDEX_EXPRESSION, index.nameOn(tableName), tableName, attributeExpression(index.path));
+            break;
+        case Gin:
+            sql = MessageFormat.format(SQL_JSON_INDEX_GIN, index.nameOn(tableName), tableName, documentExpression());
+            break;
+        default:
+            sql = MessageFormat.format(SQL_JSON_INDEX_GIN_PATH_OPS, index.nameOn(tableName), tableName, documentExpression());
+            break;
+        }
+
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+            connection.commit();
+        }
+    }
+
+    // json documents must be cast to jsonb for containment and path operators,
+    // which is also the expression of their GIN indexes
+    private String documentExpression() {
+        return jsonb ? "s_data" : "s_data::jsonb";
+    }
+
+    private String predicateOf(final JsonQuery query) {
+        switch (query.kind) {
+        case AttributeEquals:
+            return MessageFormat.format(SQL_JSON_ATTRIBUTE_EQUALS, attributeExpression(query.path));
+        case Containing:
+            return MessageFormat.format(SQL_JSON_CONTAINS, documentExpression());
+        default:
+            return MessageFormat.format(SQL_JSON_PATH_MATCH, documentExpression());
+        }
+    }
+
+    private String dataCast() {
+        // the entry and dispatchable tables are json, even when the state tables are jsonb
+        return storesBinary() ? SQL_FORMAT_BINARY_CAST : SQL_FORMAT_TEXT_CAST;
     }
 
     private String namedDispatchable(final String sql) {
@@ -211,7 +544,7 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
 
         @Override
         protected String appendDispatchableExpression() {
-            return namedDispatchable(SQL_DISPATCHABLE_APPEND);
+            return MessageFormat.format(SQL_DISPATCHABLE_APPEND, dispatchableTableName(), dataCast());
         }
 
         @Override
@@ -226,7 +559,7 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
 
         @Override
         protected String appendEntryExpression() {
-            return namedEntry(SQL_APPEND_ENTRY);
+            return MessageFormat.format(SQL_APPEND_ENTRY, entryTableName(), dataCast());
         }
 
         @Override
@@ -235,8 +568,9 @@ public class PostgresStorageDelegate extends JDBCStorageDelegate<Object> impleme
         }
 
         @Override
-        protected String appendEntryIdentityExpression() {
-            return SQL_APPEND_ENTRY_IDENTITY;
+        protected String[] appendEntryGeneratedKeyColumns() {
+            // answer only the id rather than the RETURNING * of generated keys
+            return new String[] { SQL_APPEND_ENTRY_ID_COLUMN };
         }
     }
 }
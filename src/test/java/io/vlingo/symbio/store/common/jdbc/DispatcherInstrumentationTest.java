@@ -0,0 +1,92 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vlingo.symbio.Entry;
+import io.vlingo.symbio.State;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation.Snapshot;
+import io.vlingo.symbio.store.dispatch.Dispatchable;
+
+public class DispatcherInstrumentationTest {
+
+  @Test
+  public void testThatConfirmationsAreMeasured() {
+    final DispatcherInstrumentation instrumentation = new DispatcherInstrumentation("test");
+
+    final Dispatchable<Entry<?>, State<?>> dispatchable1 = dispatchable("1", LocalDateTime.now());
+    final Dispatchable<Entry<?>, State<?>> dispatchable2 = dispatchable("2", LocalDateTime.now());
+
+    instrumentation.committed(dispatchable1);
+    instrumentation.committed(dispatchable2);
+    instrumentation.confirmed(dispatchable1.id());
+
+    final Snapshot snapshot = instrumentation.snapshot();
+    assertEquals(1, snapshot.confirmations);
+    assertEquals(1, snapshot.confirmationLatency.count);
+  }
+
+  @Test
+  public void testThatScansReportBacklogAndRedeliveries() {
+    final List<Snapshot> exported = new ArrayList<>();
+    final DispatcherInstrumentation instrumentation = new DispatcherInstrumentation("test", exported::add);
+    instrumentation.confirmationExpiration(1000L);
+
+    final Dispatchable<Entry<?>, State<?>> expired = dispatchable("1", LocalDateTime.now().minusMinutes(1));
+    final Dispatchable<Entry<?>, State<?>> recent = dispatchable("2", LocalDateTime.now());
+
+    instrumentation.scanned(Arrays.asList(expired, recent), System.nanoTime());
+    instrumentation.scanned(Arrays.asList(expired, recent), System.nanoTime());
+
+    assertEquals(2, exported.size());
+
+    final Snapshot snapshot = exported.get(1);
+    assertEquals(2, snapshot.backlog);
+    assertEquals(2, snapshot.redeliveries);
+    assertEquals(2, snapshot.maximumRedeliveries);
+    assertTrue(snapshot.oldestUnconfirmedAge >= 60_000L);
+    assertEquals(2, snapshot.expiryScanDuration.count);
+
+    instrumentation.confirmed(expired.id());
+    instrumentation.confirmed(recent.id());
+    instrumentation.scanned(Collections.emptyList(), System.nanoTime());
+
+    final Snapshot drained = instrumentation.snapshot();
+    assertEquals(0, drained.backlog);
+    assertEquals(0, drained.oldestUnconfirmedAge);
+    assertEquals(2, drained.confirmationLatency.count);
+  }
+
+  @Test
+  public void testThatHistogramAnswersPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int millis = 1; millis <= 100; ++millis) {
+      histogram.record(millis);
+    }
+
+    assertEquals(100, histogram.count());
+    assertEquals(100, histogram.max());
+    assertEquals(50.5, histogram.mean(), 0.001);
+    assertEquals(63, histogram.percentile(50));
+    assertEquals(100, histogram.percentile(99));
+  }
+
+  private Dispatchable<Entry<?>, State<?>> dispatchable(final String id, final LocalDateTime createdOn) {
+    return new Dispatchable<>(id, createdOn, null, Collections.emptyList());
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.common.jdbc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PayloadCodecTest {
+
+  @Test
+  public void testThatDeflatedPayloadRoundTrips() {
+    final PayloadCodec codec = PayloadCodec.deflate(64);
+    final byte[] payload = repetitiveJson(100);
+
+    final byte[] encoded = codec.encode(payload);
+
+    assertEquals(PayloadCodec.Deflate.header(), encoded[0]);
+    assertArrayEquals(payload, codec.decode(encoded));
+  }
+
+  @Test
+  public void testThatRepetitivePayloadShrinks() {
+    final PayloadCodec codec = PayloadCodec.deflate(64);
+    final byte[] payload = repetitiveJson(1000);
+
+    final byte[] encoded = codec.encode(payload);
+
+    assertTrue("Expected at least 10:1 but was " + payload.length + ":" + encoded.length, encoded.length * 10 < payload.length);
+  }
+
+  @Test
+  public void testThatSmallPayloadIsStoredAsItIs() {
+    final PayloadCodec codec = PayloadCodec.deflate(1024);
+    final byte[] payload = "{\"value\":1}".getBytes(StandardCharsets.UTF_8);
+
+    final byte[] encoded = codec.encode(payload);
+
+    assertArrayEquals(payload, encoded);
+    assertArrayEquals(payload, codec.decode(encoded));
+  }
+
+  @Test
+  public void testThatIncompressiblePayloadIsStoredUncompressed() {
+    final PayloadCodec codec = PayloadCodec.deflate(0);
+    final byte[] payload = new byte[256];
+    new Random(7L).nextBytes(payload);
+    payload[0] = (byte) 0xF5;
+
+    final byte[] encoded = codec.encode(payload);
+
+    assertEquals(payload.length + 1, encoded.length);
+    assertEquals(PayloadCodec.Uncompressed, encoded[0]);
+    assertArrayEquals(payload, codec.decode(encoded));
+  }
+
+  @Test
+  public void testThatTextPayloadRoundTrips() {
+    final PayloadCodec codec = PayloadCodec.deflate(64);
+    final String payload = new String(repetitiveJson(100), StandardCharsets.UTF_8) + "\u00e9\u4e2d";
+
+    final byte[] encoded = codec.encodeText(payload);
+
+    assertEquals(PayloadCodec.Deflate.header(), encoded[0]);
+    assertEquals(payload, codec.decodeText(encoded));
+  }
+
+  @Test
+  public void testThatHeaderlessLegacyTextIsDecoded() {
+    final PayloadCodec codec = PayloadCodec.deflate(0);
+    final String legacy = "\u00e9t\u00e9 \uD83D\uDE00 {\"value\":1}";
+
+    assertEquals(legacy, codec.decodeText(legacy.getBytes(StandardCharsets.UTF_8)));
+    assertEquals("", codec.decodeText(new byte[0]));
+  }
+
+  @Test
+  public void testThatNoneIsPassThrough() {
+    final PayloadCodec codec = PayloadCodec.none();
+    final byte[] payload = repetitiveJson(10);
+
+    assertTrue(codec.isNone());
+    assertSame(payload, codec.encode(payload));
+    assertSame(payload, codec.decode(payload));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testThatCompressionMustHaveHeader() {
+    PayloadCodec.using(compressionWithHeader(PayloadCodec.Uncompressed), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testThatCompressionHeaderCannotStartUtf8() {
+    PayloadCodec.using(compressionWithHeader((byte) 0x7B), 0);
+  }
+
+  private PayloadCodec.Compression compressionWithHeader(final byte header) {
+    return new PayloadCodec.Compression() {
+      @Override public byte header() { return header; }
+      @Override public byte[] compress(final byte[] payload, final int offset) { return payload; }
+      @Override public byte[] decompress(final byte[] compressed, final int offset) { return compressed; }
+    };
+  }
+
+  private byte[] repetitiveJson(final int count) {
+    final StringBuilder builder = new StringBuilder("[");
+    for (int index = 0; index < count; ++index) {
+      if (index > 0) builder.append(',');
+      builder.append("{\"id\":\"").append(index).append("\",\"name\":\"customer\",\"status\":\"active\"}");
+    }
+    return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
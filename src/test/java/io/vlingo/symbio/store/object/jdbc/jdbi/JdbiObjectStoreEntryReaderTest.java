@@ -20,6 +20,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.vlingo.actors.Definition;
 import io.vlingo.actors.World;
 import io.vlingo.actors.testkit.AccessSafely;
 import io.vlingo.common.Outcome;
@@ -31,9 +32,13 @@ import io.vlingo.symbio.store.EntryReader;
 import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.StorageException;
 import io.vlingo.symbio.store.common.MockDispatcher;
+import io.vlingo.symbio.store.common.jdbc.CheckpointPolicy;
+import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.object.ObjectStore;
+import io.vlingo.symbio.store.object.ObjectStoreEntryReader;
 import io.vlingo.symbio.store.object.StateObjectMapper;
 import io.vlingo.symbio.store.object.StateSources;
+import io.vlingo.symbio.store.object.jdbc.jdbi.JdbiObjectStoreEntryReaderActor.JdbiObjectStoreEntryReaderInstantiator;
 
 public abstract class JdbiObjectStoreEntryReaderTest {
   protected MockDispatcher<BaseEntry.TextEntry, State.TextState> dispatcher;
@@ -125,6 +130,36 @@ public abstract class JdbiObjectStoreEntryReaderTest {
     }
   }
 
+  @Test
+  public void testThatEntryReaderResumesFromCheckpointedOffset() {
+    final TestPersistResultInterest persistInterest = new TestPersistResultInterest();
+    final AccessSafely access = persistInterest.afterCompleting(1);
+    final Person person = new Person("Jody Jones", 21, 1L);
+    final int totalEvents = 100;
+    final List<Source<Event>> events = new ArrayList<>(totalEvents);
+    for (int idx = 1; idx <= totalEvents; ++idx) {
+      final Event event = new Event("test-event-" + idx);
+      events.add(event);
+    }
+    objectStore.persist(StateSources.of(person, events), -1L, persistInterest);
+    final Outcome<StorageException, Result> outcome = access.readFrom("outcome");
+    assertEquals(Result.Success, outcome.andThen(success -> success).get());
+
+    final Configuration configuration =
+            Configuration.cloneOf(jdbi.configuration()).usingEntryReaderCheckpoints(CheckpointPolicy.everyEntries(10));
+
+    final EntryReader<Entry<String>> reader = checkpointedEntryReader(configuration);
+    for (final int maximumEntries : new int[] { 10, 10, 5 }) {
+      final List<Entry<String>> entries = reader.readNext(maximumEntries).await();
+      assertEquals(maximumEntries, entries.size());
+    }
+
+    // the 5 entries read since the checkpoint at 21 are read again
+    final EntryReader<Entry<String>> resumedReader = checkpointedEntryReader(configuration);
+    final Entry<String> entry = resumedReader.readNext().await();
+    assertEquals(21L, Long.parseLong(entry.id()));
+  }
+
   @Before
   public void setUp() throws Exception {
     jdbi = jdbiOnDatabase();
@@ -156,4 +191,14 @@ public abstract class JdbiObjectStoreEntryReaderTest {
   }
 
   protected abstract JdbiOnDatabase jdbiOnDatabase() throws Exception;
+
+  @SuppressWarnings("unchecked")
+  private EntryReader<Entry<String>> checkpointedEntryReader(final Configuration configuration) {
+    final JdbiOnDatabase readerJdbi = JdbiOnDatabase.openUsing(Configuration.cloneOf(configuration));
+    return world.actorFor(
+            ObjectStoreEntryReader.class,
+            Definition.has(
+                    JdbiObjectStoreEntryReaderActor.class,
+                    new JdbiObjectStoreEntryReaderInstantiator(readerJdbi, Collections.singletonList(readerJdbi.textEntryPersistentObjectMapper()), "checkpointed-reader")));
+  }
 }
@@ -9,16 +9,20 @@ package io.vlingo.symbio.store.object.jdbc.jdbi;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -184,6 +188,64 @@ public class JdbiObjectStoreTest {
     assertEquals(person3, iterator.next());
   }
 
+  @Test
+  public void testThatSingleEntityUpdatesOnlyChangedColumns() {
+    // shares the connection of objectStore, which is closed by tearDown()
+    final ObjectStore objectStore =
+            JdbiOnHSQLDB.openUsing(jdbi.configuration).objectStore(world, dispatcher, Collections.singletonList(personMapper(true)));
+
+    final TestPersistResultInterest persistInterest = new TestPersistResultInterest();
+    final AccessSafely access = persistInterest.afterCompleting(1);
+    final Person person = new Person("Jody Jones", 21, 1L);
+    objectStore.persist(StateSources.of(person), persistInterest);
+    final Outcome<StorageException, Result> outcome = access.readFrom("outcome");
+    assertEquals(Result.Success, outcome.andThen(success -> success).get());
+
+    final TestQueryResultInterest queryInterest = new TestQueryResultInterest();
+    queryInterest.until = TestUntil.happenings(1);
+    objectStore.queryObject(
+            MapQueryExpression.using(
+                    Person.class,
+                    "SELECT * FROM PERSON WHERE id = :id",
+                    QueryMode.ReadUpdate,
+                    MapQueryExpression.map("id", 1L)),
+            queryInterest);
+    queryInterest.until.completes();
+    assertNotNull(queryInterest.singleResult.get());
+
+    // a concurrent change to a column that is not changed by the update below
+    jdbi.handle().execute("UPDATE PERSON SET age = 42 WHERE id = 1");
+
+    final AccessSafely access1 = persistInterest.afterCompleting(1);
+    final Person queriedPerson = queryInterest.singleResult.get().stateObject();
+    final Person modifiedPerson = queriedPerson.withName("Jody Mojo Jojo");
+    objectStore.persist(StateSources.of(modifiedPerson), queryInterest.singleResult.get().updateId, persistInterest);
+    final Outcome<StorageException, Result> outcome1 = access1.readFrom("outcome");
+    assertEquals(Result.Success, outcome1.andThen(success -> success).get());
+
+    queryInterest.until = TestUntil.happenings(1);
+    objectStore.queryObject(
+            ListQueryExpression.using(
+                    Person.class,
+                    "SELECT * FROM PERSON WHERE id = <listArgValues>",
+                    Arrays.asList(1L)),
+            queryInterest);
+    queryInterest.until.completes();
+    assertNotNull(queryInterest.singleResult.get());
+    assertEquals(modifiedPerson.withAge(42), queryInterest.singleResult.get().stateObject);
+  }
+
+  @Test
+  public void testThatPartialUpdateStatementSetsOnlyChangedColumns() {
+    final JdbiPersistMapper mapper = personMapper(true).persistMapper();
+
+    assertTrue(mapper.isPartiallyUpdating());
+    assertEquals("UPDATE PERSON SET name = :name WHERE id = :id", mapper.partialUpdateStatement(Arrays.asList("name")));
+    assertEquals("UPDATE PERSON SET name = :name, age = :age WHERE id = :id", mapper.partialUpdateStatement(Arrays.asList("name", "age")));
+    assertNull(mapper.partialUpdateStatement(Arrays.asList("persistenceId")));
+    assertFalse(personMapper(false).<JdbiPersistMapper>persistMapper().isPartiallyUpdating());
+  }
+
   @Test
   public void testThatSingleEntityUpdates() {
     final TestPersistResultInterest persistInterest = new TestPersistResultInterest();
@@ -314,6 +376,45 @@ public class JdbiObjectStoreTest {
     }
   }
 
+  @Test
+  public void testThatObjectStoreInsertsManyWithEventsInBatches() {
+    final int total = 1000;
+    dispatcher.afterCompleting(total);
+
+    final List<StateSources<Person, Event>> allStateSources = new ArrayList<>(total);
+    for (int id = 1; id <= total; ++id) {
+      allStateSources.add(StateSources.of(new Person("Person " + id, 20 + id % 50, id), new Event("event-" + id)));
+    }
+
+    final TestPersistResultInterest persistInterest = new TestPersistResultInterest();
+    final AccessSafely access = persistInterest.afterCompleting(1);
+    objectStore.persistAll(allStateSources, persistInterest);
+    final Outcome<StorageException, Result> outcome = access.readFrom("outcome");
+    assertEquals(Result.Success, outcome.andThen(success -> success).get());
+
+    final Map<String, Dispatchable<BaseEntry.TextEntry, State.TextState>> dispatched = dispatcher.getDispatched();
+    assertEquals(total, dispatched.size());
+
+    final Set<String> entryIds = new HashSet<>();
+    for (final Dispatchable<BaseEntry.TextEntry, State.TextState> dispatchable : dispatched.values()) {
+      final List<BaseEntry.TextEntry> entries = dispatchable.entries();
+      assertEquals(1, entries.size());
+      // each dispatchable holds the entry of its own object
+      assertTrue(entries.get(0).entryData().contains("event-" + dispatchable.state().get().id + "\""));
+      entryIds.add(entries.get(0).id());
+    }
+    assertEquals(total, entryIds.size());
+
+    final TestQueryResultInterest queryInterest = new TestQueryResultInterest();
+    queryInterest.until = TestUntil.happenings(1);
+    objectStore.queryAll(QueryExpression.using(Person.class, "SELECT * FROM PERSON ORDER BY id"), queryInterest);
+    queryInterest.until.completes();
+    assertEquals(total, queryInterest.multiResults.get().stateObjects.size());
+    @SuppressWarnings("unchecked")
+    final Iterator<Person> iterator = (Iterator<Person>) queryInterest.multiResults.get().stateObjects.iterator();
+    assertEquals(allStateSources.get(0).stateObject(), iterator.next());
+  }
+
   @Test
   public void testThatDatabaseTypeIsHSQLDB() {
     assertEquals(DatabaseType.HSQLDB, jdbi.databaseType());
@@ -335,16 +436,7 @@ public class JdbiObjectStoreTest {
 
     dispatcher = new MockDispatcher<>();
 
-    final StateObjectMapper personMapper =
-            StateObjectMapper.with(
-                    Person.class,
-                    JdbiPersistMapper.with(
-                            "INSERT INTO PERSON(id, name, age) VALUES (:id, :name, :age)",
-                            "UPDATE PERSON SET name = :name, age = :age WHERE id = :id",
-                            (update,object) -> update.bindFields(object)),
-                    new PersonMapper());
-
-    objectStore = jdbi.objectStore(world, dispatcher, Collections.singletonList(personMapper));
+    objectStore = jdbi.objectStore(world, dispatcher, Collections.singletonList(personMapper(false)));
   }
 
   @After
@@ -352,6 +444,19 @@ public class JdbiObjectStoreTest {
     objectStore.close();
   }
 
+  private StateObjectMapper personMapper(final boolean partialUpdates) {
+    final JdbiPersistMapper persistMapper =
+            JdbiPersistMapper.with(
+                    "INSERT INTO PERSON(id, name, age) VALUES (:id, :name, :age)",
+                    "UPDATE PERSON SET name = :name, age = :age WHERE id = :id",
+                    (update,object) -> update.bindFields(object));
+
+    return StateObjectMapper.with(
+            Person.class,
+            partialUpdates ? persistMapper.withPartialUpdates("PERSON", "name", "age") : persistMapper,
+            new PersonMapper());
+  }
+
   private static class TestQueryResultInterest implements QueryResultInterest {
     public AtomicReference<QueryMultiResults> multiResults = new AtomicReference<>();
     public AtomicReference<QuerySingleResult> singleResult = new AtomicReference<>();
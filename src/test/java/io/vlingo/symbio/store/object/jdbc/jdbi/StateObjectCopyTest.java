@@ -12,11 +12,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
+import io.vlingo.symbio.store.object.StateObject;
+
 public class StateObjectCopyTest {
   @Test
   public void testThatObjectSerializes() {
@@ -50,4 +62,119 @@ public class StateObjectCopyTest {
     final Person person3_2 = new Person("Jack \"Jonesy\" Jones", 30, 3L);
     assertTrue(copy1.get(person3_2.persistenceId()).differsFrom(person3_2));
   }
+
+  @Test
+  public void testThatChangedFieldsAreNamed() {
+    final Person person1 = new Person("Ben Charleston", 21, 1L);
+    final StateObjectCopy copy = StateObjectCopy.of(person1).get(1L);
+    assertEquals(Collections.emptyList(), copy.changedFieldsOf(person1));
+    assertEquals(Arrays.asList("age"), copy.changedFieldsOf(person1.withAge(22)));
+    assertEquals(new HashSet<>(Arrays.asList("age", "name")), new HashSet<>(copy.changedFieldsOf(person1.withAge(22).withName("Ben Charles"))));
+  }
+
+  @Test
+  public void testThatNestedChangesInPlaceDiffer() {
+    final Household household = new Household(7L);
+    household.addresses.add(new Address("Main Street"));
+    final StateObjectCopy copy = StateObjectCopy.of(household).get(7L);
+    assertFalse(copy.differsFrom(household));
+
+    household.addresses.get(0).street = "High Street";
+    assertTrue(copy.differsFrom(household));
+    assertEquals(Arrays.asList("addresses"), copy.changedFieldsOf(household));
+
+    household.addresses.get(0).street = "Main Street";
+    assertFalse(copy.differsFrom(household));
+
+    household.addresses.add(household.addresses.get(0));
+    assertTrue(copy.differsFrom(household));
+  }
+
+  @Test
+  public void testThatMutablePlatformValuesChangedInPlaceDiffer() {
+    final Tally tally = new Tally(9L);
+    final StateObjectCopy copy = StateObjectCopy.of(tally).get(9L);
+
+    tally.count.incrementAndGet();
+    tally.log.append("counted");
+
+    assertTrue(copy.differsFrom(tally));
+    assertEquals(new HashSet<>(Arrays.asList("count", "log")), new HashSet<>(copy.changedFieldsOf(tally)));
+  }
+
+  @Test
+  public void testThatImmutablePlatformValuesAreCompared() {
+    final Tally tally = new Tally(9L);
+    final StateObjectCopy copy = StateObjectCopy.of(tally).get(9L);
+
+    tally.count = null;
+    tally.log = null;
+    assertEquals(Collections.emptyList(), StateObjectCopy.of(tally).get(9L).changedFieldsOf(tally));
+
+    tally.since = tally.since.plusDays(1);
+    assertEquals(new HashSet<>(Arrays.asList("count", "log", "since")), new HashSet<>(copy.changedFieldsOf(tally)));
+  }
+
+  @Test
+  public void testThatMapsAndSetsReorderedAreEqual() {
+    final Directory directory = new Directory(11L);
+    directory.addresses.put("home", new Address("Main Street"));
+    directory.addresses.put("work", new Address("High Street"));
+    directory.tags.addAll(Arrays.asList("family", "friends"));
+    final StateObjectCopy copy = StateObjectCopy.of(directory).get(11L);
+
+    directory.addresses.put("home", directory.addresses.remove("home"));
+    directory.tags.remove("family");
+    directory.tags.add("family");
+    assertFalse(copy.differsFrom(directory));
+
+    directory.addresses.get("work").street = "Low Street";
+    directory.tags.remove("friends");
+    directory.tags.add("colleagues");
+    assertEquals(new HashSet<>(Arrays.asList("addresses", "tags")), new HashSet<>(copy.changedFieldsOf(directory)));
+  }
+
+  // neither of which is serializable
+  private static class Address {
+    String street;
+
+    Address(final String street) {
+      this.street = street;
+    }
+  }
+
+  private static class Tally extends StateObject {
+    private static final long serialVersionUID = 1L;
+
+    AtomicLong count = new AtomicLong();
+    StringBuilder log = new StringBuilder();
+    LocalDate since = LocalDate.of(2020, 1, 1);
+    BigDecimal total = BigDecimal.ONE;
+
+    Tally(final long persistenceId) {
+      super(persistenceId);
+    }
+  }
+
+  private static class Directory extends StateObject {
+    private static final long serialVersionUID = 1L;
+
+    final Map<String, Address> addresses = new LinkedHashMap<>();
+    final Set<String> tags = new LinkedHashSet<>();
+
+    Directory(final long persistenceId) {
+      super(persistenceId);
+    }
+  }
+
+  private static class Household extends StateObject {
+    private static final long serialVersionUID = 1L;
+
+    final transient Object lock = new Object();
+    final List<Address> addresses = new ArrayList<>();
+
+    Household(final long persistenceId) {
+      super(persistenceId);
+    }
+  }
 }
@@ -11,8 +11,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.After;
@@ -23,6 +27,7 @@ import io.vlingo.actors.ActorInstantiator;
 import io.vlingo.actors.Definition;
 import io.vlingo.actors.World;
 import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.EntryAdapterProvider;
 import io.vlingo.symbio.State;
 import io.vlingo.symbio.StateAdapterProvider;
@@ -35,9 +40,10 @@ import io.vlingo.symbio.store.state.Entity1;
 import io.vlingo.symbio.store.state.Entity1.Entity1StateAdapter;
 import io.vlingo.symbio.store.state.MockResultInterest;
 import io.vlingo.symbio.store.state.MockTextDispatcher;
-import io.vlingo.symbio.store.state.StateStore;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.StateToWrite;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
 
 public abstract class JDBCStateStoreActorTest {
@@ -46,7 +52,7 @@ public abstract class JDBCStateStoreActorTest {
   protected MockTextDispatcher dispatcher;
   protected String entity1StoreName;
   protected MockResultInterest interest;
-  protected StateStore store;
+  protected JDBCStateStore store;
   protected World world;
 
   @Test
@@ -86,6 +92,340 @@ public abstract class JDBCStateStoreActorTest {
     assertEquals("567", state567.id);
   }
 
+  @Test
+  public void testThatWriteAllWritesAndDispatchesEach() {
+    final AccessSafely accessInterest = interest.afterCompleting(7);
+    final AccessSafely accessDispatcher = dispatcher.afterCompleting(6);
+
+    final Entity1 entity1 = new Entity1("123", 1);
+    final Entity1 entity2 = new Entity1("234", 2);
+    final Entity1 entity3 = new Entity1("345", 3);
+    final TestEvent testEvent = new TestEvent(UUID.randomUUID().toString(), 30);
+
+    store.writeAll(Arrays.asList(
+            StateToWrite.with(entity1.id, entity1, 1),
+            StateToWrite.with(entity2.id, entity2, 1, Collections.singletonList(testEvent)),
+            StateToWrite.with("456", null, 1),
+            StateToWrite.with(entity3.id, entity3, 1, Arrays.asList(new TestEvent("1", 1), new TestEvent("2", 2)))),
+            interest);
+
+    assertEquals(4, (int) accessInterest.readFrom("writeTextResultedIn"));
+    assertEquals(1, (int) accessInterest.readFrom("errorCausesCount"));
+    assertEquals(3, (int) accessInterest.readFrom("confirmDispatchedResultedIn"));
+    assertEquals(3, (int) accessDispatcher.readFrom("dispatchedStateCount"));
+    assertEquals(3, (int) accessDispatcher.readFrom("dispatchedEntriesCount"));
+    final Collection<Entry<?>> entries = accessDispatcher.readFrom("dispatchedEntries");
+    assertEquals(3, entries.stream().map(Entry::id).distinct().count());
+    final State<?> state234 = accessDispatcher.readFrom("dispatchedState", dispatchId("234"));
+    assertEquals("234", state234.id);
+  }
+
+  @Test
+  public void testThatWrittenStateIsRead() {
+    final AccessSafely accessInterest1 = interest.afterCompleting(2);
+    dispatcher.afterCompleting(2);
+
+    final Entity1 entity = new Entity1("123", 5);
+    store.write(entity.id, entity, 1, interest);
+
+    assertEquals(1, (int) accessInterest1.readFrom("writeTextResultedIn"));
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest2 = interest.afterCompleting(1);
+
+    store.read(entity.id, Entity1.class, interest);
+
+    assertEquals(Result.Success, accessInterest2.readFrom("textReadResult"));
+    final Entity1 readEntity = accessInterest2.readFrom("stateHolder");
+    assertEquals(entity.id, readEntity.id);
+    assertEquals(entity.value, readEntity.value);
+  }
+
+  @Test
+  public void testThatCachedStateIsReadWithoutQuery() {
+    final StateCache cache = StateCache.withMaximumEntries(100);
+
+    final ActorInstantiator<?> instantiator = new JDBCStateStoreInstantiator();
+    instantiator.set("cache", cache);
+    instantiator.set("delegate", delegate.copy());
+
+    final JDBCStateStore cachedStore = world.actorFor(JDBCStateStore.class, Definition.has(JDBCStateStoreActor.class, instantiator));
+
+    final AccessSafely accessInterest1 = interest.afterCompleting(1);
+    final Entity1 entity = new Entity1("123", 5);
+    cachedStore.write(entity.id, entity, 1, interest);
+    assertEquals(1, (int) accessInterest1.readFrom("writeTextResultedIn"));
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest2 = interest.afterCompleting(2);
+    cachedStore.read(entity.id, Entity1.class, interest);
+    cachedStore.read(entity.id, Entity1.class, interest);
+
+    assertEquals(2, (int) accessInterest2.readFrom("readTextResultedIn"));
+    assertEquals(entity.value, ((Entity1) accessInterest2.readFrom("stateHolder")).value);
+    assertEquals(2, cache.hits());
+    assertEquals(0, cache.misses());
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest3 = interest.afterCompleting(1);
+    cachedStore.read("999", Entity1.class, interest);
+
+    assertEquals(Result.NotFound, accessInterest3.readFrom("textReadResult"));
+    assertEquals(1, cache.misses());
+  }
+
+  @Test
+  public void testThatReadAllAnswersFoundAndNotFound() {
+    final AccessSafely accessInterest = interest.afterCompleting(6);
+    dispatcher.afterCompleting(6);
+
+    final Entity1 entity1 = new Entity1("123", 1);
+    final Entity1 entity2 = new Entity1("234", 2);
+    final Entity1 entity3 = new Entity1("345", 3);
+    store.writeAll(Arrays.asList(
+            StateToWrite.with(entity1.id, entity1, 1),
+            StateToWrite.with(entity2.id, entity2, 1),
+            StateToWrite.with(entity3.id, entity3, 1)),
+            interest);
+
+    assertEquals(3, (int) accessInterest.readFrom("writeTextResultedIn"));
+
+    final MockReadAllResultInterest readAllInterest = new MockReadAllResultInterest();
+    final AccessSafely accessReadAll = readAllInterest.afterCompleting(1);
+
+    store.readAll(Arrays.asList("345", "999", "123", "234", "123"), Entity1.class, readAllInterest);
+
+    assertEquals(Result.Success, accessReadAll.readFrom("result"));
+    final Map<String, ReadBundle<?>> bundles = accessReadAll.readFrom("bundles");
+    assertEquals(Arrays.asList("345", "123", "234"), new ArrayList<>(bundles.keySet()));
+    assertEquals(entity2.value, ((Entity1) bundles.get("234").state).value);
+    assertEquals(1, bundles.get("234").stateVersion);
+    assertEquals(Collections.singletonList("999"), accessReadAll.readFrom("notFound"));
+  }
+
+  @Test
+  public void testThatScanReadsAllInChunks() {
+    final List<String> ids = writeEntities(5);
+
+    final MockScanResultInterest scanInterest = new MockScanResultInterest();
+    final AccessSafely accessScan = scanInterest.afterCompleting(3);
+
+    store.scan(Entity1.class, 2, scanInterest);
+
+    assertEquals(3, (int) accessScan.readFrom("chunks"));
+    assertEquals(1, (int) accessScan.readFrom("exhausted"));
+    assertEquals(ids, accessScan.readFrom("ids"));
+    assertEquals(Arrays.asList(Result.Success, Result.Success, Result.Success), accessScan.readFrom("results"));
+  }
+
+  @Test
+  public void testThatScanBoundariesSplitIds() {
+    writeEntities(10);
+
+    final List<String> boundaries = store.scanBoundaries(Entity1.class, 3).await();
+
+    assertEquals(Arrays.asList("03", "06"), boundaries);
+  }
+
+  @Test
+  public void testThatScanBoundariesSplitIdsOfLongCommonPrefix() {
+    final String prefix = "customer-\u00e9t\u00e9-2019-0000000000-";
+    writeEntities(prefix, 10);
+
+    final List<String> boundaries = store.scanBoundaries(Entity1.class, 3).await();
+
+    assertEquals(Arrays.asList(prefix + "03", prefix + "06"), boundaries);
+  }
+
+  @Test
+  public void testThatParallelScanReadsAllRanges() {
+    final List<String> ids = writeEntities(10);
+
+    final MockScanResultInterest scanInterest = new MockScanResultInterest();
+    final AccessSafely accessScan = scanInterest.afterCompleting(3);
+
+    final ParallelStateScan scan = ParallelStateScan.start(world.stage(), (JDBCStorageDelegate<?>) delegate.copy(), Entity1.class, 3, 100, scanInterest, null);
+
+    assertEquals(3, (int) accessScan.readFrom("exhausted"));
+    final List<String> scanned = accessScan.readFrom("ids");
+    Collections.sort(scanned);
+    assertEquals(ids, scanned);
+
+    scan.stop();
+  }
+
+  @Test
+  public void testThatStaleWriteIsConcurrencyViolation() {
+    final AccessSafely accessInterest1 = interest.afterCompleting(2);
+    dispatcher.afterCompleting(2);
+
+    final Entity1 entity = new Entity1("123", 1);
+    store.write(entity.id, entity, 1, interest);
+
+    assertEquals(1, (int) accessInterest1.readFrom("writeTextResultedIn"));
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest2 = interest.afterCompleting(1);
+
+    store.write(entity.id, new Entity1("123", 2), 1, interest);
+
+    assertEquals(Result.ConcurrencyViolation, accessInterest2.readFrom("textWriteResult"));
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest3 = interest.afterCompleting(1);
+
+    store.write(entity.id, new Entity1("123", 3), 2, interest);
+
+    assertEquals(Result.Success, accessInterest3.readFrom("textWriteResult"));
+
+    interest = new MockResultInterest();
+    final AccessSafely accessInterest4 = interest.afterCompleting(1);
+
+    store.read(entity.id, Entity1.class, interest);
+
+    assertEquals(3, ((Entity1) accessInterest4.readFrom("stateHolder")).value);
+  }
+
+  @Test
+  public void testThatWriteBehindCoalescesWrites() {
+    final ActorInstantiator<?> instantiator = new JDBCStateStoreInstantiator();
+    instantiator.set("delegate", delegate.copy());
+    instantiator.set("writeBehind", WriteBehind.of(60_000L, 2, Entity1.class));
+
+    final JDBCStateStore writeBehindStore = world.actorFor(JDBCStateStore.class, Definition.has(JDBCStateStoreActor.class, instantiator));
+
+    final MockResultInterest pendingInterest = new MockResultInterest();
+    final AccessSafely accessPending = pendingInterest.afterCompleting(2);
+    final MockResultInterest staleInterest = new MockResultInterest();
+    final AccessSafely accessStale = staleInterest.afterCompleting(1);
+
+    writeBehindStore.write("123", new Entity1("123", 1), 1, pendingInterest);
+    writeBehindStore.write("123", new Entity1("123", 2), 2, pendingInterest);
+    writeBehindStore.write("123", new Entity1("123", 3), 2, staleInterest);
+
+    assertEquals(Result.ConcurrencyViolation, accessStale.readFrom("textWriteResult"));
+
+    final MockResultInterest pendingReadInterest = new MockResultInterest();
+    final AccessSafely accessPendingRead = pendingReadInterest.afterCompleting(1);
+    writeBehindStore.read("123", Entity1.class, pendingReadInterest);
+    assertEquals(2, ((Entity1) accessPendingRead.readFrom("stateHolder")).value);
+
+    final MockResultInterest unflushedReadInterest = new MockResultInterest();
+    final AccessSafely accessUnflushedRead = unflushedReadInterest.afterCompleting(1);
+    store.read("123", Entity1.class, unflushedReadInterest);
+    assertEquals(Result.NotFound, accessUnflushedRead.readFrom("textReadResult"));
+
+    // the second pending id reaches the maximum pending and flushes both
+    final MockResultInterest flushInterest = new MockResultInterest();
+    final AccessSafely accessFlush = flushInterest.afterCompleting(1);
+    writeBehindStore.write("234", new Entity1("234", 1), 1, flushInterest);
+
+    assertEquals(Result.Success, accessFlush.readFrom("textWriteResult"));
+    assertEquals(2, (int) accessPending.readFrom("writeTextResultedIn"));
+    assertEquals(Result.Success, accessPending.readFrom("textWriteAccumulatedResults"));
+    assertEquals(Result.Success, accessPending.readFrom("textWriteAccumulatedResults"));
+
+    final MockResultInterest flushedReadInterest = new MockResultInterest();
+    final AccessSafely accessFlushedRead = flushedReadInterest.afterCompleting(1);
+    store.read("123", Entity1.class, flushedReadInterest);
+    assertEquals(2, ((Entity1) accessFlushedRead.readFrom("stateHolder")).value);
+  }
+
+  @Test
+  public void testThatWriteBehindAnswersSupersededWritesWithSuccess() {
+    final ActorInstantiator<?> instantiator = new JDBCStateStoreInstantiator();
+    instantiator.set("delegate", delegate.copy());
+    instantiator.set("writeBehind", WriteBehind.of(60_000L, 2, Entity1.class));
+
+    final JDBCStateStore writeBehindStore = world.actorFor(JDBCStateStore.class, Definition.has(JDBCStateStoreActor.class, instantiator));
+    // each write is also confirmed to the interest when dispatched
+    final AccessSafely accessStored = interest.afterCompleting(2);
+    dispatcher.afterCompleting(2);
+
+    store.write("123", new Entity1("123", 1), 1, interest);
+    assertEquals(Result.Success, accessStored.readFrom("textWriteResult"));
+
+    final MockResultInterest supersededInterest = new MockResultInterest();
+    final AccessSafely accessSuperseded = supersededInterest.afterCompleting(1);
+    final MockResultInterest latestInterest = new MockResultInterest();
+    final AccessSafely accessLatest = latestInterest.afterCompleting(1);
+
+    writeBehindStore.write("123", new Entity1("123", 2), 2, supersededInterest);
+    writeBehindStore.write("123", new Entity1("123", 3), 3, latestInterest);
+
+    // another writer stores version 3 first, so the flushed version 3 loses
+    final MockResultInterest competingInterest = new MockResultInterest();
+    final AccessSafely accessCompeting = competingInterest.afterCompleting(1);
+    store.write("123", new Entity1("123", 30), 3, competingInterest);
+    assertEquals(Result.Success, accessCompeting.readFrom("textWriteResult"));
+
+    final MockResultInterest flushInterest = new MockResultInterest();
+    final AccessSafely accessFlush = flushInterest.afterCompleting(1);
+    writeBehindStore.write("234", new Entity1("234", 1), 1, flushInterest);
+    assertEquals(Result.Success, accessFlush.readFrom("textWriteResult"));
+
+    assertEquals(Result.Success, accessSuperseded.readFrom("textWriteResult"));
+    assertEquals(2, ((Entity1) accessSuperseded.readFrom("stateHolder")).value);
+    assertEquals(Result.ConcurrencyViolation, accessLatest.readFrom("textWriteResult"));
+    assertEquals(3, ((Entity1) accessLatest.readFrom("stateHolder")).value);
+  }
+
+  @Test
+  public void testThatVersionIsReadWithoutData() {
+    // each write is also confirmed to the interest when dispatched
+    final AccessSafely accessWrite = interest.afterCompleting(4);
+    dispatcher.afterCompleting(2);
+
+    final Entity1 entity = new Entity1("123", 5);
+    store.write(entity.id, entity, 1, interest);
+    store.write(entity.id, new Entity1("123", 6), 2, interest);
+
+    assertEquals(2, (int) accessWrite.readFrom("writeTextResultedIn"));
+
+    final MockVersionResultInterest versionInterest = new MockVersionResultInterest();
+    final AccessSafely accessVersion = versionInterest.afterCompleting(1);
+
+    store.readVersion(entity.id, Entity1.class, versionInterest);
+
+    assertEquals(Result.Success, accessVersion.readFrom("result"));
+    assertEquals(2, (int) accessVersion.readFrom("stateVersion"));
+    assertEquals(Entity1.class.getName(), accessVersion.readFrom("storedType"));
+
+    final MockVersionResultInterest missingInterest = new MockVersionResultInterest();
+    final AccessSafely accessMissing = missingInterest.afterCompleting(1);
+
+    store.readVersion("999", Entity1.class, missingInterest);
+
+    assertEquals(Result.NotFound, accessMissing.readFrom("result"));
+  }
+
+  @Test
+  public void testThatReadIfChangedSkipsUnchangedData() {
+    final AccessSafely accessWrite = interest.afterCompleting(2);
+    dispatcher.afterCompleting(1);
+
+    final Entity1 entity = new Entity1("123", 5);
+    store.write(entity.id, entity, 3, interest);
+
+    assertEquals(1, (int) accessWrite.readFrom("writeTextResultedIn"));
+
+    final MockResultInterest unchangedInterest = new MockResultInterest();
+    final AccessSafely accessUnchanged = unchangedInterest.afterCompleting(1);
+
+    store.readIfChanged(entity.id, Entity1.class, 3, unchangedInterest);
+
+    assertEquals(Result.Success, accessUnchanged.readFrom("textReadResult"));
+    assertNull(accessUnchanged.readFrom("stateHolder"));
+
+    final MockResultInterest changedInterest = new MockResultInterest();
+    final AccessSafely accessChanged = changedInterest.afterCompleting(1);
+
+    store.readIfChanged(entity.id, Entity1.class, 2, changedInterest);
+
+    assertEquals(Result.Success, accessChanged.readFrom("textReadResult"));
+    assertEquals(entity.value, ((Entity1) accessChanged.readFrom("stateHolder")).value);
+  }
+
   @Test
   public void testThatReadErrorIsReported() {
     final AccessSafely accessInterest1 = interest.afterCompleting(3);
@@ -187,7 +527,7 @@ public abstract class JDBCStateStoreActorTest {
     instantiator.set("delegate", delegate);
 
     store = world.actorFor(
-            StateStore.class,
+            JDBCStateStore.class,
             Definition.has(JDBCStateStoreActor.class, instantiator));
   }
 
@@ -202,6 +542,28 @@ public abstract class JDBCStateStoreActorTest {
   protected abstract StorageDelegate delegate() throws Exception;
   protected abstract TestConfiguration testConfiguration(final DataFormat format) throws Exception;
 
+  private List<String> writeEntities(final int count) {
+    return writeEntities("", count);
+  }
+
+  private List<String> writeEntities(final String idPrefix, final int count) {
+    final AccessSafely accessInterest = interest.afterCompleting(count * 2);
+    dispatcher.afterCompleting(count * 2);
+
+    final List<String> ids = new ArrayList<>(count);
+    final List<StateToWrite<?,?>> states = new ArrayList<>(count);
+    for (int index = 0; index < count; ++index) {
+      final Entity1 entity = new Entity1(idPrefix + String.format("%02d", index), index);
+      ids.add(entity.id);
+      states.add(StateToWrite.with(entity.id, entity, 1));
+    }
+    store.writeAll(states, interest);
+
+    assertEquals(count, (int) accessInterest.readFrom("writeTextResultedIn"));
+
+    return ids;
+  }
+
   private String dispatchId(final String entityId) {
     return entity1StoreName + ":" + entityId;
   }
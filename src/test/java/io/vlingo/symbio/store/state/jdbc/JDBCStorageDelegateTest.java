@@ -10,9 +10,15 @@ package io.vlingo.symbio.store.state.jdbc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -24,14 +30,15 @@ import io.vlingo.symbio.Metadata;
 import io.vlingo.symbio.State;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
+import io.vlingo.symbio.store.common.jdbc.StateHistory;
 import io.vlingo.symbio.store.state.Entity1;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 
 public abstract class JDBCStorageDelegateTest {
-    private Configuration.TestConfiguration configuration;
-    private JDBCStorageDelegate<Object> delegate;
-    private String entity1StoreName;
-    private World world;
+    protected Configuration.TestConfiguration configuration;
+    protected JDBCStorageDelegate<Object> delegate;
+    protected String entity1StoreName;
+    protected World world;
 
     @Test
     public void testThatDatabaseOpensTablesCreated() throws Exception {
@@ -86,7 +93,7 @@ public abstract class JDBCStorageDelegateTest {
 
         assertEquals(writeState1, readState1);
 
-        final State.TextState writeState2 = new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"data1\" }", 1, Metadata.with("metadata2", "op2"));
+        final State.TextState writeState2 = new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"data1\" }", 2, Metadata.with("metadata2", "op2"));
 
         delegate.beginWrite();
         final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, writeState2);
@@ -102,6 +109,116 @@ public abstract class JDBCStorageDelegateTest {
         assertEquals(writeState2, readState2);
         assertNotEquals(0, writeState1.compareTo(readState2));
         assertNotEquals(0, writeState2.compareTo(readState1));
+
+        delegate.beginWrite();
+        final PreparedStatement staleWriteStatement = delegate.writeExpressionFor(entity1StoreName, writeState1);
+        assertEquals(0, staleWriteStatement.executeUpdate());
+        delegate.fail();
+    }
+
+    @Test
+    public void testThatConcurrentWritesOfOneVersionArchiveOnce() throws Exception {
+        configuration = testConfiguration(DataFormat.Text);
+        configuration.usingStateHistory(StateHistory.keepingAll());
+        delegate = storageDelegate(configuration, world.defaultLogger());
+        @SuppressWarnings("unchecked")
+        final JDBCStorageDelegate<Object> competing = (JDBCStorageDelegate<Object>) delegate.copy();
+
+        final State.TextState writeState1 = new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"data1\" }", 1, Metadata.with("metadata", "op"));
+        delegate.beginWrite();
+        final PreparedStatement writeStatement1 = delegate.writeExpressionFor(entity1StoreName, writeState1);
+        writeStatement1.executeUpdate();
+        delegate.complete();
+
+        // the competing write of the same version waits on the uncommitted one, and then updates nothing
+        final State.TextState writeState2 = new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"data2\" }", 2, Metadata.with("metadata", "op"));
+        final State.TextState competingState2 = new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"competing2\" }", 2, Metadata.with("metadata", "op"));
+        delegate.beginWrite();
+        final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, writeState2);
+        assertEquals(1, writeStatement2.executeUpdate());
+        final int[] competingUpdates = { -1 };
+        final Exception[] competingFailure = { null };
+        final Thread competingWriter = new Thread(() -> {
+            try {
+                competing.beginWrite();
+                final PreparedStatement competingStatement = competing.writeExpressionFor(entity1StoreName, competingState2);
+                competingUpdates[0] = competingStatement.executeUpdate();
+                competing.complete();
+            } catch (final Exception e) {
+                competing.fail();
+                competingFailure[0] = e;
+            }
+        });
+        competingWriter.start();
+        Thread.sleep(200);
+        delegate.complete();
+        competingWriter.join(5_000);
+        competing.close();
+
+        assertNull(competingFailure[0]);
+        assertEquals(0, competingUpdates[0]);
+
+        delegate.beginRead();
+        final PreparedStatement archivedStatement = delegate.readHistoryExpressionFor(entity1StoreName, "123", 1);
+        final State.TextState archivedState = delegate.stateFrom(archivedStatement.executeQuery(), "123");
+        final PreparedStatement versionsStatement = delegate.historyVersionsExpressionFor(entity1StoreName, null, 10);
+        final ResultSet versions = versionsStatement.executeQuery();
+        assertTrue(versions.next());
+        assertEquals(1, versions.getInt(2));
+        assertEquals(1, versions.getInt(3));
+        versions.close();
+        delegate.complete();
+
+        assertEquals(writeState1, archivedState);
+    }
+
+    @Test
+    public void testThatChangesOfDelayedCommitsAreNotSkipped() throws Exception {
+        configuration = testConfiguration(DataFormat.Text);
+        configuration.usingStateChanges(true);
+        delegate = storageDelegate(configuration, world.defaultLogger());
+        @SuppressWarnings("unchecked")
+        final JDBCStorageDelegate<Object> laterWriter = (JDBCStorageDelegate<Object>) delegate.copy();
+        @SuppressWarnings("unchecked")
+        final JDBCStorageDelegate<Object> reader = (JDBCStorageDelegate<Object>) delegate.copy();
+
+        // the first change is written before the second but committed after it and after a read
+        delegate.beginWrite();
+        final PreparedStatement delayedStatement = delegate.writeExpressionFor(entity1StoreName, new State.TextState("123", Entity1.class, 1, "{ \"data\" : \"data1\" }", 1, Metadata.with("metadata", "op")));
+        delayedStatement.executeUpdate();
+
+        final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        final long[] lastSequence = { 0 };
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        final Thread later = new Thread(() -> {
+            try {
+                writeChange(laterWriter, "234");
+            } catch (final Exception e) {
+                failures.add(e);
+            }
+        });
+        final Thread earlyRead = new Thread(() -> {
+            try {
+                readChanges(reader, ids, lastSequence);
+            } catch (final Exception e) {
+                failures.add(e);
+            }
+        });
+        later.start();
+        Thread.sleep(200);
+        earlyRead.start();
+        Thread.sleep(300);
+        delegate.complete();
+        later.join(5_000);
+        earlyRead.join(5_000);
+
+        readChanges(reader, ids, lastSequence);
+        laterWriter.close();
+        reader.close();
+
+        assertTrue(failures.isEmpty());
+        Collections.sort(ids);
+        assertEquals(Arrays.asList("123", "234"), ids);
     }
 
     @Test
@@ -127,6 +244,25 @@ public abstract class JDBCStorageDelegateTest {
         assertEquals(writeState, readState);
     }
 
+    private void writeChange(final JDBCStorageDelegate<Object> writer, final String id) throws Exception {
+        writer.beginWrite();
+        final PreparedStatement writeStatement = writer.writeExpressionFor(entity1StoreName, new State.TextState(id, Entity1.class, 1, "{ \"data\" : \"data1\" }", 1, Metadata.with("metadata", "op")));
+        writeStatement.executeUpdate();
+        writer.complete();
+    }
+
+    private void readChanges(final JDBCStorageDelegate<Object> reader, final List<String> ids, final long[] lastSequence) throws Exception {
+        reader.beginRead();
+        final PreparedStatement changesStatement = reader.readChangesExpressionFor(entity1StoreName, lastSequence[0], 10);
+        try (final ResultSet result = changesStatement.executeQuery()) {
+            while (result.next()) {
+                ids.add(result.getString(7));
+                lastSequence[0] = result.getLong(8);
+            }
+        }
+        reader.complete();
+    }
+
     @Before
     public void setUp() {
         world = World.startWithDefaults("test-store");
@@ -8,6 +8,7 @@
 package io.vlingo.symbio.store.state.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -27,12 +28,15 @@ import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.EntryAdapterProvider;
 import io.vlingo.symbio.StateAdapterProvider;
 import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.EntryReader;
 import io.vlingo.symbio.store.TestEvents;
+import io.vlingo.symbio.store.common.jdbc.CheckpointPolicy;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
 import io.vlingo.symbio.store.state.Entity1;
 import io.vlingo.symbio.store.state.MockResultInterest;
 import io.vlingo.symbio.store.state.MockTextDispatcher;
 import io.vlingo.symbio.store.state.StateStore;
+import io.vlingo.symbio.store.state.StateStoreEntryReader;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
 
@@ -82,6 +86,44 @@ public abstract class JDBCTextStateStoreEntryTest {
         assertEquals(new TestEvents.Event3(), entryAdapterProvider.asSource(readEntries.get(2)));
     }
 
+    @Test
+    public void testThatReaderResumesFromCheckpointedOffset() {
+        configuration.usingEntryReaderCheckpoints(CheckpointPolicy.everyEntries(2));
+
+        final AccessSafely accessInterest1 = interest.afterCompleting(3);
+        dispatcher.afterCompleting(0);
+
+        final Entity1 entity1 = new Entity1("123", 1);
+        store.write(entity1.id, entity1, 1, Arrays.asList(new TestEvents.Event1()), interest);
+
+        final Entity1 entity2 = new Entity1("234", 2);
+        store.write(entity2.id, entity2, 1, Arrays.asList(new TestEvents.Event2()), interest);
+
+        final Entity1 entity3 = new Entity1("345", 3);
+        store.write(entity3.id, entity3, 1, Arrays.asList(new TestEvents.Event3()), interest);
+
+        assertEquals(3, (int) accessInterest1.readFrom("textWriteAccumulatedSourcesCount"));
+
+        final List<Entry<?>> firstRead = store.entryReader("test")
+                .andThenTo(reader -> reader.readNext(2))
+                .await();
+
+        assertEquals(2, firstRead.size());
+        assertEquals(new TestEvents.Event2(), entryAdapterProvider.asSource(firstRead.get(1)));
+
+        final EntryReader.Advice advice = delegate.entryReaderAdvice();
+        final ActorInstantiator<?> instantiator = delegate.instantiator();
+        instantiator.set("advice", advice);
+        instantiator.set("name", "test");
+        @SuppressWarnings("unchecked")
+        final StateStoreEntryReader<Entry<?>> resumed =
+                world.actorFor(StateStoreEntryReader.class, Definition.has(advice.entryReaderClass, instantiator));
+
+        assertEquals(3L, (long) resumed.size().await());
+        assertEquals(new TestEvents.Event3(), entryAdapterProvider.asSource(resumed.readNext().await()));
+        assertNull(resumed.readNext().await());
+    }
+
     @Before
     public void setUp() throws Exception {
         world = World.startWithDefaults("test-store");
@@ -0,0 +1,62 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.common.Outcome;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadAllResultInterest;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+
+public class MockReadAllResultInterest implements ReadAllResultInterest {
+  private AccessSafely access = AccessSafely.afterCompleting(0);
+
+  public final AtomicReference<Map<String, ReadBundle<?>>> bundles = new AtomicReference<>(Collections.emptyMap());
+  public final AtomicReference<List<String>> notFound = new AtomicReference<>(Collections.emptyList());
+  public final AtomicReference<Result> result = new AtomicReference<>();
+
+  @Override
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public <S> void readAllResultedIn(final Outcome<StorageException, Result> outcome, final Map<String, ReadBundle<S>> bundles, final List<String> notFound, final Object object) {
+    final Result result = outcome.resolve(cause -> cause.result, success -> success);
+    access.writeUsing("readAllResultedIn", new ReadAll(result, (Map) bundles, notFound));
+  }
+
+  public AccessSafely afterCompleting(final int times) {
+    access = AccessSafely
+      .afterCompleting(times)
+      .writingWith("readAllResultedIn", (ReadAll readAll) -> {
+        result.set(readAll.result);
+        bundles.set(readAll.bundles);
+        notFound.set(readAll.notFound);
+      })
+      .readingWith("result", () -> result.get())
+      .readingWith("bundles", () -> bundles.get())
+      .readingWith("notFound", () -> notFound.get());
+
+    return access;
+  }
+
+  private static class ReadAll {
+    final Map<String, ReadBundle<?>> bundles;
+    final List<String> notFound;
+    final Result result;
+
+    ReadAll(final Result result, final Map<String, ReadBundle<?>> bundles, final List<String> notFound) {
+      this.result = result;
+      this.bundles = bundles;
+      this.notFound = notFound;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.common.Outcome;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ScanCursor;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ScanResultInterest;
+
+public class MockScanResultInterest implements ScanResultInterest {
+  private AccessSafely access = AccessSafely.afterCompleting(0);
+
+  public final AtomicInteger chunks = new AtomicInteger(0);
+  public final AtomicInteger exhausted = new AtomicInteger(0);
+  public final List<String> ids = new CopyOnWriteArrayList<>();
+  public final List<Result> results = new CopyOnWriteArrayList<>();
+
+  @Override
+  public <S> void scanResultedIn(final Outcome<StorageException, Result> outcome, final List<ReadBundle<S>> chunk, final ScanCursor cursor, final Object object) {
+    final Result result = outcome.resolve(cause -> cause.result, success -> success);
+    final List<String> chunkIds = new ArrayList<>(chunk.size());
+    for (final ReadBundle<S> bundle : chunk) {
+      chunkIds.add(bundle.id);
+    }
+    access.writeUsing("scanResultedIn", new Scanned(result, chunkIds, cursor.exhausted));
+    cursor.next();
+  }
+
+  public AccessSafely afterCompleting(final int times) {
+    access = AccessSafely
+      .afterCompleting(times)
+      .writingWith("scanResultedIn", (Scanned scanned) -> {
+        chunks.incrementAndGet();
+        if (scanned.exhausted) exhausted.incrementAndGet();
+        ids.addAll(scanned.ids);
+        results.add(scanned.result);
+      })
+      .readingWith("chunks", () -> chunks.get())
+      .readingWith("exhausted", () -> exhausted.get())
+      .readingWith("ids", () -> new ArrayList<>(ids))
+      .readingWith("results", () -> new ArrayList<>(results));
+
+    return access;
+  }
+
+  private static class Scanned {
+    final boolean exhausted;
+    final List<String> ids;
+    final Result result;
+
+    Scanned(final Result result, final List<String> ids, final boolean exhausted) {
+      this.result = result;
+      this.ids = ids;
+      this.exhausted = exhausted;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.common.Outcome;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.StorageException;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.VersionResultInterest;
+
+public class MockVersionResultInterest implements VersionResultInterest {
+  private AccessSafely access = AccessSafely.afterCompleting(0);
+
+  public final AtomicReference<Metadata> metadata = new AtomicReference<>();
+  public final AtomicReference<Result> result = new AtomicReference<>();
+  public final AtomicInteger stateVersion = new AtomicInteger(-1);
+  public final AtomicReference<String> storedType = new AtomicReference<>();
+
+  @Override
+  public void versionResultedIn(final Outcome<StorageException, Result> outcome, final String id, final String storedType, final int typeVersion, final int stateVersion, final Metadata metadata, final Object object) {
+    final Result result = outcome.resolve(cause -> cause.result, success -> success);
+    access.writeUsing("versionResultedIn", new Version(result, storedType, stateVersion, metadata));
+  }
+
+  public AccessSafely afterCompleting(final int times) {
+    access = AccessSafely
+      .afterCompleting(times)
+      .writingWith("versionResultedIn", (Version version) -> {
+        result.set(version.result);
+        storedType.set(version.storedType);
+        stateVersion.set(version.stateVersion);
+        metadata.set(version.metadata);
+      })
+      .readingWith("result", () -> result.get())
+      .readingWith("storedType", () -> storedType.get())
+      .readingWith("stateVersion", () -> stateVersion.get())
+      .readingWith("metadata", () -> metadata.get());
+
+    return access;
+  }
+
+  private static class Version {
+    final Metadata metadata;
+    final Result result;
+    final int stateVersion;
+    final String storedType;
+
+    Version(final Result result, final String storedType, final int stateVersion, final Metadata metadata) {
+      this.result = result;
+      this.storedType = storedType;
+      this.stateVersion = stateVersion;
+      this.metadata = metadata;
+    }
+  }
+}
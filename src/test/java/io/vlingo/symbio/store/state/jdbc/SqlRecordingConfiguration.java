@@ -0,0 +1,96 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.common.jdbc.Configuration;
+import io.vlingo.symbio.store.common.jdbc.DatabaseType;
+
+/**
+ * A {@code Configuration} whose connection records the SQL prepared or executed through it
+ * and answers empty results, so that the statements a delegate sends to its database
+ * can be asserted without that database.
+ */
+public class SqlRecordingConfiguration extends Configuration {
+  private static final ConfigurationInterest NoInterest = new ConfigurationInterest() {
+    @Override public void afterConnect(final Connection connection) { }
+    @Override public void beforeConnect(final Configuration configuration) { }
+    @Override public void createDatabase(final Connection connection, final String databaseName) { }
+    @Override public void dropDatabase(final Connection connection, final String databaseName) { }
+  };
+
+  public SqlRecordingConfiguration(final DatabaseType databaseType, final String driverClassname, final DataFormat format) throws Exception {
+    super(databaseType, NoInterest, driverClassname, format, "jdbc:recording:", "recording", "user", "password", false, "test", true);
+  }
+
+  /**
+   * Answer the SQL sent through my connection, in order.
+   * @return {@code List<String>}
+   */
+  public List<String> recorded() {
+    return Collections.unmodifiableList(((Recorder) Proxy.getInvocationHandler(connection)).sql);
+  }
+
+  @Override
+  public Connection connectionWith(final Properties driverProperties) {
+    return connection;
+  }
+
+  @Override
+  protected Connection connect() {
+    return Recorder.proxyOf(Connection.class, new ArrayList<>());
+  }
+
+  private static final class Recorder implements InvocationHandler {
+    final List<String> sql;
+
+    static <P> P proxyOf(final Class<P> type, final List<String> sql) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Recorder(sql)));
+    }
+
+    Recorder(final List<String> sql) {
+      this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+      switch (method.getName()) {
+      case "equals": return proxy == args[0];
+      case "hashCode": return System.identityHashCode(proxy);
+      case "toString": return "Recording" + method.getDeclaringClass().getSimpleName();
+      }
+
+      if (args != null && args.length > 0 && args[0] instanceof String &&
+              (method.getName().startsWith("prepare") || method.getName().startsWith("execute") || method.getName().equals("addBatch"))) {
+        sql.add((String) args[0]);
+      }
+
+      final Class<?> type = method.getReturnType();
+      if (type.isInterface() && type.getName().startsWith("java.sql.")) return proxyOf(type, sql);
+      if (type.isArray()) return Array.newInstance(type.getComponentType(), 0);
+      if (type == boolean.class) return false;
+      if (type == int.class) return 0;
+      if (type == long.class) return 0L;
+      if (type == short.class) return (short) 0;
+      if (type == byte.class) return (byte) 0;
+      if (type == float.class) return 0F;
+      if (type == double.class) return 0D;
+      return null;
+    }
+  }
+}
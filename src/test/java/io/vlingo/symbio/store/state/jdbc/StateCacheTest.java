@@ -0,0 +1,110 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.State.TextState;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.jdbc.StateCache.EvictionPolicy;
+
+public class StateCacheTest {
+  private static final String StoreName = "Entity1";
+
+  @Test
+  public void testThatCachedStatesAreHitAndMissed() {
+    final StateCache cache = StateCache.withMaximumEntries(10);
+
+    cache.put(StoreName, stateOf("1", 1));
+
+    final TextState hit = cache.get(StoreName, "1");
+    assertNotNull(hit);
+    assertEquals(1, hit.dataVersion);
+    assertNull(cache.get(StoreName, "2"));
+    assertNull(cache.get("Other", "1"));
+
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testThatWritesReplaceCachedStates() {
+    final StateCache cache = StateCache.withMaximumEntries(10);
+
+    cache.put(StoreName, stateOf("1", 1));
+    final long bytes = cache.bytes();
+    cache.put(StoreName, stateOf("1", 2));
+
+    assertEquals(2, ((TextState) cache.get(StoreName, "1")).dataVersion);
+    assertEquals(1, cache.size());
+    assertEquals(bytes, cache.bytes());
+
+    cache.invalidate(StoreName, "1");
+    assertNull(cache.get(StoreName, "1"));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.bytes());
+  }
+
+  @Test
+  public void testThatLeastRecentlyUsedIsEvicted() {
+    final StateCache cache = new StateCache(2, Long.MAX_VALUE, EvictionPolicy.LeastRecentlyUsed);
+
+    cache.put(StoreName, stateOf("1", 1));
+    cache.put(StoreName, stateOf("2", 1));
+    cache.get(StoreName, "1");
+    cache.put(StoreName, stateOf("3", 1));
+
+    assertNotNull(cache.get(StoreName, "1"));
+    assertNull(cache.get(StoreName, "2"));
+    assertNotNull(cache.get(StoreName, "3"));
+    assertEquals(1, cache.evictions());
+  }
+
+  @Test
+  public void testThatFirstInIsEvicted() {
+    final StateCache cache = new StateCache(2, Long.MAX_VALUE, EvictionPolicy.FirstInFirstOut);
+
+    cache.put(StoreName, stateOf("1", 1));
+    cache.put(StoreName, stateOf("2", 1));
+    cache.get(StoreName, "1");
+    cache.put(StoreName, stateOf("3", 1));
+
+    assertNull(cache.get(StoreName, "1"));
+    assertNotNull(cache.get(StoreName, "2"));
+    assertNotNull(cache.get(StoreName, "3"));
+    assertEquals(1, cache.evictions());
+  }
+
+  @Test
+  public void testThatMaximumBytesIsRespected() {
+    final TextState state = stateOf("1", 1);
+    final StateCache probe = StateCache.withMaximumEntries(1);
+    probe.put(StoreName, state);
+    final long bytesPerState = probe.bytes();
+
+    final StateCache cache = StateCache.withMaximumBytes(bytesPerState * 3);
+    for (int id = 1; id <= 5; ++id) {
+      cache.put(StoreName, stateOf("" + id, 1));
+    }
+
+    assertEquals(3, cache.size());
+    assertEquals(2, cache.evictions());
+    assertTrue(cache.bytes() <= bytesPerState * 3);
+  }
+
+  private TextState stateOf(final String id, final int dataVersion) {
+    return new TextState(id, Entity1.class, 1, "{\"id\":\"" + id + "\",\"value\":1}", dataVersion, Metadata.with("", "op"));
+  }
+}
@@ -7,16 +7,87 @@
 
 package io.vlingo.symbio.store.state.jdbc.hsqldb;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
 import java.util.UUID;
 
+import org.junit.Test;
+
+import io.vlingo.actors.ActorInstantiator;
+import io.vlingo.actors.Definition;
+import io.vlingo.actors.testkit.AccessSafely;
 import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
+import io.vlingo.symbio.store.common.jdbc.StateHistory;
 import io.vlingo.symbio.store.common.jdbc.hsqldb.HSQLDBConfigurationProvider;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.MockResultInterest;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.StateToWrite;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActorTest;
+import io.vlingo.symbio.store.state.jdbc.JsonQuery;
+import io.vlingo.symbio.store.state.jdbc.MockReadAllResultInterest;
 
 public class HSQLDBJDBCStateStoreActorTest extends JDBCStateStoreActorTest {
 
+  @Test
+  public void testThatJsonQueryIsUnsupported() {
+    final MockReadAllResultInterest readAllInterest = new MockReadAllResultInterest();
+    final AccessSafely accessReadAll = readAllInterest.afterCompleting(1);
+
+    store.readAllMatching(Entity1.class, JsonQuery.attributeEquals("value", "1"), readAllInterest);
+
+    assertEquals(Result.Failure, accessReadAll.readFrom("result"));
+    assertTrue(accessReadAll.<Map<?,?>>readFrom("bundles").isEmpty());
+  }
+
+  @Test
+  public void testThatWriteAllArchivesEachReplacedStateOfARepeatedId() throws Exception {
+    final TestConfiguration historyConfiguration = testConfiguration(DataFormat.Text);
+    historyConfiguration.usingStateHistory(StateHistory.keepingAll());
+    final HSQLDBStorageDelegate historyDelegate = new HSQLDBStorageDelegate(historyConfiguration, world.defaultLogger());
+
+    try {
+      final ActorInstantiator<?> instantiator = new JDBCStateStoreInstantiator();
+      instantiator.set("dispatcher", dispatcher);
+      instantiator.set("delegate", historyDelegate);
+      final JDBCStateStore historyStore = world.actorFor(JDBCStateStore.class, Definition.has(JDBCStateStoreActor.class, instantiator));
+
+      final AccessSafely accessInterest = interest.afterCompleting(8);
+      dispatcher.afterCompleting(8);
+
+      historyStore.writeAll(Arrays.asList(
+              StateToWrite.with("123", new Entity1("123", 1), 1),
+              StateToWrite.with("234", new Entity1("234", 1), 1),
+              StateToWrite.with("123", new Entity1("123", 2), 2),
+              StateToWrite.with("123", new Entity1("123", 3), 3)),
+              interest);
+
+      assertEquals(4, (int) accessInterest.readFrom("writeTextResultedIn"));
+      assertEquals(0, (int) accessInterest.readFrom("errorCausesCount"));
+
+      for (int version = 1; version <= 3; ++version) {
+        interest = new MockResultInterest();
+        final AccessSafely accessRead = interest.afterCompleting(1);
+
+        historyStore.readAtVersion("123", Entity1.class, version, interest);
+
+        assertEquals(Result.Success, accessRead.readFrom("textReadResult"));
+        assertEquals(version, ((Entity1) accessRead.readFrom("stateHolder")).value);
+      }
+    } finally {
+      historyDelegate.close();
+      historyConfiguration.cleanUp();
+    }
+  }
+
   @Override
   protected StorageDelegate delegate() throws Exception {
     System.out.println("Starting: HSQLDBJDBCTextStateStoreActorTest: delegate()");
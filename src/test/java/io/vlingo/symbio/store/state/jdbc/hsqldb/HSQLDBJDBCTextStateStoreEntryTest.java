@@ -8,7 +8,9 @@
 package io.vlingo.symbio.store.state.jdbc.hsqldb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -27,9 +29,11 @@ import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.EntryAdapterProvider;
 import io.vlingo.symbio.StateAdapterProvider;
 import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.EntryReader;
 import io.vlingo.symbio.store.TestEvents.Event1;
 import io.vlingo.symbio.store.TestEvents.Event2;
 import io.vlingo.symbio.store.TestEvents.Event3;
+import io.vlingo.symbio.store.common.jdbc.CheckpointPolicy;
 import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
 import io.vlingo.symbio.store.common.jdbc.hsqldb.HSQLDBConfigurationProvider;
 import io.vlingo.symbio.store.state.Entity1;
@@ -38,6 +42,7 @@ import io.vlingo.symbio.store.state.MockResultInterest;
 import io.vlingo.symbio.store.state.MockTextDispatcher;
 import io.vlingo.symbio.store.state.StateStore;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
+import io.vlingo.symbio.store.state.StateStoreEntryReader;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
@@ -92,6 +97,73 @@ public class HSQLDBJDBCTextStateStoreEntryTest {
     assertEquals(new Event3(), entryAdapterProvider.asSource(readEntries.get(2)));
   }
 
+  @Test
+  public void testThatReaderResumesFromCheckpointedOffset() {
+    configuration.usingEntryReaderCheckpoints(CheckpointPolicy.everyEntries(2));
+
+    final AccessSafely accessInterest1 = interest.afterCompleting(3);
+    dispatcher.afterCompleting(0);
+
+    final Entity1 entity1 = new Entity1("123", 1);
+    store.write(entity1.id, entity1, 1, Arrays.asList(new Event1()), interest);
+
+    final Entity1 entity2 = new Entity1("234", 2);
+    store.write(entity2.id, entity2, 1, Arrays.asList(new Event2()), interest);
+
+    final Entity1 entity3 = new Entity1("345", 3);
+    store.write(entity3.id, entity3, 1, Arrays.asList(new Event3()), interest);
+
+    assertEquals(3, (int) accessInterest1.readFrom("textWriteAccumulatedSourcesCount"));
+
+    final List<Entry<?>> firstRead = store.entryReader("test")
+      .andThenTo(reader -> reader.readNext(2))
+      .await();
+
+    assertEquals(2, firstRead.size());
+    assertEquals(new Event2(), entryAdapterProvider.asSource(firstRead.get(1)));
+
+    final EntryReader.Advice advice = delegate.entryReaderAdvice();
+    final ActorInstantiator<?> instantiator = delegate.instantiator();
+    instantiator.set("advice", advice);
+    instantiator.set("name", "test");
+    @SuppressWarnings("unchecked")
+    final StateStoreEntryReader<Entry<?>> resumed =
+            world.actorFor(StateStoreEntryReader.class, Definition.has(advice.entryReaderClass, instantiator));
+
+    assertEquals(3L, (long) resumed.size().await());
+    assertEquals(new Event3(), entryAdapterProvider.asSource(resumed.readNext().await()));
+    assertNull(resumed.readNext().await());
+  }
+
+  @Test
+  public void testThatSizeCountsEntriesAcrossSkippedIdentities() throws Exception {
+    final AccessSafely accessInterest1 = interest.afterCompleting(3);
+    dispatcher.afterCompleting(0);
+
+    final Entity1 entity1 = new Entity1("123", 1);
+    store.write(entity1.id, entity1, 1, Arrays.asList(new Event1()), interest);
+
+    final Entity1 entity2 = new Entity1("234", 2);
+    store.write(entity2.id, entity2, 1, Arrays.asList(new Event2()), interest);
+
+    final Entity1 entity3 = new Entity1("345", 3);
+    store.write(entity3.id, entity3, 1, Arrays.asList(new Event3()), interest);
+
+    assertEquals(3, (int) accessInterest1.readFrom("textWriteAccumulatedSourcesCount"));
+
+    // leave a gap in the identities, as a rolled back append does
+    try (final PreparedStatement delete = configuration.connection.prepareStatement(
+            "DELETE FROM " + HSQLDBQueries.TBL_VLINGO_SYMBIO_STATE_ENTRY + " WHERE E_TYPE = ?")) {
+      delete.setString(1, Event2.class.getName());
+      assertEquals(1, delete.executeUpdate());
+    }
+    configuration.connection.commit();
+
+    final long size = store.entryReader("test").andThenTo(reader -> reader.size()).await();
+
+    assertEquals(2L, size);
+  }
+
   @Before
   public void setUp() throws Exception {
     world = World.startWithDefaults("test-store");
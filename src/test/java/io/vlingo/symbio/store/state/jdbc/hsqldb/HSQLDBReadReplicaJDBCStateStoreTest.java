@@ -0,0 +1,116 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc.hsqldb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.actors.Definition;
+import io.vlingo.actors.World;
+import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.symbio.StateAdapterProvider;
+import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.common.jdbc.Configuration;
+import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
+import io.vlingo.symbio.store.common.jdbc.hsqldb.HSQLDBConfigurationProvider;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.Entity1.Entity1StateAdapter;
+import io.vlingo.symbio.store.state.MockResultInterest;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActor.JDBCStateStoreInstantiator;
+import io.vlingo.symbio.store.state.jdbc.MockReadAllResultInterest;
+import io.vlingo.symbio.store.state.jdbc.ReadReplicaJDBCStateStore;
+
+public class HSQLDBReadReplicaJDBCStateStoreTest {
+  private TestConfiguration configuration;
+  private JDBCStateStore primary;
+  private ReadReplicaJDBCStateStore store;
+  private World world;
+
+  @Test
+  public void testThatRecentWriteIsReadFromPrimary() {
+    store = ReadReplicaJDBCStateStore.using(world.stage(), primary, replicaDelegate(), 2, 60_000L);
+
+    final MockResultInterest writeInterest = new MockResultInterest();
+    final AccessSafely accessWrite = writeInterest.afterCompleting(1);
+    final MockResultInterest readInterest = new MockResultInterest();
+    final AccessSafely accessRead = readInterest.afterCompleting(1);
+
+    final Entity1 entity = new Entity1("123", 5);
+    store.write(entity.id, entity, 1, writeInterest);
+    store.read(entity.id, Entity1.class, readInterest);
+
+    assertEquals(1, (int) accessWrite.readFrom("writeTextResultedIn"));
+    assertEquals(Result.Success, accessRead.readFrom("textReadResult"));
+    final Entity1 readEntity = accessRead.readFrom("stateHolder");
+    assertEquals(entity.value, readEntity.value);
+  }
+
+  @Test
+  public void testThatReadersReadWrittenStates() {
+    store = ReadReplicaJDBCStateStore.using(world.stage(), primary, replicaDelegate(), 2, 0L);
+
+    final MockResultInterest writeInterest = new MockResultInterest();
+    final AccessSafely accessWrite = writeInterest.afterCompleting(2);
+
+    final Entity1 entity1 = new Entity1("123", 1);
+    final Entity1 entity2 = new Entity1("234", 2);
+    store.write(entity1.id, entity1, 1, writeInterest);
+    store.write(entity2.id, entity2, 1, writeInterest);
+
+    assertEquals(2, (int) accessWrite.readFrom("writeTextResultedIn"));
+
+    final MockReadAllResultInterest readAllInterest = new MockReadAllResultInterest();
+    final AccessSafely accessReadAll = readAllInterest.afterCompleting(1);
+
+    store.readAll(Arrays.asList("234", "123"), Entity1.class, readAllInterest);
+
+    assertEquals(Result.Success, accessReadAll.readFrom("result"));
+    final Map<String, ReadBundle<?>> bundles = accessReadAll.readFrom("bundles");
+    assertEquals(Arrays.asList("234", "123"), new ArrayList<>(bundles.keySet()));
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    world = World.startWithDefaults("test-read-replica-store");
+
+    StateTypeStateStoreMap.stateTypeToStoreName(Entity1.class, Entity1.class.getSimpleName());
+    StateAdapterProvider.instance(world).registerAdapter(Entity1.class, new Entity1StateAdapter());
+
+    configuration = HSQLDBConfigurationProvider.testConfiguration(DataFormat.Text, UUID.randomUUID().toString());
+
+    final JDBCStateStoreInstantiator instantiator = new JDBCStateStoreInstantiator();
+    instantiator.set("delegate", new HSQLDBStorageDelegate(configuration, world.defaultLogger()));
+
+    primary = world.actorFor(JDBCStateStore.class, Definition.has(JDBCStateStoreActor.class, instantiator));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (store != null) store.stop();
+    world.terminate();
+    configuration.cleanUp();
+  }
+
+  private HSQLDBStorageDelegate replicaDelegate() {
+    // the in-memory database serves as its own replica
+    return new HSQLDBStorageDelegate(Configuration.replicaOf(configuration, configuration.connectionProvider.url), world.defaultLogger());
+  }
+}
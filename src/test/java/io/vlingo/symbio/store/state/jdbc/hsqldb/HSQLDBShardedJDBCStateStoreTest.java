@@ -0,0 +1,130 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc.hsqldb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.actors.World;
+import io.vlingo.actors.testkit.AccessSafely;
+import io.vlingo.symbio.StateAdapterProvider;
+import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.Result;
+import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
+import io.vlingo.symbio.store.common.jdbc.DispatcherInstrumentation;
+import io.vlingo.symbio.store.common.jdbc.hsqldb.HSQLDBConfigurationProvider;
+import io.vlingo.symbio.store.dispatch.Dispatcher;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.Entity1.Entity1StateAdapter;
+import io.vlingo.symbio.store.state.MockResultInterest;
+import io.vlingo.symbio.store.state.MockTextDispatcher;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+import io.vlingo.symbio.store.state.jdbc.JDBCStorageDelegate;
+import io.vlingo.symbio.store.state.jdbc.MockReadAllResultInterest;
+import io.vlingo.symbio.store.state.jdbc.ShardedJDBCStateStore;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+
+public class HSQLDBShardedJDBCStateStoreTest {
+  private static final int Shards = 4;
+
+  private TestConfiguration configuration;
+  private JDBCStorageDelegate<?> delegate;
+  private ShardedJDBCStateStore store;
+  private World world;
+
+  @Test
+  public void testThatShardsWriteAndReadAll() {
+    final int total = 20;
+    final MockResultInterest interest = new MockResultInterest();
+    final AccessSafely accessInterest = interest.afterCompleting(total);
+
+    final List<String> ids = new ArrayList<>();
+    for (int index = 0; index < total; ++index) {
+      final Entity1 entity = new Entity1("" + index, index);
+      ids.add(entity.id);
+      store.write(entity.id, entity, 1, interest);
+    }
+
+    assertEquals(total, (int) accessInterest.readFrom("writeTextResultedIn"));
+
+    final List<String> requested = new ArrayList<>(ids);
+    Collections.reverse(requested);
+    requested.add(1, "missing");
+
+    final MockReadAllResultInterest readAllInterest = new MockReadAllResultInterest();
+    final AccessSafely accessReadAll = readAllInterest.afterCompleting(1);
+
+    store.readAll(requested, Entity1.class, readAllInterest);
+
+    assertEquals(Result.Success, accessReadAll.readFrom("result"));
+    final Map<String, ReadBundle<?>> bundles = accessReadAll.readFrom("bundles");
+    requested.remove("missing");
+    assertEquals(requested, new ArrayList<>(bundles.keySet()));
+    assertEquals(7, ((Entity1) bundles.get("7").state).value);
+    assertEquals(Collections.singletonList("missing"), accessReadAll.readFrom("notFound"));
+  }
+
+  @Test
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public void testThatAllShardsReportToOneInstrumentation() {
+    final int total = 20;
+    final MockResultInterest interest = new MockResultInterest();
+    // each write is also confirmed to the interest when dispatched
+    final AccessSafely accessInterest = interest.afterCompleting(total * 2);
+    final MockTextDispatcher dispatcher = new MockTextDispatcher(0, interest);
+    dispatcher.afterCompleting(total);
+
+    final JDBCStorageDelegate<?> dispatchingDelegate = (JDBCStorageDelegate<?>) delegate.copy();
+    final ShardedJDBCStateStore dispatchingStore = ShardedJDBCStateStore.using(world.stage(), (Dispatcher) dispatcher, dispatchingDelegate, Shards);
+
+    for (int index = 0; index < total; ++index) {
+      final Entity1 entity = new Entity1("" + index, index);
+      dispatchingStore.write(entity.id, entity, 1, interest);
+    }
+
+    assertEquals(total, (int) accessInterest.readFrom("writeTextResultedIn"));
+    assertEquals(total, (int) accessInterest.readFrom("confirmDispatchedResultedIn"));
+
+    // a confirmation records its latency only when it matches the commit of its dispatchable
+    final DispatcherInstrumentation instrumentation = dispatchingDelegate.instrumentation();
+    assertEquals(total, instrumentation.snapshot().confirmations);
+    assertEquals(total, instrumentation.confirmationLatency().count());
+
+    dispatchingStore.stop();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    world = World.startWithDefaults("test-sharded-store");
+
+    StateTypeStateStoreMap.stateTypeToStoreName(Entity1.class, Entity1.class.getSimpleName());
+    StateAdapterProvider.instance(world).registerAdapter(Entity1.class, new Entity1StateAdapter());
+
+    configuration = HSQLDBConfigurationProvider.testConfiguration(DataFormat.Text, UUID.randomUUID().toString());
+
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    store = ShardedJDBCStateStore.using(world.stage(), null, delegate, Shards);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.stop();
+    world.terminate();
+    configuration.cleanUp();
+  }
+}
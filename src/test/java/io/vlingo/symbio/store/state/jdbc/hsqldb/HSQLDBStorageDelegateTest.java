@@ -8,25 +8,48 @@
 package io.vlingo.symbio.store.state.jdbc.hsqldb;
 
 import static io.vlingo.symbio.store.common.jdbc.hsqldb.HSQLDBConfigurationProvider.testConfiguration;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import io.vlingo.actors.World;
+import io.vlingo.symbio.Entry;
 import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.State;
 import io.vlingo.symbio.State.BinaryState;
 import io.vlingo.symbio.State.TextState;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
+import io.vlingo.symbio.store.common.jdbc.PayloadCodec;
+import io.vlingo.symbio.store.common.jdbc.StateExpiry;
+import io.vlingo.symbio.store.common.jdbc.StateHistory;
+import io.vlingo.symbio.store.dispatch.Dispatchable;
 import io.vlingo.symbio.store.state.Entity1;
 import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+import io.vlingo.symbio.store.state.jdbc.BulkStateTransfer;
+import io.vlingo.symbio.store.state.jdbc.BulkStateTransfer.FileFormat;
 
 public class HSQLDBStorageDelegateTest {
   private TestConfiguration configuration;
@@ -87,7 +110,7 @@ public class HSQLDBStorageDelegateTest {
 
     assertEquals(writeState1, readState1);
 
-    final TextState writeState2 = new TextState("123", Entity1.class, 1, "data2", 1, Metadata.with("metadata2", "op2"));
+    final TextState writeState2 = new TextState("123", Entity1.class, 1, "data2", 2, Metadata.with("metadata2", "op2"));
 
     delegate.beginWrite();
     final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, writeState2);
@@ -103,6 +126,11 @@ public class HSQLDBStorageDelegateTest {
     assertEquals(writeState2, readState2);
     assertNotEquals(0, writeState1.compareTo(readState2));
     assertNotEquals(0, writeState2.compareTo(readState1));
+
+    delegate.beginWrite();
+    final PreparedStatement staleWriteStatement = delegate.writeExpressionFor(entity1StoreName, writeState1);
+    assertEquals(0, staleWriteStatement.executeUpdate());
+    delegate.fail();
   }
 
   @Test
@@ -128,6 +156,424 @@ public class HSQLDBStorageDelegateTest {
     assertEquals(writeState, readState);
   }
 
+  @Test
+  public void testThatCompressedBinaryWritesRead() throws Exception {
+    configuration = testConfiguration(DataFormat.Binary);
+    configuration.usingPayloadCodec(PayloadCodec.deflate(16));
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    final byte[] data = "data data data data data data data data".getBytes();
+    final BinaryState writeState = new BinaryState("123", Entity1.class, 1, data, 1, Metadata.with("metadata", "op"));
+
+    delegate.beginWrite();
+    final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, writeState);
+    writeStatement.executeUpdate();
+    delegate.complete();
+
+    delegate.beginRead();
+    final PreparedStatement readStatement = delegate.readExpressionFor(entity1StoreName, "123");
+    final ResultSet result = readStatement.executeQuery();
+    final BinaryState readState = delegate.stateFrom(result, "123");
+    delegate.complete();
+
+    assertEquals(writeState, readState);
+    assertArrayEquals(data, readState.data);
+  }
+
+  @Test
+  public void testThatEncodedTextWritesReadWithLegacyRows() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingPayloadCodec(PayloadCodec.deflate(16));
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    final String data = "{ \"data\" : \"data data data data data data data data data data\" }";
+    final TextState writeState = new TextState("123", Entity1.class, 1, data, 1, Metadata.with("metadata", "op"));
+
+    delegate.beginWrite();
+    final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, writeState);
+    writeStatement.executeUpdate();
+    delegate.complete();
+
+    // a row stored before the codec, in a text column converted to binary as UTF-8
+    final String legacyData = "{ \"data\" : \"\u00e9t\u00e9\" }";
+    try (final PreparedStatement insert = configuration.connection.prepareStatement(
+            "INSERT INTO TBL_ENTITY1 (S_ID, S_TYPE, S_TYPE_VERSION, S_DATA, S_DATA_VERSION, S_METADATA_VALUE, S_METADATA_OP) " +
+            "VALUES ('456', ?, 1, ?, 1, 'metadata', 'op')")) {
+      insert.setString(1, Entity1.class.getName());
+      insert.setBytes(2, legacyData.getBytes(StandardCharsets.UTF_8));
+      insert.executeUpdate();
+    }
+    configuration.connection.commit();
+
+    delegate.beginRead();
+    final PreparedStatement readStatement1 = delegate.readExpressionFor(entity1StoreName, "123");
+    final TextState readState1 = delegate.stateFrom(readStatement1.executeQuery(), "123");
+    final PreparedStatement readStatement2 = delegate.readExpressionFor(entity1StoreName, "456");
+    final TextState readState2 = delegate.stateFrom(readStatement2.executeQuery(), "456");
+    delegate.complete();
+
+    assertEquals(writeState, readState1);
+    assertEquals(data, readState1.data);
+    assertEquals(legacyData, readState2.data);
+
+    try (final PreparedStatement size = configuration.connection.prepareStatement("SELECT OCTET_LENGTH(S_DATA) FROM TBL_ENTITY1 WHERE S_ID = '123'");
+         final ResultSet result = size.executeQuery()) {
+      assertTrue(result.next());
+      assertTrue(result.getLong(1) < data.length());
+    }
+  }
+
+  @Test
+  public void testThatLargeBinaryWritesRead() throws Exception {
+    configuration = testConfiguration(DataFormat.Binary);
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    final byte[] data = new byte[4 * 1024 * 1024 + 17];
+    new Random(11L).nextBytes(data);
+    final BinaryState writeState = new BinaryState("123", Entity1.class, 1, data, 1, Metadata.with("metadata", "op"));
+
+    delegate.beginWrite();
+    final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, writeState);
+    writeStatement.executeUpdate();
+    delegate.complete();
+
+    delegate.beginRead();
+    final PreparedStatement readStatement = delegate.readExpressionFor(entity1StoreName, "123");
+    final ResultSet result = readStatement.executeQuery();
+    final BinaryState readState = delegate.stateFrom(result, "123");
+    delegate.complete();
+
+    assertEquals(writeState, readState);
+    assertArrayEquals(data, readState.data);
+  }
+
+  @Test
+  public void testThatExpiredStatesAreNotReadAndArePurged() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingStateExpiry(StateExpiry.after(Entity1.class, 60_000L));
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    final long now = System.currentTimeMillis();
+    final TextState expired = new TextState("123", Entity1.class, 1, "data1", 1, Metadata.with(StateExpiry.At.of(now - 1_000L), "value", "op"));
+    final TextState living = new TextState("234", Entity1.class, 1, "data2", 1, Metadata.with("value", "op"));
+
+    delegate.beginWrite();
+    final PreparedStatement writeStatement1 = delegate.writeExpressionFor(entity1StoreName, expired);
+    writeStatement1.executeUpdate();
+    final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, living);
+    writeStatement2.executeUpdate();
+    delegate.complete();
+
+    delegate.beginRead();
+    final PreparedStatement readStatement1 = delegate.readExpressionFor(entity1StoreName, "123");
+    final TextState readState1 = delegate.stateFrom(readStatement1.executeQuery(), "123");
+    final PreparedStatement readStatement2 = delegate.readExpressionFor(entity1StoreName, "234");
+    final TextState readState2 = delegate.stateFrom(readStatement2.executeQuery(), "234");
+    final PreparedStatement readAllStatement = delegate.readAllExpressionFor(entity1StoreName, Arrays.asList("123", "234"));
+    final ResultSet readAllResult = readAllStatement.executeQuery();
+    int readAllCount = 0;
+    while (readAllResult.next()) ++readAllCount;
+    final PreparedStatement countStatement = delegate.countExpressionFor(entity1StoreName);
+    final ResultSet countResult = countStatement.executeQuery();
+    countResult.next();
+    final long count = countResult.getLong(1);
+    delegate.complete();
+
+    assertTrue(readState1.isEmpty());
+    assertEquals("data2", readState2.data);
+    assertEquals(1, readAllCount);
+    assertEquals(1L, count);
+
+    delegate.beginWrite();
+    final PreparedStatement purgeStatement = delegate.purgeExpiredExpressionFor(entity1StoreName, System.currentTimeMillis(), 10);
+    assertEquals(1, purgeStatement.executeUpdate());
+    assertEquals(0, purgeStatement.executeUpdate());
+    delegate.complete();
+  }
+
+  @Test
+  public void testThatHistoryIsArchivedReadAndPurged() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingStateHistory(StateHistory.keepingVersions(1));
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    // versions with gaps, of which only the latest archived one is retained
+    for (final int version : new int[] { 1, 3, 7 }) {
+      final TextState writeState = new TextState("123", Entity1.class, 1, "data" + version, version, Metadata.with("value", "op"));
+      delegate.beginWrite();
+      final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, writeState);
+      writeStatement.executeUpdate();
+      delegate.complete();
+    }
+
+    delegate.beginRead();
+    final PreparedStatement readStatement1 = delegate.readHistoryExpressionFor(entity1StoreName, "123", 1);
+    final TextState readState1 = delegate.stateFrom(readStatement1.executeQuery(), "123");
+    final PreparedStatement readStatement3 = delegate.readHistoryExpressionFor(entity1StoreName, "123", 3);
+    final TextState readState3 = delegate.stateFrom(readStatement3.executeQuery(), "123");
+    final PreparedStatement readStatement7 = delegate.readHistoryExpressionFor(entity1StoreName, "123", 7);
+    final TextState readState7 = delegate.stateFrom(readStatement7.executeQuery(), "123");
+    delegate.complete();
+
+    assertEquals("data1", readState1.data);
+    assertEquals(1, readState1.dataVersion);
+    assertEquals("data3", readState3.data);
+    assertEquals("data7", readState7.data);
+
+    delegate.beginWrite();
+    final PreparedStatement versionsStatement = delegate.historyVersionsExpressionFor(entity1StoreName, null, 10);
+    final ResultSet versions = versionsStatement.executeQuery();
+    assertTrue(versions.next());
+    assertEquals("123", versions.getString(1));
+    assertEquals(1, versions.getInt(2));
+    assertEquals(3, versions.getInt(3));
+    assertFalse(versions.next());
+    versions.close();
+    final PreparedStatement walkedStatement = delegate.historyVersionsExpressionFor(entity1StoreName, "123", 10);
+    final ResultSet walked = walkedStatement.executeQuery();
+    assertFalse(walked.next());
+    walked.close();
+    final PreparedStatement purgeStatement = delegate.purgeHistoryVersionsExpressionFor(entity1StoreName, "123", 3 - 1);
+    assertEquals(1, purgeStatement.executeUpdate());
+    assertEquals(0, purgeStatement.executeUpdate());
+    delegate.complete();
+
+    delegate.beginRead();
+    final PreparedStatement purgedStatement = delegate.readHistoryExpressionFor(entity1StoreName, "123", 1);
+    final TextState purgedState = delegate.stateFrom(purgedStatement.executeQuery(), "123");
+    final PreparedStatement retainedStatement = delegate.readHistoryExpressionFor(entity1StoreName, "123", 3);
+    final TextState retainedState = delegate.stateFrom(retainedStatement.executeQuery(), "123");
+    delegate.complete();
+
+    assertTrue(purgedState.isEmpty());
+    assertEquals("data3", retainedState.data);
+  }
+
+  @Test
+  public void testThatConcurrentWritesOfOneVersionArchiveOnce() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingStateHistory(StateHistory.keepingAll());
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+    final HSQLDBStorageDelegate competing = (HSQLDBStorageDelegate) delegate.copy();
+
+    final TextState writeState1 = new TextState("123", Entity1.class, 1, "data1", 1, Metadata.with("value", "op"));
+    delegate.beginWrite();
+    final PreparedStatement writeStatement1 = delegate.writeExpressionFor(entity1StoreName, writeState1);
+    writeStatement1.executeUpdate();
+    delegate.complete();
+
+    // the competing write of the same version waits on the uncommitted one, and then updates nothing
+    final TextState writeState2 = new TextState("123", Entity1.class, 1, "data2", 2, Metadata.with("value", "op"));
+    final TextState competingState2 = new TextState("123", Entity1.class, 1, "competing2", 2, Metadata.with("value", "op"));
+    delegate.beginWrite();
+    final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, writeState2);
+    assertEquals(1, writeStatement2.executeUpdate());
+    final int[] competingUpdates = { -1 };
+    final Exception[] competingFailure = { null };
+    final Thread competingWriter = new Thread(() -> {
+      try {
+        competing.beginWrite();
+        final PreparedStatement competingStatement = competing.writeExpressionFor(entity1StoreName, competingState2);
+        competingUpdates[0] = competingStatement.executeUpdate();
+        competing.complete();
+      } catch (final Exception e) {
+        competing.fail();
+        competingFailure[0] = e;
+      }
+    });
+    competingWriter.start();
+    Thread.sleep(200);
+    delegate.complete();
+    competingWriter.join(5_000);
+
+    assertNull(competingFailure[0]);
+    assertEquals(0, competingUpdates[0]);
+
+    delegate.beginRead();
+    final PreparedStatement archivedStatement = delegate.readHistoryExpressionFor(entity1StoreName, "123", 1);
+    final TextState archivedState = delegate.stateFrom(archivedStatement.executeQuery(), "123");
+    final PreparedStatement currentStatement = delegate.readHistoryExpressionFor(entity1StoreName, "123", 2);
+    final TextState currentState = delegate.stateFrom(currentStatement.executeQuery(), "123");
+    final PreparedStatement versionsStatement = delegate.historyVersionsExpressionFor(entity1StoreName, null, 10);
+    final ResultSet versions = versionsStatement.executeQuery();
+    assertTrue(versions.next());
+    assertEquals(1, versions.getInt(3));
+    versions.close();
+    delegate.complete();
+    competing.close();
+
+    assertEquals("data1", archivedState.data);
+    assertEquals("data2", currentState.data);
+  }
+
+  @Test
+  public void testThatChangesAreReadInOrderOfWrites() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingStateChanges(true);
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    delegate.beginWrite();
+    for (final String id : Arrays.asList("123", "234", "345")) {
+      final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, new TextState(id, Entity1.class, 1, "data1", 1, Metadata.with("value", "op")));
+      writeStatement.executeUpdate();
+    }
+    final PreparedStatement updateStatement = delegate.writeExpressionFor(entity1StoreName, new TextState("123", Entity1.class, 1, "data2", 2, Metadata.with("value", "op")));
+    updateStatement.executeUpdate();
+    delegate.complete();
+
+    delegate.beginRead();
+    final List<String> ids = new ArrayList<>();
+    final List<Long> lastSequences = new ArrayList<>();
+    long lastSequence = 0;
+    for (int batch = 0; batch < 3; ++batch) {
+      final PreparedStatement changesStatement = delegate.readChangesExpressionFor(entity1StoreName, lastSequence, 2);
+      try (final ResultSet result = changesStatement.executeQuery()) {
+        while (result.next()) {
+          final TextState changed = delegate.currentStateFrom(result, result.getString(7));
+          ids.add(changed.id + ":" + changed.dataVersion);
+          lastSequence = result.getLong(8);
+        }
+      }
+      lastSequences.add(lastSequence);
+    }
+    delegate.complete();
+
+    assertEquals(Arrays.asList("234:1", "345:1", "123:2"), ids);
+    assertTrue(lastSequences.get(0) < lastSequences.get(1));
+    assertEquals(lastSequences.get(1), lastSequences.get(2));
+  }
+
+  @Test
+  public void testThatChangesOfDelayedCommitsAreNotSkipped() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    configuration.usingStateChanges(true);
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+    final HSQLDBStorageDelegate laterWriter = (HSQLDBStorageDelegate) delegate.copy();
+    final HSQLDBStorageDelegate reader = (HSQLDBStorageDelegate) delegate.copy();
+
+    // the first change is written before the second but committed after it and after a read
+    delegate.beginWrite();
+    final PreparedStatement delayedStatement = delegate.writeExpressionFor(entity1StoreName, new TextState("123", Entity1.class, 1, "data1", 1, Metadata.with("value", "op")));
+    delayedStatement.executeUpdate();
+
+    final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+    final long[] lastSequence = { 0 };
+    final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+    final Thread later = new Thread(() -> {
+      try {
+        writeChange(laterWriter, "234");
+      } catch (final Exception e) {
+        failures.add(e);
+      }
+    });
+    final Thread earlyRead = new Thread(() -> {
+      try {
+        readChanges(reader, ids, lastSequence);
+      } catch (final Exception e) {
+        failures.add(e);
+      }
+    });
+    later.start();
+    Thread.sleep(200);
+    earlyRead.start();
+    Thread.sleep(300);
+    delegate.complete();
+    later.join(5_000);
+    earlyRead.join(5_000);
+
+    readChanges(reader, ids, lastSequence);
+    laterWriter.close();
+    reader.close();
+
+    assertTrue(failures.isEmpty());
+    Collections.sort(ids);
+    assertEquals(Arrays.asList("123", "234"), ids);
+  }
+
+  @Test
+  public void testThatDispatchableMetadataRoundTrips() throws Exception {
+    configuration = testConfiguration(DataFormat.Text);
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    final TextState withoutObject = new TextState("123", Entity1.class, 1, "data1", 1, Metadata.with("value", "op"));
+    final TextState withObject = new TextState("234", Entity1.class, 1, "data2", 1, Metadata.with(new Entity1("234", 2), "value", "op"));
+
+    delegate.beginWrite();
+    final PreparedStatement dispatchableStatement1 = delegate.dispatchableWriteExpressionFor(new Dispatchable<>("1", LocalDateTime.now(), withoutObject, Collections.emptyList()));
+    dispatchableStatement1.executeUpdate();
+    final PreparedStatement dispatchableStatement2 = delegate.dispatchableWriteExpressionFor(new Dispatchable<>("2", LocalDateTime.now(), withObject, Collections.emptyList()));
+    dispatchableStatement2.executeUpdate();
+    delegate.complete();
+
+    final Map<String, State<?>> states = new HashMap<>();
+    for (final Dispatchable<Entry<?>, State<?>> dispatchable : delegate.allUnconfirmedDispatchableStates()) {
+      states.put(dispatchable.id(), dispatchable.typedState());
+    }
+
+    assertFalse(states.get("1").metadata.hasObject());
+    assertEquals("value", states.get("1").metadata.value);
+    assertEquals(2, ((Entity1) states.get("2").metadata.object).value);
+  }
+
+  @Test
+  public void testThatStatesExportAndImportInBothFileFormats() throws Exception {
+    configuration = testConfiguration(DataFormat.Binary);
+    delegate = new HSQLDBStorageDelegate(configuration, world.defaultLogger());
+
+    delegate.beginWrite();
+    for (int index = 0; index < 250; ++index) {
+      final byte[] data = ("data\t\n" + index).getBytes();
+      final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, new BinaryState(String.format("%04d", index), Entity1.class, 1, data, 1 + index % 3, Metadata.with("value", "op")));
+      writeStatement.executeUpdate();
+    }
+    delegate.complete();
+
+    for (final FileFormat fileFormat : FileFormat.values()) {
+      final Path file = Files.createTempFile("states", "." + fileFormat.name().toLowerCase());
+      final TestConfiguration importConfiguration = testConfiguration(DataFormat.Binary, "importdb" + fileFormat.name());
+      final HSQLDBStorageDelegate importDelegate = new HSQLDBStorageDelegate(importConfiguration, world.defaultLogger());
+      try {
+        assertEquals(250, new BulkStateTransfer(delegate, fileFormat).exportTo(Entity1.class, file, 100));
+        assertEquals(250, new BulkStateTransfer(importDelegate, fileFormat).importFrom(Entity1.class, file, 64));
+        // the same versions are not imported again
+        assertEquals(0, new BulkStateTransfer(importDelegate, fileFormat).importFrom(Entity1.class, file, 64));
+
+        importDelegate.beginRead();
+        final PreparedStatement readStatement = importDelegate.readExpressionFor(entity1StoreName, "0142");
+        try (final ResultSet result = readStatement.executeQuery()) {
+          final BinaryState state = importDelegate.stateFrom(result, "0142");
+          assertArrayEquals(("data\t\n" + 142).getBytes(), state.data);
+          assertEquals(1 + 142 % 3, state.dataVersion);
+          assertEquals("value", state.metadata.value);
+        }
+        importDelegate.complete();
+      } finally {
+        importConfiguration.cleanUp();
+        importDelegate.close();
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private void writeChange(final HSQLDBStorageDelegate writer, final String id) throws Exception {
+    writer.beginWrite();
+    final PreparedStatement writeStatement = writer.writeExpressionFor(entity1StoreName, new TextState(id, Entity1.class, 1, "data1", 1, Metadata.with("value", "op")));
+    writeStatement.executeUpdate();
+    writer.complete();
+  }
+
+  private void readChanges(final HSQLDBStorageDelegate reader, final List<String> ids, final long[] lastSequence) throws Exception {
+    reader.beginRead();
+    final PreparedStatement changesStatement = reader.readChangesExpressionFor(entity1StoreName, lastSequence[0], 10);
+    try (final ResultSet result = changesStatement.executeQuery()) {
+      while (result.next()) {
+        ids.add(result.getString(7));
+        lastSequence[0] = result.getLong(8);
+      }
+    }
+    reader.complete();
+  }
+
   @Before
   public void setUp() {
     world = World.startWithDefaults("test-store");
@@ -7,18 +7,70 @@
 
 package io.vlingo.symbio.store.state.jdbc.postgres;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import io.vlingo.actors.testkit.AccessSafely;
 import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.Result;
 import io.vlingo.symbio.store.common.jdbc.Configuration.TestConfiguration;
 import io.vlingo.symbio.store.common.jdbc.postgres.PostgresConfigurationProvider;
 import io.vlingo.symbio.store.state.StateStore.StorageDelegate;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.ReadBundle;
+import io.vlingo.symbio.store.state.jdbc.JDBCStateStore.StateToWrite;
 import io.vlingo.symbio.store.state.jdbc.JDBCStateStoreActorTest;
+import io.vlingo.symbio.store.state.jdbc.JsonQuery;
+import io.vlingo.symbio.store.state.jdbc.MockReadAllResultInterest;
 
 public class PostgresJDBCStateStoreActorTest extends JDBCStateStoreActorTest {
 
+    @Test
+    public void testThatJsonQueriesMatch() {
+        final AccessSafely accessInterest = interest.afterCompleting(6);
+        dispatcher.afterCompleting(6);
+
+        final Entity1 entity1 = new Entity1("123", 1);
+        final Entity1 entity2 = new Entity1("234", 2);
+        final Entity1 entity3 = new Entity1("345", 2);
+        store.writeAll(Arrays.asList(
+                StateToWrite.with(entity1.id, entity1, 1),
+                StateToWrite.with(entity2.id, entity2, 1),
+                StateToWrite.with(entity3.id, entity3, 1)),
+                interest);
+
+        assertEquals(3, (int) accessInterest.readFrom("writeTextResultedIn"));
+
+        final MockReadAllResultInterest attributeInterest = new MockReadAllResultInterest();
+        final AccessSafely accessAttribute = attributeInterest.afterCompleting(1);
+        store.readAllMatching(Entity1.class, JsonQuery.attributeEquals("value", "2"), attributeInterest);
+
+        assertEquals(Result.Success, accessAttribute.readFrom("result"));
+        final Map<String, ReadBundle<?>> attributeBundles = accessAttribute.readFrom("bundles");
+        assertEquals(Arrays.asList("234", "345"), new ArrayList<>(new TreeSet<>(attributeBundles.keySet())));
+
+        final MockReadAllResultInterest containingInterest = new MockReadAllResultInterest();
+        final AccessSafely accessContaining = containingInterest.afterCompleting(1);
+        store.readAllMatching(Entity1.class, JsonQuery.containing("{\"id\":\"123\"}"), containingInterest);
+
+        assertEquals(Result.Success, accessContaining.readFrom("result"));
+        final Map<String, ReadBundle<?>> containingBundles = accessContaining.readFrom("bundles");
+        assertEquals(1, containingBundles.size());
+        assertEquals(entity1.value, ((Entity1) containingBundles.get("123").state).value);
+    }
+
     @Override
     protected StorageDelegate delegate() throws Exception {
         System.out.println("Starting: PostgresJDBCTextStateStoreActorTest: delegate()");
-        return new PostgresStorageDelegate(configuration, world.defaultLogger());
+        return new PostgresStorageDelegate(configuration, true,
+                Arrays.asList(PostgresJsonIndex.ginPathOps(Entity1.class), PostgresJsonIndex.attribute(Entity1.class, "value")),
+                world.defaultLogger());
     }
 
     @Override
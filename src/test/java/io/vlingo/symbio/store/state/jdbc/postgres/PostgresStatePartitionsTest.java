@@ -0,0 +1,76 @@
+// Copyright © 2012-2020 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.symbio.store.state.jdbc.postgres;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.actors.World;
+import io.vlingo.symbio.store.DataFormat;
+import io.vlingo.symbio.store.common.jdbc.DatabaseType;
+import io.vlingo.symbio.store.state.Entity1;
+import io.vlingo.symbio.store.state.StateTypeStateStoreMap;
+import io.vlingo.symbio.store.state.jdbc.SqlRecordingConfiguration;
+
+public class PostgresStatePartitionsTest {
+  private World world;
+
+  @Test
+  public void testThatPartitionedStateTableIsCreated() throws Exception {
+    final SqlRecordingConfiguration configuration = new SqlRecordingConfiguration(DatabaseType.Postgres, "org.postgresql.Driver", DataFormat.Text);
+    configuration.usingStatePartitions(4);
+
+    new PostgresStorageDelegate(configuration, world.defaultLogger());
+
+    final List<String> ddl = stateTableStatementsOf(configuration);
+    assertEquals(5, ddl.size());
+    assertTrue(ddl.get(0).startsWith("CREATE TABLE tbl_entity1 ("));
+    assertTrue(ddl.get(0).endsWith(") PARTITION BY HASH (s_id);"));
+    for (int partition = 0; partition < 4; ++partition) {
+      assertEquals("CREATE TABLE tbl_entity1_p" + partition + " PARTITION OF tbl_entity1 \n" +
+              "FOR VALUES WITH (MODULUS 4, REMAINDER " + partition + ");", ddl.get(partition + 1));
+    }
+  }
+
+  @Test
+  public void testThatUnpartitionedStateTableIsCreated() throws Exception {
+    final SqlRecordingConfiguration configuration = new SqlRecordingConfiguration(DatabaseType.Postgres, "org.postgresql.Driver", DataFormat.Text);
+
+    new PostgresStorageDelegate(configuration, world.defaultLogger());
+
+    final List<String> ddl = stateTableStatementsOf(configuration);
+    assertEquals(1, ddl.size());
+    assertTrue(ddl.get(0).startsWith("CREATE TABLE tbl_entity1 ("));
+    assertFalse(ddl.get(0).contains("PARTITION"));
+  }
+
+  @Before
+  public void setUp() {
+    world = World.startWithDefaults("test-store");
+    StateTypeStateStoreMap.stateTypeToStoreName(Entity1.class, Entity1.class.getSimpleName());
+  }
+
+  @After
+  public void tearDown() {
+    world.terminate();
+  }
+
+  private List<String> stateTableStatementsOf(final SqlRecordingConfiguration configuration) {
+    return configuration.recorded().stream()
+            .filter(sql -> sql.startsWith("CREATE TABLE tbl_entity1"))
+            .collect(Collectors.toList());
+  }
+}
@@ -7,15 +7,91 @@
 
 package io.vlingo.symbio.store.state.jdbc.postgres;
 
+import static org.junit.Assert.assertEquals;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+
 import io.vlingo.actors.Logger;
+import io.vlingo.symbio.Metadata;
+import io.vlingo.symbio.State.TextState;
 import io.vlingo.symbio.store.DataFormat;
 import io.vlingo.symbio.store.common.jdbc.Configuration;
+import io.vlingo.symbio.store.common.jdbc.StateExpiry;
 import io.vlingo.symbio.store.common.jdbc.postgres.PostgresConfigurationProvider;
+import io.vlingo.symbio.store.state.Entity1;
 import io.vlingo.symbio.store.state.jdbc.JDBCStorageDelegate;
+import io.vlingo.symbio.store.state.jdbc.JsonQuery;
 import io.vlingo.symbio.store.state.jdbc.JDBCStorageDelegateTest;
 
 public class PostgresStorageDelegateTest extends JDBCStorageDelegateTest {
 
+    @Test
+    public void testThatPartitionedStatesWriteAndRead() throws Exception {
+        configuration = testConfiguration(DataFormat.Text);
+        configuration.usingStatePartitions(4);
+        delegate = storageDelegate(configuration, world.defaultLogger());
+
+        final TextState writeState = new TextState("123", Entity1.class, 1, "{ \"value\" : \"1\" }", 1, Metadata.with("value", "op"));
+
+        delegate.beginWrite();
+        final PreparedStatement writeStatement = delegate.writeExpressionFor(entity1StoreName, writeState);
+        writeStatement.executeUpdate();
+        delegate.complete();
+
+        delegate.beginRead();
+        final PreparedStatement readStatement = delegate.readExpressionFor(entity1StoreName, "123");
+        final TextState readState = delegate.stateFrom(readStatement.executeQuery(), "123");
+        final int partitionCount;
+        try (final Statement statement = configuration.connection.createStatement();
+             final ResultSet partitions = statement.executeQuery("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'tbl_entity1'::regclass")) {
+            partitions.next();
+            partitionCount = partitions.getInt(1);
+        }
+        delegate.complete();
+
+        assertEquals(writeState, readState);
+        assertEquals(4, partitionCount);
+    }
+
+    @Test
+    public void testThatJsonQueriesAndCountsOmitExpiredStates() throws Exception {
+        configuration = testConfiguration(DataFormat.Text);
+        configuration.usingStateExpiry(StateExpiry.after(Entity1.class, 60_000L));
+        delegate = storageDelegate(configuration, world.defaultLogger());
+
+        final long now = System.currentTimeMillis();
+        final TextState expired = new TextState("123", Entity1.class, 1, "{ \"value\" : \"1\" }", 1, Metadata.with(StateExpiry.At.of(now - 1_000L), "value", "op"));
+        final TextState living = new TextState("234", Entity1.class, 1, "{ \"value\" : \"1\" }", 1, Metadata.with("value", "op"));
+
+        delegate.beginWrite();
+        final PreparedStatement writeStatement1 = delegate.writeExpressionFor(entity1StoreName, expired);
+        writeStatement1.executeUpdate();
+        final PreparedStatement writeStatement2 = delegate.writeExpressionFor(entity1StoreName, living);
+        writeStatement2.executeUpdate();
+        delegate.complete();
+
+        delegate.beginRead();
+        final PreparedStatement queryStatement = delegate.queryExpressionFor(entity1StoreName, JsonQuery.attributeEquals("value", "1"));
+        final ResultSet queryResult = queryStatement.executeQuery();
+        int matched = 0;
+        while (queryResult.next()) {
+            assertEquals("234", queryResult.getString(7));
+            ++matched;
+        }
+        final PreparedStatement countStatement = delegate.countExpressionFor(entity1StoreName);
+        final ResultSet countResult = countStatement.executeQuery();
+        countResult.next();
+        final long count = countResult.getLong(1);
+        delegate.complete();
+
+        assertEquals(1, matched);
+        assertEquals(1L, count);
+    }
+
     @Override
     protected JDBCStorageDelegate<Object> storageDelegate(Configuration.TestConfiguration configuration, Logger logger) {
         return new PostgresStorageDelegate(configuration, logger);